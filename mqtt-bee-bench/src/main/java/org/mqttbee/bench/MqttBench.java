@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.bench;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Command line entry point of the load generator.
+ * <p>
+ * Usage:
+ * {@code mqtt-bee-bench <scenario.yaml> [--host <host>] [--port <port>] [--transport <tcp|websocket>]
+ * [--histogram <file>]}
+ * <p>
+ * {@code --host}, {@code --port} and {@code --transport} override the broker address and transport of the scenario, so
+ * the same scenario can be run over TCP and WebSockets to compare their throughput. {@code --histogram} writes the
+ * latency percentile distribution (in microseconds) to the given file.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttBench {
+
+    private MqttBench() {
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("usage: mqtt-bee-bench <scenario.yaml> [--host <host>] [--port <port>] " +
+                    "[--transport <tcp|websocket>] [--histogram <file>]");
+            System.exit(1);
+        }
+
+        final MqttBenchScenario.Builder scenarioBuilder = MqttBenchScenario.builder();
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            scenarioBuilder.yaml(reader);
+        }
+        String histogramFile = null;
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--host":
+                    scenarioBuilder.serverHost(args[i + 1]);
+                    break;
+                case "--port":
+                    scenarioBuilder.serverPort(Integer.parseInt(args[i + 1]));
+                    break;
+                case "--transport":
+                    scenarioBuilder.transport(args[i + 1]);
+                    break;
+                case "--histogram":
+                    histogramFile = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        final MqttBenchResult result = new MqttBenchRunner(scenarioBuilder.build(), System.out).run();
+        result.print(System.out);
+        if (histogramFile != null) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(histogramFile), false, "UTF-8")) {
+                result.printLatencyDistribution(out);
+            }
+        }
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.bench;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientBuilder;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt3.Mqtt3Client;
+import org.mqttbee.api.mqtt.mqtt3.message.publish.Mqtt3Publish;
+import org.mqttbee.api.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
+import org.mqttbee.api.mqtt.mqtt3.message.subscribe.Mqtt3Subscription;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Common view of a {@link Mqtt5Client} or {@link Mqtt3Client} for the load generator, so that scenarios run
+ * unchanged with both MQTT versions.
+ *
+ * @author Silvio Giebl
+ */
+interface MqttBenchClient {
+
+    @NotNull
+    static MqttBenchClient create(@NotNull final MqttBenchScenario scenario, @NotNull final String identifier) {
+        final MqttClientBuilder builder = MqttClient.builder()
+                .identifier(identifier)
+                .serverHost(scenario.getServerHost())
+                .serverPort(scenario.getServerPort());
+        if (scenario.getTransport() == MqttBenchScenario.Transport.WEBSOCKET) {
+            builder.useWebSocket().serverPath(scenario.getWebSocketPath()).done();
+        }
+        switch (scenario.getMqttVersion()) {
+            case MQTT_5_0:
+                return new Mqtt5BenchClient(builder.useMqttVersion5().buildReactive());
+            case MQTT_3_1_1:
+                return new Mqtt3BenchClient(builder.useMqttVersion3().buildReactive());
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    @NotNull
+    Completable connect();
+
+    @NotNull
+    Completable subscribe(@NotNull String topicFilter);
+
+    /**
+     * @return the payloads of all publishes received for the subscriptions of this client.
+     */
+    @NotNull
+    Flowable<ByteBuffer> receivedPayloads();
+
+    /**
+     * @param publishes the publishes to send.
+     * @return the {@link Flowable} which emits for every acknowledged (QoS 1 and 2) or sent (QoS 0) publish.
+     */
+    @NotNull
+    Flowable<?> publish(@NotNull Flowable<Publish> publishes);
+
+    @NotNull
+    Completable disconnect();
+
+    class Publish {
+
+        final String topic;
+        final MqttQos qos;
+        final ByteBuffer payload;
+
+        Publish(@NotNull final String topic, @NotNull final MqttQos qos, @NotNull final ByteBuffer payload) {
+            this.topic = topic;
+            this.qos = qos;
+            this.payload = payload;
+        }
+
+    }
+
+    class Mqtt5BenchClient implements MqttBenchClient {
+
+        private final Mqtt5Client client;
+
+        Mqtt5BenchClient(@NotNull final Mqtt5Client client) {
+            this.client = client;
+        }
+
+        @NotNull
+        @Override
+        public Completable connect() {
+            return client.connect().done().toCompletable();
+        }
+
+        @NotNull
+        @Override
+        public Completable subscribe(@NotNull final String topicFilter) {
+            return client.subscribe(Mqtt5Subscribe.builder()
+                    .addSubscription(
+                            Mqtt5Subscription.builder().topicFilter(topicFilter).qos(MqttQos.EXACTLY_ONCE).build())
+                    .build()).toCompletable();
+        }
+
+        @NotNull
+        @Override
+        public Flowable<ByteBuffer> receivedPayloads() {
+            return client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS)
+                    .filter(publish -> publish.getPayload().isPresent())
+                    .map(publish -> publish.getPayload().get());
+        }
+
+        @NotNull
+        @Override
+        public Flowable<?> publish(@NotNull final Flowable<Publish> publishes) {
+            return client.publish(publishes.map(publish -> Mqtt5Publish.builder()
+                    .topic(publish.topic)
+                    .qos(publish.qos)
+                    .payload(publish.payload)
+                    .build()));
+        }
+
+        @NotNull
+        @Override
+        public Completable disconnect() {
+            return client.disconnect().done();
+        }
+
+    }
+
+    class Mqtt3BenchClient implements MqttBenchClient {
+
+        private final Mqtt3Client client;
+
+        Mqtt3BenchClient(@NotNull final Mqtt3Client client) {
+            this.client = client;
+        }
+
+        @NotNull
+        @Override
+        public Completable connect() {
+            return client.connect().done().toCompletable();
+        }
+
+        @NotNull
+        @Override
+        public Completable subscribe(@NotNull final String topicFilter) {
+            return client.subscribe(Mqtt3Subscribe.builder()
+                    .addSubscription(
+                            Mqtt3Subscription.builder().topicFilter(topicFilter).qos(MqttQos.EXACTLY_ONCE).build())
+                    .build()).toCompletable();
+        }
+
+        @NotNull
+        @Override
+        public Flowable<ByteBuffer> receivedPayloads() {
+            return client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS)
+                    .filter(publish -> publish.getPayload().isPresent())
+                    .map(publish -> publish.getPayload().get());
+        }
+
+        @NotNull
+        @Override
+        public Flowable<?> publish(@NotNull final Flowable<Publish> publishes) {
+            return client.publish(publishes.map(publish -> Mqtt3Publish.builder()
+                    .topic(publish.topic)
+                    .qos(publish.qos)
+                    .payload(publish.payload)
+                    .build()));
+        }
+
+        @NotNull
+        @Override
+        public Completable disconnect() {
+            return client.disconnect();
+        }
+
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.bench;
+
+import org.HdrHistogram.Histogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+
+/**
+ * Result of a {@link MqttBenchRunner} run.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttBenchResult {
+
+    private final MqttBenchScenario scenario;
+    private final long elapsedNanos;
+    private final long sent;
+    private final long acknowledged;
+    private final long received;
+    private final long dropped;
+    private final long errors;
+    private final Histogram latencyMicros;
+    private final long heapPerClient;
+
+    MqttBenchResult(
+            @NotNull final MqttBenchScenario scenario, final long elapsedNanos, final long sent,
+            final long acknowledged, final long received, final long dropped, final long errors,
+            @NotNull final Histogram latencyMicros, final long heapPerClient) {
+
+        this.scenario = scenario;
+        this.elapsedNanos = elapsedNanos;
+        this.sent = sent;
+        this.acknowledged = acknowledged;
+        this.received = received;
+        this.dropped = dropped;
+        this.errors = errors;
+        this.latencyMicros = latencyMicros;
+        this.heapPerClient = heapPerClient;
+    }
+
+    @NotNull
+    public MqttBenchScenario getScenario() {
+        return scenario;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getAcknowledged() {
+        return acknowledged;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return the count of publishes which were not sent because the client applied backpressure at the configured
+     * rate.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the histogram of the publish-to-receive latencies in microseconds.
+     */
+    @NotNull
+    public Histogram getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    /**
+     * @return the heap used per connected client in bytes.
+     */
+    public long getHeapPerClient() {
+        return heapPerClient;
+    }
+
+    public void print(@NotNull final PrintStream out) {
+        final double seconds = elapsedNanos / 1e9;
+        out.println();
+        out.printf("duration:         %.1f s%n", seconds);
+        out.printf("sent:             %d (%.0f/s)%n", sent, sent / seconds);
+        out.printf("acknowledged:     %d (%.0f/s)%n", acknowledged, acknowledged / seconds);
+        out.printf("received:         %d (%.0f/s)%n", received, received / seconds);
+        out.printf("dropped:          %d%n", dropped);
+        out.printf("errors:           %d%n", errors);
+        out.printf("heap per client:  %d bytes%n", heapPerClient);
+        out.printf("latency (us):     p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n",
+                latencyMicros.getValueAtPercentile(50), latencyMicros.getValueAtPercentile(90),
+                latencyMicros.getValueAtPercentile(99), latencyMicros.getValueAtPercentile(99.9),
+                latencyMicros.getMaxValue());
+    }
+
+    /**
+     * Writes the latency percentile distribution in the HdrHistogram text format, which can be plotted and compared
+     * across runs, for example with the HdrHistogram plotter.
+     *
+     * @param out the stream to write to.
+     */
+    public void printLatencyDistribution(@NotNull final PrintStream out) {
+        latencyMicros.outputPercentileDistribution(out, 1.0);
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.bench;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a {@link MqttBenchScenario}.
+ * <p>
+ * All clients are connected first, evenly spread over the ramp-up time. The heap used per client is measured after
+ * all clients are connected. Then the publishers publish for the duration of the scenario. The payload of every
+ * publish starts with its send timestamp, so the subscribers can record the publish-to-receive latency.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttBenchRunner {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long CONNECT_TIMEOUT_SECONDS = 60;
+
+    private final MqttBenchScenario scenario;
+    private final PrintStream out;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Recorder latencyRecorder = new Recorder(3);
+
+    public MqttBenchRunner(@NotNull final MqttBenchScenario scenario, @NotNull final PrintStream out) {
+        this.scenario = scenario;
+        this.out = out;
+    }
+
+    @NotNull
+    public MqttBenchResult run() throws InterruptedException {
+        out.println("scenario: " + scenario);
+
+        final long heapBefore = usedHeap();
+        final List<MqttBenchClient> subscribers = createClients("sub-", scenario.getSubscribers());
+        final List<MqttBenchClient> publishers = createClients("pub-", scenario.getPublishers());
+        final int clientCount = subscribers.size() + publishers.size();
+
+        final CompositeDisposable disposables = new CompositeDisposable();
+        final List<Completable> connects = new ArrayList<>(clientCount);
+        for (int i = 0; i < subscribers.size(); i++) {
+            final MqttBenchClient subscriber = subscribers.get(i);
+            final Completable subscribe = subscriber.connect()
+                    .andThen(Completable.fromAction(() -> disposables.add(
+                            subscriber.receivedPayloads().subscribe(this::onReceived, e -> errors.increment()))))
+                    .andThen(subscriber.subscribe(scenario.getTopic(i)));
+            connects.add(delayed(subscribe, i, clientCount));
+        }
+        for (int i = 0; i < publishers.size(); i++) {
+            connects.add(delayed(publishers.get(i).connect(), subscribers.size() + i, clientCount));
+        }
+        if (!Completable.merge(connects).blockingAwait(
+                TimeUnit.NANOSECONDS.toSeconds(scenario.getRampUpNanos()) + CONNECT_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS)) {
+            throw new IllegalStateException("clients did not connect in time");
+        }
+        final long heapPerClient = (clientCount == 0) ? 0 : (usedHeap() - heapBefore) / clientCount;
+        out.println("connected " + clientCount + " clients, heap per client: " + heapPerClient + " bytes");
+
+        final PublishProcessor<Object> stop = PublishProcessor.create();
+        for (int i = 0; i < publishers.size(); i++) {
+            final String topic = scenario.getTopic(i);
+            disposables.add(publishers.get(i)
+                    .publish(publishes(topic).takeUntil(stop))
+                    .subscribe(result -> acknowledged.increment(), e -> errors.increment()));
+        }
+
+        final Histogram latency = new Histogram(3);
+        final long start = System.nanoTime();
+        final long end = start + scenario.getDurationNanos();
+        long lastReport = start;
+        long lastAcknowledged = 0;
+        long lastReceived = 0;
+        while (true) {
+            final long now = System.nanoTime();
+            final long sleepNanos = Math.min(lastReport + REPORT_INTERVAL_NANOS, end) - now;
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+            final long reportTime = System.nanoTime();
+            final Histogram interval = latencyRecorder.getIntervalHistogram();
+            latency.add(interval);
+            final long currentAcknowledged = acknowledged.sum();
+            final long currentReceived = received.sum();
+            final double seconds = (reportTime - lastReport) / 1e9;
+            out.printf("%6.1fs  acked %9.0f/s  received %9.0f/s  latency p50 %7dus  p99 %7dus  max %7dus%n",
+                    (reportTime - start) / 1e9, (currentAcknowledged - lastAcknowledged) / seconds,
+                    (currentReceived - lastReceived) / seconds, interval.getValueAtPercentile(50),
+                    interval.getValueAtPercentile(99), interval.getMaxValue());
+            lastReport = reportTime;
+            lastAcknowledged = currentAcknowledged;
+            lastReceived = currentReceived;
+            if (reportTime >= end) {
+                break;
+            }
+        }
+        stop.onNext(Boolean.TRUE);
+        final long elapsedNanos = System.nanoTime() - start;
+
+        final List<Completable> disconnects = new ArrayList<>(clientCount);
+        for (final MqttBenchClient client : publishers) {
+            disconnects.add(client.disconnect().onErrorComplete());
+        }
+        for (final MqttBenchClient client : subscribers) {
+            disconnects.add(client.disconnect().onErrorComplete());
+        }
+        Completable.merge(disconnects).blockingAwait(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        disposables.dispose();
+        latency.add(latencyRecorder.getIntervalHistogram());
+
+        return new MqttBenchResult(scenario, elapsedNanos, sent.sum(), acknowledged.sum(), received.sum(),
+                dropped.sum(), errors.sum(), latency, heapPerClient);
+    }
+
+    @NotNull
+    private List<MqttBenchClient> createClients(@NotNull final String prefix, final int count) {
+        final String runId = Long.toString(System.currentTimeMillis(), 36);
+        final List<MqttBenchClient> clients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            clients.add(MqttBenchClient.create(scenario, prefix + runId + "-" + i));
+        }
+        return clients;
+    }
+
+    @NotNull
+    private Completable delayed(@NotNull final Completable connect, final int index, final int count) {
+        final long delayNanos = scenario.getRampUpNanos() * index / count;
+        return (delayNanos == 0) ? connect : connect.delaySubscription(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @NotNull
+    private Flowable<MqttBenchClient.Publish> publishes(@NotNull final String topic) {
+        final Flowable<Long> ticks;
+        if (scenario.getRate() == 0) {
+            ticks = Flowable.generate(emitter -> emitter.onNext(0L));
+        } else {
+            ticks = Flowable.interval(TimeUnit.SECONDS.toNanos(1) / scenario.getRate(), TimeUnit.NANOSECONDS,
+                    Schedulers.computation()).onBackpressureDrop(tick -> dropped.increment());
+        }
+        return ticks.map(tick -> {
+            final ByteBuffer payload = ByteBuffer.allocate(scenario.nextPayloadSize());
+            payload.putLong(0, System.nanoTime());
+            sent.increment();
+            return new MqttBenchClient.Publish(topic, scenario.nextQos(), payload);
+        });
+    }
+
+    private void onReceived(@NotNull final ByteBuffer payload) {
+        received.increment();
+        if (payload.remaining() >= MqttBenchScenario.MINIMUM_PAYLOAD_SIZE) {
+            final long latencyNanos = System.nanoTime() - payload.getLong(payload.position());
+            latencyRecorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        }
+    }
+
+    private static long usedHeap() {
+        final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,564 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.bench;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.mqtt.MqttVersion;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Description of a load scenario: which broker to use, how many publishing and subscribing clients to create, how
+ * they are spread over topics and what they publish at which rate.
+ * <p>
+ * Scenarios are either built with {@link #builder()} or read from a YAML file with {@link #fromYaml(Reader)}, for
+ * example:
+ * <pre>
+ * host: localhost
+ * port: 1883
+ * mqttVersion: 5
+ * transport: tcp       # or websocket, to compare both against the same broker
+ * webSocketPath: mqtt  # server path of the WebSocket endpoint, only used with transport websocket
+ * publishers: 100
+ * subscribers: 1000
+ * topics: 10            # subscribers are spread evenly over the topics, fan-out = subscribers / topics
+ * qos: {0: 50, 1: 30, 2: 20}
+ * payloadSize: {min: 64, max: 1024}
+ * rate: 10              # publishes per second per publisher, 0 = as fast as flow control allows
+ * rampUp: 10s           # clients connect evenly spread over this time
+ * duration: 60s
+ * </pre>
+ *
+ * @author Silvio Giebl
+ */
+public class MqttBenchScenario {
+
+    /**
+     * Publish payloads start with the send timestamp, so they can not be smaller than this.
+     */
+    public static final int MINIMUM_PAYLOAD_SIZE = 8;
+
+    private static final Pattern DURATION_PATTERN = Pattern.compile("(\\d+)\\s*(ms|s|m|h)?");
+
+    @NotNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads a scenario from a YAML document. Keys which are not present keep the defaults of {@link Builder}.
+     *
+     * @param reader the reader of the YAML document.
+     * @return the scenario.
+     * @throws IllegalArgumentException if the document contains unknown keys or invalid values.
+     */
+    @NotNull
+    public static MqttBenchScenario fromYaml(@NotNull final Reader reader) {
+        return builder().yaml(reader).build();
+    }
+
+    private static int toInt(@NotNull final String key, final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(String.valueOf(value).trim());
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number, but was " + value);
+        }
+    }
+
+    @NotNull
+    private static Map<?, ?> toMap(@NotNull final String key, final Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException(key + " must be a mapping, but was " + value);
+        }
+        return (Map<?, ?>) value;
+    }
+
+    @NotNull
+    private static MqttVersion toMqttVersion(final Object value) {
+        switch (String.valueOf(value).trim()) {
+            case "3":
+            case "3.1.1":
+                return MqttVersion.MQTT_3_1_1;
+            case "5":
+            case "5.0":
+                return MqttVersion.MQTT_5_0;
+            default:
+                throw new IllegalArgumentException("unknown MQTT version: " + value);
+        }
+    }
+
+    @NotNull
+    private static Transport toTransport(final Object value) {
+        switch (String.valueOf(value).trim().toLowerCase()) {
+            case "tcp":
+                return Transport.TCP;
+            case "websocket":
+            case "ws":
+                return Transport.WEBSOCKET;
+            default:
+                throw new IllegalArgumentException("unknown transport: " + value);
+        }
+    }
+
+    private static long toNanos(@NotNull final String key, final Object value) {
+        final Matcher matcher = DURATION_PATTERN.matcher(String.valueOf(value).trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(key + " must be a duration like 500ms, 10s, 5m or 1h, but was " + value);
+        }
+        final long amount = Long.parseLong(matcher.group(1));
+        final String unit = matcher.group(2);
+        if (unit == null || unit.equals("s")) {
+            return TimeUnit.SECONDS.toNanos(amount);
+        }
+        switch (unit) {
+            case "ms":
+                return TimeUnit.MILLISECONDS.toNanos(amount);
+            case "m":
+                return TimeUnit.MINUTES.toNanos(amount);
+            default:
+                return TimeUnit.HOURS.toNanos(amount);
+        }
+    }
+
+    private final String serverHost;
+    private final int serverPort;
+    private final MqttVersion mqttVersion;
+    private final Transport transport;
+    private final String webSocketPath;
+    private final int publishers;
+    private final int subscribers;
+    private final int topics;
+    private final String topicPrefix;
+    private final int[] qosWeights;
+    private final int qosWeightSum;
+    private final int minPayloadSize;
+    private final int maxPayloadSize;
+    private final int rate;
+    private final long rampUpNanos;
+    private final long durationNanos;
+
+    private MqttBenchScenario(@NotNull final Builder builder) {
+        serverHost = builder.serverHost;
+        serverPort = builder.serverPort;
+        mqttVersion = builder.mqttVersion;
+        transport = builder.transport;
+        webSocketPath = builder.webSocketPath;
+        publishers = builder.publishers;
+        subscribers = builder.subscribers;
+        topics = builder.topics;
+        topicPrefix = builder.topicPrefix;
+        qosWeights = builder.getQosWeights();
+        qosWeightSum = Arrays.stream(qosWeights).sum();
+        minPayloadSize = builder.minPayloadSize;
+        maxPayloadSize = builder.maxPayloadSize;
+        rate = builder.rate;
+        rampUpNanos = builder.rampUpNanos;
+        durationNanos = builder.durationNanos;
+    }
+
+    @NotNull
+    public String getServerHost() {
+        return serverHost;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    @NotNull
+    public MqttVersion getMqttVersion() {
+        return mqttVersion;
+    }
+
+    @NotNull
+    public Transport getTransport() {
+        return transport;
+    }
+
+    @NotNull
+    public String getWebSocketPath() {
+        return webSocketPath;
+    }
+
+    public int getPublishers() {
+        return publishers;
+    }
+
+    public int getSubscribers() {
+        return subscribers;
+    }
+
+    public int getTopics() {
+        return topics;
+    }
+
+    /**
+     * @param index the index of the topic.
+     * @return the name of the topic with the given index.
+     */
+    @NotNull
+    public String getTopic(final int index) {
+        return topicPrefix + "/" + (index % topics);
+    }
+
+    /**
+     * @param qos the QoS.
+     * @return the relative weight of publishes with the given QoS.
+     */
+    public int getQosWeight(@NotNull final MqttQos qos) {
+        return qosWeights[qos.getCode()];
+    }
+
+    /**
+     * @return a random QoS according to the QoS weights.
+     */
+    @NotNull
+    public MqttQos nextQos() {
+        int random = ThreadLocalRandom.current().nextInt(qosWeightSum);
+        for (int i = 0; i < qosWeights.length; i++) {
+            random -= qosWeights[i];
+            if (random < 0) {
+                return MqttQos.values()[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    public int getMinPayloadSize() {
+        return minPayloadSize;
+    }
+
+    public int getMaxPayloadSize() {
+        return maxPayloadSize;
+    }
+
+    /**
+     * @return a random payload size uniformly distributed between the minimum and the maximum payload size.
+     */
+    public int nextPayloadSize() {
+        return (minPayloadSize == maxPayloadSize) ? minPayloadSize :
+                ThreadLocalRandom.current().nextInt(minPayloadSize, maxPayloadSize + 1);
+    }
+
+    /**
+     * @return the publishes per second per publisher, 0 if publishers publish as fast as flow control allows.
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    public long getRampUpNanos() {
+        return rampUpNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "broker " + serverHost + ":" + serverPort + " (" + mqttVersion + " over " + transport + "), " +
+                publishers + " publishers, " + subscribers + " subscribers on " + topics + " topics, QoS weights " +
+                Arrays.toString(qosWeights) + ", payload " + minPayloadSize + "-" + maxPayloadSize + " bytes, rate " +
+                ((rate == 0) ? "unlimited" : rate + "/s") + " per publisher, ramp-up " +
+                TimeUnit.NANOSECONDS.toMillis(rampUpNanos) + "ms, duration " +
+                TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms";
+    }
+
+    public static class Builder {
+
+        private String serverHost = "localhost";
+        private int serverPort = 1883;
+        private MqttVersion mqttVersion = MqttVersion.MQTT_5_0;
+        private Transport transport = Transport.TCP;
+        private String webSocketPath = "";
+        private int publishers = 1;
+        private int subscribers = 1;
+        private int topics = 1;
+        private String topicPrefix = "mqtt-bee-bench";
+        private int[] qosWeights;
+        private int minPayloadSize = 64;
+        private int maxPayloadSize = 64;
+        private int rate = 10;
+        private long rampUpNanos = 0;
+        private long durationNanos = TimeUnit.SECONDS.toNanos(30);
+
+        Builder() {
+        }
+
+        @NotNull
+        public Builder serverHost(@NotNull final String serverHost) {
+            this.serverHost = serverHost;
+            return this;
+        }
+
+        @NotNull
+        public Builder serverPort(final int serverPort) {
+            this.serverPort = serverPort;
+            return this;
+        }
+
+        @NotNull
+        public Builder mqttVersion(@NotNull final MqttVersion mqttVersion) {
+            this.mqttVersion = mqttVersion;
+            return this;
+        }
+
+        @NotNull
+        public Builder transport(@NotNull final Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        @NotNull
+        public Builder transport(@NotNull final String transport) {
+            return transport(toTransport(transport));
+        }
+
+        @NotNull
+        public Builder webSocketPath(@NotNull final String webSocketPath) {
+            this.webSocketPath = webSocketPath;
+            return this;
+        }
+
+        @NotNull
+        public Builder publishers(final int publishers) {
+            this.publishers = publishers;
+            return this;
+        }
+
+        @NotNull
+        public Builder subscribers(final int subscribers) {
+            this.subscribers = subscribers;
+            return this;
+        }
+
+        @NotNull
+        public Builder topics(final int topics) {
+            this.topics = topics;
+            return this;
+        }
+
+        @NotNull
+        public Builder topicPrefix(@NotNull final String topicPrefix) {
+            this.topicPrefix = topicPrefix;
+            return this;
+        }
+
+        /**
+         * Sets the relative weight of publishes with the given QoS. The first call replaces the default of only QoS
+         * 1 publishes.
+         *
+         * @param qos    the QoS.
+         * @param weight the relative weight.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder qos(@NotNull final MqttQos qos, final int weight) {
+            if (qosWeights == null) {
+                qosWeights = new int[MqttQos.values().length];
+            }
+            qosWeights[qos.getCode()] = weight;
+            return this;
+        }
+
+        /**
+         * @param payloadSize the fixed payload size of all publishes.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder payloadSize(final int payloadSize) {
+            return payloadSize(payloadSize, payloadSize);
+        }
+
+        /**
+         * @param minPayloadSize the minimum payload size.
+         * @param maxPayloadSize the maximum payload size, payload sizes are uniformly distributed in between.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder payloadSize(final int minPayloadSize, final int maxPayloadSize) {
+            this.minPayloadSize = minPayloadSize;
+            this.maxPayloadSize = maxPayloadSize;
+            return this;
+        }
+
+        /**
+         * @param rate the publishes per second per publisher, 0 to publish as fast as flow control allows.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder rate(final int rate) {
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * @param rampUp   the time over which the connects of the clients are evenly spread.
+         * @param timeUnit the time unit of the ramp-up time.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder rampUp(final long rampUp, @NotNull final TimeUnit timeUnit) {
+            this.rampUpNanos = timeUnit.toNanos(rampUp);
+            return this;
+        }
+
+        /**
+         * @param duration the time the publishers publish after all clients are connected.
+         * @param timeUnit the time unit of the duration.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder duration(final long duration, @NotNull final TimeUnit timeUnit) {
+            this.durationNanos = timeUnit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Applies the keys of a YAML document to this builder.
+         *
+         * @param reader the reader of the YAML document.
+         * @return this builder.
+         * @throws IllegalArgumentException if the document contains unknown keys or invalid values.
+         */
+        @NotNull
+        public Builder yaml(@NotNull final Reader reader) {
+            final Object document = new Yaml().load(reader);
+            if (!(document instanceof Map)) {
+                throw new IllegalArgumentException("scenario must be a YAML mapping");
+            }
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) document).entrySet()) {
+                final String key = String.valueOf(entry.getKey());
+                final Object value = entry.getValue();
+                switch (key) {
+                    case "host":
+                        serverHost(String.valueOf(value));
+                        break;
+                    case "port":
+                        serverPort(toInt(key, value));
+                        break;
+                    case "mqttVersion":
+                        mqttVersion(toMqttVersion(value));
+                        break;
+                    case "transport":
+                        transport(toTransport(value));
+                        break;
+                    case "webSocketPath":
+                        webSocketPath(String.valueOf(value));
+                        break;
+                    case "publishers":
+                        publishers(toInt(key, value));
+                        break;
+                    case "subscribers":
+                        subscribers(toInt(key, value));
+                        break;
+                    case "topics":
+                        topics(toInt(key, value));
+                        break;
+                    case "topicPrefix":
+                        topicPrefix(String.valueOf(value));
+                        break;
+                    case "qos":
+                        for (final Map.Entry<?, ?> qosEntry : toMap(key, value).entrySet()) {
+                            final MqttQos qos = MqttQos.fromCode(toInt(key, qosEntry.getKey()));
+                            if (qos == null) {
+                                throw new IllegalArgumentException("unknown QoS: " + qosEntry.getKey());
+                            }
+                            qos(qos, toInt(key, qosEntry.getValue()));
+                        }
+                        break;
+                    case "payloadSize":
+                        if (value instanceof Map) {
+                            final Map<?, ?> sizes = (Map<?, ?>) value;
+                            payloadSize(toInt(key, sizes.get("min")), toInt(key, sizes.get("max")));
+                        } else {
+                            payloadSize(toInt(key, value));
+                        }
+                        break;
+                    case "rate":
+                        rate(toInt(key, value));
+                        break;
+                    case "rampUp":
+                        rampUp(toNanos(key, value), TimeUnit.NANOSECONDS);
+                        break;
+                    case "duration":
+                        duration(toNanos(key, value), TimeUnit.NANOSECONDS);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown scenario key: " + key);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return the scenario.
+         * @throws IllegalArgumentException if the scenario is not valid.
+         */
+        @NotNull
+        public MqttBenchScenario build() {
+            check(publishers >= 0, "publishers must not be negative");
+            check(subscribers >= 0, "subscribers must not be negative");
+            check(publishers + subscribers > 0, "at least one client is required");
+            check(topics > 0, "topics must be positive");
+            check(Arrays.stream(getQosWeights()).allMatch(weight -> weight >= 0), "QoS weights must not be negative");
+            check(Arrays.stream(getQosWeights()).sum() > 0, "at least one QoS weight must be positive");
+            check(minPayloadSize >= MINIMUM_PAYLOAD_SIZE,
+                    "payload size must be at least " + MINIMUM_PAYLOAD_SIZE + " bytes");
+            check(maxPayloadSize >= minPayloadSize, "maximum payload size must not be smaller than the minimum");
+            check(rate >= 0, "rate must not be negative");
+            check(rampUpNanos >= 0, "ramp-up must not be negative");
+            check(durationNanos > 0, "duration must be positive");
+            return new MqttBenchScenario(this);
+        }
+
+        @NotNull
+        private int[] getQosWeights() {
+            return (qosWeights == null) ? new int[]{0, 1, 0} : qosWeights.clone();
+        }
+
+        private static void check(final boolean condition, @NotNull final String message) {
+            if (!condition) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+
+    }
+
+    /**
+     * Transport the clients use to connect to the broker.
+     */
+    public enum Transport {
+        TCP,
+        WEBSOCKET
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.bench;
+
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.mqtt.MqttVersion;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttBenchScenarioTest {
+
+    @Test
+    void fromYaml() {
+        final MqttBenchScenario scenario = MqttBenchScenario.fromYaml(new StringReader("" +
+                "host: broker\n" +
+                "port: 1884\n" +
+                "mqttVersion: 3\n" +
+                "transport: websocket\n" +
+                "webSocketPath: mqtt\n" +
+                "publishers: 10\n" +
+                "subscribers: 20\n" +
+                "topics: 5\n" +
+                "topicPrefix: load\n" +
+                "qos: {0: 2, 2: 1}\n" +
+                "payloadSize: {min: 16, max: 32}\n" +
+                "rate: 0\n" +
+                "rampUp: 500ms\n" +
+                "duration: 2m\n"));
+
+        assertEquals("broker", scenario.getServerHost());
+        assertEquals(1884, scenario.getServerPort());
+        assertEquals(MqttVersion.MQTT_3_1_1, scenario.getMqttVersion());
+        assertEquals(MqttBenchScenario.Transport.WEBSOCKET, scenario.getTransport());
+        assertEquals("mqtt", scenario.getWebSocketPath());
+        assertEquals(10, scenario.getPublishers());
+        assertEquals(20, scenario.getSubscribers());
+        assertEquals(5, scenario.getTopics());
+        assertEquals("load/2", scenario.getTopic(7));
+        assertEquals(2, scenario.getQosWeight(MqttQos.AT_MOST_ONCE));
+        assertEquals(0, scenario.getQosWeight(MqttQos.AT_LEAST_ONCE));
+        assertEquals(1, scenario.getQosWeight(MqttQos.EXACTLY_ONCE));
+        assertEquals(16, scenario.getMinPayloadSize());
+        assertEquals(32, scenario.getMaxPayloadSize());
+        assertEquals(0, scenario.getRate());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), scenario.getRampUpNanos());
+        assertEquals(TimeUnit.MINUTES.toNanos(2), scenario.getDurationNanos());
+    }
+
+    @Test
+    void builder_defaultTransport_isTcp() {
+        assertEquals(MqttBenchScenario.Transport.TCP, MqttBenchScenario.builder().build().getTransport());
+    }
+
+    @Test
+    void fromYaml_unknownTransport_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttBenchScenario.fromYaml(new StringReader("transport: udp\n")));
+    }
+
+    @Test
+    void fromYaml_unknownKey_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttBenchScenario.fromYaml(new StringReader("publisher: 10\n")));
+    }
+
+    @Test
+    void builder_defaultQos_isOnlyQos1() {
+        final MqttBenchScenario scenario = MqttBenchScenario.builder().build();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(MqttQos.AT_LEAST_ONCE, scenario.nextQos());
+        }
+    }
+
+    @Test
+    void builder_payloadSizeSmallerThanTimestamp_throws() {
+        assertThrows(IllegalArgumentException.class, () -> MqttBenchScenario.builder().payloadSize(4).build());
+    }
+
+    @Test
+    void nextPayloadSize_isInRange() {
+        final MqttBenchScenario scenario = MqttBenchScenario.builder().payloadSize(10, 20).build();
+        for (int i = 0; i < 1000; i++) {
+            final int payloadSize = scenario.nextPayloadSize();
+            assertTrue(payloadSize >= 10 && payloadSize <= 20);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.metrics.micrometer;
+
+import io.micrometer.core.instrument.*;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientGauges;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Records the metrics of a MQTT Bee client in a Micrometer {@link MeterRegistry}.
+ * <p>
+ * All meters are created up front, so recording an event only updates an existing meter. Only the disconnect counter
+ * is looked up by the type of the cause when a disconnect happens. As the gauges are registered with the given tags, a
+ * separate instance with distinct tags (for example the client identifier) has to be used per client.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class MicrometerMqttClientMetrics implements MqttClientMetrics {
+
+    public static final String PREFIX = "mqtt.client.";
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Counter connects;
+    private final Counter flushes;
+    private final Counter outgoingExpiredPublishes;
+    private final Counter incomingExpiredPublishes;
+    private final DistributionSummary[] sentMessages;
+    private final DistributionSummary[] receivedMessages;
+    private volatile MqttClientGauges gauges;
+
+    public MicrometerMqttClientMetrics(@NotNull final MeterRegistry registry, @NotNull final Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+        connects = Counter.builder(PREFIX + "connects").tags(this.tags).register(registry);
+        flushes = Counter.builder(PREFIX + "flushes").tags(this.tags).register(registry);
+        outgoingExpiredPublishes = Counter.builder(PREFIX + "publishes.expired")
+                .tags(this.tags)
+                .tag("direction", "outgoing")
+                .register(registry);
+        incomingExpiredPublishes = Counter.builder(PREFIX + "publishes.expired")
+                .tags(this.tags)
+                .tag("direction", "incoming")
+                .register(registry);
+        sentMessages = messageSummaries(PREFIX + "messages.sent");
+        receivedMessages = messageSummaries(PREFIX + "messages.received");
+    }
+
+    public MicrometerMqttClientMetrics(@NotNull final MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    @NotNull
+    private DistributionSummary[] messageSummaries(@NotNull final String name) {
+        final Mqtt5MessageType[] types = Mqtt5MessageType.values();
+        final DistributionSummary[] summaries = new DistributionSummary[types.length];
+        for (final Mqtt5MessageType type : types) {
+            summaries[type.ordinal()] = DistributionSummary.builder(name)
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .tag("type", type.name())
+                    .register(registry);
+        }
+        return summaries;
+    }
+
+    @Override
+    public void bindGauges(@NotNull final MqttClientGauges gauges) {
+        this.gauges = gauges; // gauges only hold a weak reference
+        Gauge.builder(PREFIX + "publishes.outgoing.queued", gauges, MqttClientGauges::getOutgoingPublishQueueSize)
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + "publishes.outgoing.inflight", gauges, MqttClientGauges::getOutgoingQos1Or2PublishCount)
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + "publishes.incoming.queued", gauges, MqttClientGauges::getIncomingPublishQueueSize)
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + "rtt", gauges, MicrometerMqttClientMetrics::getSmoothedRttSeconds)
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static double getSmoothedRttSeconds(@NotNull final MqttClientGauges gauges) {
+        final long smoothedRttNanos = gauges.getSmoothedRttNanos();
+        return (smoothedRttNanos < 0) ? Double.NaN : smoothedRttNanos / 1e9;
+    }
+
+    @Override
+    public void onConnected() {
+        connects.increment();
+    }
+
+    @Override
+    public void onDisconnected(@NotNull final Throwable cause, final boolean fromServer) {
+        registry.counter(PREFIX + "disconnects", tags.and("cause", cause.getClass().getSimpleName())
+                .and("origin", fromServer ? "server" : "client")).increment();
+    }
+
+    @Override
+    public void onMessageEncoded(@NotNull final Mqtt5MessageType type, final int bytes) {
+        sentMessages[type.ordinal()].record(bytes);
+    }
+
+    @Override
+    public void onMessageDecoded(@NotNull final Mqtt5MessageType type, final int bytes) {
+        receivedMessages[type.ordinal()].record(bytes);
+    }
+
+    @Override
+    public void onFlush() {
+        flushes.increment();
+    }
+
+    @Override
+    public void onOutgoingPublishExpired() {
+        outgoingExpiredPublishes.increment();
+    }
+
+    @Override
+    public void onIncomingPublishExpired() {
+        incomingExpiredPublishes.increment();
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.metrics.micrometer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClientGauges;
+import org.mqttbee.api.mqtt.exceptions.ChannelClosedException;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Silvio Giebl
+ */
+class MicrometerMqttClientMetricsTest {
+
+    @Test
+    void messages_recordedPerType() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final MicrometerMqttClientMetrics metrics = new MicrometerMqttClientMetrics(registry, Tags.of("client", "c1"));
+
+        metrics.onMessageEncoded(Mqtt5MessageType.PUBLISH, 10);
+        metrics.onMessageEncoded(Mqtt5MessageType.PUBLISH, 20);
+        metrics.onMessageDecoded(Mqtt5MessageType.PUBACK, 4);
+        metrics.onFlush();
+        metrics.onConnected();
+
+        assertEquals(2, registry.get("mqtt.client.messages.sent").tags("client", "c1", "type", "PUBLISH").summary()
+                .count());
+        assertEquals(30, registry.get("mqtt.client.messages.sent").tags("type", "PUBLISH").summary().totalAmount());
+        assertEquals(0, registry.get("mqtt.client.messages.sent").tags("type", "SUBSCRIBE").summary().count());
+        assertEquals(1, registry.get("mqtt.client.messages.received").tags("type", "PUBACK").summary().count());
+        assertEquals(1, registry.get("mqtt.client.flushes").counter().count());
+        assertEquals(1, registry.get("mqtt.client.connects").counter().count());
+    }
+
+    @Test
+    void disconnect_countedPerCauseAndOrigin() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final MicrometerMqttClientMetrics metrics = new MicrometerMqttClientMetrics(registry);
+
+        metrics.onDisconnected(new ChannelClosedException("test"), true);
+        metrics.onDisconnected(new ChannelClosedException("test"), true);
+        metrics.onDisconnected(new ChannelClosedException("test"), false);
+
+        assertEquals(2, registry.get("mqtt.client.disconnects")
+                .tags("cause", "ChannelClosedException", "origin", "server")
+                .counter()
+                .count());
+        assertEquals(1, registry.get("mqtt.client.disconnects").tags("origin", "client").counter().count());
+    }
+
+    @Test
+    void expiredPublishes_countedPerDirection() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final MicrometerMqttClientMetrics metrics = new MicrometerMqttClientMetrics(registry);
+
+        metrics.onOutgoingPublishExpired();
+        metrics.onOutgoingPublishExpired();
+        metrics.onIncomingPublishExpired();
+
+        assertEquals(2, registry.get("mqtt.client.publishes.expired").tags("direction", "outgoing").counter().count());
+        assertEquals(1, registry.get("mqtt.client.publishes.expired").tags("direction", "incoming").counter().count());
+    }
+
+    @Test
+    void gauges_readThroughClientGauges() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final MicrometerMqttClientMetrics metrics = new MicrometerMqttClientMetrics(registry);
+        final FixedGauges gauges = new FixedGauges();
+
+        metrics.bindGauges(gauges);
+
+        assertEquals(3, registry.get("mqtt.client.publishes.outgoing.queued").gauge().value());
+        assertEquals(2, registry.get("mqtt.client.publishes.outgoing.inflight").gauge().value());
+        assertEquals(1, registry.get("mqtt.client.publishes.incoming.queued").gauge().value());
+        assertTrue(Double.isNaN(registry.get("mqtt.client.rtt").gauge().value()));
+
+        gauges.smoothedRttNanos = 1_500_000;
+        assertEquals(0.0015, registry.get("mqtt.client.rtt").gauge().value(), 1e-9);
+    }
+
+    private static class FixedGauges implements MqttClientGauges {
+
+        long smoothedRttNanos = -1;
+
+        @Override
+        public int getOutgoingPublishQueueSize() {
+            return 3;
+        }
+
+        @Override
+        public int getOutgoingQos1Or2PublishCount() {
+            return 2;
+        }
+
+        @Override
+        public int getIncomingPublishQueueSize() {
+            return 1;
+        }
+
+        @Override
+        public long getSmoothedRttNanos() {
+            return smoothedRttNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5ConnectRestrictions;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+
+import java.util.Objects;
+
+/**
+ * Utility for setting up client and channel state for benchmarks without connecting to a server.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttBenchmarkUtil {
+
+    private MqttBenchmarkUtil() {
+    }
+
+    public static final int RECEIVE_MAXIMUM = Mqtt5ConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM;
+
+    @NotNull
+    public static MqttClientData createClientData(@NotNull final MqttVersion mqttVersion) {
+        return createClientData(mqttVersion, MqttClientExecutorConfigImpl.DEFAULT);
+    }
+
+    @NotNull
+    public static MqttClientData createClientData(
+            @NotNull final MqttVersion mqttVersion, @NotNull final MqttClientExecutorConfigImpl executorConfig) {
+
+        return new MqttClientData(mqttVersion, Objects.requireNonNull(MqttClientIdentifierImpl.from("benchmark")),
+                "localhost", 1883, null, null, false, false, executorConfig, null);
+    }
+
+    /**
+     * Creates a channel component for the given embedded channel and sets the client and server connection data as if
+     * the client was connected.
+     *
+     * @param channel    the embedded channel.
+     * @param clientData the data of the client.
+     * @return the channel component of the embedded channel.
+     */
+    @NotNull
+    public static ChannelComponent createConnectedChannelComponent(
+            @NotNull final EmbeddedChannel channel, @NotNull final MqttClientData clientData) {
+
+        final ChannelComponent channelComponent = ChannelComponent.create(channel, clientData);
+        clientData.setClientConnectionData(new MqttClientConnectionData(60, 0, RECEIVE_MAXIMUM, 0,
+                Mqtt5ConnectRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT, null, false, true, false, channel));
+        clientData.setServerConnectionData(new MqttServerConnectionData(RECEIVE_MAXIMUM, 0,
+                MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT, MqttQos.EXACTLY_ONCE, true, true, true, true));
+        return channelComponent;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import io.reactivex.schedulers.Schedulers;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+import org.mqttbee.mqtt.ioc.MqttBeeComponent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the retained heap per idle connected client.
+ * <p>
+ * A baseline client is connected first, so that the state which is shared between clients (event loop group,
+ * {@code @Sharable} handlers, schedulers, allocator arenas, ...) exists. The object graph reachable from the baseline
+ * client and the shared roots is measured, then the same graph including the additionally connected clients. Every
+ * object is counted once per graph, so the shared state cancels out and the difference divided by the count of
+ * additionally connected clients is the retained size per connection, including what a connection adds to the shared
+ * structures, for example its selection key. It is reported as the secondary metric {@code retainedBytesPerClient}.
+ * <p>
+ * The shared roots are not subtracted from the graph, as the channels of all clients are reachable from their event
+ * loops, so that would also remove the state of the connections.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MqttClientFootprintBenchmark {
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public long retainedBytesPerClient;
+
+    }
+
+    @Param({"1000"})
+    public int clientCount;
+
+    private MqttEmbeddedBroker broker;
+    private String host;
+    private int port;
+
+    @Setup
+    public void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        host = InetAddress.getLoopbackAddress().getHostAddress();
+        port = broker.bindTcp(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.close();
+    }
+
+    @Benchmark
+    public long connectIdleClients(final Footprint footprint) {
+        final Mqtt5Client[] clients = new Mqtt5Client[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = MqttClient.builder()
+                    .identifier("footprint-" + i)
+                    .serverHost(host)
+                    .serverPort(port)
+                    .useMqttVersion5()
+                    .buildReactive();
+        }
+
+        final Mqtt5Client baselineClient = clients[0];
+        baselineClient.connect().done().blockingGet();
+        final long baselineSize = GraphLayout.parseInstance(sharedRoots(baselineClient)).totalSize();
+        for (int i = 1; i < clientCount; i++) {
+            clients[i].connect().done().blockingGet();
+        }
+        final long allClientsSize = GraphLayout.parseInstance(sharedRoots((Object) clients)).totalSize();
+        footprint.retainedBytesPerClient = (allClientsSize - baselineSize) / (clientCount - 1);
+
+        for (final Mqtt5Client client : clients) {
+            client.disconnect().blockingAwait();
+        }
+        return allClientsSize;
+    }
+
+    /**
+     * @param clients the clients to measure.
+     * @return the clients followed by the roots of the state which is shared between clients.
+     */
+    private static Object[] sharedRoots(final Object clients) {
+        return new Object[]{
+                clients, MqttBeeComponent.INSTANCE, MqttClientExecutorConfigImpl.DEFAULT, Schedulers.computation(),
+                Schedulers.io()
+        };
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.codec;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.api.mqtt.mqtt5.message.auth.Mqtt5AuthReasonCode;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5RetainHandling;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.*;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.MqttMessage;
+import org.mqttbee.mqtt.message.auth.MqttAuth;
+import org.mqttbee.mqtt.message.connect.MqttConnect;
+import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
+import org.mqttbee.mqtt.message.disconnect.MqttDisconnect;
+import org.mqttbee.mqtt.message.ping.MqttPingReq;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+import org.mqttbee.mqtt.message.publish.pubcomp.MqttPubComp;
+import org.mqttbee.mqtt.message.publish.pubrec.MqttPubRec;
+import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRel;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.mqttbee.mqtt.message.unsubscribe.MqttUnsubscribe;
+
+import java.nio.ByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.DEFAULT_NO_TOPIC_ALIAS;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.NO_PACKET_IDENTIFIER_QOS_0;
+import static org.mqttbee.mqtt.message.subscribe.MqttStatefulSubscribe.DEFAULT_NO_SUBSCRIPTION_IDENTIFIER;
+
+/**
+ * Creates the MQTT messages and encoded packets the codec benchmarks operate on.
+ *
+ * @author Silvio Giebl
+ */
+class MqttCodecBenchmarkUtil {
+
+    private static final int PACKET_IDENTIFIER = 1;
+    private static final MqttTopicImpl TOPIC = requireNonNull(MqttTopicImpl.from("benchmark/topic/level"));
+    private static final MqttTopicFilterImpl TOPIC_FILTER =
+            requireNonNull(MqttTopicFilterImpl.from("benchmark/+/level"));
+
+    private MqttCodecBenchmarkUtil() {
+    }
+
+    @NotNull
+    static MqttUserPropertiesImpl createUserProperties(final int count) {
+        if (count == 0) {
+            return MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+        }
+        final ImmutableList.Builder<MqttUserPropertyImpl> builder = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            builder.add(new MqttUserPropertyImpl(requireNonNull(MqttUTF8StringImpl.from("name" + i)),
+                    requireNonNull(MqttUTF8StringImpl.from("value" + i))));
+        }
+        return MqttUserPropertiesImpl.of(builder.build());
+    }
+
+    @NotNull
+    static ByteBuffer createPayload(final int size) {
+        final byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = (byte) i;
+        }
+        return ByteBuffer.wrap(payload);
+    }
+
+    /**
+     * Creates a MQTT message a client sends.
+     *
+     * @param messageType       the type of the message.
+     * @param qos               the QoS of the message if it is a PUBLISH message.
+     * @param payloadSize       the payload size of the message if it is a PUBLISH message.
+     * @param userPropertyCount the amount of User Properties (only encoded for MQTT 5).
+     * @return the created message.
+     */
+    @NotNull
+    static MqttMessage createClientMessage(
+            @NotNull final Mqtt5MessageType messageType, @NotNull final MqttQos qos, final int payloadSize,
+            final int userPropertyCount) {
+
+        final MqttUserPropertiesImpl userProperties = createUserProperties(userPropertyCount);
+        switch (messageType) {
+            case CONNECT:
+                return new MqttConnect(60, true, 0, false, true, MqttConnectRestrictions.DEFAULT, null, null, null,
+                        userProperties).createStateful(
+                        requireNonNull(MqttClientIdentifierImpl.from("benchmark")), null);
+            case PUBLISH:
+                return new MqttPublish(TOPIC, createPayload(payloadSize), qos, false, MESSAGE_EXPIRY_INTERVAL_INFINITY,
+                        null, null, null, null, Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE, userProperties).createStateful(
+                        (qos == MqttQos.AT_MOST_ONCE) ? NO_PACKET_IDENTIFIER_QOS_0 : PACKET_IDENTIFIER, false, DEFAULT_NO_TOPIC_ALIAS, false,
+                        DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS);
+            case PUBACK:
+                return new MqttPubAck(PACKET_IDENTIFIER, MqttPubAck.DEFAULT_REASON_CODE, null, userProperties);
+            case PUBREC:
+                return new MqttPubRec(PACKET_IDENTIFIER, MqttPubRec.DEFAULT_REASON_CODE, null, userProperties);
+            case PUBREL:
+                return new MqttPubRel(PACKET_IDENTIFIER, MqttPubRel.DEFAULT_REASON_CODE, null, userProperties);
+            case PUBCOMP:
+                return new MqttPubComp(PACKET_IDENTIFIER, MqttPubComp.DEFAULT_REASON_CODE, null, userProperties);
+            case SUBSCRIBE:
+                return new MqttSubscribe(ImmutableList.of(
+                        new MqttSubscription(TOPIC_FILTER, MqttQos.AT_LEAST_ONCE, false, Mqtt5RetainHandling.SEND,
+                                false)), userProperties).createStateful(
+                        PACKET_IDENTIFIER, DEFAULT_NO_SUBSCRIPTION_IDENTIFIER);
+            case UNSUBSCRIBE:
+                return new MqttUnsubscribe(ImmutableList.of(TOPIC_FILTER), userProperties).createStateful(
+                        PACKET_IDENTIFIER);
+            case PINGREQ:
+                return MqttPingReq.INSTANCE;
+            case DISCONNECT:
+                return new MqttDisconnect(MqttDisconnect.DEFAULT_REASON_CODE,
+                        MqttDisconnect.SESSION_EXPIRY_INTERVAL_FROM_CONNECT, null, null, userProperties);
+            case AUTH:
+                return new MqttAuth(Mqtt5AuthReasonCode.CONTINUE_AUTHENTICATION,
+                        requireNonNull(MqttUTF8StringImpl.from("SCRAM-SHA-1")), createPayload(32), null,
+                        userProperties);
+            default:
+                throw new IllegalArgumentException(messageType + " is not sent by a client");
+        }
+    }
+
+    /**
+     * Creates an encoded MQTT packet a server sends.
+     *
+     * @param mqttVersion       the MQTT version of the packet.
+     * @param messageType       the type of the packet.
+     * @param qos               the QoS of the packet if it is a PUBLISH packet.
+     * @param payloadSize       the payload size of the packet if it is a PUBLISH packet.
+     * @param userPropertyCount the amount of User Properties (only encoded for MQTT 5).
+     * @return the encoded packet.
+     */
+    @NotNull
+    static ByteBuf createServerPacket(
+            @NotNull final MqttVersion mqttVersion, @NotNull final Mqtt5MessageType messageType,
+            @NotNull final MqttQos qos, final int payloadSize, final int userPropertyCount) {
+
+        final boolean mqtt5 = mqttVersion == MqttVersion.MQTT_5_0;
+        final MqttUserPropertiesImpl userProperties = createUserProperties(userPropertyCount);
+        final ByteBuf body = Unpooled.buffer();
+        switch (messageType) {
+            case CONNACK:
+                body.writeByte(0); // session present
+                body.writeByte(0); // reason code
+                if (mqtt5) {
+                    writeProperties(userProperties, body);
+                }
+                return createPacket(0x20, body);
+            case SUBACK:
+                body.writeShort(PACKET_IDENTIFIER);
+                if (mqtt5) {
+                    writeProperties(userProperties, body);
+                }
+                body.writeByte(MqttQos.AT_LEAST_ONCE.getCode());
+                return createPacket(0x90, body);
+            case UNSUBACK:
+                body.writeShort(PACKET_IDENTIFIER);
+                if (mqtt5) {
+                    writeProperties(userProperties, body);
+                    body.writeByte(0); // reason code
+                }
+                return createPacket(0xB0, body);
+            case PINGRESP:
+                return createPacket(0xD0, body);
+            default: // the remaining packets a server sends are encoded the same way as the ones a client sends
+                body.release();
+                return encode(mqttVersion, createClientMessage(messageType, qos, payloadSize, userPropertyCount));
+        }
+    }
+
+    /**
+     * Creates an embedded channel which is set up as if the client was connected. The encoder or decoder for the MQTT
+     * version still has to be added to the pipeline.
+     *
+     * @param clientData the data of the client.
+     * @return the embedded channel.
+     */
+    @NotNull
+    static EmbeddedChannel createChannel(@NotNull final MqttClientData clientData) {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        MqttBenchmarkUtil.createConnectedChannelComponent(channel, clientData);
+        return channel;
+    }
+
+    @NotNull
+    private static ByteBuf encode(@NotNull final MqttVersion mqttVersion, @NotNull final MqttMessage message) {
+        final MqttClientData clientData = MqttBenchmarkUtil.createClientData(mqttVersion);
+        final EmbeddedChannel channel = createChannel(clientData);
+        channel.pipeline().addLast(ChannelComponent.get(channel).encoder());
+        channel.writeOutbound(message);
+        final ByteBuf encoded = channel.readOutbound();
+        final ByteBuf copy = Unpooled.copiedBuffer(encoded);
+        encoded.release();
+        channel.close();
+        return copy;
+    }
+
+    @NotNull
+    private static ByteBuf createPacket(final int fixedHeader, @NotNull final ByteBuf body) {
+        final ByteBuf packet = Unpooled.buffer();
+        packet.writeByte(fixedHeader);
+        MqttVariableByteInteger.encode(body.readableBytes(), packet);
+        packet.writeBytes(body);
+        body.release();
+        return packet;
+    }
+
+    private static void writeProperties(
+            @NotNull final MqttUserPropertiesImpl userProperties, @NotNull final ByteBuf out) {
+
+        MqttVariableByteInteger.encode(userProperties.encodedLength(), out);
+        userProperties.encode(out);
+    }
+
+}
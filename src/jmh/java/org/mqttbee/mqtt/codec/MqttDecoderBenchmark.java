@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding of every MQTT packet type a server sends through the {@link
+ * org.mqttbee.mqtt.codec.decoder.MqttDecoder}.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MqttDecoderBenchmark {
+
+    public static abstract class DecoderState {
+
+        EmbeddedChannel channel;
+        ByteBuf packet;
+
+        void setUp(
+                @NotNull final MqttVersion mqttVersion, @NotNull final Mqtt5MessageType messageType,
+                @NotNull final MqttQos qos, final int payloadSize, final int userPropertyCount) {
+
+            final MqttClientData clientData = MqttBenchmarkUtil.createClientData(mqttVersion);
+            channel = MqttCodecBenchmarkUtil.createChannel(clientData);
+            channel.pipeline().addLast(ChannelComponent.get(channel).decoder());
+            packet = MqttCodecBenchmarkUtil.createServerPacket(
+                    mqttVersion, messageType, qos, payloadSize, userPropertyCount);
+        }
+
+        @TearDown
+        public void tearDown() {
+            channel.close();
+            packet.release();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class PublishState extends DecoderState {
+
+        @Param({"MQTT_5_0", "MQTT_3_1_1"})
+        public MqttVersion mqttVersion;
+        @Param({"AT_MOST_ONCE", "AT_LEAST_ONCE"})
+        public MqttQos qos;
+        @Param({"0", "128", "4096", "65536"})
+        public int payloadSize;
+        @Param({"0", "8"})
+        public int userPropertyCount;
+
+        @Setup
+        public void setUp() {
+            setUp(mqttVersion, Mqtt5MessageType.PUBLISH, qos, payloadSize, userPropertyCount);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Mqtt5State extends DecoderState {
+
+        @Param({
+                "CONNACK", "PUBACK", "PUBREC", "PUBREL", "PUBCOMP", "SUBACK", "UNSUBACK", "PINGRESP", "DISCONNECT",
+                "AUTH"
+        })
+        public Mqtt5MessageType messageType;
+        @Param({"0", "8"})
+        public int userPropertyCount;
+
+        @Setup
+        public void setUp() {
+            setUp(MqttVersion.MQTT_5_0, messageType, MqttQos.AT_LEAST_ONCE, 0, userPropertyCount);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Mqtt3State extends DecoderState {
+
+        @Param({"CONNACK", "PUBACK", "PUBREC", "PUBREL", "PUBCOMP", "SUBACK", "UNSUBACK", "PINGRESP"})
+        public Mqtt5MessageType messageType;
+
+        @Setup
+        public void setUp() {
+            setUp(MqttVersion.MQTT_3_1_1, messageType, MqttQos.AT_LEAST_ONCE, 0, 0);
+        }
+
+    }
+
+    @Benchmark
+    public Object decodePublish(final PublishState state) {
+        return decode(state);
+    }
+
+    @Benchmark
+    public Object decodeMqtt5(final Mqtt5State state) {
+        return decode(state);
+    }
+
+    @Benchmark
+    public Object decodeMqtt3(final Mqtt3State state) {
+        return decode(state);
+    }
+
+    private static Object decode(@NotNull final DecoderState state) {
+        state.channel.writeInbound(state.packet.retainedDuplicate());
+        return state.channel.readInbound();
+    }
+
+}
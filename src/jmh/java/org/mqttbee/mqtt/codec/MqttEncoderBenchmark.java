@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.MqttMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding of every MQTT packet type a client sends through the {@link
+ * org.mqttbee.mqtt.codec.encoder.MqttEncoder}.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MqttEncoderBenchmark {
+
+    public static abstract class EncoderState {
+
+        EmbeddedChannel channel;
+        MqttMessage message;
+
+        void setUp(
+                @NotNull final MqttVersion mqttVersion, @NotNull final Mqtt5MessageType messageType,
+                final int payloadSize, final int userPropertyCount) {
+
+            final MqttClientData clientData = MqttBenchmarkUtil.createClientData(mqttVersion);
+            channel = MqttCodecBenchmarkUtil.createChannel(clientData);
+            channel.pipeline().addLast(ChannelComponent.get(channel).encoder());
+            message = MqttCodecBenchmarkUtil.createClientMessage(
+                    messageType, MqttQos.AT_LEAST_ONCE, payloadSize, userPropertyCount);
+        }
+
+        @TearDown
+        public void tearDown() {
+            channel.close();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class PublishState extends EncoderState {
+
+        @Param({"MQTT_5_0", "MQTT_3_1_1"})
+        public MqttVersion mqttVersion;
+        @Param({"0", "128", "4096", "65536"})
+        public int payloadSize;
+        @Param({"0", "8"})
+        public int userPropertyCount;
+
+        @Setup
+        public void setUp() {
+            setUp(mqttVersion, Mqtt5MessageType.PUBLISH, payloadSize, userPropertyCount);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Mqtt5State extends EncoderState {
+
+        @Param({
+                "CONNECT", "PUBACK", "PUBREC", "PUBREL", "PUBCOMP", "SUBSCRIBE", "UNSUBSCRIBE", "PINGREQ", "DISCONNECT",
+                "AUTH"
+        })
+        public Mqtt5MessageType messageType;
+        @Param({"0", "8"})
+        public int userPropertyCount;
+
+        @Setup
+        public void setUp() {
+            setUp(MqttVersion.MQTT_5_0, messageType, 0, userPropertyCount);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Mqtt3State extends EncoderState {
+
+        @Param({"CONNECT", "PUBACK", "PUBREC", "PUBREL", "PUBCOMP", "SUBSCRIBE", "UNSUBSCRIBE", "PINGREQ", "DISCONNECT"})
+        public Mqtt5MessageType messageType;
+
+        @Setup
+        public void setUp() {
+            setUp(MqttVersion.MQTT_3_1_1, messageType, 0, 0);
+        }
+
+    }
+
+    @Benchmark
+    public int encodePublish(final PublishState state) {
+        return encode(state);
+    }
+
+    @Benchmark
+    public int encodeMqtt5(final Mqtt5State state) {
+        return encode(state);
+    }
+
+    @Benchmark
+    public int encodeMqtt3(final Mqtt3State state) {
+        return encode(state);
+    }
+
+    private static int encode(@NotNull final EncoderState state) {
+        state.channel.writeOutbound(state.message);
+        final ByteBuf encoded = state.channel.readOutbound();
+        final int encodedLength = encoded.readableBytes();
+        encoded.release();
+        return encodedLength;
+    }
+
+}
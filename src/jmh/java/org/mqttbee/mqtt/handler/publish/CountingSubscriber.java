@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Subscriber which only counts the received elements, so benchmarks do not measure storing them.
+ *
+ * @author Silvio Giebl
+ */
+class CountingSubscriber<T> implements Subscriber<T> {
+
+    long count;
+
+    @Override
+    public void onSubscribe(final Subscription s) {
+    }
+
+    @Override
+    public void onNext(final T t) {
+        count++;
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactivex.Flowable;
+import org.mqttbee.api.mqtt.MqttClientExecutorConfig;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.mqtt3.Mqtt3PublishView;
+import org.mqttbee.mqtt.mqtt3.Mqtt3ClientView;
+import org.mqttbee.mqtt.mqtt5.Mqtt5ClientImpl;
+import org.openjdk.jmh.annotations.*;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.NO_PACKET_IDENTIFIER_QOS_0;
+
+/**
+ * Compares receiving a publish through the global publish flow of the MQTT 3 client with the MQTT 5 client. Both
+ * receive the same publish through the {@link MqttIncomingQosHandler} on an embedded channel, the difference is the
+ * mapping to the MQTT 3 view and the MQTT 3 exceptions. The callbacks are called inline, so the application scheduler
+ * is left out for both.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttClientVersionReceiveBenchmark {
+
+    @Param({"MQTT_3_1_1", "MQTT_5_0"})
+    public MqttVersion mqttVersion;
+
+    private EmbeddedChannel channel;
+    private MqttStatefulPublish publish;
+    private long count;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        final MqttClientData clientData = MqttBenchmarkUtil.createClientData(mqttVersion,
+                (MqttClientExecutorConfigImpl) MqttClientExecutorConfig.builder().applicationInline(true).build());
+        final ChannelComponent channelComponent =
+                MqttBenchmarkUtil.createConnectedChannelComponent(channel, clientData);
+        channel.pipeline().addLast(MqttIncomingQosHandler.NAME, channelComponent.incomingQosHandler());
+
+        final Mqtt5ClientImpl mqtt5Client = new Mqtt5ClientImpl(clientData);
+        final Flowable<?> publishes = (mqttVersion == MqttVersion.MQTT_3_1_1) ?
+                new Mqtt3ClientView(mqtt5Client).publishes(MqttGlobalPublishFlowType.ALL_PUBLISHES) :
+                mqtt5Client.publishes(MqttGlobalPublishFlowType.ALL_PUBLISHES);
+        publishes.subscribe(new RequestingSubscriber());
+        channel.runPendingTasks(); // registers the flow on the event loop
+
+        publish = Mqtt3PublishView.statefulDelegate(Mqtt3PublishView.delegate(
+                requireNonNull(MqttTopicImpl.from("benchmark/topic")), ByteBuffer.allocate(128),
+                MqttQos.AT_MOST_ONCE, false), NO_PACKET_IDENTIFIER_QOS_0, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+    }
+
+    @Benchmark
+    public long receive() {
+        channel.writeInbound(publish);
+        return count;
+    }
+
+    /**
+     * Requests all publishes and only counts them, as an application consuming them inline would do.
+     */
+    private class RequestingSubscriber implements Subscriber<Object> {
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final Object publish) {
+            count++;
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.reactivex.disposables.Disposable;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientExecutorConfig;
+import org.mqttbee.api.mqtt.MqttClientExecutorConfigBuilder;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5AsyncClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the end-to-end latency of a QoS 0 publish from one client through a co-located broker until the callback of
+ * a subscribed client is called, for the different ways the callbacks of the subscribing client are executed:
+ * <ul>
+ * <li>{@code SCHEDULER}: observed on the default application scheduler</li>
+ * <li>{@code EVENT_LOOP}: observed on the Netty event loop of the connection</li>
+ * <li>{@code INLINE}: called directly by the Netty event loop without a scheduler</li>
+ * </ul>
+ * The benchmark thread spins until the callback counted the publish, so the sampled time includes the hand over to
+ * the thread of the callback.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttIncomingPublishLatencyBenchmark {
+
+    public enum Delivery {
+        SCHEDULER,
+        EVENT_LOOP,
+        INLINE
+    }
+
+    @Param({"SCHEDULER", "EVENT_LOOP", "INLINE"})
+    public Delivery delivery;
+
+    private MqttEmbeddedBroker broker;
+    private Mqtt5Client subscriber;
+    private Mqtt5AsyncClient publisher;
+    private Disposable subscription;
+    private Mqtt5Publish publish;
+    private final AtomicLong received = new AtomicLong();
+    private long sent;
+
+    @Setup
+    public void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        final int port = broker.bindTcp(0);
+
+        final MqttClientExecutorConfigBuilder<Void> executorConfigBuilder = MqttClientExecutorConfig.builder();
+        if (delivery == Delivery.EVENT_LOOP) {
+            executorConfigBuilder.applicationOnEventLoop(true);
+        } else if (delivery == Delivery.INLINE) {
+            executorConfigBuilder.applicationInline(true);
+        }
+        subscriber = MqttClient.builder()
+                .identifier("subscriber")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .executorConfig(executorConfigBuilder.build())
+                .useMqttVersion5()
+                .buildReactive();
+        subscriber.connect().done().blockingGet();
+        subscription = subscriber.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("benchmark/topic").build())
+                .build()).subscribe(publish -> received.lazySet(received.get() + 1));
+
+        publisher = MqttClient.builder()
+                .identifier("publisher")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .buildAsync();
+        publisher.connect().done().join();
+
+        publish = Mqtt5Publish.builder()
+                .topic("benchmark/topic")
+                .qos(MqttQos.AT_MOST_ONCE)
+                .payload(new byte[128])
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscription.dispose();
+        publisher.disconnect().done().join();
+        subscriber.disconnect().blockingAwait();
+        broker.close();
+    }
+
+    @Benchmark
+    public long publishToCallback() {
+        publisher.publish(publish);
+        sent++;
+        //noinspection StatementWithEmptyBody
+        while (received.get() < sent) {
+            // busy spin, the latencies are too small for parking
+        }
+        return sent;
+    }
+
+}
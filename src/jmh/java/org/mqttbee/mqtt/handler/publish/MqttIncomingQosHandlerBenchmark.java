@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRel;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.*;
+
+/**
+ * Measures the flow of an incoming publish through the {@link MqttIncomingQosHandler} and the {@link
+ * MqttIncomingPublishService} on an embedded channel, from receiving it until it is emitted to a global publish flow
+ * and acknowledged for the QoS level.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttIncomingQosHandlerBenchmark {
+
+    private static final int PACKET_IDENTIFIER = 1;
+
+    @Param({"AT_MOST_ONCE", "AT_LEAST_ONCE", "EXACTLY_ONCE"})
+    public MqttQos qos;
+
+    private EmbeddedChannel channel;
+    private CountingSubscriber<Mqtt5Publish> subscriber;
+    private MqttStatefulPublish publish;
+    private MqttPubRel pubRel;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        final ChannelComponent channelComponent = MqttBenchmarkUtil.createConnectedChannelComponent(
+                channel, MqttBenchmarkUtil.createClientData(MqttVersion.MQTT_5_0));
+        channel.pipeline().addLast(MqttIncomingQosHandler.NAME, channelComponent.incomingQosHandler());
+
+        final MqttIncomingPublishService incomingPublishService = channelComponent.incomingPublishService();
+        subscriber = new CountingSubscriber<>();
+        final MqttGlobalIncomingPublishFlow flow = new MqttGlobalIncomingPublishFlow(
+                subscriber, incomingPublishService, MqttGlobalPublishFlowType.ALL_PUBLISHES);
+        incomingPublishService.getIncomingPublishFlows().subscribeGlobal(flow);
+        flow.request(Long.MAX_VALUE);
+
+        publish = new MqttPublish(requireNonNull(MqttTopicImpl.from("benchmark/topic")), ByteBuffer.allocate(128),
+                qos, false, MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null, null,
+                Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE, NO_USER_PROPERTIES).createStateful(
+                (qos == MqttQos.AT_MOST_ONCE) ? NO_PACKET_IDENTIFIER_QOS_0 : PACKET_IDENTIFIER, false,
+                DEFAULT_NO_TOPIC_ALIAS, false, DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS);
+        pubRel = new MqttPubRel(PACKET_IDENTIFIER, MqttPubRel.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+    }
+
+    @Benchmark
+    public long receive() {
+        channel.writeInbound(publish);
+        switch (qos) {
+            case AT_LEAST_ONCE:
+                channel.readOutbound(); // PUBACK
+                break;
+            case EXACTLY_ONCE:
+                channel.readOutbound(); // PUBREC
+                channel.writeInbound(pubRel);
+                channel.readOutbound(); // PUBCOMP
+                break;
+        }
+        return subscriber.count;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+import org.mqttbee.mqtt.message.publish.pubcomp.MqttPubComp;
+import org.mqttbee.mqtt.message.publish.pubrec.MqttPubRec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+
+/**
+ * Measures the flow of an outgoing publish through the {@link MqttOutgoingQosHandler} on an embedded channel, from
+ * queueing it until the publish result is emitted after the acknowledgement for the QoS level was received.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttOutgoingQosHandlerBenchmark {
+
+    @Param({"AT_MOST_ONCE", "AT_LEAST_ONCE", "EXACTLY_ONCE"})
+    public MqttQos qos;
+
+    private EmbeddedChannel channel;
+    private MqttOutgoingQosHandler outgoingQosHandler;
+    private CountingSubscriber<Mqtt5PublishResult> subscriber;
+    private MqttIncomingAckFlow incomingAckFlow;
+    private MqttPublish publish;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        final ChannelComponent channelComponent = MqttBenchmarkUtil.createConnectedChannelComponent(
+                channel, MqttBenchmarkUtil.createClientData(MqttVersion.MQTT_5_0));
+        outgoingQosHandler = channelComponent.outgoingQosHandler();
+        channel.pipeline().addLast(MqttOutgoingQosHandler.NAME, outgoingQosHandler);
+
+        subscriber = new CountingSubscriber<>();
+        incomingAckFlow = new MqttIncomingAckFlow(subscriber, channelComponent.outgoingPublishService());
+        incomingAckFlow.request(Long.MAX_VALUE);
+
+        publish = new MqttPublish(requireNonNull(MqttTopicImpl.from("benchmark/topic")), ByteBuffer.allocate(128),
+                qos, false, MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null, null,
+                Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE, NO_USER_PROPERTIES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+    }
+
+    @Benchmark
+    public long publish() {
+        outgoingQosHandler.publish(new MqttPublishWithFlow(publish, incomingAckFlow));
+        channel.runPendingTasks();
+        final MqttStatefulPublish statefulPublish = channel.readOutbound();
+        final int packetIdentifier = statefulPublish.getPacketIdentifier();
+        switch (qos) {
+            case AT_LEAST_ONCE:
+                channel.writeInbound(
+                        new MqttPubAck(packetIdentifier, MqttPubAck.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+                break;
+            case EXACTLY_ONCE:
+                channel.writeInbound(
+                        new MqttPubRec(packetIdentifier, MqttPubRec.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+                channel.readOutbound(); // PUBREL
+                channel.writeInbound(
+                        new MqttPubComp(packetIdentifier, MqttPubComp.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+                break;
+        }
+        return subscriber.count;
+    }
+
+}
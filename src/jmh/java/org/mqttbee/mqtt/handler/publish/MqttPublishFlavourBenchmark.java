@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactivex.Flowable;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+import org.mqttbee.mqtt.message.publish.pubcomp.MqttPubComp;
+import org.mqttbee.mqtt.message.publish.pubrec.MqttPubRec;
+import org.openjdk.jmh.annotations.*;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+
+/**
+ * Compares a single publish through the reactive API with a single publish through the async API. Both go through
+ * the {@link MqttPublishFlowables} and the {@link MqttOutgoingQosHandler} on an embedded channel, the difference is
+ * the per publish {@link Flowable}, its operators and the {@link MqttIncomingAckFlow} of the reactive API versus the
+ * queue of the {@link MqttAsyncPublishFlowable} and a future. The application scheduler is left out for both.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttPublishFlavourBenchmark {
+
+    public enum Flavour {
+        REACTIVE,
+        ASYNC
+    }
+
+    @Param({"REACTIVE", "ASYNC"})
+    public Flavour flavour;
+
+    @Param({"AT_MOST_ONCE", "AT_LEAST_ONCE", "EXACTLY_ONCE"})
+    public MqttQos qos;
+
+    private EmbeddedChannel channel;
+    private MqttClientData clientData;
+    private MqttAsyncPublishFlowable asyncPublishFlowable;
+    private Flowable<MqttPublish> publishFlowable;
+    private MqttPublish publish;
+    private long count;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        clientData = MqttBenchmarkUtil.createClientData(MqttVersion.MQTT_5_0);
+        final ChannelComponent channelComponent =
+                MqttBenchmarkUtil.createConnectedChannelComponent(channel, clientData);
+        channel.pipeline().addLast(MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler());
+        asyncPublishFlowable = channelComponent.asyncPublishFlowable();
+
+        publish = new MqttPublish(requireNonNull(MqttTopicImpl.from("benchmark/topic")), ByteBuffer.allocate(128),
+                qos, false, MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null, null,
+                Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE, NO_USER_PROPERTIES);
+        publishFlowable = Flowable.just(publish);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+    }
+
+    @Benchmark
+    public long publish() {
+        CompletableFuture<Mqtt5PublishResult> future = null;
+        if (flavour == Flavour.REACTIVE) {
+            new MqttIncomingAckFlowable(publishFlowable, clientData).subscribe(new ResultSubscriber());
+        } else {
+            future = asyncPublishFlowable.publish(publish);
+        }
+        channel.runPendingTasks();
+        final MqttStatefulPublish statefulPublish = channel.readOutbound();
+        final int packetIdentifier = statefulPublish.getPacketIdentifier();
+        switch (qos) {
+            case AT_LEAST_ONCE:
+                channel.writeInbound(
+                        new MqttPubAck(packetIdentifier, MqttPubAck.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+                break;
+            case EXACTLY_ONCE:
+                channel.writeInbound(
+                        new MqttPubRec(packetIdentifier, MqttPubRec.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+                channel.readOutbound(); // PUBREL
+                channel.writeInbound(
+                        new MqttPubComp(packetIdentifier, MqttPubComp.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+                break;
+        }
+        if ((future != null) && future.isDone()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Requests the single result of a publish, as the application scheduler would do.
+     */
+    private class ResultSubscriber implements Subscriber<Mqtt5PublishResult> {
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(final Mqtt5PublishResult result) {
+            count++;
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+    }
+
+}
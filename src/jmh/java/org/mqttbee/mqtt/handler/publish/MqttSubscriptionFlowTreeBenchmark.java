@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.mqtt.MqttBenchmarkUtil;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.util.collections.ScNodeList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Measures topic matching and subscribing/unsubscribing in the {@link MqttSubscriptionFlowTree}.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttSubscriptionFlowTreeBenchmark {
+
+    private static final int TOPIC_COUNT = 1024; // power of 2
+    private static final int BUILDING_COUNT = 16;
+
+    @Param({"10", "1000", "100000"})
+    public int subscriptionCount;
+    @Param({"0", "10"})
+    public int wildcardPercentage;
+
+    private EmbeddedChannel channel;
+    private MqttIncomingPublishService incomingPublishService;
+    private MqttSubscriptionFlowTree tree;
+    private MqttTopicImpl[] topics;
+    private MqttTopicFilterImpl[] topicFilters;
+    private MqttSubscriptionFlow flow;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        incomingPublishService = MqttBenchmarkUtil.createConnectedChannelComponent(
+                channel, MqttBenchmarkUtil.createClientData(MqttVersion.MQTT_5_0)).incomingPublishService();
+        tree = new MqttSubscriptionFlowTree();
+
+        final Random random = new Random(0);
+        for (int i = 0; i < subscriptionCount; i++) {
+            final String building = "building/" + (i % BUILDING_COUNT);
+            final String topicFilter;
+            if (random.nextInt(100) < wildcardPercentage) {
+                topicFilter = random.nextBoolean() ? building + "/+/sensor" : building + "/#";
+            } else {
+                topicFilter = building + "/floor" + i + "/sensor";
+            }
+            tree.subscribe(requireNonNull(MqttTopicFilterImpl.from(topicFilter)), createFlow());
+        }
+
+        topics = new MqttTopicImpl[TOPIC_COUNT];
+        topicFilters = new MqttTopicFilterImpl[TOPIC_COUNT];
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            final int floor = random.nextInt(subscriptionCount);
+            topics[i] = requireNonNull(
+                    MqttTopicImpl.from("building/" + (floor % BUILDING_COUNT) + "/floor" + floor + "/sensor"));
+            topicFilters[i] = requireNonNull(
+                    MqttTopicFilterImpl.from("building/" + (floor % BUILDING_COUNT) + "/room" + floor + "/sensor"));
+        }
+        flow = createFlow();
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+    }
+
+    @NotNull
+    private MqttSubscriptionFlow createFlow() {
+        return new MqttSubscriptionFlow(new CountingSubscriber<>(), incomingPublishService);
+    }
+
+    @Benchmark
+    public ScNodeList<MqttIncomingPublishFlow> findMatching() {
+        final ScNodeList<MqttIncomingPublishFlow> matchingFlows = new ScNodeList<>();
+        tree.findMatching(topics[index++ & (TOPIC_COUNT - 1)], matchingFlows);
+        return matchingFlows;
+    }
+
+    @Benchmark
+    public void subscribeUnsubscribe() {
+        final MqttTopicFilterImpl topicFilter = topicFilters[index++ & (TOPIC_COUNT - 1)];
+        tree.subscribe(topicFilter, flow);
+        tree.unsubscribe(topicFilter, null);
+    }
+
+}
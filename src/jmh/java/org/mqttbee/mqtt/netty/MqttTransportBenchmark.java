@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import io.netty.channel.epoll.Epoll;
+import io.reactivex.Flowable;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientBuilder;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the round trip of a QoS 1 publish (PUBLISH - PUBACK) to a co-located broker over loopback TCP and over a
+ * Unix domain socket. The domain socket variant is only run if the native epoll transport is available.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttTransportBenchmark {
+
+    public enum Transport {
+        TCP,
+        DOMAIN_SOCKET
+    }
+
+    @Param({"TCP", "DOMAIN_SOCKET"})
+    public Transport transport;
+
+    private MqttEmbeddedBroker broker;
+    private File socketFile;
+    private Mqtt5Client client;
+    private Flowable<Mqtt5Publish> publish;
+
+    @Setup
+    public void setUp() throws IOException {
+        broker = MqttEmbeddedBroker.builder().build();
+        final MqttClientBuilder clientBuilder = MqttClient.builder().identifier("benchmark");
+        if (transport == Transport.DOMAIN_SOCKET) {
+            if (!Epoll.isAvailable()) {
+                throw new IllegalStateException("Unix domain sockets require the native epoll transport.",
+                        Epoll.unavailabilityCause());
+            }
+            socketFile = File.createTempFile("mqtt-bee", ".sock");
+            if (!socketFile.delete()) {
+                throw new IOException("Could not delete " + socketFile);
+            }
+            broker.bindDomainSocket(socketFile.getAbsolutePath());
+            clientBuilder.serverDomainSocket(socketFile.getAbsolutePath());
+        } else {
+            clientBuilder.serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                    .serverPort(broker.bindTcp(0));
+        }
+        client = clientBuilder.useMqttVersion5().buildReactive();
+        client.connect().done().blockingGet();
+
+        publish = Flowable.just(Mqtt5Publish.builder()
+                .topic("benchmark/topic")
+                .qos(MqttQos.AT_LEAST_ONCE)
+                .payload(new byte[128])
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.disconnect().blockingAwait();
+        broker.close();
+        if (socketFile != null) {
+            //noinspection ResultOfMethodCallIgnored
+            socketFile.delete();
+        }
+    }
+
+    @Benchmark
+    public Mqtt5PublishResult publishRoundTrip() {
+        return client.publish(publish).blockingFirst();
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.util;
+
+import org.mqttbee.util.collections.IntMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Packet Identifier allocation the way the outgoing QoS handler does it: an Id is taken from {@link Ranges}
+ * and the in-flight message is stored in an {@link IntMap} until the Id is released again on acknowledgement.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketIdentifierBenchmark {
+
+    private static final int MAX_ID = UnsignedDataTypes.UNSIGNED_SHORT_MAX_VALUE;
+    private static final int ORDER_COUNT = 1024; // power of 2
+
+    @Param({"1", "64", "10000"})
+    public int inFlight;
+    @Param({"false", "true"})
+    public boolean outOfOrder;
+
+    private Ranges packetIdentifiers;
+    private IntMap<Object> inFlightMessages;
+    private int[] inFlightIds;
+    private int[] order;
+    private int index;
+    private final Object message = new Object();
+
+    @Setup
+    public void setUp() {
+        packetIdentifiers = new Ranges(1, MAX_ID);
+        inFlightMessages = IntMap.range(1, MAX_ID);
+        inFlightIds = new int[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            final int id = packetIdentifiers.getId();
+            inFlightMessages.put(id, message);
+            inFlightIds[i] = id;
+        }
+        order = new int[ORDER_COUNT];
+        final Random random = new Random(0);
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            order[i] = outOfOrder ? random.nextInt(inFlight) : (i % inFlight);
+        }
+    }
+
+    @Benchmark
+    public int acknowledgeAndAllocate() {
+        final int slot = order[index++ & (ORDER_COUNT - 1)];
+        final int acknowledgedId = inFlightIds[slot];
+        inFlightMessages.remove(acknowledgedId);
+        packetIdentifiers.returnId(acknowledgedId);
+
+        final int id = packetIdentifiers.getId();
+        inFlightMessages.put(id, message);
+        inFlightIds[slot] = id;
+        return id;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.util.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures offering and polling of the {@link ChunkedArrayQueue} which is used to queue publishes and publish results
+ * in the publish flows.
+ *
+ * @author Silvio Giebl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkedArrayQueueBenchmark {
+
+    private static final int CHUNK_SIZE = 64;
+
+    @Param({"0", "63", "1000"})
+    public int queued;
+
+    private ChunkedArrayQueue<Object> queue;
+    private final Object element = new Object();
+
+    @Setup
+    public void setUp() {
+        queue = new ChunkedArrayQueue<>(CHUNK_SIZE);
+        for (int i = 0; i < queued; i++) {
+            queue.offer(element);
+        }
+    }
+
+    @Benchmark
+    public Object offerPoll() {
+        queue.offer(element);
+        return queue.poll();
+    }
+
+    @Benchmark
+    public int iterate() {
+        int count = 0;
+        for (final Object ignored : queue) {
+            count++;
+        }
+        return count;
+    }
+
+}
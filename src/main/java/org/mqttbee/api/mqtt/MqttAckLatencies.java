@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+
+/**
+ * Latencies of the acknowledgement flows of the outgoing QoS 1 and QoS 2 publishes of a client, recorded separately for
+ * each {@link MqttAckLatencyPhase} over all connections of the client.
+ * <p>
+ * Recording does not block the client. The latencies are read as interval snapshots: every snapshot contains the
+ * latencies recorded since the previous snapshot of the same phase, so a monitoring task can take snapshots
+ * periodically and report the percentiles of each interval.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttAckLatencies {
+
+    /**
+     * Takes a snapshot of the latencies recorded since the previous snapshot of the phase and starts a new interval.
+     * Can be called from any thread.
+     *
+     * @param phase the phase of the acknowledgement flow.
+     * @return the latencies of the phase recorded in the interval.
+     */
+    @NotNull
+    MqttLatencySnapshot getIntervalSnapshot(@NotNull MqttAckLatencyPhase phase);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+/**
+ * Phases of the acknowledgement flows of outgoing QoS 1 and QoS 2 publishes for which the client records latencies.
+ *
+ * @author Silvio Giebl
+ * @see MqttAckLatencies
+ */
+public enum MqttAckLatencyPhase {
+
+    /**
+     * From writing a QoS 1 PUBLISH message until its PUBACK message is received.
+     */
+    PUBLISH_TO_PUBACK,
+    /**
+     * From writing a QoS 2 PUBLISH message until its PUBREC message is received.
+     */
+    PUBLISH_TO_PUBREC,
+    /**
+     * From writing a PUBREL message until its PUBCOMP message is received.
+     */
+    PUBREL_TO_PUBCOMP
+
+}
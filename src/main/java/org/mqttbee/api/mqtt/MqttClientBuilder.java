@@ -19,11 +19,14 @@ package org.mqttbee.api.mqtt;
 
 import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.mqttbee.api.mqtt.datatypes.MqttClientIdentifier;
 import org.mqttbee.api.mqtt.mqtt3.Mqtt3ClientBuilder;
 import org.mqttbee.api.mqtt.mqtt5.Mqtt5ClientBuilder;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
 import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
 import org.mqttbee.mqtt.MqttClientSslConfigImpl;
+import org.mqttbee.mqtt.MqttClientTransportConfigImpl;
 import org.mqttbee.mqtt.MqttWebSocketConfigImpl;
 import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
 import org.mqttbee.mqtt.util.MqttBuilderUtil;
@@ -40,9 +43,13 @@ public class MqttClientBuilder {
     protected String serverHost = DEFAULT_SERVER_HOST;
     protected int serverPort = DEFAULT_SERVER_PORT;
     private boolean customServerPort = false;
+    protected String serverDomainSocketPath = null;
+    protected MqttClientConnectStrategyImpl connectStrategy = null;
     protected MqttClientSslConfig sslConfig = null;
     protected MqttWebSocketConfig webSocketConfig = null;
     protected MqttClientExecutorConfigImpl executorConfig = MqttClientExecutorConfigImpl.DEFAULT;
+    protected MqttClientTransportConfigImpl transportConfig = MqttClientTransportConfigImpl.DEFAULT;
+    protected MqttClientMetrics metrics = null;
 
     protected MqttClientBuilder() {
     }
@@ -72,6 +79,39 @@ public class MqttClientBuilder {
         return this;
     }
 
+    /**
+     * Connects to the server via the Unix domain socket at the given path instead of TCP. The server host and port are
+     * ignored then. Unix domain sockets are only supported with the native epoll transport (Linux).
+     *
+     * @param path the path of the Unix domain socket.
+     * @return this builder.
+     */
+    @NotNull
+    public MqttClientBuilder serverDomainSocket(@NotNull final String path) {
+        this.serverDomainSocketPath = Preconditions.checkNotNull(path, "Server domain socket path must not be null.");
+        return this;
+    }
+
+    /**
+     * Sets the strategy for connecting to a server which is reachable via multiple addresses. The server host and port
+     * are the first candidate address, the additional addresses of the strategy are tried as well.
+     *
+     * @param connectStrategy the connect strategy or null to connect only to the server host and port.
+     * @return this builder.
+     * @see MqttClientConnectStrategy
+     */
+    @NotNull
+    public MqttClientBuilder connectStrategy(@Nullable final MqttClientConnectStrategy connectStrategy) {
+        this.connectStrategy = MustNotBeImplementedUtil.checkNullOrNotImplemented(
+                connectStrategy, MqttClientConnectStrategyImpl.class);
+        return this;
+    }
+
+    @NotNull
+    public MqttClientConnectStrategyBuilder<? extends MqttClientBuilder> connectStrategy() {
+        return new MqttClientConnectStrategyBuilder<>(this::connectStrategy);
+    }
+
     @NotNull
     public MqttClientBuilder useSslWithDefaultConfig() {
         return useSsl(MqttClientSslConfigImpl.DEFAULT);
@@ -130,14 +170,42 @@ public class MqttClientBuilder {
         return new MqttClientExecutorConfigBuilder<>(this::executorConfig);
     }
 
+    @NotNull
+    public MqttClientBuilder transportConfig(@NotNull final MqttClientTransportConfig transportConfig) {
+        this.transportConfig =
+                MustNotBeImplementedUtil.checkNotImplemented(transportConfig, MqttClientTransportConfigImpl.class);
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<? extends MqttClientBuilder> transportConfig() {
+        return new MqttClientTransportConfigBuilder<>(this::transportConfig);
+    }
+
+    /**
+     * Registers metrics which are notified about the messages, flushes and disconnects of the client and can read the
+     * gauges of its internal queues.
+     *
+     * @param metrics the metrics or null to not collect metrics.
+     * @return this builder.
+     * @see MqttClientMetrics
+     */
+    @NotNull
+    public MqttClientBuilder metrics(@Nullable final MqttClientMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     @NotNull
     public Mqtt3ClientBuilder useMqttVersion3() {
-        return new Mqtt3ClientBuilder(identifier, serverHost, serverPort, sslConfig, webSocketConfig, executorConfig);
+        return new Mqtt3ClientBuilder(identifier, serverHost, serverPort, serverDomainSocketPath, connectStrategy,
+                sslConfig, webSocketConfig, executorConfig, transportConfig, metrics);
     }
 
     @NotNull
     public Mqtt5ClientBuilder useMqttVersion5() {
-        return new Mqtt5ClientBuilder(identifier, serverHost, serverPort, sslConfig, webSocketConfig, executorConfig);
+        return new Mqtt5ClientBuilder(identifier, serverHost, serverPort, serverDomainSocketPath, connectStrategy,
+                sslConfig, webSocketConfig, executorConfig, transportConfig, metrics);
     }
 
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy for connecting to a server which is reachable via multiple addresses, for example a broker cluster or a
+ * host with multiple A/AAAA records.
+ * <p>
+ * The candidates are the server host and port of the client and the additional {@link #getServerAddresses() server
+ * addresses}, each expanded to all its resolved IP addresses if {@link #resolvesAllAddresses()} is true. The client
+ * races connection attempts to the candidates: the next attempt is started after the {@link #getAttemptDelay(TimeUnit)
+ * attempt delay} or as soon as the previous attempt failed. An attempt succeeds when the TCP connection (and the TLS
+ * handshake if SSL is used) is established. The first successful attempt is used, all others are cancelled.
+ * <p>
+ * The client remembers the connect latency of every address and tries the fastest addresses first on the next
+ * connect, so a partial outage costs about the latency of the fastest reachable address instead of the sum of the
+ * connect timeouts.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttClientConnectStrategy {
+
+    long DEFAULT_ATTEMPT_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    boolean DEFAULT_RESOLVE_ALL_ADDRESSES = true;
+
+    @NotNull
+    static MqttClientConnectStrategyBuilder<Void> builder() {
+        return new MqttClientConnectStrategyBuilder<>(null);
+    }
+
+    /**
+     * @return the server addresses which are tried in addition to the server host and port of the client.
+     */
+    @NotNull
+    ImmutableList<InetSocketAddress> getServerAddresses();
+
+    /**
+     * @param timeUnit the time unit of the returned delay.
+     * @return the delay after which the next connection attempt is started while the previous is still pending.
+     */
+    long getAttemptDelay(@NotNull TimeUnit timeUnit);
+
+    /**
+     * @return whether every host name is resolved to all of its IP addresses which are then raced separately.
+     */
+    boolean resolvesAllAddresses();
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
+import org.mqttbee.util.FluentBuilder;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mqttbee.api.mqtt.MqttClientConnectStrategy.DEFAULT_ATTEMPT_DELAY_NANOS;
+import static org.mqttbee.api.mqtt.MqttClientConnectStrategy.DEFAULT_RESOLVE_ALL_ADDRESSES;
+
+/**
+ * @author Silvio Giebl
+ */
+public class MqttClientConnectStrategyBuilder<P> extends FluentBuilder<MqttClientConnectStrategy, P> {
+
+    private final ImmutableList.Builder<InetSocketAddress> serverAddresses = ImmutableList.builder();
+    private long attemptDelayNanos = DEFAULT_ATTEMPT_DELAY_NANOS;
+    private boolean resolveAllAddresses = DEFAULT_RESOLVE_ALL_ADDRESSES;
+
+    public MqttClientConnectStrategyBuilder(
+            @Nullable final Function<? super MqttClientConnectStrategy, P> parentConsumer) {
+
+        super(parentConsumer);
+    }
+
+    @NotNull
+    public MqttClientConnectStrategyBuilder<P> serverAddress(@NotNull final String host, final int port) {
+        Preconditions.checkNotNull(host, "Server host must not be null.");
+        Preconditions.checkArgument((port > 0) && (port <= 0xFFFF), "Server port must be between 1 and 65535. " +
+                "Found: %s.", port);
+        serverAddresses.add(InetSocketAddress.createUnresolved(host, port));
+        return this;
+    }
+
+    @NotNull
+    public MqttClientConnectStrategyBuilder<P> serverAddress(@NotNull final InetSocketAddress address) {
+        serverAddresses.add(Preconditions.checkNotNull(address, "Server address must not be null."));
+        return this;
+    }
+
+    @NotNull
+    public MqttClientConnectStrategyBuilder<P> attemptDelay(final long attemptDelay, @NotNull final TimeUnit timeUnit) {
+        Preconditions.checkArgument(attemptDelay >= 0, "Attempt delay must not be negative. Found: %s.", attemptDelay);
+        Preconditions.checkNotNull(timeUnit, "Time unit must not be null.");
+        this.attemptDelayNanos = timeUnit.toNanos(attemptDelay);
+        return this;
+    }
+
+    @NotNull
+    public MqttClientConnectStrategyBuilder<P> resolveAllAddresses(final boolean resolveAllAddresses) {
+        this.resolveAllAddresses = resolveAllAddresses;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientConnectStrategy build() {
+        return new MqttClientConnectStrategyImpl(serverAddresses.build(), attemptDelayNanos, resolveAllAddresses);
+    }
+
+}
@@ -37,6 +37,25 @@ public interface MqttClientData {
 
     int getServerPort();
 
+    /**
+     * @return whether the client connects to the server via a Unix domain socket instead of TCP.
+     */
+    boolean usesDomainSocket();
+
+    /**
+     * @return the optional path of the Unix domain socket the client connects to. If present, the server host and
+     * port are not used for connecting.
+     */
+    @NotNull
+    Optional<String> getServerDomainSocketPath();
+
+    /**
+     * @return the optional strategy for connecting to multiple server addresses. If absent, the client connects only
+     * to the server host and port.
+     */
+    @NotNull
+    Optional<MqttClientConnectStrategy> getConnectStrategy();
+
     boolean usesSsl();
 
     @NotNull
@@ -50,6 +69,15 @@ public interface MqttClientData {
     @NotNull
     MqttClientExecutorConfig getExecutorConfig();
 
+    @NotNull
+    MqttClientTransportConfig getTransportConfig();
+
+    /**
+     * @return the latencies of the acknowledgement flows of the outgoing QoS 1 and QoS 2 publishes of the client.
+     */
+    @NotNull
+    MqttAckLatencies getAckLatencies();
+
     boolean isConnecting();
 
     boolean isConnected();
@@ -41,7 +41,36 @@ public interface MqttClientExecutorConfig {
     @NotNull
     Optional<Integer> getUserDefinedNettyThreads();
 
+    /**
+     * @return the optional index of the Netty event loop the client is pinned to, modulo the number of Netty threads.
+     * If absent, Netty assigns the event loops round-robin.
+     */
+    @NotNull
+    Optional<Integer> getNettyEventLoop();
+
+    /**
+     * @return the scheduler the application callbacks are executed on if {@link #runsApplicationOnEventLoop()} is
+     * false.
+     */
     @NotNull
     Scheduler getApplicationScheduler();
 
+    /**
+     * @return whether the application callbacks are executed on the Netty event loop of the client's connection instead
+     * of the {@link #getApplicationScheduler() application scheduler}.
+     */
+    boolean runsApplicationOnEventLoop();
+
+    /**
+     * @return whether the callbacks of the incoming publish flows are called directly by the Netty event loop of the
+     *         client's connection without any scheduler in between.
+     */
+    boolean runsApplicationInline();
+
+    /**
+     * @return the duration in nanoseconds after which an inline callback is reported as slow, or 0 if the duration of
+     *         inline callbacks is not checked.
+     */
+    long getSlowCallbackThresholdNanos();
+
 }
@@ -18,6 +18,7 @@
 package org.mqttbee.api.mqtt;
 
 import com.google.common.base.Preconditions;
+import io.netty.util.concurrent.ThreadPerTaskExecutor;
 import io.reactivex.Scheduler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -25,6 +26,8 @@ import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
 import org.mqttbee.util.FluentBuilder;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -34,7 +37,11 @@ public class MqttClientExecutorConfigBuilder<P> extends FluentBuilder<MqttClient
 
     private Executor nettyExecutor;
     private int nettyThreads = MqttClientExecutorConfigImpl.DEFAULT_NETTY_THREADS;
+    private int nettyEventLoop = MqttClientExecutorConfigImpl.DEFAULT_NETTY_EVENT_LOOP;
     private Scheduler applicationScheduler = MqttClientExecutorConfigImpl.DEFAULT_RX_JAVA_SCHEDULER;
+    private boolean applicationOnEventLoop = false;
+    private boolean applicationInline = false;
+    private long slowCallbackThresholdNanos = MqttClientExecutorConfigImpl.DEFAULT_SLOW_CALLBACK_THRESHOLD_NANOS;
 
     public MqttClientExecutorConfigBuilder(
             @Nullable final Function<? super MqttClientExecutorConfig, P> parentConsumer) {
@@ -49,6 +56,20 @@ public class MqttClientExecutorConfigBuilder<P> extends FluentBuilder<MqttClient
         return this;
     }
 
+    /**
+     * Runs the Netty threads created by the given thread factory, e.g. to pin them to CPU cores. Clients which should
+     * share the event loops must use the same executor config.
+     *
+     * @param nettyThreadFactory the factory for the Netty threads.
+     * @return this builder.
+     */
+    @NotNull
+    public MqttClientExecutorConfigBuilder<P> nettyThreadFactory(@NotNull final ThreadFactory nettyThreadFactory) {
+        Preconditions.checkNotNull(nettyThreadFactory, "Netty thread factory must not be null.");
+        this.nettyExecutor = new ThreadPerTaskExecutor(nettyThreadFactory);
+        return this;
+    }
+
     @NotNull
     public MqttClientExecutorConfigBuilder<P> nettyThreads(final int nettyThreads) {
         Preconditions.checkArgument(nettyThreads > 0, "Number of Netty threads must be bigger than 0. Found: %s.",
@@ -57,6 +78,21 @@ public class MqttClientExecutorConfigBuilder<P> extends FluentBuilder<MqttClient
         return this;
     }
 
+    /**
+     * Pins the client to the Netty event loop with the given index (modulo the number of Netty threads), e.g. a hash of
+     * the client identifier, instead of letting Netty assign the event loops round-robin.
+     *
+     * @param nettyEventLoop the index of the event loop.
+     * @return this builder.
+     */
+    @NotNull
+    public MqttClientExecutorConfigBuilder<P> nettyEventLoop(final int nettyEventLoop) {
+        Preconditions.checkArgument(nettyEventLoop >= 0, "Netty event loop index must not be negative. Found: %s.",
+                nettyEventLoop);
+        this.nettyEventLoop = nettyEventLoop;
+        return this;
+    }
+
     @NotNull
     public MqttClientExecutorConfigBuilder<P> applicationScheduler(@NotNull final Scheduler applicationScheduler) {
         Preconditions.checkNotNull(applicationScheduler, "Application scheduler must not be null.");
@@ -64,10 +100,74 @@ public class MqttClientExecutorConfigBuilder<P> extends FluentBuilder<MqttClient
         return this;
     }
 
+    /**
+     * Executes the application callbacks on the Netty event loop of the client's connection instead of the application
+     * scheduler, which avoids handing every message over to another thread. Callbacks must not block then.
+     * <p>
+     * Flows which are subscribed while the client is not connected still use the application scheduler.
+     *
+     * @param applicationOnEventLoop whether the application callbacks are executed on the event loop.
+     * @return this builder.
+     */
+    @NotNull
+    public MqttClientExecutorConfigBuilder<P> applicationOnEventLoop(final boolean applicationOnEventLoop) {
+        this.applicationOnEventLoop = applicationOnEventLoop;
+        return this;
+    }
+
+    /**
+     * Calls the callbacks of the incoming publish flows (subscriptions with a stream and global publish flows) directly
+     * on the Netty event loop which decodes the messages, without handing them over to a scheduler. This gives the
+     * lowest latency from the socket to the application, but the event loop can not read, decode or acknowledge
+     * anything while a callback runs.
+     * <p>
+     * Callbacks therefore must follow a strict non-blocking contract: they must not block (no I/O, locks, sleeps or
+     * blocking calls on the client), must return within a few microseconds and should hand longer work over to
+     * another thread. Backpressure still applies, so a callback must not request more messages than it can handle
+     * inline. Callbacks which take longer than the {@link #slowCallbackThreshold(long, TimeUnit) slow callback
+     * threshold} are reported, both while they are still running and when they return.
+     * <p>
+     * The other callbacks of the client (acknowledgements and results) are still observed on the application
+     * scheduler.
+     *
+     * @param applicationInline whether the callbacks of the incoming publish flows are called inline.
+     * @return this builder.
+     */
+    @NotNull
+    public MqttClientExecutorConfigBuilder<P> applicationInline(final boolean applicationInline) {
+        this.applicationInline = applicationInline;
+        return this;
+    }
+
+    /**
+     * Sets the duration after which an inline callback is reported as slow (default 1 millisecond). Only has an effect
+     * if the callbacks are called {@link #applicationInline(boolean) inline}.
+     * <p>
+     * A watchdog thread samples the running callbacks at least twice per threshold (but at most every millisecond)
+     * and logs a callback which is still running after the threshold with the stack trace of the blocked event loop,
+     * so callbacks which never return are found too. When a slow callback returns, its full duration is logged,
+     * counted by the client metrics and recorded as Java Flight Recorder event.
+     *
+     * @param slowCallbackThreshold the threshold, 0 disables the check.
+     * @param timeUnit              the time unit of the threshold.
+     * @return this builder.
+     */
+    @NotNull
+    public MqttClientExecutorConfigBuilder<P> slowCallbackThreshold(
+            final long slowCallbackThreshold, @NotNull final TimeUnit timeUnit) {
+
+        Preconditions.checkArgument(slowCallbackThreshold >= 0,
+                "Slow callback threshold must not be negative. Found: %s.", slowCallbackThreshold);
+        Preconditions.checkNotNull(timeUnit, "Time unit must not be null.");
+        this.slowCallbackThresholdNanos = timeUnit.toNanos(slowCallbackThreshold);
+        return this;
+    }
+
     @NotNull
     @Override
     public MqttClientExecutorConfig build() {
-        return new MqttClientExecutorConfigImpl(nettyExecutor, nettyThreads, applicationScheduler);
+        return new MqttClientExecutorConfigImpl(nettyExecutor, nettyThreads, nettyEventLoop, applicationScheduler,
+                applicationOnEventLoop, applicationInline, slowCallbackThresholdNanos);
     }
 
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.mqttbee.annotations.DoNotImplement;
+
+/**
+ * Gauges of the internal queues of a client. The values refer to the current connection and are 0 if the client is
+ * not connected.
+ * <p>
+ * The gauges can be read from any thread. As the queues are modified on the Netty event loop without synchronization,
+ * the values are approximate snapshots.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttClientGauges {
+
+    /**
+     * @return the number of outgoing publishes queued before they are handed to the connection.
+     */
+    int getOutgoingPublishQueueSize();
+
+    /**
+     * @return the number of outgoing QoS 1 and 2 publishes which are sent but not acknowledged yet.
+     */
+    int getOutgoingQos1Or2PublishCount();
+
+    /**
+     * @return the number of incoming publishes queued until they are consumed by the application.
+     */
+    int getIncomingPublishQueueSize();
+
+    /**
+     * @return the smoothed round trip time to the server in nanoseconds or -1 if it was not measured yet.
+     */
+    long getSmoothedRttNanos();
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+
+/**
+ * Service provider interface for collecting metrics of a client. An implementation is registered on the client
+ * builder and adapts the events to a metrics library. All methods do nothing by default, so an implementation only
+ * overrides the events it is interested in.
+ * <p>
+ * Except for {@link #bindGauges(MqttClientGauges)}, the methods are called on the Netty event loop of the connection
+ * for every message or flush. Implementations must be thread safe as multiple clients can share an implementation and
+ * the connections of a client can run on different event loops. They must return quickly and must not block, for
+ * example by only incrementing counters.
+ *
+ * @author Silvio Giebl
+ */
+public interface MqttClientMetrics {
+
+    /**
+     * Called once when a client is built, before it connects. The gauges can be read from any thread at any time.
+     *
+     * @param gauges the gauges of the client.
+     */
+    default void bindGauges(@NotNull final MqttClientGauges gauges) {
+    }
+
+    /**
+     * Called when the client is connected, after the CONNACK message was received.
+     */
+    default void onConnected() {
+    }
+
+    /**
+     * Called when the connection of the client is closed.
+     *
+     * @param cause      the cause of the disconnect, for example a {@link Mqtt5MessageException} containing the
+     *                   DISCONNECT message.
+     * @param fromServer whether the server sent a DISCONNECT message or closed the connection.
+     */
+    default void onDisconnected(@NotNull final Throwable cause, final boolean fromServer) {
+    }
+
+    /**
+     * Called when a message was encoded.
+     *
+     * @param type  the type of the message.
+     * @param bytes the encoded size of the message in bytes.
+     */
+    default void onMessageEncoded(@NotNull final Mqtt5MessageType type, final int bytes) {
+    }
+
+    /**
+     * Called when a message was decoded.
+     *
+     * @param type  the type of the message.
+     * @param bytes the encoded size of the message in bytes.
+     */
+    default void onMessageDecoded(@NotNull final Mqtt5MessageType type, final int bytes) {
+    }
+
+    /**
+     * Called when the connection is flushed, so the encoded messages are written to the socket.
+     */
+    default void onFlush() {
+    }
+
+    /**
+     * Called when an outgoing publish is not sent because its Message Expiry Interval elapsed while it was queued. The
+     * result of the publish contains a {@link org.mqttbee.api.mqtt.exceptions.MessageExpiredException
+     * MessageExpiredException}.
+     */
+    default void onOutgoingPublishExpired() {
+    }
+
+    /**
+     * Called when an incoming publish is not delivered to all of its flows because its Message Expiry Interval elapsed
+     * while it was queued as the flows did not request more publishes.
+     */
+    default void onIncomingPublishExpired() {
+    }
+
+    /**
+     * Called when an inline callback of an incoming publish flow returned after it took longer than the slow callback
+     * threshold of the {@link MqttClientExecutorConfig executor config}. Callbacks which are still running are only
+     * logged by the watchdog of the client, they are counted here as soon as they return.
+     *
+     * @param durationNanos the duration of the callback in nanoseconds.
+     */
+    default void onSlowCallback(final long durationNanos) {
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the automatic reconnect of a client. If the connection is lost without the application calling
+ * disconnect, the client connects again with the same CONNECT message after an exponentially growing delay.
+ * <p>
+ * The delay before the n-th attempt (starting at 0) is <code>min(initialDelay * multiplier^n, maxDelay)</code>,
+ * randomly reduced by up to the {@link #getJitter() jitter} fraction so that many clients do not reconnect in lockstep.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttClientReconnectConfig {
+
+    long DEFAULT_INITIAL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    long DEFAULT_MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(5);
+    double DEFAULT_MULTIPLIER = 2;
+    double DEFAULT_JITTER = 0.5;
+
+    @NotNull
+    static MqttClientReconnectConfigBuilder<Void> builder() {
+        return new MqttClientReconnectConfigBuilder<>(null);
+    }
+
+    /**
+     * @param timeUnit the time unit of the returned delay.
+     * @return the delay before the first reconnect attempt.
+     */
+    long getInitialDelay(@NotNull TimeUnit timeUnit);
+
+    /**
+     * @param timeUnit the time unit of the returned delay.
+     * @return the maximum delay between two reconnect attempts.
+     */
+    long getMaxDelay(@NotNull TimeUnit timeUnit);
+
+    /**
+     * @return the factor the delay grows by with every failed attempt.
+     */
+    double getMultiplier();
+
+    /**
+     * @return the fraction (0 to 1) by which a delay is randomly reduced.
+     */
+    double getJitter();
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.mqtt.MqttClientReconnectConfigImpl;
+import org.mqttbee.util.FluentBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mqttbee.api.mqtt.MqttClientReconnectConfig.*;
+
+/**
+ * @author Silvio Giebl
+ */
+public class MqttClientReconnectConfigBuilder<P> extends FluentBuilder<MqttClientReconnectConfig, P> {
+
+    private long initialDelayNanos = DEFAULT_INITIAL_DELAY_NANOS;
+    private long maxDelayNanos = DEFAULT_MAX_DELAY_NANOS;
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private double jitter = DEFAULT_JITTER;
+
+    public MqttClientReconnectConfigBuilder(
+            @Nullable final Function<? super MqttClientReconnectConfig, P> parentConsumer) {
+
+        super(parentConsumer);
+    }
+
+    @NotNull
+    public MqttClientReconnectConfigBuilder<P> initialDelay(final long initialDelay, @NotNull final TimeUnit timeUnit) {
+        Preconditions.checkArgument(initialDelay >= 0, "Initial delay must not be negative. Found: %s.", initialDelay);
+        Preconditions.checkNotNull(timeUnit, "Time unit must not be null.");
+        this.initialDelayNanos = timeUnit.toNanos(initialDelay);
+        return this;
+    }
+
+    @NotNull
+    public MqttClientReconnectConfigBuilder<P> maxDelay(final long maxDelay, @NotNull final TimeUnit timeUnit) {
+        Preconditions.checkArgument(maxDelay >= 0, "Maximum delay must not be negative. Found: %s.", maxDelay);
+        Preconditions.checkNotNull(timeUnit, "Time unit must not be null.");
+        this.maxDelayNanos = timeUnit.toNanos(maxDelay);
+        return this;
+    }
+
+    @NotNull
+    public MqttClientReconnectConfigBuilder<P> multiplier(final double multiplier) {
+        Preconditions.checkArgument(multiplier >= 1, "Multiplier must not be smaller than 1. Found: %s.", multiplier);
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientReconnectConfigBuilder<P> jitter(final double jitter) {
+        Preconditions.checkArgument((jitter >= 0) && (jitter <= 1), "Jitter must be between 0 and 1. Found: %s.",
+                jitter);
+        this.jitter = jitter;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientReconnectConfig build() {
+        Preconditions.checkArgument(maxDelayNanos >= initialDelayNanos,
+                "Maximum delay must not be smaller than the initial delay.");
+        return new MqttClientReconnectConfigImpl(initialDelayNanos, maxDelayNanos, multiplier, jitter);
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.mqttbee.annotations.DoNotImplement;
+
+/**
+ * Statistics of the automatic reconnect of a client. The recovery time is the time from the loss of a connection until
+ * the CONNACK of the reconnect is received.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttClientReconnectStatistics {
+
+    /**
+     * @return whether the client is currently trying to reconnect.
+     */
+    boolean isReconnecting();
+
+    /**
+     * @return the amount of lost connections that were recovered.
+     */
+    long getRecoveredCount();
+
+    /**
+     * @return the amount of reconnect attempts that failed.
+     */
+    long getFailedAttemptCount();
+
+    /**
+     * @return the recovery time of the last recovered connection in nanoseconds or 0 if no connection was recovered
+     * yet.
+     */
+    long getLastRecoveryTimeNanos();
+
+    /**
+     * @return the maximum recovery time in nanoseconds.
+     */
+    long getMaxRecoveryTimeNanos();
+
+    /**
+     * @return the sum of all recovery times in nanoseconds.
+     */
+    long getTotalRecoveryTimeNanos();
+
+}
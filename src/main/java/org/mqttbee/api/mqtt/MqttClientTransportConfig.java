@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+
+import java.util.Optional;
+
+/**
+ * Low level transport settings of a client connection. Unset values keep the defaults of Netty and the operating
+ * system.
+ * <p>
+ * The native epoll options ({@link #usesTcpQuickAck()}, {@link #getTcpNotSentLowAt()} and {@link
+ * #getBusyPollMicros()}) and the buffer auto-tuning are only applied when the native epoll transport is used.
+ * <p>
+ * The {@link #getPingResponseTimeoutMillis() PINGRESP timeout} controls how fast a dead connection is detected by the
+ * keep alive mechanism.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttClientTransportConfig {
+
+    @NotNull
+    static MqttClientTransportConfigBuilder<Void> builder() {
+        return new MqttClientTransportConfigBuilder<>(null);
+    }
+
+    /**
+     * @return the optional size of the socket send buffer (SO_SNDBUF) in bytes.
+     */
+    @NotNull
+    Optional<Integer> getSendBufferSize();
+
+    /**
+     * @return the optional size of the socket receive buffer (SO_RCVBUF) in bytes.
+     */
+    @NotNull
+    Optional<Integer> getReceiveBufferSize();
+
+    /**
+     * @return the optional low water mark of the outbound buffer in bytes. The channel becomes writable again if the
+     * amount of pending outbound bytes drops below it.
+     */
+    @NotNull
+    Optional<Integer> getWriteBufferLowWaterMark();
+
+    /**
+     * @return the optional high water mark of the outbound buffer in bytes. The channel becomes unwritable if the
+     * amount of pending outbound bytes exceeds it.
+     */
+    @NotNull
+    Optional<Integer> getWriteBufferHighWaterMark();
+
+    /**
+     * @return the optional fixed size of the buffers used for reading in bytes. If absent, the size adapts to the
+     * amount of data read.
+     */
+    @NotNull
+    Optional<Integer> getFixedReceiveBufferSize();
+
+    /**
+     * @return the optional maximum number of reads per read loop.
+     */
+    @NotNull
+    Optional<Integer> getMaxMessagesPerRead();
+
+    /**
+     * @return whether delayed acknowledgements are disabled (TCP_QUICKACK).
+     */
+    boolean usesTcpQuickAck();
+
+    /**
+     * @return the optional limit of unsent bytes in the socket send buffer (TCP_NOTSENT_LOWAT).
+     */
+    @NotNull
+    Optional<Integer> getTcpNotSentLowAt();
+
+    /**
+     * @return the optional busy poll timeout in microseconds (SO_BUSY_POLL).
+     */
+    @NotNull
+    Optional<Integer> getBusyPollMicros();
+
+    /**
+     * @return whether the socket buffers and write buffer water marks are sized periodically from the observed
+     * bandwidth-delay product of the connection. The send and receive buffers are sized from the bandwidth of their
+     * own direction and never shrink below their initial sizes, which are the explicitly set buffer sizes or the kernel
+     * defaults. Once the receive buffer is grown, the receive buffer autotuning of the Linux kernel is switched off for
+     * the connection.
+     */
+    boolean autoTunesBuffers();
+
+    /**
+     * @return the optional fixed time in milliseconds to wait for a PINGRESP message before the connection is
+     * considered dead. If absent, the timeout adapts to the measured round trip time of the connection and is extended
+     * while other messages are still received.
+     */
+    @NotNull
+    Optional<Integer> getPingResponseTimeoutMillis();
+
+}
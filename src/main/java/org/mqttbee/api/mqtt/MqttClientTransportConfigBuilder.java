@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.mqtt.MqttClientTransportConfigImpl;
+import org.mqttbee.util.FluentBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mqttbee.mqtt.MqttClientTransportConfigImpl.DEFAULT_VALUE;
+
+/**
+ * @author Silvio Giebl
+ */
+public class MqttClientTransportConfigBuilder<P> extends FluentBuilder<MqttClientTransportConfig, P> {
+
+    private int sendBufferSize = DEFAULT_VALUE;
+    private int receiveBufferSize = DEFAULT_VALUE;
+    private int writeBufferLowWaterMark = DEFAULT_VALUE;
+    private int writeBufferHighWaterMark = DEFAULT_VALUE;
+    private int fixedReceiveBufferSize = DEFAULT_VALUE;
+    private int maxMessagesPerRead = DEFAULT_VALUE;
+    private boolean tcpQuickAck = false;
+    private int tcpNotSentLowAt = DEFAULT_VALUE;
+    private int busyPollMicros = DEFAULT_VALUE;
+    private boolean autoTuneBuffers = false;
+    private int pingResponseTimeoutMillis = DEFAULT_VALUE;
+
+    public MqttClientTransportConfigBuilder(
+            @Nullable final Function<? super MqttClientTransportConfig, P> parentConsumer) {
+
+        super(parentConsumer);
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> sendBufferSize(final int sendBufferSize) {
+        Preconditions.checkArgument(sendBufferSize > 0, "Send buffer size must be bigger than 0. Found: %s.",
+                sendBufferSize);
+        this.sendBufferSize = sendBufferSize;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> receiveBufferSize(final int receiveBufferSize) {
+        Preconditions.checkArgument(receiveBufferSize > 0, "Receive buffer size must be bigger than 0. Found: %s.",
+                receiveBufferSize);
+        this.receiveBufferSize = receiveBufferSize;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> writeBufferWaterMarks(final int low, final int high) {
+        Preconditions.checkArgument(low > 0, "Write buffer low water mark must be bigger than 0. Found: %s.", low);
+        Preconditions.checkArgument(high >= low,
+                "Write buffer high water mark must not be smaller than the low water mark %s. Found: %s.", low, high);
+        this.writeBufferLowWaterMark = low;
+        this.writeBufferHighWaterMark = high;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> fixedReceiveBufferSize(final int fixedReceiveBufferSize) {
+        Preconditions.checkArgument(fixedReceiveBufferSize > 0,
+                "Fixed receive buffer size must be bigger than 0. Found: %s.", fixedReceiveBufferSize);
+        this.fixedReceiveBufferSize = fixedReceiveBufferSize;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> maxMessagesPerRead(final int maxMessagesPerRead) {
+        Preconditions.checkArgument(maxMessagesPerRead > 0,
+                "Maximum messages per read must be bigger than 0. Found: %s.", maxMessagesPerRead);
+        this.maxMessagesPerRead = maxMessagesPerRead;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> tcpQuickAck(final boolean tcpQuickAck) {
+        this.tcpQuickAck = tcpQuickAck;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> tcpNotSentLowAt(final int tcpNotSentLowAt) {
+        Preconditions.checkArgument(tcpNotSentLowAt > 0, "TCP not sent low at must be bigger than 0. Found: %s.",
+                tcpNotSentLowAt);
+        this.tcpNotSentLowAt = tcpNotSentLowAt;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> busyPollMicros(final int busyPollMicros) {
+        Preconditions.checkArgument(busyPollMicros > 0, "Busy poll micros must be bigger than 0. Found: %s.",
+                busyPollMicros);
+        this.busyPollMicros = busyPollMicros;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> autoTuneBuffers(final boolean autoTuneBuffers) {
+        this.autoTuneBuffers = autoTuneBuffers;
+        return this;
+    }
+
+    @NotNull
+    public MqttClientTransportConfigBuilder<P> pingResponseTimeout(
+            final long pingResponseTimeout, @NotNull final TimeUnit timeUnit) {
+
+        Preconditions.checkNotNull(timeUnit, "Time unit must not be null.");
+        final long millis = timeUnit.toMillis(pingResponseTimeout);
+        Preconditions.checkArgument((millis > 0) && (millis <= Integer.MAX_VALUE),
+                "Ping response timeout must be between 1 and %s milliseconds. Found: %s.", Integer.MAX_VALUE, millis);
+        this.pingResponseTimeoutMillis = (int) millis;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientTransportConfig build() {
+        return new MqttClientTransportConfigImpl(sendBufferSize, receiveBufferSize, writeBufferLowWaterMark,
+                writeBufferHighWaterMark, fixedReceiveBufferSize, maxMessagesPerRead, tcpQuickAck, tcpNotSentLowAt,
+                busyPollMicros, autoTuneBuffers, pingResponseTimeoutMillis);
+    }
+
+}
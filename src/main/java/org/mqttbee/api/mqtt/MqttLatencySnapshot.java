@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.mqttbee.annotations.DoNotImplement;
+
+/**
+ * Immutable snapshot of the latencies recorded in an interval. The values have a precision of two significant decimal
+ * digits, but at least of one microsecond.
+ *
+ * @author Silvio Giebl
+ * @see MqttAckLatencies
+ */
+@DoNotImplement
+public interface MqttLatencySnapshot {
+
+    /**
+     * @return the start of the interval in milliseconds since the epoch or 0 if nothing was recorded yet.
+     */
+    long getStartTimeStamp();
+
+    /**
+     * @return the end of the interval in milliseconds since the epoch or 0 if nothing was recorded yet.
+     */
+    long getEndTimeStamp();
+
+    /**
+     * @return the number of latencies recorded in the interval.
+     */
+    long getCount();
+
+    /**
+     * @return the minimum latency in nanoseconds or 0 if the count is 0.
+     */
+    long getMinNanos();
+
+    /**
+     * @return the maximum latency in nanoseconds or 0 if the count is 0.
+     */
+    long getMaxNanos();
+
+    /**
+     * @return the mean latency in nanoseconds or 0 if the count is 0.
+     */
+    double getMeanNanos();
+
+    /**
+     * @param percentile the percentile between 0 and 100, for example 99.9.
+     * @return the latency in nanoseconds which is greater than or equal to the given percentile of the latencies or
+     * 0 if the count is 0.
+     */
+    long getValueAtPercentileNanos(double percentile);
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+
+/**
+ * Configuration of the permessage-deflate WebSocket extension (RFC 7692) which compresses the WebSocket frames.
+ * <p>
+ * The extension is offered to the server during the WebSocket handshake. If the server does not accept it, the frames
+ * are sent uncompressed.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface MqttWebSocketCompressionConfig {
+
+    int DEFAULT_COMPRESSION_LEVEL = 6;
+    int MIN_WINDOW_BITS = 8;
+    int MAX_WINDOW_BITS = 15;
+    boolean DEFAULT_SERVER_NO_CONTEXT_TAKEOVER = false;
+    boolean DEFAULT_CLIENT_NO_CONTEXT_TAKEOVER = false;
+
+    @NotNull
+    static MqttWebSocketCompressionConfigBuilder<Void> builder() {
+        return new MqttWebSocketCompressionConfigBuilder<>(null);
+    }
+
+    /**
+     * @return the deflate compression level of the client between 0 (no compression) and 9 (best compression).
+     */
+    int getCompressionLevel();
+
+    /**
+     * @return the maximum LZ77 window size (as a power of two) the server is requested to use for compressing, which
+     * bounds the memory the client needs for decompressing. The window of the client is not reduced, as the JDK
+     * deflater does not support it.
+     */
+    int getServerMaxWindowBits();
+
+    /**
+     * @return whether the server is requested to reset its compression context after each message. This reduces the
+     * memory the connection needs, but also the compression ratio of similar messages.
+     */
+    boolean requestsServerNoContextTakeover();
+
+    /**
+     * @return whether the client offers to reset its compression context after each message.
+     */
+    boolean offersClientNoContextTakeover();
+
+}
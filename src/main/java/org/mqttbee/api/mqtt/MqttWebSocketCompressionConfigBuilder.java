@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.mqtt.MqttWebSocketCompressionConfigImpl;
+import org.mqttbee.util.FluentBuilder;
+
+import java.util.function.Function;
+
+import static org.mqttbee.api.mqtt.MqttWebSocketCompressionConfig.*;
+
+/**
+ * @author Silvio Giebl
+ */
+public class MqttWebSocketCompressionConfigBuilder<P> extends FluentBuilder<MqttWebSocketCompressionConfig, P> {
+
+    private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+    private int serverMaxWindowBits = MAX_WINDOW_BITS;
+    private boolean serverNoContextTakeover = DEFAULT_SERVER_NO_CONTEXT_TAKEOVER;
+    private boolean clientNoContextTakeover = DEFAULT_CLIENT_NO_CONTEXT_TAKEOVER;
+
+    public MqttWebSocketCompressionConfigBuilder(
+            @Nullable final Function<? super MqttWebSocketCompressionConfig, P> parentConsumer) {
+
+        super(parentConsumer);
+    }
+
+    @NotNull
+    public MqttWebSocketCompressionConfigBuilder<P> compressionLevel(final int compressionLevel) {
+        Preconditions.checkArgument((compressionLevel >= 0) && (compressionLevel <= 9),
+                "Compression level must be between 0 and 9. Found: %s.", compressionLevel);
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    @NotNull
+    public MqttWebSocketCompressionConfigBuilder<P> serverMaxWindowBits(final int serverMaxWindowBits) {
+        Preconditions.checkArgument(
+                (serverMaxWindowBits >= MIN_WINDOW_BITS) && (serverMaxWindowBits <= MAX_WINDOW_BITS),
+                "Server max window bits must be between %s and %s. Found: %s.",
+                MIN_WINDOW_BITS, MAX_WINDOW_BITS, serverMaxWindowBits);
+        this.serverMaxWindowBits = serverMaxWindowBits;
+        return this;
+    }
+
+    @NotNull
+    public MqttWebSocketCompressionConfigBuilder<P> serverNoContextTakeover(final boolean serverNoContextTakeover) {
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        return this;
+    }
+
+    @NotNull
+    public MqttWebSocketCompressionConfigBuilder<P> clientNoContextTakeover(final boolean clientNoContextTakeover) {
+        this.clientNoContextTakeover = clientNoContextTakeover;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttWebSocketCompressionConfig build() {
+        return new MqttWebSocketCompressionConfigImpl(
+                compressionLevel, serverMaxWindowBits, serverNoContextTakeover, clientNoContextTakeover);
+    }
+
+}
@@ -18,6 +18,8 @@ package org.mqttbee.api.mqtt;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Optional;
+
 /**
  * @author Christian Hoff
  */
@@ -33,4 +35,20 @@ public interface MqttWebSocketConfig {
 
     @NotNull
     String getSubprotocol();
+
+    /**
+     * @return the optional configuration of the permessage-deflate extension which is offered to the server.
+     */
+    @NotNull
+    default Optional<MqttWebSocketCompressionConfig> getCompressionConfig() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return whether all MQTT messages written between two flushes are sent in a single WebSocket frame instead of
+     * one frame per message.
+     */
+    default boolean batchesFrames() {
+        return false;
+    }
 }
@@ -30,6 +30,8 @@ public class MqttWebSocketConfigBuilder<P> extends FluentBuilder<MqttWebSocketCo
 
     private String serverPath = MqttWebSocketConfigImpl.DEFAULT_SERVER_PATH;
     private String subprotocol = MqttWebSocketConfigImpl.DEFAULT_MQTT_SUBPROTOCOL;
+    private MqttWebSocketCompressionConfig compressionConfig;
+    private boolean batchFrames = MqttWebSocketConfigImpl.DEFAULT_BATCH_FRAMES;
 
     public MqttWebSocketConfigBuilder(@Nullable final Function<? super MqttWebSocketConfig, P> parentConsumer) {
         super(parentConsumer);
@@ -48,10 +50,27 @@ public class MqttWebSocketConfigBuilder<P> extends FluentBuilder<MqttWebSocketCo
         return this;
     }
 
+    @NotNull
+    public MqttWebSocketConfigBuilder<P> compression(@Nullable final MqttWebSocketCompressionConfig compressionConfig) {
+        this.compressionConfig = compressionConfig;
+        return this;
+    }
+
+    @NotNull
+    public MqttWebSocketCompressionConfigBuilder<MqttWebSocketConfigBuilder<P>> compression() {
+        return new MqttWebSocketCompressionConfigBuilder<>(this::compression);
+    }
+
+    @NotNull
+    public MqttWebSocketConfigBuilder<P> batchFrames(final boolean batchFrames) {
+        this.batchFrames = batchFrames;
+        return this;
+    }
+
     @NotNull
     @Override
     public MqttWebSocketConfig build() {
-        return new MqttWebSocketConfigImpl(serverPath, subprotocol);
+        return new MqttWebSocketConfigImpl(serverPath, subprotocol, compressionConfig, batchFrames);
     }
 
 }
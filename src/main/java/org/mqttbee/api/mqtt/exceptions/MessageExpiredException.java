@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.exceptions;
+
+/**
+ * Signals that a Publish message was dropped because its Message Expiry Interval elapsed while it was queued.
+ *
+ * @author Silvio Giebl
+ */
+public class MessageExpiredException extends Exception {
+
+    public static final MessageExpiredException INSTANCE = new MessageExpiredException();
+
+    private MessageExpiredException() {
+        super("Message Expiry Interval elapsed before the Publish message could be sent");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
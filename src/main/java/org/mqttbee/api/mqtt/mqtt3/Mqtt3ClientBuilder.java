@@ -24,7 +24,9 @@ import org.mqttbee.api.mqtt.*;
 import org.mqttbee.api.mqtt.datatypes.MqttClientIdentifier;
 import org.mqttbee.api.mqtt.mqtt5.Mqtt5ClientBuilder;
 import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
 import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
+import org.mqttbee.mqtt.MqttClientTransportConfigImpl;
 import org.mqttbee.mqtt.MqttVersion;
 import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
 import org.mqttbee.mqtt.mqtt3.Mqtt3ClientView;
@@ -37,19 +39,27 @@ public class Mqtt3ClientBuilder extends MqttClientBuilder {
 
     public Mqtt3ClientBuilder(
             @NotNull final MqttClientIdentifierImpl identifier, @NotNull final String serverHost, final int serverPort,
+            @Nullable final String serverDomainSocketPath,
+            @Nullable final MqttClientConnectStrategyImpl connectStrategy,
             @Nullable final MqttClientSslConfig sslConfig, @Nullable final MqttWebSocketConfig webSocketConfig,
-            @NotNull final MqttClientExecutorConfigImpl executorConfig) {
+            @NotNull final MqttClientExecutorConfigImpl executorConfig,
+            @NotNull final MqttClientTransportConfigImpl transportConfig, @Nullable final MqttClientMetrics metrics) {
 
         Preconditions.checkNotNull(identifier, "Identifier must not be null.");
         Preconditions.checkNotNull(serverHost, "Server host must not be null.");
         Preconditions.checkNotNull(executorConfig, "Executor config must not be null.");
+        Preconditions.checkNotNull(transportConfig, "Transport config must not be null.");
 
         this.identifier = identifier;
         this.serverHost = serverHost;
         this.serverPort = serverPort;
+        this.serverDomainSocketPath = serverDomainSocketPath;
+        this.connectStrategy = connectStrategy;
         this.sslConfig = sslConfig;
         this.webSocketConfig = webSocketConfig;
         this.executorConfig = executorConfig;
+        this.transportConfig = transportConfig;
+        this.metrics = metrics;
     }
 
     @NotNull
@@ -80,6 +90,26 @@ public class Mqtt3ClientBuilder extends MqttClientBuilder {
         return this;
     }
 
+    @NotNull
+    @Override
+    public Mqtt3ClientBuilder serverDomainSocket(@NotNull final String path) {
+        super.serverDomainSocket(path);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public Mqtt3ClientBuilder connectStrategy(@Nullable final MqttClientConnectStrategy connectStrategy) {
+        super.connectStrategy(connectStrategy);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientConnectStrategyBuilder<? extends Mqtt3ClientBuilder> connectStrategy() {
+        return new MqttClientConnectStrategyBuilder<>(this::connectStrategy);
+    }
+
     @NotNull
     @Override
     public Mqtt3ClientBuilder useSslWithDefaultConfig() {
@@ -133,6 +163,26 @@ public class Mqtt3ClientBuilder extends MqttClientBuilder {
         return new MqttClientExecutorConfigBuilder<>(this::executorConfig);
     }
 
+    @NotNull
+    @Override
+    public Mqtt3ClientBuilder transportConfig(@NotNull final MqttClientTransportConfig transportConfig) {
+        super.transportConfig(transportConfig);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientTransportConfigBuilder<? extends Mqtt3ClientBuilder> transportConfig() {
+        return new MqttClientTransportConfigBuilder<>(this::transportConfig);
+    }
+
+    @NotNull
+    @Override
+    public Mqtt3ClientBuilder metrics(@Nullable final MqttClientMetrics metrics) {
+        super.metrics(metrics);
+        return this;
+    }
+
     @NotNull
     @Override
     public Mqtt3ClientBuilder useMqttVersion3() {
@@ -153,8 +203,9 @@ public class Mqtt3ClientBuilder extends MqttClientBuilder {
 
     @NotNull
     private MqttClientData buildClientData() {
-        return new MqttClientData(MqttVersion.MQTT_3_1_1, identifier, serverHost, serverPort, sslConfig,
-                webSocketConfig, false, false, executorConfig, null);
+        return new MqttClientData(MqttVersion.MQTT_3_1_1, identifier, serverHost, serverPort, serverDomainSocketPath,
+                connectStrategy, sslConfig, webSocketConfig, false, false, executorConfig, transportConfig, metrics,
+                null);
     }
 
 }
@@ -17,8 +17,11 @@
 
 package org.mqttbee.api.mqtt.mqtt3;
 
+import org.jetbrains.annotations.NotNull;
 import org.mqttbee.annotations.DoNotImplement;
 
+import java.util.Optional;
+
 /**
  * @author Silvio Giebl
  */
@@ -31,4 +34,18 @@ public interface Mqtt3ClientConnectionData {
 
     boolean hasWillPublish();
 
+    /**
+     * @return the optional smoothed round trip time to the server in nanoseconds, estimated from PINGREQ/PINGRESP and
+     * QoS 1 and 2 acknowledgement timings. Empty if no round trip was measured yet.
+     */
+    @NotNull
+    Optional<Long> getSmoothedRttNanos();
+
+    /**
+     * @return the optional mean deviation of the round trip time to the server in nanoseconds. Empty if no round trip
+     * was measured yet.
+     */
+    @NotNull
+    Optional<Long> getRttVariationNanos();
+
 }
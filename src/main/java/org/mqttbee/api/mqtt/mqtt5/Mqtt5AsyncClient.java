@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.mqtt5;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5Connect;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5ConnectBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5DisconnectBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5UnsubscribeBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * MQTT 5 client with an API based on {@link CompletableFuture}s and callbacks.
+ * <p>
+ * Publishes and incoming publishes of subscriptions are handed directly to and from the internal flows of the client
+ * without any reactive operators or scheduler in between. The futures of publishes are completed on the Netty event
+ * loop of the connection, so dependent actions must not block or must be executed with an executor (for example
+ * {@link CompletableFuture#thenAcceptAsync(Consumer, Executor)}).
+ * <p>
+ * The async client shares its connection and state with the reactive client returned by {@link #toReactive()}.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface Mqtt5AsyncClient extends MqttClient {
+
+    /**
+     * Connects this client with the given Connect message.
+     *
+     * @param connect the Connect message sent to the broker during connect.
+     * @return the {@link CompletableFuture} which
+     *         <ul>
+     *         <li>completes with the ConnAck message if it does not contain an Error Code (connected
+     *         successfully),</li>
+     *         <li>completes exceptionally with an {@link org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException
+     *         Mqtt5MessageException} wrapping the ConnAck message if it contains an Error Code or</li>
+     *         <li>completes exceptionally with a different exception if an error occurred before the Connect message
+     *         was sent or before a ConnAck message was received.</li>
+     *         </ul>
+     */
+    @NotNull
+    CompletableFuture<Mqtt5ConnAck> connect(@NotNull Mqtt5Connect connect);
+
+    /**
+     * Creates a {@link Mqtt5ConnectBuilder} for connecting this client with the Connect message built from the returned
+     * builder.
+     *
+     * @return the builder for the Connect message.
+     * @see #connect(Mqtt5Connect)
+     */
+    @NotNull
+    default Mqtt5ConnectBuilder<CompletableFuture<Mqtt5ConnAck>> connect() {
+        return new Mqtt5ConnectBuilder<>(this::connect);
+    }
+
+    /**
+     * Publishes the given Publish message.
+     *
+     * @param publish the Publish message.
+     * @return the {@link CompletableFuture} which
+     *         <ul>
+     *         <li>completes with the {@link Mqtt5PublishResult} of the Publish message after it was acknowledged
+     *         according to its QoS, the result contains the error if it could not be published, or</li>
+     *         <li>completes exceptionally if the client is not connected.</li>
+     *         </ul>
+     */
+    @NotNull
+    CompletableFuture<Mqtt5PublishResult> publish(@NotNull Mqtt5Publish publish);
+
+    /**
+     * Subscribes this client with the given Subscribe message and calls the given callback for every matching Publish
+     * message.
+     * <p>
+     * The callback is executed with the given executor one Publish message after another in the order of their
+     * arrival. If the executor executes the callback directly in the calling thread, it is executed on the Netty event
+     * loop and must not block.
+     *
+     * @param subscribe the Subscribe message sent to the broker during subscribe.
+     * @param callback  the callback for the matching Publish messages.
+     * @param executor  the executor the callback is executed with.
+     * @return the {@link CompletableFuture} which
+     *         <ul>
+     *         <li>completes with the SubAck message if at least one subscription of the Subscribe message was
+     *         successful or</li>
+     *         <li>completes exceptionally if the subscribe failed.</li>
+     *         </ul>
+     */
+    @NotNull
+    CompletableFuture<Mqtt5SubAck> subscribe(
+            @NotNull Mqtt5Subscribe subscribe, @NotNull Consumer<Mqtt5Publish> callback, @NotNull Executor executor);
+
+    /**
+     * Unsubscribes this client with the given Unsubscribe message. Callbacks of the unsubscribed subscriptions are not
+     * called anymore afterwards.
+     *
+     * @param unsubscribe the Unsubscribe message sent to the broker during unsubscribe.
+     * @return the {@link CompletableFuture} which
+     *         <ul>
+     *         <li>completes with the UnsubAck message if at least one Topic Filter of the Unsubscribe message was
+     *         successfully unsubscribed or</li>
+     *         <li>completes exceptionally if the unsubscribe failed.</li>
+     *         </ul>
+     */
+    @NotNull
+    CompletableFuture<Mqtt5UnsubAck> unsubscribe(@NotNull Mqtt5Unsubscribe unsubscribe);
+
+    /**
+     * Creates a {@link Mqtt5UnsubscribeBuilder} for unsubscribing this client with the Unsubscribe message built from
+     * the returned builder.
+     *
+     * @return the builder for the Unsubscribe message.
+     * @see #unsubscribe(Mqtt5Unsubscribe)
+     */
+    @NotNull
+    default Mqtt5UnsubscribeBuilder<CompletableFuture<Mqtt5UnsubAck>> unsubscribe() {
+        return new Mqtt5UnsubscribeBuilder<>(this::unsubscribe);
+    }
+
+    /**
+     * Disconnects this client with the given Disconnect message.
+     *
+     * @param disconnect the Disconnect message sent to the broker during disconnect.
+     * @return the {@link CompletableFuture} which completes when the client was disconnected or completes exceptionally
+     *         if not disconnected successfully.
+     */
+    @NotNull
+    CompletableFuture<Void> disconnect(@NotNull Mqtt5Disconnect disconnect);
+
+    /**
+     * Creates a {@link Mqtt5DisconnectBuilder} for disconnecting this client with the Disconnect message built from the
+     * returned builder.
+     *
+     * @return the builder for the Disconnect message.
+     * @see #disconnect(Mqtt5Disconnect)
+     */
+    @NotNull
+    default Mqtt5DisconnectBuilder<CompletableFuture<Void>> disconnect() {
+        return new Mqtt5DisconnectBuilder<>(this::disconnect);
+    }
+
+    /**
+     * @return the reactive API of this client, which shares the connection and state with this client.
+     */
+    @NotNull
+    Mqtt5Client toReactive();
+
+    @NotNull
+    @Override
+    Mqtt5ClientData getClientData();
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.mqtt5;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5Connect;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5ConnectBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5DisconnectBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5UnsubscribeBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MQTT 5 client with a blocking API.
+ * <p>
+ * The calling thread waits until the result of an operation is available. The waits park the thread and never hold a
+ * monitor, so the client can be used from a large number of virtual threads (Java 21 and later) without pinning their
+ * carrier threads. Publishes are handed to the client lock-free and share the Receive Maximum with the other APIs.
+ * <p>
+ * Errors are thrown as they are if they are unchecked exceptions, checked exceptions like a {@link
+ * org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException Mqtt5MessageException} are wrapped in a
+ * {@link RuntimeException} like by the blocking methods of the reactive API.
+ * <p>
+ * The blocking client shares its connection and state with the clients returned by {@link #toAsync()} and {@link
+ * #toReactive()}.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface Mqtt5BlockingClient extends MqttClient {
+
+    /**
+     * Connects this client with the given Connect message.
+     *
+     * @param connect the Connect message sent to the broker during connect.
+     * @return the ConnAck message if it does not contain an Error Code.
+     * @throws RuntimeException wrapping a {@link org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException
+     *                          Mqtt5MessageException} with the ConnAck message if it contains an Error Code, or a
+     *                          different exception if an error occurred before the Connect message was sent or before
+     *                          a ConnAck message was received.
+     */
+    @NotNull
+    Mqtt5ConnAck connect(@NotNull Mqtt5Connect connect);
+
+    /**
+     * Creates a {@link Mqtt5ConnectBuilder} for connecting this client with the Connect message built from the returned
+     * builder.
+     *
+     * @return the builder for the Connect message.
+     * @see #connect(Mqtt5Connect)
+     */
+    @NotNull
+    default Mqtt5ConnectBuilder<Mqtt5ConnAck> connect() {
+        return new Mqtt5ConnectBuilder<>(this::connect);
+    }
+
+    /**
+     * Publishes the given Publish message and waits until it was acknowledged according to its QoS.
+     *
+     * @param publish the Publish message.
+     * @return the result of the Publish message, which contains the error if it could not be published.
+     * @throws RuntimeException if the client is not connected.
+     */
+    @NotNull
+    Mqtt5PublishResult publish(@NotNull Mqtt5Publish publish);
+
+    /**
+     * Subscribes this client with the given Subscribe message. The matching Publish messages are received with {@link
+     * #publishes(MqttGlobalPublishFlowType)}, which should be called before subscribing so that no Publish message is
+     * missed.
+     *
+     * @param subscribe the Subscribe message sent to the broker during subscribe.
+     * @return the SubAck message if at least one subscription of the Subscribe message was successful.
+     * @throws RuntimeException if the subscribe failed.
+     */
+    @NotNull
+    Mqtt5SubAck subscribe(@NotNull Mqtt5Subscribe subscribe);
+
+    /**
+     * Creates a {@link Mqtt5SubscribeBuilder} for subscribing this client with the Subscribe message built from the
+     * returned builder.
+     *
+     * @return the builder for the Subscribe message.
+     * @see #subscribe(Mqtt5Subscribe)
+     */
+    @NotNull
+    default Mqtt5SubscribeBuilder<Mqtt5SubAck> subscribe() {
+        return new Mqtt5SubscribeBuilder<>(this::subscribe);
+    }
+
+    /**
+     * Starts receiving the incoming Publish messages of the given type. Can be called multiple times, every returned
+     * {@link Mqtt5Publishes} receives all matching Publish messages.
+     *
+     * @param type the type of the Publish messages.
+     * @return the Publish messages which are received with {@link Mqtt5Publishes#receive()} and its variants.
+     * @throws RuntimeException if the client is not connected.
+     */
+    @NotNull
+    Mqtt5Publishes publishes(@NotNull MqttGlobalPublishFlowType type);
+
+    /**
+     * Unsubscribes this client with the given Unsubscribe message.
+     *
+     * @param unsubscribe the Unsubscribe message sent to the broker during unsubscribe.
+     * @return the UnsubAck message if at least one Topic Filter of the Unsubscribe message was successfully
+     *         unsubscribed.
+     * @throws RuntimeException if the unsubscribe failed.
+     */
+    @NotNull
+    Mqtt5UnsubAck unsubscribe(@NotNull Mqtt5Unsubscribe unsubscribe);
+
+    /**
+     * Creates a {@link Mqtt5UnsubscribeBuilder} for unsubscribing this client with the Unsubscribe message built from
+     * the returned builder.
+     *
+     * @return the builder for the Unsubscribe message.
+     * @see #unsubscribe(Mqtt5Unsubscribe)
+     */
+    @NotNull
+    default Mqtt5UnsubscribeBuilder<Mqtt5UnsubAck> unsubscribe() {
+        return new Mqtt5UnsubscribeBuilder<>(this::unsubscribe);
+    }
+
+    /**
+     * Disconnects this client with the given Disconnect message.
+     *
+     * @param disconnect the Disconnect message sent to the broker during disconnect.
+     * @throws RuntimeException if not disconnected successfully.
+     */
+    void disconnect(@NotNull Mqtt5Disconnect disconnect);
+
+    /**
+     * Creates a {@link Mqtt5DisconnectBuilder} for disconnecting this client with the Disconnect message built from the
+     * returned builder.
+     *
+     * @return the builder for the Disconnect message.
+     * @see #disconnect(Mqtt5Disconnect)
+     */
+    @NotNull
+    default Mqtt5DisconnectBuilder<Void> disconnect() {
+        return new Mqtt5DisconnectBuilder<>(disconnect -> {
+            disconnect(disconnect);
+            return null;
+        });
+    }
+
+    /**
+     * @return the async API of this client, which shares the connection and state with this client.
+     */
+    @NotNull
+    Mqtt5AsyncClient toAsync();
+
+    /**
+     * @return the reactive API of this client, which shares the connection and state with this client.
+     */
+    @NotNull
+    Mqtt5Client toReactive();
+
+    @NotNull
+    @Override
+    Mqtt5ClientData getClientData();
+
+    /**
+     * Incoming Publish messages which are received one after another by blocking threads.
+     * <p>
+     * The messages are handed over lock-free from the Netty event loop. Only a bounded number of messages is
+     * buffered, so the broker is throttled by the flow control of the client if the messages are not received fast
+     * enough. Multiple threads can receive concurrently, each message is received by only one of them.
+     */
+    @DoNotImplement
+    interface Mqtt5Publishes extends AutoCloseable {
+
+        /**
+         * Receives the next Publish message, waiting if necessary until one is available.
+         *
+         * @return the next Publish message.
+         * @throws InterruptedException if the thread was interrupted while waiting.
+         * @throws RuntimeException     if these publishes were closed or the client was disconnected.
+         */
+        @NotNull
+        Mqtt5Publish receive() throws InterruptedException;
+
+        /**
+         * Receives the next Publish message, waiting if necessary up to the given timeout until one is available.
+         *
+         * @param timeout  the maximum time to wait.
+         * @param timeUnit the time unit of the timeout.
+         * @return the next Publish message or empty if the timeout elapsed.
+         * @throws InterruptedException if the thread was interrupted while waiting.
+         * @throws RuntimeException     if these publishes were closed or the client was disconnected.
+         */
+        @NotNull
+        Optional<Mqtt5Publish> receive(long timeout, @NotNull TimeUnit timeUnit) throws InterruptedException;
+
+        /**
+         * Receives the next Publish message if one is available without waiting.
+         *
+         * @return the next Publish message or empty if none is available.
+         * @throws RuntimeException if these publishes were closed or the client was disconnected.
+         */
+        @NotNull
+        Optional<Mqtt5Publish> receiveNow();
+
+        /**
+         * Stops receiving Publish messages. Threads waiting in {@link #receive()} are woken up and throw an exception.
+         */
+        @Override
+        void close();
+
+    }
+
+}
@@ -22,6 +22,8 @@ import io.reactivex.Flowable;
 import io.reactivex.Single;
 import org.jetbrains.annotations.NotNull;
 import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientReconnectConfig;
+import org.mqttbee.api.mqtt.MqttClientReconnectStatistics;
 import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
 import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5Connect;
 import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5ConnectBuilder;
@@ -38,6 +40,8 @@ import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5UnsubscribeBuilder;
 import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
 import org.mqttbee.rx.FlowableWithSingle;
 
+import java.util.Optional;
+
 /**
  * MQTT 5 client with a reactive API.
  *
@@ -143,6 +147,10 @@ public interface Mqtt5Client extends MqttClient {
      *         before a SubAck message was received or when a error occurs before all subscriptions or the Subscribe
      *         messages were unsubscribed.</li>
      *         </ul>
+     *         If automatic reconnect is enabled, the flow is not ended by a lost connection. It continues with the
+     *         Publish messages received via the next connection and completes if the client is disconnected by the
+     *         application.
+     * @see Mqtt5ClientBuilder#automaticReconnect(MqttClientReconnectConfig)
      */
     @NotNull
     FlowableWithSingle<Mqtt5SubAck, Mqtt5Publish> subscribeWithStream(@NotNull Mqtt5Subscribe subscribe);
@@ -286,6 +294,12 @@ public interface Mqtt5Client extends MqttClient {
         return new Mqtt5DisconnectBuilder<>(this::disconnect);
     }
 
+    /**
+     * @return the statistics of the automatic reconnect or empty if automatic reconnect is not enabled.
+     */
+    @NotNull
+    Optional<MqttClientReconnectStatistics> getReconnectStatistics();
+
     @NotNull
     @Override
     Mqtt5ClientData getClientData();
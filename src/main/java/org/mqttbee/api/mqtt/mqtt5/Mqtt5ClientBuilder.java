@@ -25,11 +25,18 @@ import org.mqttbee.api.mqtt.datatypes.MqttClientIdentifier;
 import org.mqttbee.api.mqtt.mqtt3.Mqtt3ClientBuilder;
 import org.mqttbee.api.mqtt.mqtt5.advanced.Mqtt5AdvancedClientData;
 import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
 import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
+import org.mqttbee.mqtt.MqttClientReconnectConfigImpl;
+import org.mqttbee.mqtt.MqttClientTransportConfigImpl;
 import org.mqttbee.mqtt.MqttVersion;
 import org.mqttbee.mqtt.advanced.MqttAdvancedClientData;
 import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.mqtt5.Mqtt5AsyncClientImpl;
+import org.mqttbee.mqtt.mqtt5.Mqtt5BlockingClientImpl;
 import org.mqttbee.mqtt.mqtt5.Mqtt5ClientImpl;
+import org.mqttbee.mqtt.mqtt5.Mqtt5ShardedClientImpl;
+import org.mqttbee.mqtt.util.MqttBuilderUtil;
 import org.mqttbee.util.MustNotBeImplementedUtil;
 
 /**
@@ -40,22 +47,31 @@ public class Mqtt5ClientBuilder extends MqttClientBuilder {
     private boolean followRedirects = false;
     private boolean allowServerReAuth = false;
     private MqttAdvancedClientData advancedClientData;
+    private MqttClientReconnectConfigImpl reconnectConfig;
 
     public Mqtt5ClientBuilder(
             @NotNull final MqttClientIdentifierImpl identifier, @NotNull final String serverHost, final int serverPort,
+            @Nullable final String serverDomainSocketPath,
+            @Nullable final MqttClientConnectStrategyImpl connectStrategy,
             @Nullable final MqttClientSslConfig sslConfig, @Nullable final MqttWebSocketConfig webSocketConfig,
-            @NotNull final MqttClientExecutorConfigImpl executorConfig) {
+            @NotNull final MqttClientExecutorConfigImpl executorConfig,
+            @NotNull final MqttClientTransportConfigImpl transportConfig, @Nullable final MqttClientMetrics metrics) {
 
         Preconditions.checkNotNull(identifier, "Identifier must not be null.");
         Preconditions.checkNotNull(serverHost, "Server host must not be null.");
         Preconditions.checkNotNull(executorConfig, "Executor config must not be null.");
+        Preconditions.checkNotNull(transportConfig, "Transport config must not be null.");
 
         this.identifier = identifier;
         this.serverHost = serverHost;
         this.serverPort = serverPort;
+        this.serverDomainSocketPath = serverDomainSocketPath;
+        this.connectStrategy = connectStrategy;
         this.sslConfig = sslConfig;
         this.webSocketConfig = webSocketConfig;
         this.executorConfig = executorConfig;
+        this.transportConfig = transportConfig;
+        this.metrics = metrics;
     }
 
     @NotNull
@@ -86,6 +102,26 @@ public class Mqtt5ClientBuilder extends MqttClientBuilder {
         return this;
     }
 
+    @NotNull
+    @Override
+    public Mqtt5ClientBuilder serverDomainSocket(@NotNull final String path) {
+        super.serverDomainSocket(path);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5ClientBuilder connectStrategy(@Nullable final MqttClientConnectStrategy connectStrategy) {
+        super.connectStrategy(connectStrategy);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientConnectStrategyBuilder<? extends Mqtt5ClientBuilder> connectStrategy() {
+        return new MqttClientConnectStrategyBuilder<>(this::connectStrategy);
+    }
+
     @NotNull
     @Override
     public Mqtt5ClientBuilder useSslWithDefaultConfig() {
@@ -139,6 +175,26 @@ public class Mqtt5ClientBuilder extends MqttClientBuilder {
         return new MqttClientExecutorConfigBuilder<>(this::executorConfig);
     }
 
+    @NotNull
+    @Override
+    public Mqtt5ClientBuilder transportConfig(@NotNull final MqttClientTransportConfig transportConfig) {
+        super.transportConfig(transportConfig);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientTransportConfigBuilder<? extends Mqtt5ClientBuilder> transportConfig() {
+        return new MqttClientTransportConfigBuilder<>(this::transportConfig);
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5ClientBuilder metrics(@Nullable final MqttClientMetrics metrics) {
+        super.metrics(metrics);
+        return this;
+    }
+
     @NotNull
     @Override
     public Mqtt3ClientBuilder useMqttVersion3() {
@@ -171,15 +227,106 @@ public class Mqtt5ClientBuilder extends MqttClientBuilder {
         return this;
     }
 
+    /**
+     * Enables the automatic reconnect with the default config.
+     *
+     * @return this builder.
+     * @see #automaticReconnect(MqttClientReconnectConfig)
+     */
+    @NotNull
+    public Mqtt5ClientBuilder automaticReconnectWithDefaultConfig() {
+        return automaticReconnect(MqttClientReconnectConfigImpl.DEFAULT);
+    }
+
+    /**
+     * Enables the automatic reconnect. After a connect succeeded, every loss of the connection that was not caused by
+     * a disconnect of the application is recovered by connecting again with the same Connect message. The flows of
+     * {@link Mqtt5Client#subscribeWithStream(org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe)} survive
+     * the reconnect. If the server did not keep the session, their subscriptions are sent again batched into a single
+     * Subscribe message.
+     *
+     * @param reconnectConfig the config of the backoff between the reconnect attempts.
+     * @return this builder.
+     */
+    @NotNull
+    public Mqtt5ClientBuilder automaticReconnect(@Nullable final MqttClientReconnectConfig reconnectConfig) {
+        this.reconnectConfig = MustNotBeImplementedUtil.checkNullOrNotImplemented(
+                reconnectConfig, MqttClientReconnectConfigImpl.class);
+        return this;
+    }
+
+    @NotNull
+    public MqttClientReconnectConfigBuilder<? extends Mqtt5ClientBuilder> automaticReconnect() {
+        return new MqttClientReconnectConfigBuilder<>(this::automaticReconnect);
+    }
+
     @NotNull
     public Mqtt5Client buildReactive() {
-        return new Mqtt5ClientImpl(buildClientData());
+        return new Mqtt5ClientImpl(buildClientData(), reconnectConfig);
+    }
+
+    /**
+     * Builds a client with an API based on {@link java.util.concurrent.CompletableFuture CompletableFuture}s and
+     * callbacks.
+     *
+     * @return the built async client.
+     * @see Mqtt5AsyncClient
+     */
+    @NotNull
+    public Mqtt5AsyncClient buildAsync() {
+        return new Mqtt5AsyncClientImpl(new Mqtt5ClientImpl(buildClientData(), reconnectConfig));
+    }
+
+    /**
+     * Builds a client with a blocking API, which can be used from a large number of virtual threads.
+     *
+     * @return the built blocking client.
+     * @see Mqtt5BlockingClient
+     */
+    @NotNull
+    public Mqtt5BlockingClient buildBlocking() {
+        return new Mqtt5BlockingClientImpl(new Mqtt5ClientImpl(buildClientData(), reconnectConfig));
+    }
+
+    /**
+     * Builds a client which opens the given number of connections to the server and distributes the publishes and
+     * subscriptions across them.
+     *
+     * @param shardCount          the number of connections.
+     * @param publishRouting      the routing of publishes to the connections.
+     * @param subscriptionRouting the routing of subscriptions to the connections.
+     * @return the built sharded client.
+     * @see Mqtt5ShardedClient
+     */
+    @NotNull
+    public Mqtt5ShardedClient buildSharded(
+            final int shardCount, @NotNull final Mqtt5ShardedPublishRouting publishRouting,
+            @NotNull final Mqtt5ShardedSubscriptionRouting subscriptionRouting) {
+
+        Preconditions.checkArgument(shardCount > 0, "Shard count must be bigger than 0. Found: %s.", shardCount);
+        Preconditions.checkNotNull(publishRouting, "Publish routing must not be null.");
+        Preconditions.checkNotNull(subscriptionRouting, "Subscription routing must not be null.");
+
+        final Mqtt5ClientImpl[] shards = new Mqtt5ClientImpl[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            final MqttClientIdentifierImpl shardIdentifier =
+                    (identifier == MqttClientIdentifierImpl.REQUEST_CLIENT_IDENTIFIER_FROM_SERVER) ? identifier :
+                            MqttBuilderUtil.clientIdentifier(identifier.toString() + "-" + i);
+            shards[i] = new Mqtt5ClientImpl(buildClientData(shardIdentifier), reconnectConfig);
+        }
+        return new Mqtt5ShardedClientImpl(shards, publishRouting, subscriptionRouting);
     }
 
     @NotNull
     private MqttClientData buildClientData() {
-        return new MqttClientData(MqttVersion.MQTT_5_0, identifier, serverHost, serverPort, sslConfig, webSocketConfig,
-                followRedirects, allowServerReAuth, executorConfig, advancedClientData);
+        return buildClientData(identifier);
+    }
+
+    @NotNull
+    private MqttClientData buildClientData(@NotNull final MqttClientIdentifierImpl identifier) {
+        return new MqttClientData(MqttVersion.MQTT_5_0, identifier, serverHost, serverPort, serverDomainSocketPath,
+                connectStrategy, sslConfig, webSocketConfig, followRedirects, allowServerReAuth, executorConfig,
+                transportConfig, metrics, advancedClientData);
     }
 
 }
@@ -50,4 +50,18 @@ public interface Mqtt5ClientConnectionData {
 
     boolean isResponseInformationRequested();
 
+    /**
+     * @return the optional smoothed round trip time to the server in nanoseconds, estimated from PINGREQ/PINGRESP and
+     * QoS 1 and 2 acknowledgement timings. Empty if no round trip was measured yet.
+     */
+    @NotNull
+    Optional<Long> getSmoothedRttNanos();
+
+    /**
+     * @return the optional mean deviation of the round trip time to the server in nanoseconds. Empty if no round trip
+     * was measured yet.
+     */
+    @NotNull
+    Optional<Long> getRttVariationNanos();
+
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.mqtt5;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.DoNotImplement;
+
+/**
+ * MQTT 5 client which opens multiple connections (shards) to the same server and distributes the publishes and
+ * subscriptions across them. Every shard has its own channel and is assigned its own event loop, so the throughput
+ * scales with the number of Netty threads instead of being limited by a single connection.
+ * <p>
+ * Every shard uses its own client identifier which is derived from the configured identifier by appending
+ * <code>-&lt;shard index&gt;</code>. If no identifier is configured, the server assigns one to every shard.
+ * <p>
+ * The operations of {@link Mqtt5Client} apply to all shards, except the following which are routed to single shards:
+ * <ul>
+ * <li>{@link #publish(io.reactivex.Flowable)} routes every publish according to the {@link
+ * Mqtt5ShardedPublishRouting}.</li>
+ * <li>{@link #subscribe(org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe) subscribe}, {@link
+ * #subscribeWithStream(org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe) subscribeWithStream} and {@link
+ * #unsubscribe(org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe) unsubscribe} are routed according to
+ * the {@link Mqtt5ShardedSubscriptionRouting}.</li>
+ * </ul>
+ * Operations which apply to all shards complete when they completed for all shards and emit the result of the first
+ * shard. {@link #getClientData()} returns the client data of the first shard.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface Mqtt5ShardedClient extends Mqtt5Client {
+
+    /**
+     * @return the number of shards (connections) of this client.
+     */
+    int getShardCount();
+
+    /**
+     * @param index the index of the shard, 0 &lt;= index &lt; {@link #getShardCount()}.
+     * @return the client of the shard with the given index.
+     */
+    @NotNull
+    Mqtt5Client getShard(int index);
+
+}
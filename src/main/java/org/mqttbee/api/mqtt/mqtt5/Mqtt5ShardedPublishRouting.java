@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.mqtt5;
+
+/**
+ * Routing of publishes to the shards of a {@link Mqtt5ShardedClient}.
+ *
+ * @author Silvio Giebl
+ */
+public enum Mqtt5ShardedPublishRouting {
+
+    /**
+     * Publishes with the same topic are always sent over the same shard, so their order is kept.
+     */
+    TOPIC_HASH,
+    /**
+     * Publishes are distributed evenly over all shards, the order of publishes with the same topic is not kept.
+     */
+    ROUND_ROBIN
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.mqtt5;
+
+/**
+ * Routing of subscriptions to the shards of a {@link Mqtt5ShardedClient}.
+ *
+ * @author Silvio Giebl
+ */
+public enum Mqtt5ShardedSubscriptionRouting {
+
+    /**
+     * Every Subscribe is sent over a single shard chosen by the hash of its first Topic Filter. The client remembers
+     * the shard of every subscribed Topic Filter, so an Unsubscribe is sent over the shards its Topic Filters were
+     * subscribed on and is split if they were subscribed on different shards.
+     */
+    SPREAD,
+    /**
+     * Every Subscribe and Unsubscribe is sent over all shards. Combined with shared subscriptions the server
+     * distributes the incoming publishes across the shards, otherwise every matching publish is received once per
+     * shard.
+     */
+    DUPLICATE
+
+}
@@ -33,6 +33,7 @@ public class Mqtt5AdvancedClientDataBuilder {
     private Mqtt5OutgoingQos1ControlProvider outgoingQos1ControlProvider;
     private Mqtt5IncomingQos2ControlProvider incomingQos2ControlProvider;
     private Mqtt5OutgoingQos2ControlProvider outgoingQos2ControlProvider;
+    private boolean pipelinedConnect;
 
     @NotNull
     public Mqtt5AdvancedClientDataBuilder incomingQos1ControlProvider(
@@ -66,10 +67,28 @@ public class Mqtt5AdvancedClientDataBuilder {
         return this;
     }
 
+    /**
+     * Sets whether subscriptions and publishes issued while connecting are written right behind the CONNECT message
+     * instead of waiting for the CONNACK message. This saves one round trip on every connect.
+     * <p>
+     * Until the CONNACK message is received the packets are encoded under conservative defaults (no topic aliases and a
+     * receive maximum of {@link org.mqttbee.mqtt.handler.connect.MqttConnectPipeline#RECEIVE_MAXIMUM}), afterwards the
+     * negotiated limits apply. If the CONNACK message contains an Error Code, the pipelined subscriptions and publishes
+     * fail with the same cause as the connect. Pipelining is not used if enhanced auth is used.
+     *
+     * @param pipelinedConnect whether the connect is pipelined.
+     * @return the builder.
+     */
+    @NotNull
+    public Mqtt5AdvancedClientDataBuilder pipelinedConnect(final boolean pipelinedConnect) {
+        this.pipelinedConnect = pipelinedConnect;
+        return this;
+    }
+
     @NotNull
     public Mqtt5AdvancedClientData builder() {
         return new MqttAdvancedClientData(incomingQos1ControlProvider, outgoingQos1ControlProvider,
-                incomingQos2ControlProvider, outgoingQos2ControlProvider);
+                incomingQos2ControlProvider, outgoingQos2ControlProvider, pipelinedConnect);
     }
 
 }
@@ -43,6 +43,8 @@ public enum Mqtt5MessageType {
     DISCONNECT,
     AUTH;
 
+    private static final Mqtt5MessageType[] VALUES = values();
+
     /**
      * @return the byte code of this MQTT message type.
      */
@@ -59,11 +61,10 @@ public enum Mqtt5MessageType {
      */
     @Nullable
     public static Mqtt5MessageType fromCode(final int code) {
-        final Mqtt5MessageType[] values = values();
-        if (code < 0 || code >= values.length) {
+        if (code < 0 || code >= VALUES.length) {
             return null;
         }
-        return values[code];
+        return VALUES[code];
     }
 
 }
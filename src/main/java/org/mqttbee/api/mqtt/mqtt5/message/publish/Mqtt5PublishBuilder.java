@@ -30,6 +30,7 @@ import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
 import org.mqttbee.mqtt.datatypes.MqttUTF8StringImpl;
 import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttPublishTemplate;
 import org.mqttbee.mqtt.util.MqttBuilderUtil;
 import org.mqttbee.util.ByteBufferUtil;
 import org.mqttbee.util.FluentBuilder;
@@ -208,4 +209,19 @@ public class Mqtt5PublishBuilder<P> extends FluentBuilder<Mqtt5Publish, P> {
                 contentType, responseTopic, correlationData, topicAliasUsage, userProperties);
     }
 
+    /**
+     * Builds a template for PUBLISH packets with the properties of this builder. The payload of this builder is
+     * ignored as every PUBLISH packet created from the template has its own payload.
+     *
+     * @return the built template.
+     */
+    @NotNull
+    public Mqtt5PublishTemplate buildTemplate() {
+        Preconditions.checkNotNull(topic, "Topic must not be null.");
+        Preconditions.checkNotNull(qos, "QoS must not be null.");
+        return new MqttPublishTemplate(
+                new MqttPublish(topic, null, qos, retain, messageExpiryIntervalSeconds, payloadFormatIndicator,
+                        contentType, responseTopic, correlationData, topicAliasUsage, userProperties));
+    }
+
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt.mqtt5.message.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.annotations.DoNotImplement;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Template for PUBLISH packets which share the same topic, QoS, retain flag and properties and only differ in their
+ * payload.
+ * <p>
+ * The shared parts are encoded only once per template instead of once per PUBLISH packet. A template should therefore
+ * be reused for all PUBLISH packets to the same topic with the same properties.
+ *
+ * @author Silvio Giebl
+ */
+@DoNotImplement
+public interface Mqtt5PublishTemplate {
+
+    /**
+     * Creates a PUBLISH packet from this template with the given payload.
+     *
+     * @param payload the payload of the PUBLISH packet.
+     * @return the created PUBLISH packet.
+     */
+    @NotNull
+    Mqtt5Publish publish(@Nullable byte[] payload);
+
+    /**
+     * Creates a PUBLISH packet from this template with the given payload.
+     *
+     * @param payload the payload of the PUBLISH packet.
+     * @return the created PUBLISH packet.
+     */
+    @NotNull
+    Mqtt5Publish publish(@Nullable ByteBuffer payload);
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.HdrHistogram.Recorder;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.MqttAckLatencies;
+import org.mqttbee.api.mqtt.MqttAckLatencyPhase;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the latencies of the acknowledgement flows in one {@link Recorder} per {@link MqttAckLatencyPhase}. Recorders
+ * are lock free for the recording thread, which is always the event loop of the current connection.
+ * <p>
+ * A recorder holds two histograms of about 25 kB each, so it is only created when the first latency of its phase is
+ * recorded. A client which only publishes QoS 1 messages never allocates the QoS 2 recorders.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class MqttAckLatenciesImpl implements MqttAckLatencies {
+
+    static final long LOWEST_DISCERNIBLE_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final MqttAckLatencyPhase[] PHASES = MqttAckLatencyPhase.values();
+
+    private final AtomicReferenceArray<Recorder> recorders = new AtomicReferenceArray<>(PHASES.length);
+
+    /**
+     * Records a latency. Latencies above one hour are recorded as one hour.
+     *
+     * @param phase        the phase of the acknowledgement flow.
+     * @param latencyNanos the latency in nanoseconds.
+     */
+    @CallByThread("Netty EventLoop")
+    public void record(@NotNull final MqttAckLatencyPhase phase, final long latencyNanos) {
+        Recorder recorder = recorders.get(phase.ordinal());
+        if (recorder == null) {
+            recorder = createRecorder(phase);
+        }
+        recorder.recordValue(Math.max(0, Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS)));
+    }
+
+    @NotNull
+    private synchronized Recorder createRecorder(@NotNull final MqttAckLatencyPhase phase) {
+        Recorder recorder = recorders.get(phase.ordinal());
+        if (recorder == null) {
+            recorder = new Recorder(LOWEST_DISCERNIBLE_NANOS, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            recorders.set(phase.ordinal(), recorder);
+        }
+        return recorder;
+    }
+
+    @NotNull
+    @Override
+    public synchronized MqttLatencySnapshotImpl getIntervalSnapshot(@NotNull final MqttAckLatencyPhase phase) {
+        final Recorder recorder = recorders.get(phase.ordinal());
+        if (recorder == null) {
+            return MqttLatencySnapshotImpl.EMPTY;
+        }
+        return new MqttLatencySnapshotImpl(recorder.getIntervalHistogram());
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientConnectStrategy;
+
+import javax.annotation.concurrent.Immutable;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Silvio Giebl
+ */
+@Immutable
+public class MqttClientConnectStrategyImpl implements MqttClientConnectStrategy {
+
+    public static final MqttClientConnectStrategyImpl DEFAULT =
+            new MqttClientConnectStrategyImpl(ImmutableList.of(), DEFAULT_ATTEMPT_DELAY_NANOS,
+                    DEFAULT_RESOLVE_ALL_ADDRESSES);
+
+    private final ImmutableList<InetSocketAddress> serverAddresses;
+    private final long attemptDelayNanos;
+    private final boolean resolveAllAddresses;
+
+    public MqttClientConnectStrategyImpl(
+            @NotNull final ImmutableList<InetSocketAddress> serverAddresses, final long attemptDelayNanos,
+            final boolean resolveAllAddresses) {
+
+        this.serverAddresses = serverAddresses;
+        this.attemptDelayNanos = attemptDelayNanos;
+        this.resolveAllAddresses = resolveAllAddresses;
+    }
+
+    @NotNull
+    @Override
+    public ImmutableList<InetSocketAddress> getServerAddresses() {
+        return serverAddresses;
+    }
+
+    @Override
+    public long getAttemptDelay(@NotNull final TimeUnit timeUnit) {
+        return timeUnit.convert(attemptDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getRawAttemptDelayNanos() {
+        return attemptDelayNanos;
+    }
+
+    @Override
+    public boolean resolvesAllAddresses() {
+        return resolveAllAddresses;
+    }
+
+}
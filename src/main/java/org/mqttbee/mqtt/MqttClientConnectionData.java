@@ -26,6 +26,7 @@ import org.mqttbee.api.mqtt.mqtt5.Mqtt5ClientConnectionData;
 import org.mqttbee.api.mqtt.mqtt5.auth.Mqtt5EnhancedAuthProvider;
 import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
 import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.handler.ping.MqttRttEstimator;
 import org.mqttbee.util.collections.IntMap;
 
 import java.util.Optional;
@@ -47,6 +48,7 @@ public class MqttClientConnectionData implements Mqtt5ClientConnectionData, Mqtt
     private final boolean problemInformationRequested;
     private final boolean responseInformationRequested;
     private final Channel channel;
+    private final MqttRttEstimator rttEstimator = new MqttRttEstimator();
 
     public MqttClientConnectionData(
             final int keepAlive, final long sessionExpiryInterval, final int receiveMaximum,
@@ -143,4 +145,23 @@ public class MqttClientConnectionData implements Mqtt5ClientConnectionData, Mqtt
         return channel;
     }
 
+    @NotNull
+    public MqttRttEstimator getRttEstimator() {
+        return rttEstimator;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Long> getSmoothedRttNanos() {
+        final long smoothedRttNanos = rttEstimator.getSmoothedRttNanos();
+        return (smoothedRttNanos == MqttRttEstimator.NO_ESTIMATE) ? Optional.empty() : Optional.of(smoothedRttNanos);
+    }
+
+    @NotNull
+    @Override
+    public Optional<Long> getRttVariationNanos() {
+        final long rttVariationNanos = rttEstimator.getRttVariationNanos();
+        return (rttVariationNanos == MqttRttEstimator.NO_ESTIMATE) ? Optional.empty() : Optional.of(rttVariationNanos);
+    }
+
 }
@@ -19,6 +19,8 @@ package org.mqttbee.mqtt;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.MqttClientConnectStrategy;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
 import org.mqttbee.api.mqtt.MqttClientSslConfig;
 import org.mqttbee.api.mqtt.MqttWebSocketConfig;
 import org.mqttbee.api.mqtt.datatypes.MqttClientIdentifier;
@@ -28,6 +30,7 @@ import org.mqttbee.api.mqtt.mqtt5.Mqtt5ServerConnectionData;
 import org.mqttbee.api.mqtt.mqtt5.advanced.Mqtt5AdvancedClientData;
 import org.mqttbee.mqtt.advanced.MqttAdvancedClientData;
 import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
 
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -41,6 +44,8 @@ public class MqttClientData implements Mqtt5ClientData {
     private MqttClientIdentifierImpl clientIdentifier;
     private final String serverHost;
     private final int serverPort;
+    private final String serverDomainSocketPath;
+    private final MqttClientConnectStrategyImpl connectStrategy;
     private final MqttWebSocketConfig webSocketConfig;
     private final MqttClientSslConfig sslConfig;
     private final AtomicBoolean connecting;
@@ -48,9 +53,13 @@ public class MqttClientData implements Mqtt5ClientData {
     private final boolean followsRedirects;
     private final boolean allowsServerReAuth;
     private final MqttClientExecutorConfigImpl executorConfig;
+    private final MqttClientTransportConfigImpl transportConfig;
+    private final MqttClientMetrics metrics;
+    private final MqttAckLatenciesImpl ackLatencies;
     private final MqttAdvancedClientData advancedClientData;
     private MqttClientConnectionData clientConnectionData;
     private MqttServerConnectionData serverConnectionData;
+    private volatile MqttConnectPipeline connectPipeline;
 
     public MqttClientData(
             @NotNull final MqttVersion mqttVersion, @Nullable final MqttClientIdentifierImpl clientIdentifier,
@@ -59,10 +68,27 @@ public class MqttClientData implements Mqtt5ClientData {
             final boolean allowsServerReAuth, @NotNull final MqttClientExecutorConfigImpl executorConfig,
             @Nullable final MqttAdvancedClientData advancedClientData) {
 
+        this(mqttVersion, clientIdentifier, serverHost, serverPort, null, null, sslConfig, webSocketConfig,
+                followsRedirects, allowsServerReAuth, executorConfig, MqttClientTransportConfigImpl.DEFAULT, null,
+                advancedClientData);
+    }
+
+    public MqttClientData(
+            @NotNull final MqttVersion mqttVersion, @Nullable final MqttClientIdentifierImpl clientIdentifier,
+            @NotNull final String serverHost, final int serverPort, @Nullable final String serverDomainSocketPath,
+            @Nullable final MqttClientConnectStrategyImpl connectStrategy,
+            @Nullable final MqttClientSslConfig sslConfig, @Nullable final MqttWebSocketConfig webSocketConfig,
+            final boolean followsRedirects,
+            final boolean allowsServerReAuth, @NotNull final MqttClientExecutorConfigImpl executorConfig,
+            @NotNull final MqttClientTransportConfigImpl transportConfig, @Nullable final MqttClientMetrics metrics,
+            @Nullable final MqttAdvancedClientData advancedClientData) {
+
         this.mqttVersion = mqttVersion;
         this.clientIdentifier = clientIdentifier;
         this.serverHost = serverHost;
         this.serverPort = serverPort;
+        this.serverDomainSocketPath = serverDomainSocketPath;
+        this.connectStrategy = connectStrategy;
         this.sslConfig = sslConfig;
         this.webSocketConfig = webSocketConfig;
         this.connecting = new AtomicBoolean();
@@ -70,6 +96,9 @@ public class MqttClientData implements Mqtt5ClientData {
         this.followsRedirects = followsRedirects;
         this.allowsServerReAuth = allowsServerReAuth;
         this.executorConfig = executorConfig;
+        this.transportConfig = transportConfig;
+        this.metrics = (metrics == null) ? MqttNoopClientMetrics.INSTANCE : metrics;
+        this.ackLatencies = new MqttAckLatenciesImpl();
         this.advancedClientData = advancedClientData;
     }
 
@@ -105,6 +134,33 @@ public class MqttClientData implements Mqtt5ClientData {
         return serverPort;
     }
 
+    @Override
+    public boolean usesDomainSocket() {
+        return serverDomainSocketPath != null;
+    }
+
+    @NotNull
+    @Override
+    public Optional<String> getServerDomainSocketPath() {
+        return Optional.ofNullable(serverDomainSocketPath);
+    }
+
+    @Nullable
+    public String getRawServerDomainSocketPath() {
+        return serverDomainSocketPath;
+    }
+
+    @NotNull
+    @Override
+    public Optional<MqttClientConnectStrategy> getConnectStrategy() {
+        return Optional.ofNullable(connectStrategy);
+    }
+
+    @Nullable
+    public MqttClientConnectStrategyImpl getRawConnectStrategy() {
+        return connectStrategy;
+    }
+
     @Override
     public boolean usesSsl() {
         return sslConfig != null;
@@ -171,6 +227,26 @@ public class MqttClientData implements Mqtt5ClientData {
         return executorConfig;
     }
 
+    @NotNull
+    @Override
+    public MqttClientTransportConfigImpl getTransportConfig() {
+        return transportConfig;
+    }
+
+    /**
+     * @return the metrics registered on the client or {@link MqttNoopClientMetrics} if none are registered.
+     */
+    @NotNull
+    public MqttClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    @NotNull
+    @Override
+    public MqttAckLatenciesImpl getAckLatencies() {
+        return ackLatencies;
+    }
+
     @NotNull
     public Optional<Mqtt5AdvancedClientData> getAdvancedClientData() {
         return Optional.ofNullable(advancedClientData);
@@ -211,4 +287,16 @@ public class MqttClientData implements Mqtt5ClientData {
         this.serverConnectionData = serverConnectionData;
     }
 
+    /**
+     * @return the pipeline of the current pipelined connect or null if no pipelined connect is in progress.
+     */
+    @Nullable
+    public MqttConnectPipeline getRawConnectPipeline() {
+        return connectPipeline;
+    }
+
+    public void setConnectPipeline(@Nullable final MqttConnectPipeline connectPipeline) {
+        this.connectPipeline = connectPipeline;
+    }
+
 }
@@ -25,6 +25,7 @@ import org.mqttbee.api.mqtt.MqttClientExecutorConfig;
 
 import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Silvio Giebl
@@ -32,21 +33,33 @@ import java.util.concurrent.Executor;
 public class MqttClientExecutorConfigImpl implements MqttClientExecutorConfig {
 
     public static final int DEFAULT_NETTY_THREADS = 0;
+    public static final int DEFAULT_NETTY_EVENT_LOOP = -1;
     public static final Scheduler DEFAULT_RX_JAVA_SCHEDULER = Schedulers.computation();
+    public static final long DEFAULT_SLOW_CALLBACK_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
     public static final MqttClientExecutorConfigImpl DEFAULT =
-            new MqttClientExecutorConfigImpl(null, DEFAULT_NETTY_THREADS, DEFAULT_RX_JAVA_SCHEDULER);
+            new MqttClientExecutorConfigImpl(null, DEFAULT_NETTY_THREADS, DEFAULT_NETTY_EVENT_LOOP,
+                    DEFAULT_RX_JAVA_SCHEDULER, false, false, DEFAULT_SLOW_CALLBACK_THRESHOLD_NANOS);
 
     private final Executor nettyExecutor;
     private final int nettyThreads;
+    private final int nettyEventLoop;
     private final Scheduler applicationScheduler;
+    private final boolean applicationOnEventLoop;
+    private final boolean applicationInline;
+    private final long slowCallbackThresholdNanos;
 
     public MqttClientExecutorConfigImpl(
-            @Nullable final Executor nettyExecutor, final int nettyThreads,
-            @NotNull final Scheduler applicationScheduler) {
+            @Nullable final Executor nettyExecutor, final int nettyThreads, final int nettyEventLoop,
+            @NotNull final Scheduler applicationScheduler, final boolean applicationOnEventLoop,
+            final boolean applicationInline, final long slowCallbackThresholdNanos) {
 
         this.nettyExecutor = nettyExecutor;
         this.nettyThreads = nettyThreads;
+        this.nettyEventLoop = nettyEventLoop;
         this.applicationScheduler = applicationScheduler;
+        this.applicationOnEventLoop = applicationOnEventLoop;
+        this.applicationInline = applicationInline;
+        this.slowCallbackThresholdNanos = slowCallbackThresholdNanos;
     }
 
     @NotNull
@@ -71,8 +84,34 @@ public class MqttClientExecutorConfigImpl implements MqttClientExecutorConfig {
     }
 
     @NotNull
+    @Override
+    public Optional<Integer> getNettyEventLoop() {
+        return (nettyEventLoop == DEFAULT_NETTY_EVENT_LOOP) ? Optional.empty() : Optional.of(nettyEventLoop);
+    }
+
+    public int getRawNettyEventLoop() {
+        return nettyEventLoop;
+    }
+
+    @NotNull
+    @Override
     public Scheduler getApplicationScheduler() {
         return applicationScheduler;
     }
 
+    @Override
+    public boolean runsApplicationOnEventLoop() {
+        return applicationOnEventLoop;
+    }
+
+    @Override
+    public boolean runsApplicationInline() {
+        return applicationInline;
+    }
+
+    @Override
+    public long getSlowCallbackThresholdNanos() {
+        return slowCallbackThresholdNanos;
+    }
+
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.MqttClientGauges;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class MqttClientGaugesImpl implements MqttClientGauges {
+
+    private final MqttClientData clientData;
+
+    public MqttClientGaugesImpl(@NotNull final MqttClientData clientData) {
+        this.clientData = clientData;
+    }
+
+    @Override
+    public int getOutgoingPublishQueueSize() {
+        final ChannelComponent channelComponent = getChannelComponent();
+        return (channelComponent == null) ? 0 : channelComponent.outgoingQosHandler().getPublishQueueSize();
+    }
+
+    @Override
+    public int getOutgoingQos1Or2PublishCount() {
+        final ChannelComponent channelComponent = getChannelComponent();
+        return (channelComponent == null) ? 0 : channelComponent.outgoingQosHandler().getQos1Or2PublishCount();
+    }
+
+    @Override
+    public int getIncomingPublishQueueSize() {
+        final ChannelComponent channelComponent = getChannelComponent();
+        return (channelComponent == null) ? 0 : channelComponent.incomingPublishService().getQueueSize();
+    }
+
+    @Override
+    public long getSmoothedRttNanos() {
+        final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+        return (clientConnectionData == null) ? -1 : clientConnectionData.getRttEstimator().getSmoothedRttNanos();
+    }
+
+    /**
+     * @return the channel component of the current connection or null if the client is not connected.
+     */
+    @Nullable
+    private ChannelComponent getChannelComponent() {
+        if (!clientData.isConnected()) {
+            return null;
+        }
+        final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+        return (clientConnectionData == null) ? null : ChannelComponent.get(clientConnectionData.getChannel());
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientReconnectConfig;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Silvio Giebl
+ */
+@Immutable
+public class MqttClientReconnectConfigImpl implements MqttClientReconnectConfig {
+
+    public static final MqttClientReconnectConfigImpl DEFAULT =
+            new MqttClientReconnectConfigImpl(DEFAULT_INITIAL_DELAY_NANOS, DEFAULT_MAX_DELAY_NANOS, DEFAULT_MULTIPLIER,
+                    DEFAULT_JITTER);
+
+    private final long initialDelayNanos;
+    private final long maxDelayNanos;
+    private final double multiplier;
+    private final double jitter;
+
+    public MqttClientReconnectConfigImpl(
+            final long initialDelayNanos, final long maxDelayNanos, final double multiplier, final double jitter) {
+
+        this.initialDelayNanos = initialDelayNanos;
+        this.maxDelayNanos = maxDelayNanos;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public long getInitialDelay(@NotNull final TimeUnit timeUnit) {
+        return timeUnit.convert(initialDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long getMaxDelay(@NotNull final TimeUnit timeUnit) {
+        return timeUnit.convert(maxDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Calculates the delay before a reconnect attempt.
+     *
+     * @param attempt the number of failed attempts since the connection was lost.
+     * @param random  a random number between 0 (inclusive) and 1 (exclusive).
+     * @return the delay in nanoseconds.
+     */
+    public long getDelayNanos(final int attempt, final double random) {
+        final double delay = Math.min(initialDelayNanos * Math.pow(multiplier, attempt), maxDelayNanos);
+        return (long) (delay * (1 - (jitter * random)));
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientTransportConfig;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Optional;
+
+/**
+ * @author Silvio Giebl
+ */
+@Immutable
+public class MqttClientTransportConfigImpl implements MqttClientTransportConfig {
+
+    public static final int DEFAULT_VALUE = 0;
+    public static final MqttClientTransportConfigImpl DEFAULT =
+            new MqttClientTransportConfigImpl(DEFAULT_VALUE, DEFAULT_VALUE, DEFAULT_VALUE, DEFAULT_VALUE,
+                    DEFAULT_VALUE, DEFAULT_VALUE, false, DEFAULT_VALUE, DEFAULT_VALUE, false, DEFAULT_VALUE);
+
+    @NotNull
+    private static Optional<Integer> optional(final int value) {
+        return (value == DEFAULT_VALUE) ? Optional.empty() : Optional.of(value);
+    }
+
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+    private final int writeBufferLowWaterMark;
+    private final int writeBufferHighWaterMark;
+    private final int fixedReceiveBufferSize;
+    private final int maxMessagesPerRead;
+    private final boolean tcpQuickAck;
+    private final int tcpNotSentLowAt;
+    private final int busyPollMicros;
+    private final boolean autoTuneBuffers;
+    private final int pingResponseTimeoutMillis;
+
+    public MqttClientTransportConfigImpl(
+            final int sendBufferSize, final int receiveBufferSize, final int writeBufferLowWaterMark,
+            final int writeBufferHighWaterMark, final int fixedReceiveBufferSize, final int maxMessagesPerRead,
+            final boolean tcpQuickAck, final int tcpNotSentLowAt, final int busyPollMicros,
+            final boolean autoTuneBuffers, final int pingResponseTimeoutMillis) {
+
+        this.sendBufferSize = sendBufferSize;
+        this.receiveBufferSize = receiveBufferSize;
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+        this.fixedReceiveBufferSize = fixedReceiveBufferSize;
+        this.maxMessagesPerRead = maxMessagesPerRead;
+        this.tcpQuickAck = tcpQuickAck;
+        this.tcpNotSentLowAt = tcpNotSentLowAt;
+        this.busyPollMicros = busyPollMicros;
+        this.autoTuneBuffers = autoTuneBuffers;
+        this.pingResponseTimeoutMillis = pingResponseTimeoutMillis;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getSendBufferSize() {
+        return optional(sendBufferSize);
+    }
+
+    public int getRawSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getReceiveBufferSize() {
+        return optional(receiveBufferSize);
+    }
+
+    public int getRawReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getWriteBufferLowWaterMark() {
+        return optional(writeBufferLowWaterMark);
+    }
+
+    public int getRawWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getWriteBufferHighWaterMark() {
+        return optional(writeBufferHighWaterMark);
+    }
+
+    public int getRawWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getFixedReceiveBufferSize() {
+        return optional(fixedReceiveBufferSize);
+    }
+
+    public int getRawFixedReceiveBufferSize() {
+        return fixedReceiveBufferSize;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getMaxMessagesPerRead() {
+        return optional(maxMessagesPerRead);
+    }
+
+    public int getRawMaxMessagesPerRead() {
+        return maxMessagesPerRead;
+    }
+
+    @Override
+    public boolean usesTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getTcpNotSentLowAt() {
+        return optional(tcpNotSentLowAt);
+    }
+
+    public int getRawTcpNotSentLowAt() {
+        return tcpNotSentLowAt;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getBusyPollMicros() {
+        return optional(busyPollMicros);
+    }
+
+    public int getRawBusyPollMicros() {
+        return busyPollMicros;
+    }
+
+    @Override
+    public boolean autoTunesBuffers() {
+        return autoTuneBuffers;
+    }
+
+    @NotNull
+    @Override
+    public Optional<Integer> getPingResponseTimeoutMillis() {
+        return optional(pingResponseTimeoutMillis);
+    }
+
+    public int getRawPingResponseTimeoutMillis() {
+        return pingResponseTimeoutMillis;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.HdrHistogram.Histogram;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttLatencySnapshot;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * @author Silvio Giebl
+ */
+@Immutable
+public class MqttLatencySnapshotImpl implements MqttLatencySnapshot {
+
+    static final MqttLatencySnapshotImpl EMPTY = new MqttLatencySnapshotImpl(new Histogram(1));
+
+    private final Histogram histogram; // not modified after construction
+
+    MqttLatencySnapshotImpl(@NotNull final Histogram histogram) {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public long getStartTimeStamp() {
+        return histogram.getStartTimeStamp();
+    }
+
+    @Override
+    public long getEndTimeStamp() {
+        return histogram.getEndTimeStamp();
+    }
+
+    @Override
+    public long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    @Override
+    public long getMinNanos() {
+        return (histogram.getTotalCount() == 0) ? 0 : histogram.getMinValue();
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return histogram.getMaxValue();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return histogram.getMean();
+    }
+
+    @Override
+    public long getValueAtPercentileNanos(final double percentile) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Metrics which ignore all events. Used if no metrics are registered on the client so that the call sites do not need
+ * to check for null.
+ *
+ * @author Silvio Giebl
+ */
+@Immutable
+public class MqttNoopClientMetrics implements MqttClientMetrics {
+
+    public static final MqttNoopClientMetrics INSTANCE = new MqttNoopClientMetrics();
+
+    private MqttNoopClientMetrics() {
+    }
+
+}
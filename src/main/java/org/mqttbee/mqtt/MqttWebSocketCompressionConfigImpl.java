@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.mqttbee.api.mqtt.MqttWebSocketCompressionConfig;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * @author Silvio Giebl
+ */
+@Immutable
+public class MqttWebSocketCompressionConfigImpl implements MqttWebSocketCompressionConfig {
+
+    public static final MqttWebSocketCompressionConfigImpl DEFAULT =
+            new MqttWebSocketCompressionConfigImpl(DEFAULT_COMPRESSION_LEVEL, MAX_WINDOW_BITS,
+                    DEFAULT_SERVER_NO_CONTEXT_TAKEOVER, DEFAULT_CLIENT_NO_CONTEXT_TAKEOVER);
+
+    private final int compressionLevel;
+    private final int serverMaxWindowBits;
+    private final boolean serverNoContextTakeover;
+    private final boolean clientNoContextTakeover;
+
+    public MqttWebSocketCompressionConfigImpl(
+            final int compressionLevel, final int serverMaxWindowBits, final boolean serverNoContextTakeover,
+            final boolean clientNoContextTakeover) {
+
+        this.compressionLevel = compressionLevel;
+        this.serverMaxWindowBits = serverMaxWindowBits;
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        this.clientNoContextTakeover = clientNoContextTakeover;
+    }
+
+    @Override
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    @Override
+    public int getServerMaxWindowBits() {
+        return serverMaxWindowBits;
+    }
+
+    @Override
+    public boolean requestsServerNoContextTakeover() {
+        return serverNoContextTakeover;
+    }
+
+    @Override
+    public boolean offersClientNoContextTakeover() {
+        return clientNoContextTakeover;
+    }
+
+}
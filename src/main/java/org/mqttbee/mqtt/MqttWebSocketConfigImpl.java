@@ -17,8 +17,12 @@
 package org.mqttbee.mqtt;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.MqttWebSocketCompressionConfig;
 import org.mqttbee.api.mqtt.MqttWebSocketConfig;
 
+import java.util.Optional;
+
 /**
  * @author David Katz
  * @author Christian Hoff
@@ -27,17 +31,29 @@ public class MqttWebSocketConfigImpl implements MqttWebSocketConfig {
     public static final String DEFAULT_SERVER_PATH = "";
     // https://www.iana.org/assignments/websocket/websocket.xml#subprotocol-name
     public static final String DEFAULT_MQTT_SUBPROTOCOL = "mqtt";
+    public static final boolean DEFAULT_BATCH_FRAMES = false;
 
     public static final MqttWebSocketConfigImpl DEFAULT =
             new MqttWebSocketConfigImpl(DEFAULT_SERVER_PATH, DEFAULT_MQTT_SUBPROTOCOL);
 
     private final String serverPath;
     private final String subprotocol;
+    private final MqttWebSocketCompressionConfig compressionConfig;
+    private final boolean batchFrames;
 
     public MqttWebSocketConfigImpl(@NotNull final String serverPath, @NotNull final String subprotocol) {
+        this(serverPath, subprotocol, null, DEFAULT_BATCH_FRAMES);
+    }
+
+    public MqttWebSocketConfigImpl(
+            @NotNull final String serverPath, @NotNull final String subprotocol,
+            @Nullable final MqttWebSocketCompressionConfig compressionConfig, final boolean batchFrames) {
+
         // remove any leading slashes
         this.serverPath = serverPath.replaceAll("^/+", "");
         this.subprotocol = subprotocol;
+        this.compressionConfig = compressionConfig;
+        this.batchFrames = batchFrames;
     }
 
     @Override
@@ -52,4 +68,20 @@ public class MqttWebSocketConfigImpl implements MqttWebSocketConfig {
         return subprotocol;
     }
 
+    @Override
+    @NotNull
+    public Optional<MqttWebSocketCompressionConfig> getCompressionConfig() {
+        return Optional.ofNullable(compressionConfig);
+    }
+
+    @Nullable
+    public MqttWebSocketCompressionConfig getRawCompressionConfig() {
+        return compressionConfig;
+    }
+
+    @Override
+    public boolean batchesFrames() {
+        return batchFrames;
+    }
+
 }
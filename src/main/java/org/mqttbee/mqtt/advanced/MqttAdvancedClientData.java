@@ -33,17 +33,20 @@ public class MqttAdvancedClientData implements Mqtt5AdvancedClientData {
     private final Mqtt5OutgoingQos1ControlProvider outgoingQos1ControlProvider;
     private final Mqtt5IncomingQos2ControlProvider incomingQos2ControlProvider;
     private final Mqtt5OutgoingQos2ControlProvider outgoingQos2ControlProvider;
+    private final boolean pipelinedConnect;
 
     public MqttAdvancedClientData(
             @Nullable final Mqtt5IncomingQos1ControlProvider incomingQos1ControlProvider,
             @Nullable final Mqtt5OutgoingQos1ControlProvider outgoingQos1ControlProvider,
             @Nullable final Mqtt5IncomingQos2ControlProvider incomingQos2ControlProvider,
-            @Nullable final Mqtt5OutgoingQos2ControlProvider outgoingQos2ControlProvider) {
+            @Nullable final Mqtt5OutgoingQos2ControlProvider outgoingQos2ControlProvider,
+            final boolean pipelinedConnect) {
 
         this.incomingQos1ControlProvider = incomingQos1ControlProvider;
         this.outgoingQos1ControlProvider = outgoingQos1ControlProvider;
         this.incomingQos2ControlProvider = incomingQos2ControlProvider;
         this.outgoingQos2ControlProvider = outgoingQos2ControlProvider;
+        this.pipelinedConnect = pipelinedConnect;
     }
 
     @Nullable
@@ -66,4 +69,8 @@ public class MqttAdvancedClientData implements Mqtt5AdvancedClientData {
         return outgoingQos2ControlProvider;
     }
 
+    public boolean usesPipelinedConnect() {
+        return pipelinedConnect;
+    }
+
 }
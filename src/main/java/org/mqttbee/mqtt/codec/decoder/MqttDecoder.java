@@ -27,6 +27,8 @@ import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
 import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectUtil;
 import org.mqttbee.mqtt.ioc.ChannelScope;
+import org.mqttbee.mqtt.jfr.MqttDecodeErrorEvent;
+import org.mqttbee.mqtt.jfr.MqttJfr;
 import org.mqttbee.mqtt.message.MqttMessage;
 
 import javax.inject.Inject;
@@ -98,6 +100,7 @@ public class MqttDecoder extends ByteToMessageDecoder {
             }
 
             final MqttMessage message = decoder.decode(flags, in.readSlice(remainingLength), clientConnectionData);
+            clientData.getMetrics().onMessageDecoded(Mqtt5MessageType.fromCode(messageType), packetSize);
 
             if (message != null) {
                 out.add(message);
@@ -105,7 +108,11 @@ public class MqttDecoder extends ByteToMessageDecoder {
 
         } catch (final MqttDecoderException e) {
             in.clear();
-            e.setMessageType(Mqtt5MessageType.fromCode(messageType));
+            final Mqtt5MessageType type = Mqtt5MessageType.fromCode(messageType);
+            e.setMessageType(type);
+            if (MqttJfr.AVAILABLE) {
+                MqttDecodeErrorEvent.commitIfEnabled(String.valueOf(type), e.getReasonCode().name(), e.getMessage());
+            }
             MqttDisconnectUtil.disconnect(ctx.channel(), e.getReasonCode(), e);
         }
     }
@@ -62,10 +62,17 @@ public class MqttEncoder extends ChannelOutboundHandlerAdapter {
                     (serverConnectionData == null) ? MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT :
                             serverConnectionData.getMaximumPacketSize();
             final ByteBuf out = messageEncoder.castAndEncode(message, ctx.alloc(), maximumPacketSize);
+            clientData.getMetrics().onMessageEncoded(message.getType(), out.readableBytes());
             ctx.write(out, promise);
         } else {
             ctx.write(msg, promise);
         }
     }
 
+    @Override
+    public void flush(final ChannelHandlerContext ctx) {
+        clientData.getMetrics().onFlush();
+        ctx.flush();
+    }
+
 }
@@ -27,6 +27,7 @@ import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
 import org.mqttbee.mqtt.datatypes.MqttBinaryData;
 import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttPublishTemplate;
 import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
 
 import javax.inject.Inject;
@@ -80,9 +81,13 @@ public class Mqtt5PublishEncoder extends Mqtt5MessageWithUserPropertiesEncoder<M
 
         int propertyLength = 0;
 
-        propertyLength += fixedPropertyLength(stateless);
-
-        propertyLength += stateless.getUserProperties().encodedLength();
+        final MqttPublishTemplate template = stateless.getTemplate();
+        if (template == null) {
+            propertyLength += fixedPropertyLength(stateless);
+            propertyLength += stateless.getUserProperties().encodedLength();
+        } else {
+            propertyLength += encodedTemplatePrefix(template).length - stateless.getTopic().encodedLength();
+        }
 
         propertyLength += shortPropertyEncodedLength(message.getTopicAlias(), DEFAULT_NO_TOPIC_ALIAS);
 
@@ -107,6 +112,32 @@ public class Mqtt5PublishEncoder extends Mqtt5MessageWithUserPropertiesEncoder<M
         return propertyLength;
     }
 
+    /**
+     * Returns the encoded prefix of the publishes created from the given template: the Topic Name followed by the
+     * fixed properties and User Properties. It is encoded only once per template and then copied for every publish,
+     * only the Packet Identifier, the lengths, the Topic Alias and the Subscription Identifiers are encoded per
+     * publish.
+     *
+     * @param template the template of the publish to encode.
+     * @return the encoded Topic Name, fixed properties and User Properties.
+     */
+    @NotNull
+    private byte[] encodedTemplatePrefix(@NotNull final MqttPublishTemplate template) {
+        byte[] encodedPrefix = template.getRawEncodedPrefix();
+        if (encodedPrefix == null) {
+            final MqttPublish prototype = template.getPrototype();
+            final int length = prototype.getTopic().encodedLength() + fixedPropertyLength(prototype) +
+                    prototype.getUserProperties().encodedLength();
+            final ByteBuf out = Unpooled.buffer(length, length);
+            prototype.getTopic().to(out);
+            encodeFixedProperties(prototype, out);
+            prototype.getUserProperties().encode(out);
+            encodedPrefix = out.array();
+            template.setEncodedPrefix(encodedPrefix);
+        }
+        return encodedPrefix;
+    }
+
     @NotNull
     @Override
     ByteBuf encode(
@@ -159,18 +190,37 @@ public class Mqtt5PublishEncoder extends Mqtt5MessageWithUserPropertiesEncoder<M
             final int omittedProperties) {
 
         final MqttPublish stateless = message.getStatelessMessage();
+        final MqttPublishTemplate template = stateless.getTemplate();
+        final boolean encodeTopic = (message.getTopicAlias() == DEFAULT_NO_TOPIC_ALIAS) || message.isNewTopicAlias();
+
+        if ((template != null) && (omittedProperties == 0)) {
+            final byte[] encodedPrefix = encodedTemplatePrefix(template);
+            final int topicLength = stateless.getTopic().encodedLength();
+            if (encodeTopic) {
+                out.writeBytes(encodedPrefix, 0, topicLength);
+            } else {
+                MqttBinaryData.encodeEmpty(out);
+            }
+            encodePacketIdentifier(message, out);
+            MqttVariableByteInteger.encode(propertyLength, out);
+            out.writeBytes(encodedPrefix, topicLength, encodedPrefix.length - topicLength);
+            encodePerPublishProperties(message, out);
+            return;
+        }
 
-        if ((message.getTopicAlias() == DEFAULT_NO_TOPIC_ALIAS) || message.isNewTopicAlias()) {
+        if (encodeTopic) {
             stateless.getTopic().to(out);
         } else {
             MqttBinaryData.encodeEmpty(out);
         }
+        encodePacketIdentifier(message, out);
+        encodeProperties(message, out, propertyLength, omittedProperties);
+    }
 
-        if (stateless.getQos() != MqttQos.AT_MOST_ONCE) {
+    private void encodePacketIdentifier(@NotNull final MqttStatefulPublish message, @NotNull final ByteBuf out) {
+        if (message.getStatelessMessage().getQos() != MqttQos.AT_MOST_ONCE) {
             out.writeShort(message.getPacketIdentifier());
         }
-
-        encodeProperties(message, out, propertyLength, omittedProperties);
     }
 
     private void encodeProperties(
@@ -181,7 +231,10 @@ public class Mqtt5PublishEncoder extends Mqtt5MessageWithUserPropertiesEncoder<M
 
         encodeFixedProperties(message.getStatelessMessage(), out);
         encodeOmissibleProperties(message, out, omittedProperties);
+        encodePerPublishProperties(message, out);
+    }
 
+    private void encodePerPublishProperties(@NotNull final MqttStatefulPublish message, @NotNull final ByteBuf out) {
         encodeShortProperty(TOPIC_ALIAS, message.getTopicAlias(), DEFAULT_NO_TOPIC_ALIAS, out);
 
         final ImmutableIntArray subscriptionIdentifiers = message.getSubscriptionIdentifiers();
@@ -18,30 +18,36 @@
 package org.mqttbee.mqtt.handler;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateClientExtensionHandshaker;
 import io.netty.handler.ssl.SslHandler;
 import io.reactivex.SingleEmitter;
 import io.reactivex.exceptions.Exceptions;
 import org.jetbrains.annotations.NotNull;
 import org.mqttbee.api.mqtt.MqttClientSslConfig;
+import org.mqttbee.api.mqtt.MqttWebSocketCompressionConfig;
 import org.mqttbee.api.mqtt.MqttWebSocketConfig;
 import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
 import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.codec.encoder.MqttEncoder;
-import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
 import org.mqttbee.mqtt.handler.auth.MqttAuthHandler;
 import org.mqttbee.mqtt.handler.auth.MqttDisconnectOnAuthHandler;
 import org.mqttbee.mqtt.handler.connect.MqttConnectHandler;
 import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectHandler;
 import org.mqttbee.mqtt.handler.ssl.SslUtil;
 import org.mqttbee.mqtt.handler.websocket.MqttWebSocketClientProtocolHandler;
+import org.mqttbee.mqtt.handler.websocket.WebSocketBinaryFrameBatchEncoder;
 import org.mqttbee.mqtt.handler.websocket.WebSocketBinaryFrameDecoder;
 import org.mqttbee.mqtt.handler.websocket.WebSocketBinaryFrameEncoder;
 import org.mqttbee.mqtt.ioc.ChannelComponent;
 import org.mqttbee.mqtt.message.connect.MqttConnect;
+import org.mqttbee.mqtt.netty.NettyBufferAutoTuner;
 
 import javax.net.ssl.SSLException;
 import java.net.URISyntaxException;
@@ -56,6 +62,12 @@ public class MqttChannelInitializer extends ChannelInitializer<Channel> {
 
     private static final String HTTP_CODEC_NAME = "http.codec";
     private static final String HTTP_AGGREGATOR_NAME = "http.aggregator";
+    private static final String WS_COMPRESSION_NAME = "ws.compression";
+    /**
+     * The aggregator only aggregates the handshake response which normally has no content. Netty removes it together
+     * with the HTTP codec when the handshake completes.
+     */
+    private static final int HANDSHAKE_MAX_CONTENT_LENGTH = 8192;
 
     private final MqttConnect connect;
     private final SingleEmitter<Mqtt5ConnAck> connAckEmitter;
@@ -79,6 +91,29 @@ public class MqttChannelInitializer extends ChannelInitializer<Channel> {
         if (sslConfig != null) {
             initSsl(channel, sslConfig);
         }
+        initProtocol(channel);
+    }
+
+    /**
+     * Initializes a channel which is already connected and on which the TLS handshake is already done if SSL is used,
+     * for example the channel of a {@link org.mqttbee.mqtt.netty.NettyConnectRace}. Must be called on the event loop
+     * of the channel.
+     *
+     * @param channel the connected channel.
+     */
+    public void initConnectedChannel(@NotNull final Channel channel) {
+        channelComponent = ChannelComponent.create(channel, clientData);
+        initProtocol(channel);
+        final ChannelHandlerContext httpCodecContext = channel.pipeline().context(HTTP_CODEC_NAME);
+        if (httpCodecContext != null) {
+            httpCodecContext.fireChannelActive(); // the WebSocket handshake is only started on channel active
+        }
+    }
+
+    private void initProtocol(@NotNull final Channel channel) {
+        if (clientData.getTransportConfig().autoTunesBuffers() && NettyBufferAutoTuner.isSupported(channel)) {
+            channel.pipeline().addFirst(NettyBufferAutoTuner.NAME, new NettyBufferAutoTuner());
+        }
         final MqttWebSocketConfig webSocketConfig = clientData.getRawWebSocketConfig();
         if (webSocketConfig != null) {
             initMqttOverWebSockets(channel.pipeline(), webSocketConfig);
@@ -109,10 +144,17 @@ public class MqttChannelInitializer extends ChannelInitializer<Channel> {
                     new MqttWebSocketClientProtocolHandler(clientData, webSocketConfig, this);
 
             pipeline.addLast(HTTP_CODEC_NAME, new HttpClientCodec());
-            pipeline.addLast(
-                    HTTP_AGGREGATOR_NAME, new HttpObjectAggregator(MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT));
+            pipeline.addLast(HTTP_AGGREGATOR_NAME, new HttpObjectAggregator(HANDSHAKE_MAX_CONTENT_LENGTH));
+            webSocketConfig.getCompressionConfig()
+                    .ifPresent(config -> pipeline.addLast(WS_COMPRESSION_NAME, createCompressionHandler(config)));
             pipeline.addLast(MqttWebSocketClientProtocolHandler.NAME, wsProtocolHandler);
-            pipeline.addLast(WebSocketBinaryFrameEncoder.NAME, channelComponent.webSocketBinaryFrameEncoder());
+            if (webSocketConfig.batchesFrames()) {
+                pipeline.addLast(WebSocketBinaryFrameBatchEncoder.NAME, new WebSocketBinaryFrameBatchEncoder());
+            } else {
+                pipeline.addLast(WebSocketBinaryFrameEncoder.NAME, channelComponent.webSocketBinaryFrameEncoder());
+            }
+            // fragmented frames are appended to the cumulation without copying them
+            channelComponent.decoder().setCumulator(ByteToMessageDecoder.COMPOSITE_CUMULATOR);
             pipeline.addLast(WebSocketBinaryFrameDecoder.NAME, channelComponent.webSocketBinaryFrameDecoder());
 
         } catch (final URISyntaxException e) {
@@ -120,6 +162,17 @@ public class MqttChannelInitializer extends ChannelInitializer<Channel> {
         }
     }
 
+    @NotNull
+    private static WebSocketClientExtensionHandler createCompressionHandler(
+            @NotNull final MqttWebSocketCompressionConfig compressionConfig) {
+
+        // the client window size is not offered to be reduced, as the JDK deflater always uses the maximum window
+        return new WebSocketClientExtensionHandler(
+                new PerMessageDeflateClientExtensionHandshaker(compressionConfig.getCompressionLevel(), false,
+                        compressionConfig.getServerMaxWindowBits(), compressionConfig.offersClientNoContextTakeover(),
+                        compressionConfig.requestsServerNoContextTakeover()));
+    }
+
     private void initSsl(@NotNull final Channel channel, @NotNull final MqttClientSslConfig sslConfig) {
         try {
             final SslHandler sslHandler = SslUtil.createSslHandler(channel, sslConfig);
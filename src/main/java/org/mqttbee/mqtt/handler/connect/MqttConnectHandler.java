@@ -22,6 +22,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.reactivex.SingleEmitter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException;
 import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5Message;
 import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
@@ -41,6 +42,8 @@ import org.mqttbee.mqtt.handler.subscribe.MqttSubscriptionHandler;
 import org.mqttbee.mqtt.handler.util.ChannelInboundHandlerWithTimeout;
 import org.mqttbee.mqtt.ioc.ChannelComponent;
 import org.mqttbee.mqtt.ioc.ChannelScope;
+import org.mqttbee.mqtt.jfr.MqttConnectEvent;
+import org.mqttbee.mqtt.jfr.MqttJfr;
 import org.mqttbee.mqtt.message.MqttMessage;
 import org.mqttbee.mqtt.message.connect.MqttConnect;
 import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
@@ -56,6 +59,8 @@ import org.slf4j.LoggerFactory;
  * <li>Handles the CONNACK message.</li>
  * <li>Disconnects or closes the channel on receiving other messages before CONNACK.</li>
  * <li>Disconnects or closes the channel if the CONNACK message is not received in the timeout.</li>
+ * <li>Adds the handlers for subscriptions and publishes right after the CONNECT message is written if the connect is
+ * pipelined, otherwise after the CONNACK message is received.</li>
  * </ul>
  *
  * @author Silvio Giebl
@@ -71,6 +76,8 @@ public class MqttConnectHandler extends ChannelInboundHandlerWithTimeout {
     private final SingleEmitter<Mqtt5ConnAck> connAckEmitter;
     private final MqttClientData clientData;
     private boolean connectCalled = false;
+    private boolean pipelined = false;
+    private MqttConnectEvent jfrConnectEvent;
 
     public MqttConnectHandler(
             @NotNull final MqttConnect connect, @NotNull final SingleEmitter<Mqtt5ConnAck> connAckEmitter,
@@ -107,12 +114,26 @@ public class MqttConnectHandler extends ChannelInboundHandlerWithTimeout {
      * the CONNECT is sent.
      * <p>
      * If the write fails, the channel is closed.
+     * <p>
+     * If the connect is pipelined, the handlers for subscriptions and publishes are added right after the CONNECT
+     * message and the {@link MqttConnectPipeline} is opened, so deferred subscriptions and publishes are written
+     * directly behind the CONNECT message.
      *
      * @param ctx the channel handler context.
      */
     private void writeConnect(@NotNull final ChannelHandlerContext ctx) {
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        pipelined = connectPipeline != null;
+        if (pipelined) {
+            clientData.setServerConnectionData(MqttConnectPipeline.createProvisionalServerConnectionData());
+        }
         addClientData(ctx.channel());
 
+        if (MqttJfr.AVAILABLE) {
+            jfrConnectEvent =
+                    MqttConnectEvent.beginIfEnabled(clientData.getServerHost(), clientData.getServerPort(), pipelined);
+        }
+
         final boolean noEnhancedAuth = connect.getRawEnhancedAuthProvider() == null;
         final MqttMessage message =
                 noEnhancedAuth ? connect.createStateful(clientData.getRawClientIdentifier(), null) : connect;
@@ -128,6 +149,22 @@ public class MqttConnectHandler extends ChannelInboundHandlerWithTimeout {
                 MqttDisconnectUtil.close(ctx.channel(), future.cause());
             }
         });
+
+        if (connectPipeline != null) {
+            final ChannelComponent channelComponent = ChannelComponent.get(ctx.channel());
+            addSubscriptionAndQosHandlers(ctx.pipeline(), NAME, channelComponent);
+            channelComponent.outgoingQosHandler().onPipelinedConnect();
+            connectPipeline.open();
+        }
+    }
+
+    private static void addSubscriptionAndQosHandlers(
+            @NotNull final ChannelPipeline pipeline, @NotNull final String beforeHandlerName,
+            @NotNull final ChannelComponent channelComponent) {
+
+        pipeline.addAfter(beforeHandlerName, MqttSubscriptionHandler.NAME, channelComponent.subscriptionHandler());
+        pipeline.addAfter(beforeHandlerName, MqttIncomingQosHandler.NAME, channelComponent.incomingQosHandler());
+        pipeline.addAfter(beforeHandlerName, MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler());
     }
 
     /**
@@ -164,12 +201,14 @@ public class MqttConnectHandler extends ChannelInboundHandlerWithTimeout {
      * If it contains an Error Code, the channel is closed.
      * <p>
      * Otherwise it is validated. Then this handler is removed from the pipeline and the {@link MqttPingHandler} and
-     * {@link MqttDisconnectOnConnAckHandler} are added to the pipeline.
+     * {@link MqttDisconnectOnConnAckHandler} are added to the pipeline. If the connect is pipelined, the handlers for
+     * subscriptions and publishes are already added and are reconciled with the negotiated limits.
      *
      * @param connAck the CONNACK message.
      * @param channel the channel.
      */
     private void handleConnAck(@NotNull final MqttConnAck connAck, @NotNull final Channel channel) {
+        commitConnectEvent(connAck.getReasonCode().name());
         if (connAck.getReasonCode().isError()) {
             MqttDisconnectUtil.close(
                     channel, new Mqtt5MessageException(connAck, "Connection failed with CONNACK with Error Code"));
@@ -188,16 +227,18 @@ public class MqttConnectHandler extends ChannelInboundHandlerWithTimeout {
                 assert clientConnectionData != null;
                 final int keepAlive = clientConnectionData.getKeepAlive();
                 if (keepAlive > 0) {
-                    pipeline.addAfter(beforeHandlerName, MqttPingHandler.NAME, new MqttPingHandler(keepAlive));
+                    pipeline.addAfter(beforeHandlerName, MqttPingHandler.NAME, new MqttPingHandler(keepAlive,
+                            clientData.getTransportConfig().getRawPingResponseTimeoutMillis(),
+                            clientConnectionData.getRttEstimator()));
                     beforeHandlerName = MqttPingHandler.NAME;
                 }
 
-                pipeline.addAfter(
-                        beforeHandlerName, MqttSubscriptionHandler.NAME, channelComponent.subscriptionHandler());
-                pipeline.addAfter(
-                        beforeHandlerName, MqttIncomingQosHandler.NAME, channelComponent.incomingQosHandler());
-                pipeline.addAfter(
-                        beforeHandlerName, MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler());
+                if (pipelined) {
+                    channelComponent.outgoingQosHandler().onConnAck();
+                    channelComponent.outgoingPublishService().onConnAck();
+                } else {
+                    addSubscriptionAndQosHandlers(pipeline, beforeHandlerName, channelComponent);
+                }
                 pipeline.addLast(MqttDisconnectOnConnAckHandler.NAME, channelComponent.disconnectOnConnAckHandler());
 
                 connAckEmitter.onSuccess(connAck);
@@ -299,11 +340,19 @@ public class MqttConnectHandler extends ChannelInboundHandlerWithTimeout {
     @Override
     public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) {
         if (evt instanceof ChannelCloseEvent) {
+            commitConnectEvent(null);
             connAckEmitter.onError(((ChannelCloseEvent) evt).getCause());
         }
         ctx.fireUserEventTriggered(evt);
     }
 
+    private void commitConnectEvent(@Nullable final String reasonCode) {
+        if (jfrConnectEvent != null) {
+            jfrConnectEvent.commit(reasonCode);
+            jfrConnectEvent = null;
+        }
+    }
+
     @Override
     protected long getTimeout(@NotNull final ChannelHandlerContext ctx) {
         return CONNACK_TIMEOUT;
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.connect;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.mqtt.MqttServerConnectionData;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Defers subscriptions and publishes that are issued while a pipelined connect is in progress until the CONNECT
+ * message is written, so they are written right behind it instead of waiting for the CONNACK message.
+ * <p>
+ * The pipeline is opened by the {@link MqttConnectHandler} after the CONNECT message is written or by the client if
+ * the connect fails before. Deferred actions are run once when the pipeline is opened. They must check the connection
+ * state again as the connect may have failed.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class MqttConnectPipeline {
+
+    /**
+     * Receive Maximum that is assumed until the CONNACK message is received. This is the minimum a server may use, so
+     * pipelined publishes never exceed the limit the server sends in the CONNACK message.
+     */
+    public static final int RECEIVE_MAXIMUM = 1;
+
+    /**
+     * Creates the server connection data that is used until the CONNACK message is received.
+     * <p>
+     * Topic aliases are not used, the maximum packet size is not restricted further than by the protocol.
+     *
+     * @return the provisional server connection data.
+     */
+    @NotNull
+    static MqttServerConnectionData createProvisionalServerConnectionData() {
+        return new MqttServerConnectionData(RECEIVE_MAXIMUM, 0, MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT,
+                MqttQos.EXACTLY_ONCE, true, true, true, true);
+    }
+
+    private Queue<Runnable> deferred = new LinkedList<>();
+
+    /**
+     * Defers the given action until the pipeline is opened.
+     *
+     * @param action the action to defer.
+     * @return true if the action was deferred, false if the pipeline is already open and the action must be run
+     * directly.
+     */
+    public synchronized boolean defer(@NotNull final Runnable action) {
+        if (deferred == null) {
+            return false;
+        }
+        deferred.offer(action);
+        return true;
+    }
+
+    /**
+     * Opens the pipeline and runs all deferred actions.
+     */
+    public void open() {
+        final Queue<Runnable> deferred;
+        synchronized (this) {
+            deferred = this.deferred;
+            this.deferred = null;
+        }
+        if (deferred != null) {
+            for (final Runnable action : deferred) {
+                action.run();
+            }
+        }
+    }
+
+}
@@ -92,6 +92,10 @@ public class MqttDisconnectUtil {
             @NotNull final Channel channel, @NotNull final Throwable cause, final boolean fromServer) {
 
         channel.config().setAutoRead(false);
+        final ChannelComponent channelComponent = ChannelComponent.get(channel);
+        if (channelComponent != null) {
+            channelComponent.clientData().getMetrics().onDisconnected(cause, fromServer);
+        }
         channel.pipeline().fireUserEventTriggered(new ChannelCloseEvent(cause, fromServer));
     }
 
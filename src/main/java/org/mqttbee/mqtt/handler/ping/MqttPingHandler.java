@@ -28,12 +28,20 @@ import org.mqttbee.mqtt.ioc.ChannelScope;
 import org.mqttbee.mqtt.message.ping.MqttPingReq;
 import org.mqttbee.mqtt.message.ping.MqttPingResp;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * MQTT Keep Alive Handling.
  * <ul>
- * <li>Sends a PINGREQ message when no write has been performed for the Keep Alive interval.</li>
+ * <li>Sends a PINGREQ message when no write has been performed for the Keep Alive interval. No further PINGREQ is sent
+ * while a PINGRESP is still outstanding.</li>
  * <li>Disconnects or closes the channel if the PINGRESP message is not received in the timeout.</li>
+ * <li>Adds the PINGREQ/PINGRESP timings to the {@link MqttRttEstimator} of the connection.</li>
  * </ul>
+ * If no fixed PINGRESP timeout is configured, the timeout adapts to the estimated round trip time, so a dead
+ * connection is detected within a few round trips instead of a fixed minute. As the PINGRESP can be queued behind other
+ * messages sent by the server, the adaptive timeout is extended as long as other messages are still received, but not
+ * beyond {@link #MAX_PING_RESP_TIMEOUT_NANOS}.
  *
  * @author Silvio Giebl
  */
@@ -42,12 +50,28 @@ public class MqttPingHandler extends ChannelInboundHandlerWithTimeout {
 
     public static final String NAME = "ping";
     private static final String IDLE_STATE_HANDLER_NAME = "ping.idle";
-    private static final int PING_RESP_TIMEOUT = 60; // TODO configurable
+    static final long MAX_PING_RESP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    static final long MIN_PING_RESP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final int PING_RESP_TIMEOUT_RTT_FACTOR = 4;
 
     private final int keepAlive;
+    private final long fixedPingRespTimeoutNanos;
+    private final MqttRttEstimator rttEstimator;
+    private boolean pingReqPending;
+    private long pingReqNanos;
+    private boolean readSincePingReq;
+
+    /**
+     * @param keepAlive             the Keep Alive interval in seconds.
+     * @param pingRespTimeoutMillis the fixed PINGRESP timeout in milliseconds or 0 for the adaptive timeout.
+     * @param rttEstimator          the round trip time estimator of the connection.
+     */
+    public MqttPingHandler(
+            final int keepAlive, final int pingRespTimeoutMillis, @NotNull final MqttRttEstimator rttEstimator) {
 
-    public MqttPingHandler(final int keepAlive) {
         this.keepAlive = keepAlive;
+        this.fixedPingRespTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(pingRespTimeoutMillis);
+        this.rttEstimator = rttEstimator;
     }
 
     @Override
@@ -59,8 +83,13 @@ public class MqttPingHandler extends ChannelInboundHandlerWithTimeout {
     @Override
     public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
         if (msg instanceof MqttPingResp) {
-            cancelTimeout();
+            if (pingReqPending) {
+                pingReqPending = false;
+                rttEstimator.addSample(System.nanoTime() - pingReqNanos);
+                cancelTimeout();
+            }
         } else {
+            readSincePingReq = true;
             ctx.fireChannelRead(msg);
         }
     }
@@ -68,15 +97,41 @@ public class MqttPingHandler extends ChannelInboundHandlerWithTimeout {
     @Override
     public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) {
         if ((evt instanceof IdleStateEvent) && ((IdleStateEvent) evt).state() == IdleState.WRITER_IDLE) {
-            ctx.writeAndFlush(MqttPingReq.INSTANCE).addListener(this);
+            if (!pingReqPending) {
+                pingReqPending = true;
+                readSincePingReq = false;
+                pingReqNanos = System.nanoTime();
+                ctx.writeAndFlush(MqttPingReq.INSTANCE).addListener(this);
+            }
         } else {
             ctx.fireUserEventTriggered(evt);
         }
     }
 
+    @Override
+    public void run() {
+        if ((fixedPingRespTimeoutNanos == 0) && readSincePingReq &&
+                (System.nanoTime() - pingReqNanos < MAX_PING_RESP_TIMEOUT_NANOS)) {
+            readSincePingReq = false;
+            scheduleTimeout();
+            return;
+        }
+        super.run();
+    }
+
     @Override
     protected long getTimeout(@NotNull final ChannelHandlerContext ctx) {
-        return PING_RESP_TIMEOUT;
+        if (fixedPingRespTimeoutNanos != 0) {
+            return fixedPingRespTimeoutNanos;
+        }
+        return rttEstimator.getTimeoutNanos(
+                PING_RESP_TIMEOUT_RTT_FACTOR, MIN_PING_RESP_TIMEOUT_NANOS, MAX_PING_RESP_TIMEOUT_NANOS);
+    }
+
+    @NotNull
+    @Override
+    protected TimeUnit getTimeoutUnit() {
+        return TimeUnit.NANOSECONDS;
     }
 
     @NotNull
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.ping;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Estimates the round trip time of a connection from request/response timings (PINGREQ/PINGRESP and the
+ * acknowledgements of QoS 1 and 2 PUBLISH messages).
+ * <p>
+ * The smoothed round trip time and its variation are calculated like the TCP retransmission timer (RFC 6298). Samples
+ * are only added on the event loop of the connection; the estimates can be read from any thread.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class MqttRttEstimator {
+
+    public static final long NO_ESTIMATE = -1;
+
+    private volatile long smoothedRttNanos = NO_ESTIMATE;
+    private volatile long rttVariationNanos = NO_ESTIMATE;
+    private volatile long sampleCount;
+
+    /**
+     * Adds a round trip time sample. Must only be called on the event loop of the connection.
+     *
+     * @param rttNanos the measured round trip time in nanoseconds.
+     */
+    public void addSample(final long rttNanos) {
+        if (rttNanos < 0) {
+            return;
+        }
+        final long smoothedRttNanos = this.smoothedRttNanos;
+        if (smoothedRttNanos == NO_ESTIMATE) {
+            this.rttVariationNanos = rttNanos / 2;
+            this.smoothedRttNanos = rttNanos;
+        } else {
+            this.rttVariationNanos = (3 * rttVariationNanos + Math.abs(smoothedRttNanos - rttNanos)) / 4;
+            this.smoothedRttNanos = (7 * smoothedRttNanos + rttNanos) / 8;
+        }
+        sampleCount++;
+    }
+
+    /**
+     * @return the smoothed round trip time in nanoseconds or {@link #NO_ESTIMATE} if no sample was added yet.
+     */
+    public long getSmoothedRttNanos() {
+        return smoothedRttNanos;
+    }
+
+    /**
+     * @return the mean deviation of the round trip time in nanoseconds or {@link #NO_ESTIMATE} if no sample was added
+     * yet.
+     */
+    public long getRttVariationNanos() {
+        return rttVariationNanos;
+    }
+
+    /**
+     * @return the number of samples added.
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Calculates a timeout for a response based on the estimated round trip time: <code>factor * (smoothedRtt + 4 *
+     * rttVariation)</code>, bounded by the given minimum and maximum.
+     *
+     * @param factor          the safety factor applied to the retransmission timeout like estimate.
+     * @param minTimeoutNanos the minimum timeout in nanoseconds.
+     * @param maxTimeoutNanos the maximum timeout in nanoseconds, also used if no sample was added yet.
+     * @return the timeout in nanoseconds.
+     */
+    public long getTimeoutNanos(final int factor, final long minTimeoutNanos, final long maxTimeoutNanos) {
+        final long smoothedRttNanos = this.smoothedRttNanos;
+        if (smoothedRttNanos == NO_ESTIMATE) {
+            return maxTimeoutNanos;
+        }
+        final long timeoutNanos = factor * (smoothedRttNanos + 4 * rttVariationNanos);
+        return Math.max(minTimeoutNanos, Math.min(maxTimeoutNanos, timeoutNanos));
+    }
+
+}
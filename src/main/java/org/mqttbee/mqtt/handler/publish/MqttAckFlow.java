@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+
+/**
+ * Receives the results of outgoing publishes from the {@link MqttOutgoingQosHandler}.
+ * <p>
+ * Every result has to return one publish of the Receive Maximum to the {@link MqttOutgoingPublishService} when it is
+ * handed over to the application, which may be deferred by backpressure.
+ *
+ * @author Silvio Giebl
+ */
+interface MqttAckFlow {
+
+    @CallByThread("Netty EventLoop")
+    void onNext(@NotNull Mqtt5PublishResult result);
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.util.BackpressureHelper;
+import org.jctools.queues.MpscUnboundedArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.ioc.ChannelScope;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of all publishes of the async API of a channel.
+ * <p>
+ * Single publishes are queued here without creating a {@link Flowable} and operators for each of them. The source is
+ * subscribed once by the {@link MqttOutgoingPublishService} together with the {@link MqttPublishFlowables}, so async
+ * publishes share the Receive Maximum and the {@link MqttOutgoingQosHandler} with the publishes of the reactive API.
+ * As the source has its own slot, an async publish never waits for a slot which is taken by a reactive publish
+ * flowable.
+ *
+ * @author Silvio Giebl
+ */
+@ChannelScope
+public class MqttAsyncPublishFlowable extends Flowable<MqttPublishWithFlow> implements Subscription {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MqttAsyncPublishFlowable.class);
+
+    private final Provider<MqttOutgoingPublishService> outgoingPublishServiceProvider;
+
+    private final MpscUnboundedArrayQueue<MqttPublishWithFlow> queue = new MpscUnboundedArrayQueue<>(64);
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private volatile Subscriber<? super MqttPublishWithFlow> subscriber;
+
+    @Inject
+    MqttAsyncPublishFlowable(final Provider<MqttOutgoingPublishService> outgoingPublishServiceProvider) {
+        this.outgoingPublishServiceProvider = outgoingPublishServiceProvider;
+    }
+
+    /**
+     * Queues a publish. Can be called from any thread.
+     *
+     * @param publish the publish.
+     * @return the future of the result of the publish.
+     */
+    @NotNull
+    public CompletableFuture<Mqtt5PublishResult> publish(@NotNull final MqttPublish publish) {
+        // getting the service subscribes this source if it is not subscribed yet
+        final MqttPublishResultFuture future = new MqttPublishResultFuture(outgoingPublishServiceProvider.get());
+        queue.offer(new MqttPublishWithFlow(publish, future));
+        drain();
+        return future;
+    }
+
+    @Override
+    protected void subscribeActual(final Subscriber<? super MqttPublishWithFlow> s) {
+        assert subscriber == null;
+        subscriber = s;
+        s.onSubscribe(this);
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n > 0) {
+            BackpressureHelper.add(requested, n);
+            drain();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        LOGGER.error("MqttAsyncPublishFlowable is global and should never be cancelled.");
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            final Subscriber<? super MqttPublishWithFlow> subscriber = this.subscriber;
+            if (subscriber != null) {
+                final long requested = this.requested.get();
+                long emitted = 0;
+                while (emitted != requested) {
+                    final MqttPublishWithFlow publishWithFlow = queue.poll();
+                    if (publishWithFlow == null) {
+                        break;
+                    }
+                    subscriber.onNext(publishWithFlow);
+                    emitted++;
+                }
+                if (emitted != 0) {
+                    BackpressureHelper.produced(this.requested, emitted);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+}
@@ -25,6 +25,7 @@ import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
 import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
 import org.mqttbee.mqtt.ioc.ChannelComponent;
 import org.reactivestreams.Subscriber;
 
@@ -45,6 +46,10 @@ public class MqttGlobalIncomingPublishFlowable extends Flowable<Mqtt5Publish> {
 
     @Override
     protected void subscribeActual(final Subscriber<? super Mqtt5Publish> s) {
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        if ((connectPipeline != null) && connectPipeline.defer(() -> subscribeActual(s))) {
+            return;
+        }
         final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData(); // TODO temp
         if (clientConnectionData == null) {
             EmptySubscription.error(new NotConnectedException(), s);
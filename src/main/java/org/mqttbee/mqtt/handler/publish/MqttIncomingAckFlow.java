@@ -34,7 +34,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * @author Silvio Giebl
  */
-public class MqttIncomingAckFlow implements Subscription, Runnable {
+public class MqttIncomingAckFlow implements MqttAckFlow, Subscription, Runnable {
 
     private static final int STATE_NO_NEW_REQUESTS = 0;
     private static final int STATE_NEW_REQUESTS = 1;
@@ -69,7 +69,8 @@ public class MqttIncomingAckFlow implements Subscription, Runnable {
     }
 
     @CallByThread("Netty EventLoop")
-    void onNext(@NotNull final Mqtt5PublishResult result) {
+    @Override
+    public void onNext(@NotNull final Mqtt5PublishResult result) {
         long emitted = 0;
         long requested = requested();
         if (!queue.isEmpty()) {
@@ -25,6 +25,7 @@ import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.MqttServerConnectionData;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
 import org.mqttbee.mqtt.ioc.ChannelComponent;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
 import org.reactivestreams.Subscriber;
@@ -46,6 +47,10 @@ public class MqttIncomingAckFlowable extends Flowable<Mqtt5PublishResult> {
 
     @Override
     protected void subscribeActual(final Subscriber<? super Mqtt5PublishResult> s) {
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        if ((connectPipeline != null) && connectPipeline.defer(() -> subscribeActual(s))) {
+            return;
+        }
         final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData(); // TODO temp
         final MqttServerConnectionData serverConnectionData = clientData.getRawServerConnectionData(); // TODO temp
         if ((clientConnectionData == null) || (serverConnectionData == null)) {
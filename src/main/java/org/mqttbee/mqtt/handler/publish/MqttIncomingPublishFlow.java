@@ -66,7 +66,23 @@ public abstract class MqttIncomingPublishFlow<S extends Subscriber<? super Mqtt5
         if (done) {
             return;
         }
-        subscriber.onNext(result);
+        final long slowCallbackThresholdNanos = incomingPublishService.getSlowCallbackThresholdNanos();
+        if (slowCallbackThresholdNanos == 0) {
+            subscriber.onNext(result);
+        } else {
+            final MqttSlowCallbackWatchdog.Sample sample = incomingPublishService.getCallbackSample();
+            final long start = System.nanoTime();
+            sample.start(incomingPublishService, result, start);
+            try {
+                subscriber.onNext(result);
+            } finally {
+                sample.stop();
+            }
+            final long durationNanos = System.nanoTime() - start;
+            if (durationNanos >= slowCallbackThresholdNanos) {
+                incomingPublishService.onSlowCallback(result, durationNanos);
+            }
+        }
         if (requested != Long.MAX_VALUE) {
             requested--;
         }
@@ -20,9 +20,15 @@ package org.mqttbee.mqtt.handler.publish;
 import io.netty.channel.EventLoop;
 import org.mqttbee.annotations.CallByThread;
 import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientExecutorConfig;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.ioc.ChannelScope;
+import org.mqttbee.mqtt.jfr.MqttIncomingPublishDrainEvent;
+import org.mqttbee.mqtt.jfr.MqttJfr;
+import org.mqttbee.mqtt.jfr.MqttSlowCallbackEvent;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
 import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
 import org.mqttbee.util.collections.ChunkedArrayQueue;
@@ -32,6 +38,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
 
 /**
  * @author Silvio Giebl
@@ -44,6 +53,8 @@ public class MqttIncomingPublishService {
     private final MqttIncomingQosHandler incomingQosHandler; // TODO temp
     private final MqttIncomingPublishFlows incomingPublishFlows;
     private final EventLoop nettyEventLoop;
+    private final MqttClientMetrics metrics;
+    private final long slowCallbackThresholdNanos;
 
     private final ChunkedArrayQueue<QueueEntry> queue;
     private final int receiveMaximum;
@@ -51,6 +62,9 @@ public class MqttIncomingPublishService {
     private int referencedFlowCount;
     private int runIndex;
     private int blockingFlowCount;
+    private long slowCallbackCount;
+    private MqttSlowCallbackWatchdog.Sample callbackSample;
+    private long blockingCallbackCount; // only accessed by the watchdog thread
 
     @Inject
     MqttIncomingPublishService(
@@ -63,6 +77,10 @@ public class MqttIncomingPublishService {
         this.incomingQosHandler = incomingQosHandler; // TODO temp
         this.incomingPublishFlows = incomingPublishFlows;
         nettyEventLoop = clientConnectionData.getChannel().eventLoop();
+        metrics = clientData.getMetrics();
+        final MqttClientExecutorConfig executorConfig = clientData.getExecutorConfig();
+        slowCallbackThresholdNanos =
+                executorConfig.runsApplicationInline() ? executorConfig.getSlowCallbackThresholdNanos() : 0;
 
         queue = new ChunkedArrayQueue<>(64);
         receiveMaximum = clientConnectionData.getReceiveMaximum();
@@ -97,6 +115,8 @@ public class MqttIncomingPublishService {
 
     @CallByThread("Netty EventLoop")
     void drain() {
+        final MqttIncomingPublishDrainEvent jfrEvent =
+                MqttJfr.AVAILABLE ? MqttIncomingPublishDrainEvent.beginIfEnabled() : null;
         runIndex++;
         blockingFlowCount = 0;
         boolean acknowledge = true;
@@ -106,7 +126,11 @@ public class MqttIncomingPublishService {
             final QueueEntry entry = queueIt.next();
             final MqttStatefulPublish publish = entry.publish;
             final ScNodeList<MqttIncomingPublishFlow> flows = entry.flows;
-            emit(publish.getStatelessMessage(), flows);
+            if (entry.isExpired()) {
+                expire(publish, flows);
+            } else {
+                emit(publish.getStatelessMessage(), flows);
+            }
             if (acknowledge && flows.isEmpty()) {
                 queueIt.remove();
                 incomingQosHandler.ack(publish); // TODO temp
@@ -117,6 +141,74 @@ public class MqttIncomingPublishService {
                 }
             }
         }
+        if (jfrEvent != null) {
+            jfrEvent.commit(queue.size(), blockingFlowCount, referencedFlowCount);
+        }
+    }
+
+    /**
+     * @return the duration in nanoseconds after which a callback of a flow is reported as slow, or 0 if the duration
+     *         of the callbacks is not checked because they are not called inline.
+     */
+    long getSlowCallbackThresholdNanos() {
+        return slowCallbackThresholdNanos;
+    }
+
+    /**
+     * @return the sample of the current event loop which the slow callback watchdog uses to find callbacks which are
+     *         still running.
+     */
+    @CallByThread("Netty EventLoop")
+    @NotNull
+    MqttSlowCallbackWatchdog.Sample getCallbackSample() {
+        if (callbackSample == null) {
+            callbackSample = MqttSlowCallbackWatchdog.INSTANCE.sample(slowCallbackThresholdNanos);
+        }
+        return callbackSample;
+    }
+
+    /**
+     * Reports an inline callback which is still running after the slow callback threshold, it is reported again by
+     * {@link #onSlowCallback(Mqtt5Publish, long)} with its full duration if it returns.
+     *
+     * @param publish      the publish the callback was called with.
+     * @param runningNanos how long the callback has been running so far.
+     * @param eventLoop    the thread of the blocked Netty event loop.
+     */
+    @CallByThread("slow callback watchdog")
+    void onBlockingCallback(
+            @NotNull final Mqtt5Publish publish, final long runningNanos, @NotNull final Thread eventLoop) {
+
+        blockingCallbackCount++;
+        final Throwable stackTrace = new Throwable("Stack trace of the blocked Netty event loop " +
+                eventLoop.getName());
+        stackTrace.setStackTrace(eventLoop.getStackTrace());
+        if (blockingCallbackCount == 1) {
+            LOGGER.warn("Inline callback for a publish on topic {} is blocking the Netty event loop for {} us. " +
+                            "Inline callbacks must not block.", publish.getTopic(),
+                    TimeUnit.NANOSECONDS.toMicros(runningNanos), stackTrace);
+        } else {
+            LOGGER.debug("Inline callback for a publish on topic {} is blocking the Netty event loop for {} us.",
+                    publish.getTopic(), TimeUnit.NANOSECONDS.toMicros(runningNanos), stackTrace);
+        }
+    }
+
+    @CallByThread("Netty EventLoop")
+    void onSlowCallback(@NotNull final Mqtt5Publish publish, final long durationNanos) {
+        slowCallbackCount++;
+        if (slowCallbackCount == 1) {
+            LOGGER.warn("Inline callback for a publish on topic {} blocked the Netty event loop for {} us. " +
+                            "Inline callbacks must not block.", publish.getTopic(),
+                    TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        } else {
+            LOGGER.debug("Inline callback for a publish on topic {} blocked the Netty event loop for {} us ({} slow " +
+                            "callbacks on this connection).", publish.getTopic(),
+                    TimeUnit.NANOSECONDS.toMicros(durationNanos), slowCallbackCount);
+        }
+        metrics.onSlowCallback(durationNanos);
+        if (MqttJfr.AVAILABLE) {
+            MqttSlowCallbackEvent.commitIfEnabled(publish.getTopic().toString(), durationNanos);
+        }
     }
 
     @CallByThread("Netty EventLoop")
@@ -151,6 +243,36 @@ public class MqttIncomingPublishService {
         }
     }
 
+    @CallByThread("Netty EventLoop")
+    private void expire(
+            @NotNull final MqttStatefulPublish publish, @NotNull final ScNodeList<MqttIncomingPublishFlow> flows) {
+
+        if (flows.isEmpty()) {
+            return; // already emitted to all flows, only waiting for acknowledgement
+        }
+        final Iterator<MqttIncomingPublishFlow> flowIt = flows.iterator();
+        while (flowIt.hasNext()) {
+            final MqttIncomingPublishFlow flow = flowIt.next();
+            flowIt.remove();
+            if (flow.dereference() == 0) {
+                referencedFlowCount--;
+                if (flow.isUnsubscribed()) {
+                    flow.onComplete();
+                }
+            }
+        }
+        metrics.onIncomingPublishExpired();
+        LOGGER.debug("Dropped {} as its Message Expiry Interval elapsed while queued.", publish);
+    }
+
+    /**
+     * @return the amount of queued publishes which are not yet delivered to all flows. Can be called from any thread,
+     *         but is only approximate then.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
     @NotNull
     MqttIncomingPublishFlows getIncomingPublishFlows() {
         return incomingPublishFlows;
@@ -163,14 +285,24 @@ public class MqttIncomingPublishService {
 
     private static class QueueEntry {
 
+        private static final long NO_EXPIRY = Long.MAX_VALUE;
+
         private final MqttStatefulPublish publish;
         private final ScNodeList<MqttIncomingPublishFlow> flows;
+        private final long expiryTime;
 
         private QueueEntry(
                 @NotNull final MqttStatefulPublish publish, @NotNull final ScNodeList<MqttIncomingPublishFlow> flows) {
 
             this.publish = publish;
             this.flows = flows;
+            final long messageExpiryInterval = publish.getStatelessMessage().getRawMessageExpiryInterval();
+            expiryTime = (messageExpiryInterval == MESSAGE_EXPIRY_INTERVAL_INFINITY) ? NO_EXPIRY :
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(messageExpiryInterval);
+        }
+
+        private boolean isExpired() {
+            return (expiryTime != NO_EXPIRY) && (System.nanoTime() - expiryTime >= 0);
         }
 
     }
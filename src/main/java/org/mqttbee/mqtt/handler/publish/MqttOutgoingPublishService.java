@@ -20,6 +20,7 @@ package org.mqttbee.mqtt.handler.publish;
 import io.netty.channel.EventLoop;
 import io.reactivex.FlowableSubscriber;
 import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.MqttServerConnectionData;
@@ -38,19 +39,21 @@ public class MqttOutgoingPublishService implements FlowableSubscriber<MqttPublis
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MqttOutgoingPublishService.class);
 
-    private static final int MAX_CONCURRENT_PUBLISH_FLOWABLES = 64;
+    static final int MAX_CONCURRENT_PUBLISH_FLOWABLES = 64;
 
     private final MqttOutgoingQosHandler outgoingQosHandler;
     private final EventLoop nettyEventLoop;
+    private final MqttClientData clientData;
 
     private Subscription subscription;
 
-    private final int receiveMaximum;
+    private int receiveMaximum;
+    private long withheld;
 
     @Inject
     MqttOutgoingPublishService(
             final MqttOutgoingQosHandler outgoingQosHandler, final MqttPublishFlowables publishFlowables,
-            final MqttClientData clientData) {
+            final MqttAsyncPublishFlowable asyncPublishFlowable, final MqttClientData clientData) {
 
         final MqttServerConnectionData serverConnectionData = clientData.getRawServerConnectionData();
         assert serverConnectionData != null;
@@ -58,11 +61,15 @@ public class MqttOutgoingPublishService implements FlowableSubscriber<MqttPublis
         assert clientConnectionData != null;
 
         this.outgoingQosHandler = outgoingQosHandler;
+        this.clientData = clientData;
         nettyEventLoop = clientConnectionData.getChannel().eventLoop();
 
         receiveMaximum = MqttOutgoingQosHandler.getPubReceiveMaximum(serverConnectionData.getReceiveMaximum());
 
-        publishFlowables.flatMap(f -> f, true, MAX_CONCURRENT_PUBLISH_FLOWABLES).subscribe(this);
+        // the async source takes one slot for the whole channel, so it never waits for a slot of the reactive API
+        publishFlowables.startWith(asyncPublishFlowable)
+                .flatMap(f -> f, true, MAX_CONCURRENT_PUBLISH_FLOWABLES)
+                .subscribe(this);
     }
 
     @Override
@@ -86,10 +93,40 @@ public class MqttOutgoingPublishService implements FlowableSubscriber<MqttPublis
         LOGGER.error("MqttPublishFlowables is global and should never error.");
     }
 
-    void request(final long amount) {
+    @CallByThread("Netty EventLoop")
+    void request(long amount) {
+        if (withheld > 0) {
+            final long withhold = Math.min(withheld, amount);
+            withheld -= withhold;
+            amount -= withhold;
+            if (amount == 0) {
+                return;
+            }
+        }
         subscription.request(amount);
     }
 
+    /**
+     * Adapts the amount of requested publishes to the Receive Maximum of the server. This is called after a pipelined
+     * connect if publishes were requested with the provisional Receive Maximum before the CONNACK message was received.
+     * If the new Receive Maximum is smaller, requests are withheld until the difference is compensated.
+     */
+    @CallByThread("Netty EventLoop")
+    public void onConnAck() {
+        final MqttServerConnectionData serverConnectionData = clientData.getRawServerConnectionData();
+        assert serverConnectionData != null;
+
+        final int receiveMaximum =
+                MqttOutgoingQosHandler.getPubReceiveMaximum(serverConnectionData.getReceiveMaximum());
+        final int difference = receiveMaximum - this.receiveMaximum;
+        this.receiveMaximum = receiveMaximum;
+        if (difference > 0) {
+            request(difference);
+        } else {
+            withheld -= difference;
+        }
+    }
+
     @NotNull
     EventLoop getNettyEventLoop() {
         return nettyEventLoop;
@@ -22,19 +22,24 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 import org.mqttbee.annotations.CallByThread;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.MqttAckLatencyPhase;
 import org.mqttbee.api.mqtt.datatypes.MqttQos;
-import org.mqttbee.api.mqtt.mqtt5.Mqtt5ServerConnectionData;
+import org.mqttbee.api.mqtt.exceptions.MessageExpiredException;
 import org.mqttbee.api.mqtt.mqtt5.advanced.qos1.Mqtt5OutgoingQos1ControlProvider;
 import org.mqttbee.api.mqtt.mqtt5.advanced.qos2.Mqtt5OutgoingQos2ControlProvider;
 import org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException;
 import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5DisconnectReasonCode;
+import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.MqttServerConnectionData;
 import org.mqttbee.mqtt.advanced.MqttAdvancedClientData;
 import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.handler.disconnect.ChannelCloseEvent;
 import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectUtil;
 import org.mqttbee.mqtt.handler.subscribe.MqttSubscriptionHandler;
 import org.mqttbee.mqtt.ioc.ChannelScope;
+import org.mqttbee.mqtt.jfr.MqttJfr;
+import org.mqttbee.mqtt.jfr.MqttPublishBatchEvent;
 import org.mqttbee.mqtt.message.publish.*;
 import org.mqttbee.mqtt.message.publish.MqttPublishResult.MqttQos1Result;
 import org.mqttbee.mqtt.message.publish.MqttPublishResult.MqttQos2Result;
@@ -45,6 +50,7 @@ import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRel;
 import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRelBuilder;
 import org.mqttbee.util.Ranges;
 import org.mqttbee.util.UnsignedDataTypes;
+import org.mqttbee.util.collections.ChunkedArrayQueue;
 import org.mqttbee.util.collections.IntMap;
 import org.mqttbee.util.collections.SpscArrayQueueUtil;
 import org.slf4j.Logger;
@@ -54,6 +60,7 @@ import javax.inject.Inject;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
 import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.*;
 
 /**
@@ -65,9 +72,16 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
     public static final String NAME = "qos.outgoing";
     private static final Logger LOGGER = LoggerFactory.getLogger(MqttOutgoingQosHandler.class);
 
+    /**
+     * Packet Identifiers up to this value are used for PUBLISH messages, the following ones for SUBSCRIBE and
+     * UNSUBSCRIBE messages. The layout does not depend on the Receive Maximum of the server, so it stays valid if the
+     * Receive Maximum changes after a pipelined connect.
+     */
+    public static final int MAX_PUBLISH_PACKET_IDENTIFIER =
+            UnsignedDataTypes.UNSIGNED_SHORT_MAX_VALUE - MqttSubscriptionHandler.MAX_SUB_PENDING;
+
     public static int getPubReceiveMaximum(final int receiveMaximum) {
-        final int max = UnsignedDataTypes.UNSIGNED_SHORT_MAX_VALUE - MqttSubscriptionHandler.MAX_SUB_PENDING;
-        return Math.min(receiveMaximum, max);
+        return Math.min(receiveMaximum, MAX_PUBLISH_PACKET_IDENTIFIER);
     }
 
     private final MqttClientData clientData;
@@ -76,19 +90,19 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
     private final AtomicInteger wip = new AtomicInteger();
     private final Ranges packetIdentifiers;
     private final IntMap<MqttPublishWithFlow> qos1Or2Publishes;
+    private ChunkedArrayQueue<MqttPublishWithFlow> pipelinedQos0Publishes;
+    private Throwable closeCause;
+    private int rttPacketIdentifier;
+    private long rttStartNanos;
 
     private ChannelHandlerContext ctx; // TODO temp
 
     @Inject
     MqttOutgoingQosHandler(final MqttClientData clientData) {
-        final Mqtt5ServerConnectionData serverConnectionData = clientData.getRawServerConnectionData();
-        assert serverConnectionData != null;
-
         this.clientData = clientData;
-        final int pubReceiveMaximum = getPubReceiveMaximum(serverConnectionData.getReceiveMaximum());
-        publishQueue = SpscArrayQueueUtil.create(pubReceiveMaximum, 64);
-        packetIdentifiers = new Ranges(1, pubReceiveMaximum);
-        qos1Or2Publishes = IntMap.range(1, pubReceiveMaximum);
+        publishQueue = SpscArrayQueueUtil.create(MAX_PUBLISH_PACKET_IDENTIFIER, 64);
+        packetIdentifiers = new Ranges(1, MAX_PUBLISH_PACKET_IDENTIFIER);
+        qos1Or2Publishes = IntMap.range(1, MAX_PUBLISH_PACKET_IDENTIFIER);
     }
 
     @Override
@@ -97,43 +111,104 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
     }
 
     void publish(@NotNull final MqttPublishWithFlow publishWithFlow) {
+        // only the first enqueue starts the Message Expiry Interval, a publish which is offered again keeps counting
+        if ((publishWithFlow.getPublish().getRawMessageExpiryInterval() != MESSAGE_EXPIRY_INTERVAL_INFINITY) &&
+                (publishWithFlow.getEnqueueTime() == 0)) {
+            publishWithFlow.setEnqueueTime(System.nanoTime());
+        }
         publishQueue.offer(publishWithFlow);
         if (wip.getAndIncrement() == 0) {
             ctx.executor().execute(publishRunnable);
         }
     }
 
+    /**
+     * @return the number of publishes queued for this handler. Can be called from any thread.
+     */
+    public int getPublishQueueSize() {
+        return publishQueue.size();
+    }
+
+    /**
+     * @return the number of sent but not yet acknowledged QoS 1 and 2 publishes. Can be called from any thread, but
+     * is only approximate then.
+     */
+    public int getQos1Or2PublishCount() {
+        return qos1Or2Publishes.size();
+    }
+
     @CallByThread("Netty EventLoop")
     private void runPublish() {
+        final MqttPublishBatchEvent jfrEvent = MqttJfr.AVAILABLE ? MqttPublishBatchEvent.beginIfEnabled() : null;
         final int working = Math.min(wip.get(), 64);
         for (int i = 0; i < working; i++) {
             final MqttPublishWithFlow publishWithFlow = publishQueue.poll();
             assert publishWithFlow != null; // ensured by wip
             handlePublish(publishWithFlow);
+            if (jfrEvent != null) {
+                jfrEvent.add(publishWithFlow.getPublish());
+            }
         }
         ctx.flush();
+        if (jfrEvent != null) {
+            jfrEvent.commit();
+        }
         if (wip.addAndGet(-working) > 0) {
             ctx.executor().execute(publishRunnable);
         }
     }
 
     private void handlePublish(@NotNull final MqttPublishWithFlow publishWithFlow) {
-        if (publishWithFlow.getPublish().getQos() == MqttQos.AT_MOST_ONCE) {
-            handlePublishQos0(publishWithFlow);
+        if (closeCause != null) {
+            publishWithFlow.getAckFlow()
+                    .onNext(new MqttPublishResult(publishWithFlow.getPublish(), closeCause));
+            return;
+        }
+        final MqttPublish publish = checkExpiry(publishWithFlow);
+        if (publish == null) {
+            return;
+        }
+        if (publish.getQos() == MqttQos.AT_MOST_ONCE) {
+            handlePublishQos0(publishWithFlow, publish);
         } else {
-            handlePublishQos1Or2(publishWithFlow);
+            handlePublishQos1Or2(publishWithFlow, publish);
+        }
+    }
+
+    @Nullable
+    private MqttPublish checkExpiry(@NotNull final MqttPublishWithFlow publishWithFlow) {
+        final MqttPublish publish = publishWithFlow.getPublish();
+        final long messageExpiryInterval = publish.getRawMessageExpiryInterval();
+        if (messageExpiryInterval == MESSAGE_EXPIRY_INTERVAL_INFINITY) {
+            return publish;
         }
+        final long remainingInterval = publishWithFlow.getRemainingMessageExpiryInterval(System.nanoTime());
+        if (remainingInterval <= 0) { // expired while queued or before it was written again
+            clientData.getMetrics().onOutgoingPublishExpired();
+            publishWithFlow.getAckFlow()
+                    .onNext(new MqttPublishResult(publish, MessageExpiredException.INSTANCE));
+            return null;
+        }
+        return publish.withMessageExpiryInterval(remainingInterval); // forward only the remaining interval
     }
 
-    private void handlePublishQos0(@NotNull final MqttPublishWithFlow publishWithFlow) {
-        final MqttStatefulPublish publish =
-                createStatefulPublish(publishWithFlow.getPublish(), NO_PACKET_IDENTIFIER_QOS_0, false);
-        ctx.write(publish)
-                .addListener(future -> publishWithFlow.getIncomingAckFlow()
-                        .onNext(new MqttPublishResult(publishWithFlow.getPublish(), future.cause())));
+    private void handlePublishQos0(
+            @NotNull final MqttPublishWithFlow publishWithFlow, @NotNull final MqttPublish sendPublish) {
+
+        final MqttStatefulPublish publish = createStatefulPublish(sendPublish, NO_PACKET_IDENTIFIER_QOS_0, false);
+        ctx.write(publish).addListener(future -> {
+            if (future.isSuccess() && (pipelinedQos0Publishes != null)) {
+                pipelinedQos0Publishes.offer(publishWithFlow); // the result is only known after CONNACK
+            } else {
+                publishWithFlow.getAckFlow()
+                        .onNext(new MqttPublishResult(publishWithFlow.getPublish(), future.cause()));
+            }
+        });
     }
 
-    private void handlePublishQos1Or2(@NotNull final MqttPublishWithFlow publishWithFlow) {
+    private void handlePublishQos1Or2(
+            @NotNull final MqttPublishWithFlow publishWithFlow, @NotNull final MqttPublish sendPublish) {
+
         final int packetIdentifier = packetIdentifiers.getId();
         if (packetIdentifier < 0) {
             LOGGER.error("No Packet Identifier available for QoS 1 or 2 Publish message");
@@ -141,9 +216,54 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
         }
 
         qos1Or2Publishes.put(packetIdentifier, publishWithFlow);
-        final MqttStatefulPublish publish =
-                createStatefulPublish(publishWithFlow.getPublish(), packetIdentifier, false);
+        final MqttStatefulPublish publish = createStatefulPublish(sendPublish, packetIdentifier, false);
         ctx.write(publish);
+        final long sendTime = System.nanoTime();
+        publishWithFlow.setSendTime(sendTime);
+        if (rttPacketIdentifier == 0) {
+            rttPacketIdentifier = packetIdentifier;
+            rttStartNanos = sendTime;
+        }
+    }
+
+    /**
+     * Adds the time until the first acknowledgement (PUBACK or PUBREC) of the timed publish as a round trip time
+     * sample. Only one publish is timed at once so that the timing costs nothing per message.
+     *
+     * @param packetIdentifier the packet identifier of the acknowledged publish.
+     */
+    private void sampleRtt(final int packetIdentifier) {
+        if (packetIdentifier == rttPacketIdentifier) {
+            rttPacketIdentifier = 0;
+            final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+            if (clientConnectionData != null) {
+                clientConnectionData.getRttEstimator().addSample(System.nanoTime() - rttStartNanos);
+            }
+        }
+    }
+
+    /**
+     * Called by the connect handler if this handler is added before the CONNACK message is received. Results of QoS 0
+     * publishes are withheld until {@link #onConnAck()} as the server discards them if the connect is rejected.
+     */
+    @CallByThread("Netty EventLoop")
+    public void onPipelinedConnect() {
+        pipelinedQos0Publishes = new ChunkedArrayQueue<>(8);
+    }
+
+    /**
+     * Called by the connect handler after a successful CONNACK message is received following a pipelined connect.
+     */
+    @CallByThread("Netty EventLoop")
+    public void onConnAck() {
+        final ChunkedArrayQueue<MqttPublishWithFlow> pipelinedQos0Publishes = this.pipelinedQos0Publishes;
+        if (pipelinedQos0Publishes != null) {
+            this.pipelinedQos0Publishes = null;
+            MqttPublishWithFlow publishWithFlow;
+            while ((publishWithFlow = pipelinedQos0Publishes.poll()) != null) {
+                publishWithFlow.getAckFlow().onNext(new MqttPublishResult(publishWithFlow.getPublish(), null));
+            }
+        }
     }
 
     @NotNull
@@ -175,9 +295,13 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
         if (msg instanceof MqttPubAck) {
-            handlePubAck(ctx, (MqttPubAck) msg);
+            final MqttPubAck pubAck = (MqttPubAck) msg;
+            sampleRtt(pubAck.getPacketIdentifier());
+            handlePubAck(ctx, pubAck);
         } else if (msg instanceof MqttPubRec) {
-            handlePubRec(ctx, (MqttPubRec) msg);
+            final MqttPubRec pubRec = (MqttPubRec) msg;
+            sampleRtt(pubRec.getPacketIdentifier());
+            handlePubRec(ctx, pubRec);
         } else if (msg instanceof MqttPubComp) {
             handlePubComp(ctx, (MqttPubComp) msg);
         } else {
@@ -191,8 +315,10 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
             return;
         }
         final MqttPublish publish = publishWithFlow.getPublish();
+        clientData.getAckLatencies()
+                .record(MqttAckLatencyPhase.PUBLISH_TO_PUBACK, System.nanoTime() - publishWithFlow.getSendTime());
 
-        publishWithFlow.getIncomingAckFlow().onNext(new MqttQos1Result(publish, null, pubAck));
+        publishWithFlow.getAckFlow().onNext(new MqttQos1Result(publish, null, pubAck));
 
         final MqttAdvancedClientData advanced = clientData.getRawAdvancedClientData();
         if (advanced != null) {
@@ -217,8 +343,10 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
             return;
         }
         final MqttPublish publish = publishWithFlow.getPublish();
+        clientData.getAckLatencies()
+                .record(MqttAckLatencyPhase.PUBLISH_TO_PUBREC, System.nanoTime() - publishWithFlow.getSendTime());
 
-        publishWithFlow.getIncomingAckFlow().onNext(new MqttPublishResult(
+        publishWithFlow.getAckFlow().onNext(new MqttPublishResult(
                 publish,
                         new Mqtt5MessageException(pubRec, "PUBREC contained an Error Code")));
 
@@ -236,6 +364,8 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
         if (publishWithFlow == null) {
             return;
         }
+        clientData.getAckLatencies()
+                .record(MqttAckLatencyPhase.PUBLISH_TO_PUBREC, System.nanoTime() - publishWithFlow.getSendTime());
 
         final MqttPubRelBuilder pubRelBuilder = new MqttPubRelBuilder(pubRec);
         final MqttAdvancedClientData advanced = clientData.getRawAdvancedClientData();
@@ -249,6 +379,7 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
         final MqttPubRel pubRel = pubRelBuilder.build();
         publishWithFlow.setPubRel(pubRel);
         ctx.writeAndFlush(pubRel);
+        publishWithFlow.setSendTime(System.nanoTime());
     }
 
     private void handlePubComp(@NotNull final ChannelHandlerContext ctx, @NotNull final MqttPubComp pubComp) {
@@ -259,8 +390,10 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
         final MqttPublish publish = publishWithFlow.getPublish();
         final MqttPubRel pubRel = publishWithFlow.getPubRel();
         assert pubRel != null;
+        clientData.getAckLatencies()
+                .record(MqttAckLatencyPhase.PUBREL_TO_PUBCOMP, System.nanoTime() - publishWithFlow.getSendTime());
 
-        publishWithFlow.getIncomingAckFlow().onNext(new MqttQos2Result(publish, null, pubRel, pubComp));
+        publishWithFlow.getAckFlow().onNext(new MqttQos2Result(publish, null, pubRel, pubComp));
 
         final MqttAdvancedClientData advanced = clientData.getRawAdvancedClientData();
         if (advanced != null) {
@@ -271,6 +404,45 @@ public class MqttOutgoingQosHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    @Override
+    public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) {
+        if (evt instanceof ChannelCloseEvent) {
+            handleChannelCloseEvent((ChannelCloseEvent) evt);
+        }
+        ctx.fireUserEventTriggered(evt);
+    }
+
+    /**
+     * Fails all publishes that are not acknowledged yet with the cause why the channel was closed. Publishes that are
+     * still queued fail with the same cause when they are handled.
+     * <p>
+     * This applies to every connection, pipelined or not, as the acknowledgements can not arrive anymore and the
+     * results of the publishes would otherwise never be emitted.
+     *
+     * @param channelCloseEvent the channel close event.
+     */
+    private void handleChannelCloseEvent(@NotNull final ChannelCloseEvent channelCloseEvent) {
+        final Throwable cause = channelCloseEvent.getCause();
+        closeCause = cause;
+
+        final ChunkedArrayQueue<MqttPublishWithFlow> pipelinedQos0Publishes = this.pipelinedQos0Publishes;
+        if (pipelinedQos0Publishes != null) {
+            this.pipelinedQos0Publishes = null;
+            MqttPublishWithFlow publishWithFlow;
+            while ((publishWithFlow = pipelinedQos0Publishes.poll()) != null) {
+                publishWithFlow.getAckFlow().onNext(new MqttPublishResult(publishWithFlow.getPublish(), cause));
+            }
+        }
+        for (int packetIdentifier = 1;
+             (qos1Or2Publishes.size() > 0) && (packetIdentifier <= MAX_PUBLISH_PACKET_IDENTIFIER); packetIdentifier++) {
+            final MqttPublishWithFlow publishWithFlow = qos1Or2Publishes.remove(packetIdentifier);
+            if (publishWithFlow != null) {
+                packetIdentifiers.returnId(packetIdentifier);
+                publishWithFlow.getAckFlow().onNext(new MqttPublishResult(publishWithFlow.getPublish(), cause));
+            }
+        }
+    }
+
     @Nullable
     private MqttPublishWithFlow checkAndGetPublishWithFlow(
             @NotNull final ChannelHandlerContext ctx, @NotNull final MqttQosMessage qosMessage) {
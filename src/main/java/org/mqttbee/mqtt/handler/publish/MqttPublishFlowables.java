@@ -21,6 +21,8 @@ import io.reactivex.Flowable;
 import io.reactivex.internal.util.BackpressureHelper;
 import org.jetbrains.annotations.NotNull;
 import org.mqttbee.mqtt.ioc.ChannelScope;
+import org.mqttbee.mqtt.jfr.MqttJfr;
+import org.mqttbee.mqtt.jfr.MqttPublishBlockedEvent;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
@@ -28,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Silvio Giebl
@@ -39,6 +43,9 @@ public class MqttPublishFlowables extends Flowable<Flowable<MqttPublishWithFlow>
 
     private Subscriber<? super Flowable<MqttPublishWithFlow>> subscriber;
     private final AtomicLong requested = new AtomicLong();
+    // a lock instead of a monitor, so that virtual threads which wait for requests do not pin their carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition requestedCondition = lock.newCondition();
 
     @Inject
     MqttPublishFlowables() {
@@ -52,16 +59,26 @@ public class MqttPublishFlowables extends Flowable<Flowable<MqttPublishWithFlow>
     }
 
     public void add(@NotNull final Flowable<MqttPublishWithFlow> publishFlowable) {
-        synchronized (this) {
+        lock.lock();
+        try {
+            MqttPublishBlockedEvent jfrEvent = null;
+            if ((requested.get() == 0) && MqttJfr.AVAILABLE) {
+                jfrEvent = MqttPublishBlockedEvent.beginIfEnabled();
+            }
             while (requested.get() == 0) {
                 try {
-                    this.wait();
+                    requestedCondition.await();
                 } catch (final InterruptedException e) {
                     LOGGER.error("thread interrupted while waiting to publish.", e);
                     return;
                 }
             }
+            if (jfrEvent != null) {
+                jfrEvent.commit();
+            }
             subscriber.onNext(publishFlowable);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -69,8 +86,11 @@ public class MqttPublishFlowables extends Flowable<Flowable<MqttPublishWithFlow>
     public void request(final long n) {
         BackpressureHelper.add(requested, n);
         if (requested.get() == n) {
-            synchronized (this) {
-                this.notifyAll();
+            lock.lock();
+            try {
+                requestedCondition.signalAll();
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future of the result of a single publish, which is at the same time the flow its acknowledgement is handed to.
+ * <p>
+ * As a future can not apply backpressure, the publish is returned to the Receive Maximum as soon as the result is
+ * received. The future is completed on the Netty event loop, so dependent actions run there unless an executor is
+ * given for them.
+ *
+ * @author Silvio Giebl
+ */
+class MqttPublishResultFuture extends CompletableFuture<Mqtt5PublishResult> implements MqttAckFlow {
+
+    private final MqttOutgoingPublishService outgoingPublishService;
+
+    MqttPublishResultFuture(@NotNull final MqttOutgoingPublishService outgoingPublishService) {
+        this.outgoingPublishService = outgoingPublishService;
+    }
+
+    @CallByThread("Netty EventLoop")
+    @Override
+    public void onNext(@NotNull final Mqtt5PublishResult result) {
+        outgoingPublishService.request(1);
+        complete(result);
+    }
+
+}
@@ -22,20 +22,24 @@ import org.jetbrains.annotations.Nullable;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
 import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRel;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Silvio Giebl
  */
 class MqttPublishWithFlow {
 
     private final MqttPublish publish;
-    private final MqttIncomingAckFlow incomingAckFlow;
+    private final MqttAckFlow ackFlow;
     private MqttPubRel pubRel;
+    private long enqueueTime;
+    private long sendTime;
 
     MqttPublishWithFlow(
-            @NotNull final MqttPublish publish, @NotNull final MqttIncomingAckFlow incomingAckFlow) {
+            @NotNull final MqttPublish publish, @NotNull final MqttAckFlow ackFlow) {
 
         this.publish = publish;
-        this.incomingAckFlow = incomingAckFlow;
+        this.ackFlow = ackFlow;
     }
 
     @NotNull
@@ -44,8 +48,44 @@ class MqttPublishWithFlow {
     }
 
     @NotNull
-    MqttIncomingAckFlow getIncomingAckFlow() {
-        return incomingAckFlow;
+    MqttAckFlow getAckFlow() {
+        return ackFlow;
+    }
+
+    /**
+     * @param enqueueTime the time in nanoseconds when the publish was first offered to the outgoing QoS handler, the
+     *                    start of its Message Expiry Interval.
+     */
+    void setEnqueueTime(final long enqueueTime) {
+        this.enqueueTime = enqueueTime;
+    }
+
+    long getEnqueueTime() {
+        return enqueueTime;
+    }
+
+    /**
+     * Calculates the Message Expiry Interval which is left when the publish is written. It is always calculated from
+     * the time the publish was first enqueued, so a publish which is written again is sent with the remaining interval
+     * and not with its original interval (MQTT 5 3.3.2.3.3).
+     *
+     * @param nowNanos the current time in nanoseconds.
+     * @return the remaining Message Expiry Interval in seconds, 0 or less if the publish expired.
+     */
+    long getRemainingMessageExpiryInterval(final long nowNanos) {
+        return publish.getRawMessageExpiryInterval() - TimeUnit.NANOSECONDS.toSeconds(nowNanos - enqueueTime);
+    }
+
+    /**
+     * @param sendTime the time in nanoseconds when the PUBLISH or PUBREL message was written, the start of the
+     *                 current phase of the acknowledgement flow.
+     */
+    void setSendTime(final long sendTime) {
+        this.sendTime = sendTime;
+    }
+
+    long getSendTime() {
+        return sendTime;
     }
 
     void setPubRel(@NotNull final MqttPubRel pubRel) {
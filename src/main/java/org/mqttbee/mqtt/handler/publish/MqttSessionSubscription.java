@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.reactivex.internal.util.BackpressureHelper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.exceptions.MqttMaximumPacketSizeExceededException;
+import org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscription of a flow of {@link MqttSessionSubscriptionFlowable} which outlives the connection it was subscribed
+ * with. For every connection a new {@link MqttSubscriptionFlow} is {@link #attach(MqttIncomingPublishService) attached}
+ * which forwards to the same subscriber. The outstanding demand of the subscriber is handed over to the attached flow.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+class MqttSessionSubscription implements Subscription {
+
+    private final Subscriber<? super Mqtt5SubscribeResult> subscriber;
+    private final MqttSessionSubscriptions sessionSubscriptions;
+    private final List<MqttSubscription> subscriptions;
+    private final MqttUserPropertiesImpl userProperties;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicBoolean terminated = new AtomicBoolean();
+    private volatile MqttSubscriptionFlow flow;
+    private volatile boolean acknowledged;
+
+    MqttSessionSubscription(
+            @NotNull final MqttSubscribe subscribe, @NotNull final Subscriber<? super Mqtt5SubscribeResult> subscriber,
+            @NotNull final MqttSessionSubscriptions sessionSubscriptions) {
+
+        this.subscriber = subscriber;
+        this.sessionSubscriptions = sessionSubscriptions;
+        subscriptions = new ArrayList<>(subscribe.getSubscriptions());
+        userProperties = subscribe.getUserProperties();
+    }
+
+    /**
+     * Attaches a new flow bound to the given incoming publish service of the current connection. The previously
+     * attached flow is cancelled.
+     *
+     * @param incomingPublishService the incoming publish service of the current connection.
+     * @return the attached flow or null if this subscription is already terminated.
+     */
+    @Nullable
+    synchronized MqttSubscriptionFlow attach(@NotNull final MqttIncomingPublishService incomingPublishService) {
+        if (terminated.get()) {
+            return null;
+        }
+        cancelFlow();
+        final Link link = new Link();
+        final MqttSubscriptionFlow flow = new MqttSubscriptionFlow(link, incomingPublishService);
+        link.flow = flow;
+        this.flow = flow;
+        final long requested = this.requested.get();
+        if (requested > 0) {
+            flow.request(requested);
+        }
+        return flow;
+    }
+
+    /**
+     * Detaches the currently attached flow as its connection is lost. Anything it still emits is dropped.
+     */
+    void detach() {
+        flow = null;
+    }
+
+    private synchronized void cancelFlow() {
+        final MqttSubscriptionFlow flow = this.flow;
+        if (flow != null) {
+            this.flow = null;
+            flow.cancel();
+        }
+    }
+
+    @Override
+    public synchronized void request(final long n) {
+        if (n > 0) {
+            BackpressureHelper.add(requested, n);
+            final MqttSubscriptionFlow flow = this.flow;
+            if (flow != null) {
+                flow.request(n);
+            }
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (terminated.compareAndSet(false, true)) {
+            sessionSubscriptions.remove(this);
+            cancelFlow();
+        }
+    }
+
+    /**
+     * Completes the subscriber as the client was disconnected by the application.
+     */
+    void complete() {
+        if (terminated.compareAndSet(false, true)) {
+            sessionSubscriptions.remove(this);
+            cancelFlow();
+            subscriber.onComplete();
+        }
+    }
+
+    private void error(@NotNull final Throwable t) {
+        if (terminated.compareAndSet(false, true)) {
+            sessionSubscriptions.remove(this);
+            cancelFlow();
+            subscriber.onError(t);
+        }
+    }
+
+    /**
+     * Fails the subscriber if the given error means that its subscriptions can not be restored with a new connection.
+     * Other errors (caused by the loss of the connection) are ignored, the subscriptions are restored with the next
+     * connection then.
+     *
+     * @param t the error of the Subscribe message sent for this subscription.
+     */
+    void onSubscribeError(@NotNull final Throwable t) {
+        if (isPermanent(t)) {
+            error(t);
+        }
+    }
+
+    private static boolean isPermanent(@NotNull final Throwable t) {
+        return ((t instanceof Mqtt5MessageException) &&
+                (((Mqtt5MessageException) t).getMqttMessage() instanceof Mqtt5SubAck)) ||
+                (t instanceof MqttMaximumPacketSizeExceededException);
+    }
+
+    /**
+     * @return the subscriptions to restore. Does not contain the topic filters which were unsubscribed.
+     */
+    @NotNull
+    synchronized List<MqttSubscription> getSubscriptions() {
+        return new ArrayList<>(subscriptions);
+    }
+
+    /**
+     * @return the User Properties of the Subscribe message, they are sent again when the subscriptions are restored.
+     */
+    @NotNull
+    MqttUserPropertiesImpl getUserProperties() {
+        return userProperties;
+    }
+
+    /**
+     * Removes the given topic filter so that it is not restored with the next connection.
+     *
+     * @param topicFilter the unsubscribed topic filter.
+     */
+    synchronized void unsubscribe(@NotNull final MqttTopicFilterImpl topicFilter) {
+        final Iterator<MqttSubscription> iterator = subscriptions.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getTopicFilter().equals(topicFilter)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return whether a SubAck was already emitted to the subscriber. If not, the Subscribe message may not have
+     *         reached the server and has to be sent again even if the server kept the session.
+     */
+    boolean isAcknowledged() {
+        return acknowledged;
+    }
+
+    /**
+     * Forwards the signals of one attached flow to the subscriber as long as it is attached.
+     */
+    private class Link implements Subscriber<Mqtt5SubscribeResult> {
+
+        private MqttSubscriptionFlow flow;
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+        }
+
+        @CallByThread("Netty EventLoop")
+        @Override
+        public void onNext(final Mqtt5SubscribeResult result) {
+            if ((MqttSessionSubscription.this.flow != flow) || terminated.get()) {
+                return;
+            }
+            if (result instanceof Mqtt5SubAck) {
+                if (acknowledged) {
+                    flow.request(1); // SubAcks of restored subscriptions are not emitted
+                    return;
+                }
+                acknowledged = true;
+            }
+            BackpressureHelper.produced(requested, 1);
+            subscriber.onNext(result);
+        }
+
+        @CallByThread("Netty EventLoop")
+        @Override
+        public void onError(final Throwable t) {
+            if (MqttSessionSubscription.this.flow == flow) {
+                onSubscribeError(t);
+            }
+        }
+
+        @CallByThread("Netty EventLoop")
+        @Override
+        public void onComplete() { // all topic filters were unsubscribed
+            if ((MqttSessionSubscription.this.flow == flow) && terminated.compareAndSet(false, true)) {
+                sessionSubscriptions.remove(MqttSessionSubscription.this);
+                subscriber.onComplete();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeResult;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
+import org.mqttbee.mqtt.handler.subscribe.MqttSubscribeWithFlow;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.reactivestreams.Subscriber;
+
+/**
+ * Variant of {@link MqttSubscriptionFlowable} for clients with automatic reconnect. The flow survives the loss of the
+ * connection and is restored by {@link MqttSessionSubscriptions} with the next connection.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttSessionSubscriptionFlowable extends Flowable<Mqtt5SubscribeResult> {
+
+    private final MqttSubscribe subscribe;
+    private final MqttClientData clientData;
+    private final MqttSessionSubscriptions sessionSubscriptions;
+
+    public MqttSessionSubscriptionFlowable(
+            @NotNull final MqttSubscribe subscribe, @NotNull final MqttClientData clientData,
+            @NotNull final MqttSessionSubscriptions sessionSubscriptions) {
+
+        this.subscribe = subscribe;
+        this.clientData = clientData;
+        this.sessionSubscriptions = sessionSubscriptions;
+    }
+
+    @Override
+    protected void subscribeActual(final Subscriber<? super Mqtt5SubscribeResult> s) {
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        if ((connectPipeline != null) && connectPipeline.defer(() -> subscribeActual(s))) {
+            return;
+        }
+        if ((clientData.getRawClientConnectionData() == null) && !sessionSubscriptions.isRecovering()) {
+            EmptySubscription.error(new NotConnectedException(), s);
+            return;
+        }
+        final MqttSessionSubscription subscription = new MqttSessionSubscription(subscribe, s, sessionSubscriptions);
+        s.onSubscribe(subscription);
+        sessionSubscriptions.add(subscription);
+
+        // while recovering, the subscription is subscribed when the connection is recovered
+        final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+        if ((clientConnectionData != null) && !sessionSubscriptions.isRecovering()) {
+            final ChannelComponent channelComponent = ChannelComponent.get(clientConnectionData.getChannel());
+            final MqttSubscriptionFlow flow = subscription.attach(channelComponent.incomingPublishService());
+            if (flow != null) {
+                channelComponent.subscriptionHandler().subscribe(new MqttSubscribeWithFlow(subscribe, flow));
+            }
+        }
+    }
+
+}
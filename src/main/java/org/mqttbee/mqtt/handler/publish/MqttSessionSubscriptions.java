@@ -0,0 +1,345 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.exceptions.MqttMaximumPacketSizeExceededException;
+import org.mqttbee.api.mqtt.mqtt5.exceptions.Mqtt5MessageException;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttServerConnectionData;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
+import org.mqttbee.mqtt.handler.subscribe.MqttSubscribeWithFlow;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.mqttbee.mqtt.message.subscribe.suback.MqttSubAck;
+import org.mqttbee.mqtt.message.unsubscribe.MqttUnsubscribe;
+import org.mqttbee.rx.SingleFlow;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.mqttbee.mqtt.codec.encoder.MqttMessageEncoderUtil.encodedLengthWithHeader;
+import static org.mqttbee.mqtt.codec.encoder.MqttMessageEncoderUtil.encodedPacketLength;
+
+/**
+ * The subscriptions of a client with automatic reconnect which are restored when a lost connection is recovered.
+ * <p>
+ * If the server kept the session, the subscriptions are only registered locally with the new connection. Otherwise
+ * all subscriptions are sent again batched into as few SUBSCRIBE messages as possible. Only subscriptions with the same
+ * User Properties are batched and every batch fits into the Maximum Packet Size of the server. Subscriptions which do
+ * not fit into the Maximum Packet Size on their own fail with a {@link MqttMaximumPacketSizeExceededException}.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class MqttSessionSubscriptions {
+
+    private final LinkedHashSet<MqttSessionSubscription> subscriptions = new LinkedHashSet<>();
+    private volatile boolean recovering;
+
+    synchronized void add(@NotNull final MqttSessionSubscription subscription) {
+        subscriptions.add(subscription);
+    }
+
+    synchronized void remove(@NotNull final MqttSessionSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    @NotNull
+    private synchronized List<MqttSessionSubscription> getAll() {
+        return new ArrayList<>(subscriptions);
+    }
+
+    /**
+     * @return whether a lost connection is currently being recovered.
+     */
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Detaches all subscriptions from the lost connection.
+     */
+    public void onConnectionLost() {
+        recovering = true;
+        for (final MqttSessionSubscription subscription : getAll()) {
+            subscription.detach();
+        }
+    }
+
+    /**
+     * Restores all subscriptions with the current connection. Must be called when the CONNACK is received, so that no
+     * incoming publish is received before the subscriptions are restored.
+     *
+     * @param clientData     the data of the client.
+     * @param sessionPresent whether the server kept the session.
+     */
+    public void onConnectionRecovered(@NotNull final MqttClientData clientData, final boolean sessionPresent) {
+        recovering = false;
+        final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+        final MqttServerConnectionData serverConnectionData = clientData.getRawServerConnectionData();
+        if ((clientConnectionData == null) || (serverConnectionData == null)) {
+            return; // lost again, restored with the next connection
+        }
+        final ChannelComponent channelComponent = ChannelComponent.get(clientConnectionData.getChannel());
+        final MqttIncomingPublishService incomingPublishService = channelComponent.incomingPublishService();
+        final int maximumPacketSize = serverConnectionData.getMaximumPacketSize();
+        if (incomingPublishService.getNettyEventLoop().inEventLoop()) {
+            restore(channelComponent, sessionPresent, maximumPacketSize);
+        } else {
+            incomingPublishService.getNettyEventLoop()
+                    .execute(() -> restore(channelComponent, sessionPresent, maximumPacketSize));
+        }
+    }
+
+    @CallByThread("Netty EventLoop")
+    private void restore(
+            @NotNull final ChannelComponent channelComponent, final boolean sessionPresent,
+            final int maximumPacketSize) {
+
+        final MqttIncomingPublishService incomingPublishService = channelComponent.incomingPublishService();
+        final MqttIncomingPublishFlows incomingPublishFlows = incomingPublishService.getIncomingPublishFlows();
+
+        final LinkedHashMap<MqttUserPropertiesImpl, ResubscribeBatch> batches = new LinkedHashMap<>();
+        for (final MqttSessionSubscription subscription : getAll()) {
+            final List<MqttSubscription> subscriptions = subscription.getSubscriptions();
+            if (subscriptions.isEmpty()) {
+                continue;
+            }
+            final MqttSubscriptionFlow flow = subscription.attach(incomingPublishService);
+            if (flow == null) {
+                continue;
+            }
+            if (sessionPresent && subscription.isAcknowledged()) {
+                for (final MqttSubscription mqttSubscription : subscriptions) {
+                    incomingPublishFlows.subscribe(mqttSubscription.getTopicFilter(), flow);
+                }
+            } else {
+                final Resubscribe resubscribe = new Resubscribe(subscription, flow, subscriptions);
+                final MqttUserPropertiesImpl userProperties = subscription.getUserProperties();
+                final int minimumLength = ResubscribeBatch.minimumEncodedLength(resubscribe);
+                if (minimumLength > maximumPacketSize) {
+                    subscription.onSubscribeError(new MqttMaximumPacketSizeExceededException(
+                            new MqttSubscribe(ImmutableList.copyOf(subscriptions), userProperties), minimumLength,
+                            maximumPacketSize));
+                    continue;
+                }
+                ResubscribeBatch batch = batches.get(userProperties);
+                if ((batch != null) && !batch.fits(resubscribe, maximumPacketSize)) {
+                    batch.send(channelComponent, incomingPublishFlows);
+                    batch = null;
+                }
+                if (batch == null) {
+                    batch = new ResubscribeBatch(userProperties);
+                    batches.put(userProperties, batch);
+                }
+                batch.add(resubscribe);
+            }
+        }
+        for (final ResubscribeBatch batch : batches.values()) {
+            batch.send(channelComponent, incomingPublishFlows);
+        }
+    }
+
+    /**
+     * Removes the unsubscribed topic filters so that they are not restored with the next connection.
+     *
+     * @param unsubscribe the successful Unsubscribe message.
+     */
+    public void onUnsubscribe(@NotNull final MqttUnsubscribe unsubscribe) {
+        final ImmutableList<MqttTopicFilterImpl> topicFilters = unsubscribe.getTopicFilters();
+        for (final MqttSessionSubscription subscription : getAll()) {
+            for (final MqttTopicFilterImpl topicFilter : topicFilters) {
+                subscription.unsubscribe(topicFilter);
+            }
+        }
+    }
+
+    /**
+     * Completes all subscriptions as the client was disconnected by the application.
+     */
+    public void close() {
+        recovering = false;
+        for (final MqttSessionSubscription subscription : getAll()) {
+            subscription.complete();
+        }
+    }
+
+    private static class Resubscribe {
+
+        private final MqttSessionSubscription subscription;
+        private final MqttSubscriptionFlow flow;
+        private final List<MqttSubscription> subscriptions;
+        private final int payloadLength;
+
+        private Resubscribe(
+                @NotNull final MqttSessionSubscription subscription, @NotNull final MqttSubscriptionFlow flow,
+                @NotNull final List<MqttSubscription> subscriptions) {
+
+            this.subscription = subscription;
+            this.flow = flow;
+            this.subscriptions = subscriptions;
+            int payloadLength = 0;
+            for (final MqttSubscription mqttSubscription : subscriptions) {
+                payloadLength += mqttSubscription.getTopicFilter().encodedLength() + 1; // + subscription options
+            }
+            this.payloadLength = payloadLength;
+        }
+
+    }
+
+    /**
+     * The subscriptions with the same User Properties which are sent again in one SUBSCRIBE message.
+     */
+    private static class ResubscribeBatch {
+
+        private static final int VARIABLE_HEADER_FIXED_LENGTH = 2; // packet identifier
+        private static final int SUBSCRIPTION_IDENTIFIER_MINIMUM_LENGTH = 1 + 1; // property identifier + value
+        private static final int SUBSCRIPTION_IDENTIFIER_MAXIMUM_LENGTH = 1 + 4; // property identifier + value
+
+        private final MqttUserPropertiesImpl userProperties;
+        private final ArrayList<Resubscribe> resubscribes = new ArrayList<>();
+        private final ImmutableList.Builder<MqttSubscription> subscriptions = ImmutableList.builder();
+        private int payloadLength;
+
+        private ResubscribeBatch(@NotNull final MqttUserPropertiesImpl userProperties) {
+            this.userProperties = userProperties;
+        }
+
+        /**
+         * Checks whether the SUBSCRIBE message still fits into the Maximum Packet Size of the server if the given
+         * subscriptions are added. The length of the Subscription Identifier is estimated with its maximum, as it is
+         * only assigned when the message is sent.
+         *
+         * @param resubscribe       the subscriptions to add.
+         * @param maximumPacketSize the Maximum Packet Size of the server.
+         * @return whether the subscriptions can be added to this batch.
+         */
+        boolean fits(@NotNull final Resubscribe resubscribe, final int maximumPacketSize) {
+            return encodedLength(SUBSCRIPTION_IDENTIFIER_MAXIMUM_LENGTH + userProperties.encodedLength(),
+                    payloadLength + resubscribe.payloadLength) <= maximumPacketSize;
+        }
+
+        /**
+         * Calculates the minimal length of a SUBSCRIBE message which only contains the given subscriptions. The
+         * encoder omits the User Properties if they do not fit, so only the Subscription Identifier is counted.
+         *
+         * @param resubscribe the subscriptions to send.
+         * @return the minimal encoded length of the SUBSCRIBE message.
+         */
+        static int minimumEncodedLength(@NotNull final Resubscribe resubscribe) {
+            return encodedLength(SUBSCRIPTION_IDENTIFIER_MINIMUM_LENGTH, resubscribe.payloadLength);
+        }
+
+        private static int encodedLength(final int propertyLength, final int payloadLength) {
+            final int remainingLength =
+                    VARIABLE_HEADER_FIXED_LENGTH + encodedLengthWithHeader(propertyLength) + payloadLength;
+            return encodedPacketLength(remainingLength);
+        }
+
+        void add(@NotNull final Resubscribe resubscribe) {
+            resubscribes.add(resubscribe);
+            subscriptions.addAll(resubscribe.subscriptions);
+            payloadLength += resubscribe.payloadLength;
+        }
+
+        void send(
+                @NotNull final ChannelComponent channelComponent,
+                @NotNull final MqttIncomingPublishFlows incomingPublishFlows) {
+
+            final MqttSubscribe subscribe = new MqttSubscribe(subscriptions.build(), userProperties);
+            channelComponent.subscriptionHandler()
+                    .subscribe(new MqttSubscribeWithFlow(subscribe,
+                            new ResubscribeFlow(resubscribes, incomingPublishFlows)));
+        }
+
+    }
+
+    /**
+     * Splits the SUBACK of a batched SUBSCRIBE message into the parts of the single subscriptions.
+     */
+    private static class ResubscribeFlow implements SingleFlow<Mqtt5SubAck> {
+
+        private final List<Resubscribe> resubscribes;
+        private final MqttIncomingPublishFlows incomingPublishFlows;
+
+        private ResubscribeFlow(
+                @NotNull final List<Resubscribe> resubscribes,
+                @NotNull final MqttIncomingPublishFlows incomingPublishFlows) {
+
+            this.resubscribes = resubscribes;
+            this.incomingPublishFlows = incomingPublishFlows;
+        }
+
+        @CallByThread("Netty EventLoop")
+        @Override
+        public void onSuccess(@NotNull final Mqtt5SubAck subAck) {
+            final MqttSubAck mqttSubAck = (MqttSubAck) subAck;
+            final ImmutableList<Mqtt5SubAckReasonCode> reasonCodes = mqttSubAck.getReasonCodes();
+            int index = 0;
+            for (final Resubscribe resubscribe : resubscribes) {
+                final int count = resubscribe.subscriptions.size();
+                final ImmutableList<Mqtt5SubAckReasonCode> subReasonCodes = reasonCodes.subList(index, index + count);
+                boolean anySuccessful = false;
+                for (int i = 0; i < count; i++) {
+                    if (!subReasonCodes.get(i).isError()) {
+                        anySuccessful = true;
+                        if (!resubscribe.flow.isCancelled()) {
+                            incomingPublishFlows.subscribe(
+                                    resubscribe.subscriptions.get(i).getTopicFilter(), resubscribe.flow);
+                        }
+                    }
+                }
+                final MqttSubAck subSubAck = new MqttSubAck(mqttSubAck.getPacketIdentifier(), subReasonCodes,
+                        mqttSubAck.getRawReasonString(), mqttSubAck.getUserProperties());
+                if (anySuccessful) {
+                    resubscribe.flow.onSuccess(subSubAck);
+                } else {
+                    resubscribe.subscription.onSubscribeError(
+                            new Mqtt5MessageException(subSubAck, "SUBACK contains only Error Codes"));
+                }
+                index += count;
+            }
+        }
+
+        @CallByThread("Netty EventLoop")
+        @Override
+        public void onError(@NotNull final Throwable t) {
+            for (final Resubscribe resubscribe : resubscribes) {
+                resubscribe.subscription.onSubscribeError(t);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Watches inline callbacks of incoming publish flows while they are running.
+ * <p>
+ * Every Netty event loop which calls inline callbacks has a {@link Sample} which holds the start time of the currently
+ * running callback. A single daemon thread samples them and reports a callback which is still running after the slow
+ * callback threshold, together with the stack trace of the blocked event loop. So a callback which blocks is found
+ * even if it never returns. The thread samples at the interval of the event loop with the lowest threshold and waits
+ * without a timeout while no event loop has a sample.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+class MqttSlowCallbackWatchdog implements Runnable {
+
+    static final MqttSlowCallbackWatchdog INSTANCE = new MqttSlowCallbackWatchdog();
+
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<Thread, Sample> samples = new ConcurrentHashMap<>();
+    private final Thread watchdogThread;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile long intervalNanos = MAX_INTERVAL_NANOS;
+
+    MqttSlowCallbackWatchdog() {
+        watchdogThread = new Thread(this, "mqttbee-slow-callback-watchdog");
+        watchdogThread.setDaemon(true);
+    }
+
+    /**
+     * Returns the sample of the current event loop and starts the watchdog thread if it is not running yet.
+     *
+     * @param slowCallbackThresholdNanos the slow callback threshold of the caller, the watchdog samples at least twice
+     *                                   per threshold (but at most every millisecond).
+     * @return the sample of the current event loop.
+     */
+    @CallByThread("Netty EventLoop")
+    @NotNull
+    Sample sample(final long slowCallbackThresholdNanos) {
+        final Thread thread = Thread.currentThread();
+        final long sampleIntervalNanos =
+                Math.min(MAX_INTERVAL_NANOS, Math.max(MIN_INTERVAL_NANOS, slowCallbackThresholdNanos / 2));
+        Sample sample = samples.get(thread);
+        if (sample == null) { // only the event loop itself adds its sample
+            sample = new Sample(thread, sampleIntervalNanos);
+            samples.put(thread, sample);
+        } else if (sampleIntervalNanos < sample.intervalNanos) {
+            sample.intervalNanos = sampleIntervalNanos;
+        } else {
+            return sample;
+        }
+        lowerInterval(sampleIntervalNanos);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            watchdogThread.start();
+        } else {
+            // wakes the watchdog if it waits without samples or with a longer interval
+            LockSupport.unpark(watchdogThread);
+        }
+        return sample;
+    }
+
+    private synchronized void lowerInterval(final long intervalNanos) {
+        if (intervalNanos < this.intervalNanos) {
+            this.intervalNanos = intervalNanos;
+        }
+    }
+
+    /**
+     * Derives the interval from the remaining samples after samples were removed, so that the watchdog does not keep
+     * sampling with the interval of an event loop which was shut down.
+     */
+    private synchronized void deriveInterval() {
+        long intervalNanos = MAX_INTERVAL_NANOS;
+        for (final Sample sample : samples.values()) {
+            intervalNanos = Math.min(intervalNanos, sample.intervalNanos);
+        }
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * @return the current sampling interval of the watchdog thread.
+     */
+    long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            if (samples.isEmpty()) {
+                LockSupport.park(this); // a new sample unparks the watchdog
+            } else {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            final long nowNanos = System.nanoTime();
+            boolean removed = false;
+            final Iterator<Sample> iterator = samples.values().iterator();
+            while (iterator.hasNext()) {
+                final Sample sample = iterator.next();
+                if (sample.thread.isAlive()) {
+                    sample.check(nowNanos);
+                } else {
+                    iterator.remove(); // the event loop was shut down
+                    removed = true;
+                }
+            }
+            if (removed) {
+                deriveInterval();
+            }
+        }
+    }
+
+    /**
+     * The currently running inline callback of one Netty event loop. It is written by the event loop and read by the
+     * watchdog thread.
+     */
+    static class Sample {
+
+        private final Thread thread;
+        private volatile long intervalNanos; // only written by the event loop
+        private volatile MqttIncomingPublishService incomingPublishService;
+        private volatile Mqtt5Publish publish;
+        private volatile long startNanos; // 0 if no callback is running, written last by start
+        private long reportedStartNanos; // only accessed by the watchdog thread
+
+        private Sample(@NotNull final Thread thread, final long intervalNanos) {
+            this.thread = thread;
+            this.intervalNanos = intervalNanos;
+        }
+
+        @CallByThread("Netty EventLoop")
+        void start(
+                @NotNull final MqttIncomingPublishService incomingPublishService, @NotNull final Mqtt5Publish publish,
+                final long startNanos) {
+
+            this.incomingPublishService = incomingPublishService;
+            this.publish = publish;
+            this.startNanos = startNanos;
+        }
+
+        @CallByThread("Netty EventLoop")
+        void stop() {
+            startNanos = 0;
+        }
+
+        private void check(final long nowNanos) {
+            final long startNanos = this.startNanos;
+            if ((startNanos == 0) || (startNanos == reportedStartNanos)) {
+                return;
+            }
+            final MqttIncomingPublishService incomingPublishService = this.incomingPublishService;
+            final Mqtt5Publish publish = this.publish;
+            if (this.startNanos != startNanos) {
+                return; // the callback returned while reading its data
+            }
+            final long runningNanos = nowNanos - startNanos;
+            if (runningNanos >= incomingPublishService.getSlowCallbackThresholdNanos()) {
+                reportedStartNanos = startNanos;
+                incomingPublishService.onBlockingCallback(publish, runningNanos, thread);
+            }
+        }
+
+    }
+
+}
@@ -24,6 +24,7 @@ import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
 import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeResult;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
 import org.mqttbee.mqtt.handler.subscribe.MqttSubscribeWithFlow;
 import org.mqttbee.mqtt.handler.subscribe.MqttSubscriptionHandler;
 import org.mqttbee.mqtt.ioc.ChannelComponent;
@@ -45,6 +46,10 @@ public class MqttSubscriptionFlowable extends Flowable<Mqtt5SubscribeResult> {
 
     @Override
     protected void subscribeActual(final Subscriber<? super Mqtt5SubscribeResult> s) {
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        if ((connectPipeline != null) && connectPipeline.defer(() -> subscribeActual(s))) {
+            return;
+        }
         final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData(); // TODO temp
         if (clientConnectionData == null) {
             EmptySubscription.error(new NotConnectedException(), s);
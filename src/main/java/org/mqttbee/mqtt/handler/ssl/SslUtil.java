@@ -18,12 +18,16 @@ package org.mqttbee.mqtt.handler.ssl;
 
 import dagger.internal.Preconditions;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.ssl.*;
 import org.jetbrains.annotations.NotNull;
 import org.mqttbee.api.mqtt.MqttClientSslConfig;
+import org.mqttbee.mqtt.jfr.MqttJfr;
+import org.mqttbee.mqtt.jfr.MqttSslHandshakeEvent;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
 
 /**
  * @author Christoph Schäbel
@@ -67,10 +71,47 @@ public class SslUtil {
             @NotNull final Channel channel, @NotNull final MqttClientSslConfig sslConfig) throws SSLException {
 
         final SSLEngine sslEngine = createSslEngine(channel, sslConfig);
-        final SslHandler sslHandler = new SslHandler(sslEngine);
+        final SslHandler sslHandler = (MqttJfr.AVAILABLE && MqttSslHandshakeEvent.isEventEnabled()) ?
+                new JfrSslHandler(sslEngine) : new SslHandler(sslEngine);
 
         sslHandler.setHandshakeTimeoutMillis(sslConfig.getHandshakeTimeoutMs());
         return sslHandler;
     }
 
+    /**
+     * SslHandler which emits a {@link MqttSslHandshakeEvent}. Only used if the event is enabled when the handler is
+     * created.
+     */
+    private static class JfrSslHandler extends SslHandler {
+
+        private final MqttSslHandshakeEvent event = new MqttSslHandshakeEvent();
+
+        JfrSslHandler(@NotNull final SSLEngine sslEngine) {
+            super(sslEngine);
+            handshakeFuture().addListener(future -> {
+                if (future.isSuccess()) {
+                    final SSLSession session = engine().getSession();
+                    event.commitSuccess(session.getProtocol(), session.getCipherSuite());
+                } else {
+                    event.commitFailure(future.cause());
+                }
+            });
+        }
+
+        @Override
+        public void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
+            if (ctx.channel().isActive()) {
+                event.begin(); // the handshake starts right away
+            }
+            super.handlerAdded(ctx);
+        }
+
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+            event.begin();
+            super.channelActive(ctx);
+        }
+
+    }
+
 }
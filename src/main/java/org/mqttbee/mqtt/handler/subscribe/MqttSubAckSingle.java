@@ -25,6 +25,7 @@ import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
 import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
 import org.mqttbee.mqtt.ioc.ChannelComponent;
 import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
 import org.mqttbee.rx.SingleFlow.DefaultSingleFlow;
@@ -44,6 +45,10 @@ public class MqttSubAckSingle extends Single<Mqtt5SubAck> {
 
     @Override
     protected void subscribeActual(final SingleObserver<? super Mqtt5SubAck> observer) {
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        if ((connectPipeline != null) && connectPipeline.defer(() -> subscribeActual(observer))) {
+            return;
+        }
         final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
         if (clientConnectionData == null) {
             EmptyDisposable.error(new NotConnectedException(), observer);
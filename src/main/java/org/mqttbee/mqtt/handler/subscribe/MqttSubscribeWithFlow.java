@@ -34,7 +34,7 @@ public class MqttSubscribeWithFlow {
     private final SingleFlow<Mqtt5SubAck> subAckFlow;
     private final MqttSubscriptionFlow subscriptionFlow;
 
-    MqttSubscribeWithFlow(
+    public MqttSubscribeWithFlow(
             @NotNull final MqttSubscribe subscribe, @NotNull final SingleFlow<Mqtt5SubAck> subAckFlow) {
 
         this.subscribe = subscribe;
@@ -50,6 +50,11 @@ public class MqttSubscribeWithFlow {
         this.subscriptionFlow = subscriptionFlow;
     }
 
+    @NotNull
+    SingleFlow<Mqtt5SubAck> getSubAckFlow() {
+        return subAckFlow;
+    }
+
     @NotNull
     MqttStatefulSubscribeWithFlow createStateful(final int packetIdentifier, final int subscriptionIdentifier) {
         return new MqttStatefulSubscribeWithFlow(
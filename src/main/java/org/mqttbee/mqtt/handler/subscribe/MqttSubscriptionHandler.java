@@ -28,7 +28,7 @@ import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
 import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
 import org.mqttbee.mqtt.MqttClientConnectionData;
 import org.mqttbee.mqtt.MqttClientData;
-import org.mqttbee.mqtt.MqttServerConnectionData;
+import org.mqttbee.mqtt.handler.disconnect.ChannelCloseEvent;
 import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectUtil;
 import org.mqttbee.mqtt.handler.publish.MqttIncomingPublishFlows;
 import org.mqttbee.mqtt.handler.publish.MqttOutgoingQosHandler;
@@ -59,6 +59,8 @@ public class MqttSubscriptionHandler extends ChannelInboundHandlerAdapter {
     public static final String NAME = "subscription";
     public static final int MAX_SUB_PENDING = 10; // TODO configurable
     private static final Logger LOGGER = LoggerFactory.getLogger(MqttSubscriptionHandler.class);
+    private static final int MIN_PACKET_IDENTIFIER = MqttOutgoingQosHandler.MAX_PUBLISH_PACKET_IDENTIFIER + 1;
+    private static final int MAX_PACKET_IDENTIFIER = MIN_PACKET_IDENTIFIER + MAX_SUB_PENDING - 1;
 
     private enum ReasonCodesState {
         AT_LEAST_ONE_SUCCESSFUL,
@@ -73,6 +75,7 @@ public class MqttSubscriptionHandler extends ChannelInboundHandlerAdapter {
     private final IntMap<MqttStatefulUnsubscribeWithFlow> unsubscribes;
     private final LinkedList<Object> queued;
     private int pending;
+    private Throwable closeCause;
 
     private ChannelHandlerContext ctx; // TODO temp
 
@@ -82,16 +85,11 @@ public class MqttSubscriptionHandler extends ChannelInboundHandlerAdapter {
 
         final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
         assert clientConnectionData != null;
-        final MqttServerConnectionData serverConnectionData = clientData.getRawServerConnectionData();
-        assert serverConnectionData != null;
 
-        final int minPacketIdentifier =
-                MqttOutgoingQosHandler.getPubReceiveMaximum(serverConnectionData.getReceiveMaximum()) + 1;
-        final int maxPacketIdentifier = minPacketIdentifier + MAX_SUB_PENDING - 1;
-        packetIdentifiers = new Ranges(minPacketIdentifier, maxPacketIdentifier);
+        packetIdentifiers = new Ranges(MIN_PACKET_IDENTIFIER, MAX_PACKET_IDENTIFIER);
         subscriptionIdentifiers = new Ranges(1, clientConnectionData.getSubscriptionIdentifierMaximum());
-        subscribes = IntMap.range(minPacketIdentifier, maxPacketIdentifier);
-        unsubscribes = IntMap.range(minPacketIdentifier, maxPacketIdentifier);
+        subscribes = IntMap.range(MIN_PACKET_IDENTIFIER, MAX_PACKET_IDENTIFIER);
+        unsubscribes = IntMap.range(MIN_PACKET_IDENTIFIER, MAX_PACKET_IDENTIFIER);
         queued = new LinkedList<>();
     }
 
@@ -107,6 +105,10 @@ public class MqttSubscriptionHandler extends ChannelInboundHandlerAdapter {
     private void handleSubscribe(
             @NotNull final ChannelHandlerContext ctx, @NotNull final MqttSubscribeWithFlow subscribeWithFlow) {
 
+        if (closeCause != null) {
+            subscribeWithFlow.getSubAckFlow().onError(closeCause);
+            return;
+        }
         if (pending == MAX_SUB_PENDING) {
             queued.offer(subscribeWithFlow);
             return;
@@ -143,6 +145,10 @@ public class MqttSubscriptionHandler extends ChannelInboundHandlerAdapter {
     private void handleUnsubscribe(
             @NotNull final ChannelHandlerContext ctx, @NotNull final MqttUnsubscribeWithFlow unsubscribeWithFlow) {
 
+        if (closeCause != null) {
+            unsubscribeWithFlow.getUnsubAckFlow().onError(closeCause);
+            return;
+        }
         if (pending == MAX_SUB_PENDING) {
             queued.offer(unsubscribeWithFlow);
             return;
@@ -286,6 +292,48 @@ public class MqttSubscriptionHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    @Override
+    public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) {
+        if (evt instanceof ChannelCloseEvent) {
+            handleChannelCloseEvent((ChannelCloseEvent) evt);
+        }
+        ctx.fireUserEventTriggered(evt);
+    }
+
+    /**
+     * Fails all subscribes and unsubscribes that are not acknowledged yet or still queued with the cause why the
+     * channel was closed.
+     * <p>
+     * This applies to every connection, pipelined or not, as the acknowledgements can not arrive anymore and the flows
+     * would otherwise never complete.
+     *
+     * @param channelCloseEvent the channel close event.
+     */
+    private void handleChannelCloseEvent(@NotNull final ChannelCloseEvent channelCloseEvent) {
+        final Throwable cause = channelCloseEvent.getCause();
+        closeCause = cause;
+
+        for (int packetIdentifier = MIN_PACKET_IDENTIFIER; packetIdentifier <= MAX_PACKET_IDENTIFIER;
+             packetIdentifier++) {
+            final MqttStatefulSubscribeWithFlow statefulSubscribeWithFlow = subscribes.remove(packetIdentifier);
+            if (statefulSubscribeWithFlow != null) {
+                statefulSubscribeWithFlow.getSubAckFlow().onError(cause);
+            }
+            final MqttStatefulUnsubscribeWithFlow statefulUnsubscribeWithFlow = unsubscribes.remove(packetIdentifier);
+            if (statefulUnsubscribeWithFlow != null) {
+                statefulUnsubscribeWithFlow.getUnsubAckFlow().onError(cause);
+            }
+        }
+        Object subscribeOrUnsubscribe;
+        while ((subscribeOrUnsubscribe = queued.poll()) != null) {
+            if (subscribeOrUnsubscribe instanceof MqttSubscribeWithFlow) {
+                ((MqttSubscribeWithFlow) subscribeOrUnsubscribe).getSubAckFlow().onError(cause);
+            } else {
+                ((MqttUnsubscribeWithFlow) subscribeOrUnsubscribe).getUnsubAckFlow().onError(cause);
+            }
+        }
+    }
+
     private static ReasonCodesState validateReasonCodes(
             final int count, @NotNull final ImmutableList<? extends Mqtt5ReasonCode> reasonCodes) {
 
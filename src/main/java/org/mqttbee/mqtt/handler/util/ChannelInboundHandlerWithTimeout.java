@@ -77,7 +77,7 @@ public abstract class ChannelInboundHandlerWithTimeout extends ChannelInboundHan
      * Schedules a timeout.
      */
     protected void scheduleTimeout() {
-        timeoutFuture = ctx.executor().schedule(this, getTimeout(ctx), TimeUnit.SECONDS);
+        timeoutFuture = ctx.executor().schedule(this, getTimeout(ctx), getTimeoutUnit());
     }
 
     /**
@@ -91,13 +91,21 @@ public abstract class ChannelInboundHandlerWithTimeout extends ChannelInboundHan
     }
 
     /**
-     * Returns the timeout interval in seconds.
+     * Returns the timeout interval in the {@link #getTimeoutUnit() timeout unit}.
      *
      * @param ctx the channel handler context.
-     * @return the timeout interval in seconds.
+     * @return the timeout interval.
      */
     protected abstract long getTimeout(@NotNull ChannelHandlerContext ctx);
 
+    /**
+     * @return the time unit of the {@link #getTimeout(ChannelHandlerContext) timeout interval}, seconds by default.
+     */
+    @NotNull
+    protected TimeUnit getTimeoutUnit() {
+        return TimeUnit.SECONDS;
+    }
+
     /**
      * @return the Reason Code that will be used in the DISCONNECT message if a timeout happens and the channel is still
      * active.
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.util.concurrent.PromiseNotifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+
+/**
+ * Encodes all MQTT messages written between two flushes into a single binary WebSocket frame.
+ * <p>
+ * The MQTT specification allows a WebSocket frame to contain multiple MQTT messages. Batching them saves the frame
+ * header and masking for all but the first message and lets the permessage-deflate extension compress the messages
+ * together. A batch is written early if it exceeds {@link #MAX_BATCH_SIZE} bytes, so a single frame stays bounded.
+ * <p>
+ * Not sharable, as it holds the current batch of the channel.
+ *
+ * @author Silvio Giebl
+ */
+public class WebSocketBinaryFrameBatchEncoder extends ChannelOutboundHandlerAdapter {
+
+    public static final String NAME = WebSocketBinaryFrameEncoder.NAME;
+
+    static final int MAX_BATCH_SIZE = 64 * 1024;
+    private static final int MAX_COMPONENTS = 1024;
+
+    private CompositeByteBuf batch;
+    private final ArrayList<ChannelPromise> promises = new ArrayList<>();
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+        if (msg instanceof ByteBuf) {
+            CompositeByteBuf batch = this.batch;
+            if (batch == null) {
+                batch = this.batch = ctx.alloc().compositeBuffer(MAX_COMPONENTS);
+            }
+            batch.addComponent(true, (ByteBuf) msg);
+            if (!promise.isVoid()) {
+                promises.add(promise);
+            }
+            if (batch.readableBytes() >= MAX_BATCH_SIZE) {
+                writeBatch(ctx);
+            }
+        } else {
+            writeBatch(ctx);
+            ctx.write(msg, promise);
+        }
+    }
+
+    @Override
+    public void flush(final ChannelHandlerContext ctx) {
+        writeBatch(ctx);
+        ctx.flush();
+    }
+
+    @Override
+    public void close(final ChannelHandlerContext ctx, final ChannelPromise promise) throws Exception {
+        discardBatch();
+        super.close(ctx, promise);
+    }
+
+    @Override
+    public void handlerRemoved(final ChannelHandlerContext ctx) {
+        discardBatch();
+    }
+
+    private void writeBatch(@NotNull final ChannelHandlerContext ctx) {
+        final CompositeByteBuf batch = this.batch;
+        if (batch == null) {
+            return;
+        }
+        this.batch = null;
+        final BinaryWebSocketFrame frame = new BinaryWebSocketFrame(batch);
+        if (promises.isEmpty()) {
+            ctx.write(frame, ctx.voidPromise());
+        } else if (promises.size() == 1) {
+            ctx.write(frame, promises.get(0));
+            promises.clear();
+        } else {
+            final ChannelPromise[] batchPromises = promises.toArray(new ChannelPromise[0]);
+            promises.clear();
+            final ChannelPromise promise = ctx.newPromise();
+            promise.addListener(new PromiseNotifier<Void, ChannelFuture>(batchPromises));
+            ctx.write(frame, promise);
+        }
+    }
+
+    private void discardBatch() {
+        final CompositeByteBuf batch = this.batch;
+        if (batch == null) {
+            return;
+        }
+        this.batch = null;
+        batch.release();
+        final ClosedChannelException cause = new ClosedChannelException();
+        for (int i = 0; i < promises.size(); i++) {
+            promises.get(i).tryFailure(cause);
+        }
+        promises.clear();
+    }
+
+}
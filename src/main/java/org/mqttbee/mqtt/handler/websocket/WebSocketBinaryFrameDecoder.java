@@ -20,13 +20,22 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectUtil;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.List;
 
 /**
+ * Hands the content of binary WebSocket frames to the MQTT decoder.
+ * <p>
+ * Fragments of a binary message (continuation frames) are forwarded as they arrive, so they are reassembled in the
+ * cumulation of the MQTT decoder and not in a separate aggregator. This is possible because MQTT messages may be split
+ * across and packed into WebSocket frames arbitrarily.
+ *
  * @author David Katz
  * @author Silvio Giebl
  */
@@ -42,8 +51,11 @@ public class WebSocketBinaryFrameDecoder extends MessageToMessageDecoder<WebSock
 
     @Override
     protected void decode(final ChannelHandlerContext ctx, final WebSocketFrame msg, final List<Object> out) {
-        if (msg instanceof BinaryWebSocketFrame) {
+        if ((msg instanceof BinaryWebSocketFrame) || (msg instanceof ContinuationWebSocketFrame)) {
             out.add(msg.retain().content());
+        } else if (msg instanceof TextWebSocketFrame) {
+            // closing the channel also drops continuation frames of the text message
+            MqttDisconnectUtil.close(ctx.channel(), "Must not receive text WebSocket frames");
         }
     }
 
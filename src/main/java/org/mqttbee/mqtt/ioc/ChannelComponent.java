@@ -25,7 +25,9 @@ import org.jetbrains.annotations.NotNull;
 import org.mqttbee.mqtt.MqttClientData;
 import org.mqttbee.mqtt.codec.MqttCodecModule;
 import org.mqttbee.mqtt.codec.decoder.MqttDecoder;
+import org.mqttbee.mqtt.codec.decoder.MqttMessageDecoders;
 import org.mqttbee.mqtt.codec.encoder.MqttEncoder;
+import org.mqttbee.mqtt.codec.encoder.MqttMessageEncoders;
 import org.mqttbee.mqtt.handler.auth.MqttAuthHandler;
 import org.mqttbee.mqtt.handler.auth.MqttDisconnectOnAuthHandler;
 import org.mqttbee.mqtt.handler.connect.MqttDisconnectOnConnAckHandler;
@@ -65,6 +67,10 @@ public interface ChannelComponent {
 
     MqttEncoder encoder();
 
+    MqttMessageDecoders messageDecoders();
+
+    MqttMessageEncoders messageEncoders();
+
     MqttDisconnecter disconnecter();
 
     MqttDisconnectOnConnAckHandler disconnectOnConnAckHandler();
@@ -87,6 +93,8 @@ public interface ChannelComponent {
 
     MqttPublishFlowables publishFlowables();
 
+    MqttAsyncPublishFlowable asyncPublishFlowable();
+
     WebSocketBinaryFrameDecoder webSocketBinaryFrameDecoder();
 
     WebSocketBinaryFrameEncoder webSocketBinaryFrameEncoder();
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Duration from writing the CONNECT message until the CONNACK message is received or the connection is closed.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.Connect")
+@Label("MQTT Connect")
+@Description("From writing the CONNECT message until the CONNACK message is received or the connection is closed")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+@StackTrace(false)
+public class MqttConnectEvent extends Event {
+
+    @Label("Server Host")
+    private String serverHost;
+
+    @Label("Server Port")
+    private int serverPort;
+
+    @Label("Pipelined")
+    @Description("Whether subscriptions and publishes were written before the CONNACK message was received")
+    private boolean pipelined;
+
+    @Label("Reason Code")
+    @Description("Reason Code of the CONNACK message or null if the connection was closed before")
+    private String reasonCode;
+
+    @Nullable
+    public static MqttConnectEvent beginIfEnabled(
+            @NotNull final String serverHost, final int serverPort, final boolean pipelined) {
+
+        final MqttConnectEvent event = new MqttConnectEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.serverHost = serverHost;
+        event.serverPort = serverPort;
+        event.pipelined = pipelined;
+        event.begin();
+        return event;
+    }
+
+    public void commit(@Nullable final String reasonCode) {
+        this.reasonCode = reasonCode;
+        commit();
+    }
+
+}
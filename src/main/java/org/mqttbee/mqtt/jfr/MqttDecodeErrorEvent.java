@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Instant at which an incoming message could not be decoded and the connection is disconnected.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.DecodeError")
+@Label("MQTT Decode Error")
+@Description("An incoming message could not be decoded")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+@StackTrace(false)
+public class MqttDecodeErrorEvent extends Event {
+
+    @Label("Message Type")
+    private String messageType;
+
+    @Label("Reason Code")
+    private String reasonCode;
+
+    @Label("Message")
+    private String message;
+
+    public static void commitIfEnabled(
+            @Nullable final String messageType, @NotNull final String reasonCode, @Nullable final String message) {
+
+        final MqttDecodeErrorEvent event = new MqttDecodeErrorEvent();
+        if (event.isEnabled()) {
+            event.messageType = messageType;
+            event.reasonCode = reasonCode;
+            event.message = message;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Duration of one run which emits queued incoming publishes to the subscribed flows.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.IncomingPublishDrain")
+@Label("MQTT Incoming Publish Drain")
+@Description("Emitting queued incoming publishes to the subscribed flows")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+@StackTrace(false)
+public class MqttIncomingPublishDrainEvent extends Event {
+
+    @Label("Queue Size")
+    @Description("Publishes which are not yet delivered to all flows after the run")
+    private int queueSize;
+
+    @Label("Blocking Flow Count")
+    @Description("Flows which stopped the run as they did not request more publishes")
+    private int blockingFlowCount;
+
+    @Label("Referenced Flow Count")
+    @Description("Flows which have queued publishes")
+    private int referencedFlowCount;
+
+    @Nullable
+    public static MqttIncomingPublishDrainEvent beginIfEnabled() {
+        if (!TypeHolder.EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        final MqttIncomingPublishDrainEvent event = new MqttIncomingPublishDrainEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final int queueSize, final int blockingFlowCount, final int referencedFlowCount) {
+        this.queueSize = queueSize;
+        this.blockingFlowCount = blockingFlowCount;
+        this.referencedFlowCount = referencedFlowCount;
+        commit();
+    }
+
+    /**
+     * Looks up the event type when the event is first checked, so that the check does not allocate an event per call.
+     */
+    private static class TypeHolder {
+
+        private static final EventType EVENT_TYPE = EventType.getEventType(MqttIncomingPublishDrainEvent.class);
+
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+/**
+ * Util for emitting the Java Flight Recorder events of the client.
+ * <p>
+ * The events are only loaded if the JVM provides the JFR API (Java 11 or Java 8 update 262 and later), so every call
+ * site must check {@link #AVAILABLE} before it refers to an event class. All events are disabled by default and have
+ * to be enabled in the recording settings, for example with {@code recording.enable("org.mqttbee.PublishBatch")} or in
+ * a custom .jfc file. If they are disabled, a call site only costs the check of {@link #AVAILABLE} and
+ * {@code isEnabled()}.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttJfr {
+
+    public static final String CATEGORY = "MQTT Bee";
+
+    /**
+     * Whether the JVM provides the JFR API.
+     */
+    public static final boolean AVAILABLE = isAvailable();
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, MqttJfr.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Duration of writing and flushing one batch of outgoing publishes on the event loop.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.PublishBatch")
+@Label("MQTT Publish Batch")
+@Description("Writing and flushing one batch of outgoing publishes on the event loop")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+@StackTrace(false)
+public class MqttPublishBatchEvent extends Event {
+
+    @Label("Message Count")
+    private int messageCount;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    private long payloadBytes;
+
+    @Nullable
+    public static MqttPublishBatchEvent beginIfEnabled() {
+        if (!TypeHolder.EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        final MqttPublishBatchEvent event = new MqttPublishBatchEvent();
+        event.begin();
+        return event;
+    }
+
+    public void add(@NotNull final MqttPublish publish) {
+        messageCount++;
+        final ByteBuffer payload = publish.getRawPayload();
+        if (payload != null) {
+            payloadBytes += payload.remaining();
+        }
+    }
+
+    /**
+     * Looks up the event type when the event is first checked, so that the check does not allocate an event per call.
+     */
+    private static class TypeHolder {
+
+        private static final EventType EVENT_TYPE = EventType.getEventType(MqttPublishBatchEvent.class);
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Period in which a thread adding a publish flow was blocked because the client did not request more flows.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.PublishBlocked")
+@Label("MQTT Publish Blocked")
+@Description("A thread adding a publish flow was blocked by backpressure of the client")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+public class MqttPublishBlockedEvent extends Event {
+
+    @Nullable
+    public static MqttPublishBlockedEvent beginIfEnabled() {
+        final MqttPublishBlockedEvent event = new MqttPublishBlockedEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+}
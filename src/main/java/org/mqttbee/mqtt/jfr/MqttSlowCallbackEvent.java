@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Inline callback of an incoming publish flow which blocked the Netty event loop longer than the slow callback
+ * threshold.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.SlowCallback")
+@Label("MQTT Slow Callback")
+@Description("An inline callback of an incoming publish flow blocked the Netty event loop")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+public class MqttSlowCallbackEvent extends Event {
+
+    @Label("Topic")
+    private String topic;
+
+    @Label("Callback Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    private long callbackDuration;
+
+    public static void commitIfEnabled(@NotNull final String topic, final long callbackDuration) {
+        final MqttSlowCallbackEvent event = new MqttSlowCallbackEvent();
+        if (event.isEnabled()) {
+            event.topic = topic;
+            event.callbackDuration = callbackDuration;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Duration of the TLS handshake, from the channel becoming active until the handshake succeeded or failed.
+ *
+ * @author Silvio Giebl
+ */
+@Name("org.mqttbee.SslHandshake")
+@Label("MQTT TLS Handshake")
+@Description("From the connection becoming active until the TLS handshake succeeded or failed")
+@Category(MqttJfr.CATEGORY)
+@Enabled(false)
+@StackTrace(false)
+public class MqttSslHandshakeEvent extends Event {
+
+    @Label("Success")
+    private boolean success;
+
+    @Label("Protocol")
+    private String protocol;
+
+    @Label("Cipher Suite")
+    private String cipherSuite;
+
+    @Label("Failure")
+    private String failure;
+
+    public static boolean isEventEnabled() {
+        return new MqttSslHandshakeEvent().isEnabled();
+    }
+
+    public void commitSuccess(@Nullable final String protocol, @Nullable final String cipherSuite) {
+        success = true;
+        this.protocol = protocol;
+        this.cipherSuite = cipherSuite;
+        commit();
+    }
+
+    public void commitFailure(@Nullable final Throwable cause) {
+        success = false;
+        failure = (cause == null) ? null : cause.toString();
+        commit();
+    }
+
+}
@@ -30,6 +30,7 @@ import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
 import org.mqttbee.mqtt.datatypes.MqttUTF8StringImpl;
 import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
 import org.mqttbee.mqtt.message.MqttMessageWithUserProperties.MqttMessageWithUserPropertiesImpl;
+import org.mqttbee.mqtt.message.publish.mqtt3.Mqtt3PublishView;
 import org.mqttbee.util.ByteBufferUtil;
 
 import javax.annotation.concurrent.Immutable;
@@ -54,6 +55,8 @@ public class MqttPublish extends MqttMessageWithUserPropertiesImpl implements Mq
     private final MqttTopicImpl responseTopic;
     private final ByteBuffer correlationData;
     private final TopicAliasUsage topicAliasUsage;
+    private final MqttPublishTemplate template;
+    private Mqtt3PublishView mqtt3View;
 
     public MqttPublish(
             @NotNull final MqttTopicImpl topic, @Nullable final ByteBuffer payload, @NotNull final MqttQos qos,
@@ -74,6 +77,23 @@ public class MqttPublish extends MqttMessageWithUserPropertiesImpl implements Mq
         this.responseTopic = responseTopic;
         this.correlationData = correlationData;
         this.topicAliasUsage = topicAliasUsage;
+        template = null;
+    }
+
+    MqttPublish(@NotNull final MqttPublishTemplate template, @Nullable final ByteBuffer payload) {
+        super(template.getPrototype().getUserProperties());
+        final MqttPublish prototype = template.getPrototype();
+        this.topic = prototype.topic;
+        this.payload = payload;
+        this.qos = prototype.qos;
+        this.isRetain = prototype.isRetain;
+        this.messageExpiryInterval = prototype.messageExpiryInterval;
+        this.payloadFormatIndicator = prototype.payloadFormatIndicator;
+        this.contentType = prototype.contentType;
+        this.responseTopic = prototype.responseTopic;
+        this.correlationData = prototype.correlationData;
+        this.topicAliasUsage = prototype.topicAliasUsage;
+        this.template = template;
     }
 
     @NotNull
@@ -174,6 +194,42 @@ public class MqttPublish extends MqttMessageWithUserPropertiesImpl implements Mq
         return topicAliasUsage;
     }
 
+    /**
+     * @return the template this publish was created from or null if it was not created from a template.
+     */
+    @Nullable
+    public MqttPublishTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the MQTT 3 view of this publish. The view is created on the first call and then reused, so all MQTT 3
+     * flows which receive this publish and the results of this publish share the same view.
+     * <p>
+     * The view is cached in a plain field like the hash code of a {@link String}: concurrent first calls may create
+     * more than one view, which is harmless as views are immutable and only hold final fields.
+     *
+     * @return the MQTT 3 view of this publish.
+     */
+    @NotNull
+    public Mqtt3PublishView getMqtt3View() {
+        Mqtt3PublishView mqtt3View = this.mqtt3View;
+        if (mqtt3View == null) {
+            mqtt3View = new Mqtt3PublishView(this);
+            this.mqtt3View = mqtt3View;
+        }
+        return mqtt3View;
+    }
+
+    @NotNull
+    public MqttPublish withMessageExpiryInterval(final long messageExpiryInterval) {
+        if (messageExpiryInterval == this.messageExpiryInterval) {
+            return this;
+        }
+        return new MqttPublish(topic, payload, qos, isRetain, messageExpiryInterval, payloadFormatIndicator,
+                contentType, responseTopic, correlationData, topicAliasUsage, getUserProperties());
+    }
+
     public MqttStatefulPublish createStateful(
             final int packetIdentifier, final boolean isDup, final int topicAlias, final boolean isNewTopicAlias,
             @NotNull final ImmutableIntArray subscriptionIdentifiers) {
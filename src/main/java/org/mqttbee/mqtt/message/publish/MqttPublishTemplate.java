@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.message.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishTemplate;
+import org.mqttbee.util.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Silvio Giebl
+ */
+public class MqttPublishTemplate implements Mqtt5PublishTemplate {
+
+    private final MqttPublish prototype;
+    private volatile byte[] encodedPrefix;
+
+    public MqttPublishTemplate(@NotNull final MqttPublish prototype) {
+        this.prototype = prototype;
+    }
+
+    @NotNull
+    @Override
+    public MqttPublish publish(@Nullable final byte[] payload) {
+        return new MqttPublish(this, ByteBufferUtil.wrap(payload));
+    }
+
+    @NotNull
+    @Override
+    public MqttPublish publish(@Nullable final ByteBuffer payload) {
+        return new MqttPublish(this, ByteBufferUtil.slice(payload));
+    }
+
+    /**
+     * @return the publish this template was created from, its payload is not used.
+     */
+    @NotNull
+    public MqttPublish getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * @return the encoded prefix (Topic Name followed by the properties without Topic Alias and Subscription
+     *         Identifiers) of the publishes created from this template or null if it was not encoded yet.
+     */
+    @Nullable
+    public byte[] getRawEncodedPrefix() {
+        return encodedPrefix;
+    }
+
+    /**
+     * Caches the encoded prefix of the publishes created from this template. The field is volatile, so the contents
+     * of the array are visible to encoders on other event loops. The array must not be modified after it was set. As
+     * every encoder invocation encodes the same prefix, concurrent first calls may each set their own array and only
+     * one of them is kept.
+     *
+     * @param encodedPrefix the encoded Topic Name followed by the properties (without Topic Alias and Subscription
+     *                      Identifiers).
+     */
+    public void setEncodedPrefix(@NotNull final byte[] encodedPrefix) {
+        this.encodedPrefix = encodedPrefix;
+    }
+
+}
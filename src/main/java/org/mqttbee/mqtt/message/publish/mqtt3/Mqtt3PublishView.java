@@ -44,7 +44,7 @@ import java.util.Optional;
 public class Mqtt3PublishView implements Mqtt3Publish {
 
     @NotNull
-    public static final Function<Mqtt3Publish, Mqtt5Publish> DELEGATE_MAPPER = Mqtt3PublishView::delegate;
+    public static final Function<Mqtt3Publish, MqttPublish> DELEGATE_MAPPER = Mqtt3PublishView::delegate;
     @NotNull
     public static final Function<Mqtt5Publish, Mqtt3Publish> MAPPER = Mqtt3PublishView::of;
 
@@ -75,22 +75,27 @@ public class Mqtt3PublishView implements Mqtt3Publish {
             @NotNull final MqttTopicImpl topic, @Nullable final ByteBuffer payload, @NotNull final MqttQos qos,
             final boolean isRetain) {
 
-        return new Mqtt3PublishView(delegate(topic, payload, qos, isRetain));
+        return delegate(topic, payload, qos, isRetain).getMqtt3View();
     }
 
     @NotNull
     private static Mqtt3PublishView of(@NotNull final Mqtt5Publish publish) {
-        return new Mqtt3PublishView(MustNotBeImplementedUtil.checkNotImplemented(publish, MqttPublish.class));
+        return MustNotBeImplementedUtil.checkNotImplemented(publish, MqttPublish.class).getMqtt3View();
     }
 
     @NotNull
     public static Mqtt3PublishView of(@NotNull final MqttPublish publish) {
-        return new Mqtt3PublishView(publish);
+        return publish.getMqtt3View();
     }
 
     private final MqttPublish delegate;
 
-    private Mqtt3PublishView(@NotNull final MqttPublish delegate) {
+    /**
+     * Use {@link MqttPublish#getMqtt3View()} instead, which reuses the view of a publish.
+     *
+     * @param delegate the publish to view.
+     */
+    public Mqtt3PublishView(@NotNull final MqttPublish delegate) {
         this.delegate = delegate;
     }
 
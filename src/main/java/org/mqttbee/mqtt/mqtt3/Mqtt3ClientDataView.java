@@ -18,8 +18,11 @@
 package org.mqttbee.mqtt.mqtt3;
 
 import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttAckLatencies;
+import org.mqttbee.api.mqtt.MqttClientConnectStrategy;
 import org.mqttbee.api.mqtt.MqttClientExecutorConfig;
 import org.mqttbee.api.mqtt.MqttClientSslConfig;
+import org.mqttbee.api.mqtt.MqttClientTransportConfig;
 import org.mqttbee.api.mqtt.MqttWebSocketConfig;
 import org.mqttbee.api.mqtt.datatypes.MqttClientIdentifier;
 import org.mqttbee.api.mqtt.mqtt3.Mqtt3ClientConnectionData;
@@ -57,6 +60,23 @@ public class Mqtt3ClientDataView implements Mqtt3ClientData {
         return delegate.getServerPort();
     }
 
+    @Override
+    public boolean usesDomainSocket() {
+        return delegate.usesDomainSocket();
+    }
+
+    @NotNull
+    @Override
+    public Optional<String> getServerDomainSocketPath() {
+        return delegate.getServerDomainSocketPath();
+    }
+
+    @NotNull
+    @Override
+    public Optional<MqttClientConnectStrategy> getConnectStrategy() {
+        return delegate.getConnectStrategy();
+    }
+
     @Override
     public boolean usesSsl() {
         return delegate.usesSsl();
@@ -85,6 +105,18 @@ public class Mqtt3ClientDataView implements Mqtt3ClientData {
         return delegate.getExecutorConfig();
     }
 
+    @NotNull
+    @Override
+    public MqttClientTransportConfig getTransportConfig() {
+        return delegate.getTransportConfig();
+    }
+
+    @NotNull
+    @Override
+    public MqttAckLatencies getAckLatencies() {
+        return delegate.getAckLatencies();
+    }
+
     @Override
     public boolean isConnecting() {
         return delegate.isConnecting();
@@ -33,7 +33,6 @@ import org.mqttbee.api.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
 import org.mqttbee.api.mqtt.mqtt3.message.subscribe.suback.Mqtt3SubAck;
 import org.mqttbee.api.mqtt.mqtt3.message.unsubscribe.Mqtt3Unsubscribe;
 import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
-import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
 import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
 import org.mqttbee.mqtt.message.connect.connack.mqtt3.Mqtt3ConnAckView;
@@ -46,6 +45,7 @@ import org.mqttbee.mqtt.message.subscribe.suback.mqtt3.Mqtt3SubAckView;
 import org.mqttbee.mqtt.message.unsubscribe.mqtt3.Mqtt3UnsubscribeView;
 import org.mqttbee.mqtt.mqtt3.exceptions.Mqtt3ExceptionFactory;
 import org.mqttbee.mqtt.mqtt5.Mqtt5ClientImpl;
+import org.mqttbee.rx.FlowableMapWithError;
 import org.mqttbee.rx.FlowableWithSingle;
 import org.mqttbee.util.MustNotBeImplementedUtil;
 
@@ -64,12 +64,6 @@ public class Mqtt3ClientView implements Mqtt3Client {
     private static final Function<Throwable, Single<Mqtt5SubAck>> EXCEPTION_MAPPER_SINGLE_SUBACK =
             e -> Single.error(Mqtt3ExceptionFactory.map(e));
 
-    private static final Function<Throwable, Flowable<Mqtt5Publish>> EXCEPTION_MAPPER_FLOWABLE_PUBLISH =
-            e -> Flowable.error(Mqtt3ExceptionFactory.map(e));
-
-    private static final Function<Throwable, Flowable<Mqtt5PublishResult>> EXCEPTION_MAPPER_FLOWABLE_PUBLISH_RESULT =
-            e -> Flowable.error(Mqtt3ExceptionFactory.map(e));
-
     private final Mqtt5ClientImpl delegate;
 
     public Mqtt3ClientView(@NotNull final Mqtt5ClientImpl delegate) {
@@ -109,9 +103,8 @@ public class Mqtt3ClientView implements Mqtt3Client {
     @NotNull
     @Override
     public Flowable<Mqtt3Publish> publishes(@NotNull final MqttGlobalPublishFlowType type) {
-        return delegate.publishes(type)
-                .onErrorResumeNext(EXCEPTION_MAPPER_FLOWABLE_PUBLISH)
-                .map(Mqtt3PublishView.MAPPER);
+        return new FlowableMapWithError<>(
+                delegate.publishes(type), Mqtt3PublishView.MAPPER, Mqtt3ExceptionFactory.MAPPER);
     }
 
     @NotNull
@@ -127,9 +120,10 @@ public class Mqtt3ClientView implements Mqtt3Client {
     @NotNull
     @Override
     public Flowable<Mqtt3PublishResult> publish(@NotNull final Flowable<Mqtt3Publish> publishFlowable) {
-        return delegate.publish(publishFlowable.map(Mqtt3PublishView.DELEGATE_MAPPER))
-                .onErrorResumeNext(EXCEPTION_MAPPER_FLOWABLE_PUBLISH_RESULT)
-                .map(Mqtt3PublishResultView.MAPPER);
+        final Flowable<Mqtt5PublishResult> publishResultFlowable =
+                delegate.publishChecked(publishFlowable.map(Mqtt3PublishView.DELEGATE_MAPPER));
+        return new FlowableMapWithError<>(
+                publishResultFlowable, Mqtt3PublishResultView.MAPPER, Mqtt3ExceptionFactory.MAPPER);
     }
 
     @NotNull
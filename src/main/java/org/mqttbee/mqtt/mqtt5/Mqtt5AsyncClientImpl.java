@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5AsyncClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5Connect;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.rx.RxFutureConverter;
+import org.mqttbee.util.MustNotBeImplementedUtil;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Async API of a {@link Mqtt5ClientImpl}.
+ * <p>
+ * Publishes and subscriptions bypass the reactive operators and the application scheduler and are handed directly to
+ * the flows of the channel. Connect, unsubscribe and disconnect are not on the hot path and reuse the reactive
+ * implementation.
+ *
+ * @author Silvio Giebl
+ */
+public class Mqtt5AsyncClientImpl implements Mqtt5AsyncClient {
+
+    private final Mqtt5ClientImpl delegate;
+    private final MqttClientData clientData;
+
+    public Mqtt5AsyncClientImpl(@NotNull final Mqtt5ClientImpl delegate) {
+        this.delegate = delegate;
+        clientData = delegate.getClientData();
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Mqtt5ConnAck> connect(@NotNull final Mqtt5Connect connect) {
+        return RxFutureConverter.toFuture(delegate.connect(connect));
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Mqtt5PublishResult> publish(@NotNull final Mqtt5Publish publish) {
+        final MqttPublish mqttPublish = MustNotBeImplementedUtil.checkNotImplemented(publish, MqttPublish.class);
+
+        final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+        if (connectPipeline != null) {
+            final CompletableFuture<Mqtt5PublishResult> deferredFuture = new CompletableFuture<>();
+            if (connectPipeline.defer(() -> publishNow(mqttPublish).whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    deferredFuture.complete(result);
+                } else {
+                    deferredFuture.completeExceptionally(throwable);
+                }
+            }))) {
+                return deferredFuture;
+            }
+        }
+        return publishNow(mqttPublish);
+    }
+
+    @NotNull
+    private CompletableFuture<Mqtt5PublishResult> publishNow(@NotNull final MqttPublish publish) {
+        final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+        if ((clientConnectionData == null) || (clientData.getRawServerConnectionData() == null)) {
+            final CompletableFuture<Mqtt5PublishResult> future = new CompletableFuture<>();
+            future.completeExceptionally(new NotConnectedException());
+            return future;
+        }
+        return ChannelComponent.get(clientConnectionData.getChannel()).asyncPublishFlowable().publish(publish);
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Mqtt5SubAck> subscribe(
+            @NotNull final Mqtt5Subscribe subscribe, @NotNull final Consumer<Mqtt5Publish> callback,
+            @NotNull final Executor executor) {
+
+        final MqttSubscribe mqttSubscribe =
+                MustNotBeImplementedUtil.checkNotImplemented(subscribe, MqttSubscribe.class);
+        Preconditions.checkNotNull(callback, "Callback must not be null.");
+        Preconditions.checkNotNull(executor, "Executor must not be null.");
+
+        final Mqtt5AsyncSubscriber subscriber = new Mqtt5AsyncSubscriber(callback, executor);
+        delegate.subscriptionFlowableUnscheduled(mqttSubscribe).subscribe(subscriber);
+        return subscriber.getSubAckFuture();
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Mqtt5UnsubAck> unsubscribe(@NotNull final Mqtt5Unsubscribe unsubscribe) {
+        return RxFutureConverter.toFuture(delegate.unsubscribe(unsubscribe));
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Void> disconnect(@NotNull final Mqtt5Disconnect disconnect) {
+        return RxFutureConverter.toFuture(delegate.disconnect(disconnect));
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5Client toReactive() {
+        return delegate;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientData getClientData() {
+        return clientData;
+    }
+
+}
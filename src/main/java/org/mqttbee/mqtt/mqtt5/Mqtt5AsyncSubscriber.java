@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import org.jctools.queues.MpscUnboundedArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Subscriber of a subscription flow for the async API. It completes a future with the SubAck message and hands the
+ * Publish messages to a callback.
+ * <p>
+ * The callback is called one Publish message after another on the given executor. Publish messages which arrive while
+ * the callback is running are queued and handled in the same execution, so a busy subscription only needs one task.
+ * The subscription is not backpressured, as a callback can not signal demand.
+ *
+ * @author Silvio Giebl
+ */
+class Mqtt5AsyncSubscriber implements Subscriber<Mqtt5SubscribeResult>, Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Mqtt5AsyncSubscriber.class);
+
+    private final CompletableFuture<Mqtt5SubAck> subAckFuture = new CompletableFuture<>();
+    private final Consumer<Mqtt5Publish> callback;
+    private final Executor executor;
+    private final MpscUnboundedArrayQueue<Mqtt5Publish> queue = new MpscUnboundedArrayQueue<>(64);
+    private final AtomicInteger wip = new AtomicInteger();
+
+    Mqtt5AsyncSubscriber(@NotNull final Consumer<Mqtt5Publish> callback, @NotNull final Executor executor) {
+        this.callback = callback;
+        this.executor = executor;
+    }
+
+    @NotNull
+    CompletableFuture<Mqtt5SubAck> getSubAckFuture() {
+        return subAckFuture;
+    }
+
+    @Override
+    public void onSubscribe(final Subscription s) {
+        s.request(Long.MAX_VALUE);
+    }
+
+    @CallByThread("Netty EventLoop")
+    @Override
+    public void onNext(final Mqtt5SubscribeResult result) {
+        if (result instanceof Mqtt5Publish) {
+            queue.offer((Mqtt5Publish) result);
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        } else {
+            subAckFuture.complete((Mqtt5SubAck) result);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+        if (!subAckFuture.completeExceptionally(t)) {
+            LOGGER.debug("Async subscription ended with an error.", t);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    @Override
+    public void run() {
+        int missed = 1;
+        do {
+            Mqtt5Publish publish;
+            while ((publish = queue.poll()) != null) {
+                try {
+                    callback.accept(publish);
+                } catch (final Throwable t) {
+                    LOGGER.error("Callback of an async subscription threw an exception.", t);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+}
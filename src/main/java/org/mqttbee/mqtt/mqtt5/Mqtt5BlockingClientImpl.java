@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import com.google.common.base.Preconditions;
+import io.reactivex.exceptions.Exceptions;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5AsyncClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5BlockingClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5Connect;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.handler.publish.MqttGlobalIncomingPublishFlowable;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Blocking API of a {@link Mqtt5ClientImpl}.
+ * <p>
+ * Publishes are handed to the flows of the channel like by the async API and the calling thread waits for the result.
+ * Incoming publishes are not observed on the application scheduler but handed directly from the Netty event loop to
+ * the receiving threads. All waits park the calling thread without holding a monitor, so virtual threads are not
+ * pinned to their carrier thread.
+ *
+ * @author Silvio Giebl
+ */
+public class Mqtt5BlockingClientImpl implements Mqtt5BlockingClient {
+
+    private final Mqtt5ClientImpl delegate;
+    private final Mqtt5AsyncClientImpl asyncDelegate;
+    private final MqttClientData clientData;
+
+    public Mqtt5BlockingClientImpl(@NotNull final Mqtt5ClientImpl delegate) {
+        this.delegate = delegate;
+        asyncDelegate = new Mqtt5AsyncClientImpl(delegate);
+        clientData = delegate.getClientData();
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5ConnAck connect(@NotNull final Mqtt5Connect connect) {
+        return delegate.connect(connect).blockingGet();
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5PublishResult publish(@NotNull final Mqtt5Publish publish) {
+        try {
+            return asyncDelegate.publish(publish).join();
+        } catch (final CompletionException e) {
+            throw Exceptions.propagate(e.getCause());
+        }
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5SubAck subscribe(@NotNull final Mqtt5Subscribe subscribe) {
+        return delegate.subscribe(subscribe).blockingGet();
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5Publishes publishes(@NotNull final MqttGlobalPublishFlowType type) {
+        Preconditions.checkNotNull(type, "Global publish flow type must not be null.");
+
+        final Mqtt5BlockingPublishes publishes = new Mqtt5BlockingPublishes();
+        new MqttGlobalIncomingPublishFlowable(type, clientData).subscribe(publishes);
+        return publishes;
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5UnsubAck unsubscribe(@NotNull final Mqtt5Unsubscribe unsubscribe) {
+        return delegate.unsubscribe(unsubscribe).blockingGet();
+    }
+
+    @Override
+    public void disconnect(@NotNull final Mqtt5Disconnect disconnect) {
+        delegate.disconnect(disconnect).blockingAwait();
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5AsyncClient toAsync() {
+        return asyncDelegate;
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5Client toReactive() {
+        return delegate;
+    }
+
+    @NotNull
+    @Override
+    public MqttClientData getClientData() {
+        return clientData;
+    }
+
+}
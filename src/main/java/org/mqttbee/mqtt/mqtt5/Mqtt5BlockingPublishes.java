@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.annotations.CallByThread;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5BlockingClient;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.util.ThreadUtil;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Subscriber of a global incoming publish flow for the blocking API.
+ * <p>
+ * The Publish messages are handed from the Netty event loop to the receiving threads via a lock-free dual queue.
+ * Receiving threads which wait for a message park without holding a monitor, so virtual threads are not pinned. Only a
+ * window of messages is requested, the window is replenished in batches of half its size, so the event loop is not
+ * signalled for every received message.
+ * <p>
+ * Platform threads spin shortly before they park, as an incoming message often follows soon after the last one and
+ * parking and unparking a platform thread costs more than the spin. Virtual threads park right away, as spinning would
+ * occupy their carrier thread.
+ *
+ * @author Silvio Giebl
+ */
+class Mqtt5BlockingPublishes implements Subscriber<Mqtt5Publish>, Mqtt5BlockingClient.Mqtt5Publishes {
+
+    private static final int WINDOW = 64;
+    private static final int REPLENISH = WINDOW / 2;
+    private static final int SPINS = 64;
+
+    private static final Object TERMINATED = new Object();
+
+    private final LinkedTransferQueue<Object> queue = new LinkedTransferQueue<>();
+    private final AtomicReference<Subscription> subscription = new AtomicReference<>();
+    private final AtomicInteger consumed = new AtomicInteger();
+    private final AtomicReference<Throwable> terminal = new AtomicReference<>();
+
+    @Override
+    public void onSubscribe(final Subscription s) {
+        if (SubscriptionHelper.setOnce(subscription, s)) {
+            s.request(WINDOW);
+        }
+    }
+
+    @CallByThread("Netty EventLoop")
+    @Override
+    public void onNext(final Mqtt5Publish publish) {
+        queue.offer(publish);
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+        terminate(t);
+    }
+
+    @Override
+    public void onComplete() {
+        terminate(new NoSuchElementException("No more publishes will be received."));
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5Publish receive() throws InterruptedException {
+        Object next = spin();
+        if (next == null) {
+            next = queue.take();
+        }
+        return handle(next);
+    }
+
+    @NotNull
+    @Override
+    public Optional<Mqtt5Publish> receive(final long timeout, @NotNull final TimeUnit timeUnit)
+            throws InterruptedException {
+
+        Object next = spin();
+        if (next == null) {
+            next = queue.poll(timeout, timeUnit);
+            if (next == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(handle(next));
+    }
+
+    @NotNull
+    @Override
+    public Optional<Mqtt5Publish> receiveNow() {
+        final Object next = queue.poll();
+        if (next == null) {
+            return Optional.empty();
+        }
+        return Optional.of(handle(next));
+    }
+
+    @Override
+    public void close() {
+        SubscriptionHelper.cancel(subscription);
+        terminate(new CancellationException("Publishes were closed."));
+        queue.clear();
+        queue.offer(TERMINATED);
+    }
+
+    @Nullable
+    private Object spin() {
+        if (ThreadUtil.isCurrentThreadVirtual()) {
+            return null;
+        }
+        for (int i = 0; i < SPINS; i++) {
+            final Object next = queue.poll();
+            if (next != null) {
+                return next;
+            }
+            ThreadUtil.onSpinWait();
+        }
+        return null;
+    }
+
+    @NotNull
+    private Mqtt5Publish handle(@NotNull final Object next) {
+        if (next == TERMINATED) {
+            queue.offer(TERMINATED); // wakes up the next waiting thread
+            throw Exceptions.propagate(terminal.get());
+        }
+        if (consumed.incrementAndGet() % REPLENISH == 0) {
+            final Subscription subscription = this.subscription.get();
+            if (subscription != null) {
+                subscription.request(REPLENISH);
+            }
+        }
+        return (Mqtt5Publish) next;
+    }
+
+    private void terminate(@NotNull final Throwable t) {
+        if (terminal.compareAndSet(null, t)) {
+            queue.offer(TERMINATED);
+        }
+    }
+
+}
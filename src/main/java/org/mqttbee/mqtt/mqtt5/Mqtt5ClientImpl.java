@@ -19,11 +19,17 @@ package org.mqttbee.mqtt.mqtt5;
 
 import com.google.common.base.Preconditions;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
 import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.MqttClientReconnectStatistics;
 import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
 import org.mqttbee.api.mqtt.exceptions.AlreadyConnectedException;
 import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
@@ -39,12 +45,18 @@ import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
 import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
 import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
 import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
 import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttClientGaugesImpl;
+import org.mqttbee.mqtt.MqttClientReconnectConfigImpl;
+import org.mqttbee.mqtt.advanced.MqttAdvancedClientData;
 import org.mqttbee.mqtt.handler.MqttChannelInitializer;
 import org.mqttbee.mqtt.handler.auth.MqttReAuthEvent;
+import org.mqttbee.mqtt.handler.connect.MqttConnectPipeline;
 import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectUtil;
 import org.mqttbee.mqtt.handler.publish.MqttGlobalIncomingPublishFlowable;
 import org.mqttbee.mqtt.handler.publish.MqttIncomingAckFlowable;
+import org.mqttbee.mqtt.handler.publish.MqttSessionSubscriptionFlowable;
 import org.mqttbee.mqtt.handler.publish.MqttSubscriptionFlowable;
 import org.mqttbee.mqtt.handler.subscribe.MqttSubAckSingle;
 import org.mqttbee.mqtt.handler.subscribe.MqttUnsubAckSingle;
@@ -54,10 +66,19 @@ import org.mqttbee.mqtt.message.disconnect.MqttDisconnect;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
 import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
 import org.mqttbee.mqtt.message.unsubscribe.MqttUnsubscribe;
+import org.mqttbee.mqtt.netty.NettyBootstrap;
+import org.mqttbee.mqtt.netty.NettyConnectRace;
+import org.mqttbee.mqtt.netty.NettyEventLoopScheduler;
+import org.mqttbee.mqtt.netty.NettyServerAddressLatencies;
 import org.mqttbee.rx.FlowableWithSingle;
 import org.mqttbee.rx.FlowableWithSingleSplit;
 import org.mqttbee.util.MustNotBeImplementedUtil;
 
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * @author Silvio Giebl
  */
@@ -67,9 +88,24 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
             publish -> MustNotBeImplementedUtil.checkNotImplemented(publish, MqttPublish.class);
 
     private final MqttClientData clientData;
+    private final Scheduler applicationScheduler;
+    private final MqttReconnector reconnector;
+    private final NettyServerAddressLatencies serverAddressLatencies;
 
     public Mqtt5ClientImpl(@NotNull final MqttClientData clientData) {
+        this(clientData, null);
+    }
+
+    public Mqtt5ClientImpl(
+            @NotNull final MqttClientData clientData, @Nullable final MqttClientReconnectConfigImpl reconnectConfig) {
+
         this.clientData = clientData;
+        applicationScheduler = clientData.getExecutorConfig().runsApplicationOnEventLoop() ?
+                new NettyEventLoopScheduler(clientData) : clientData.getExecutorConfig().getApplicationScheduler();
+        reconnector = (reconnectConfig == null) ? null : new MqttReconnector(this, reconnectConfig);
+        serverAddressLatencies =
+                (clientData.getRawConnectStrategy() == null) ? null : new NettyServerAddressLatencies();
+        clientData.getMetrics().bindGauges(new MqttClientGaugesImpl(clientData));
     }
 
     @NotNull
@@ -77,6 +113,22 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
     public Single<Mqtt5ConnAck> connect(@NotNull final Mqtt5Connect connect) {
         final MqttConnect mqttConnect = MustNotBeImplementedUtil.checkNotImplemented(connect, MqttConnect.class);
 
+        return connectUnscheduled(mqttConnect).doOnSuccess(connAck -> {
+            if (reconnector != null) {
+                reconnector.onConnected(mqttConnect, connAck);
+            }
+        }).observeOn(applicationScheduler);
+    }
+
+    /**
+     * Connects without observing the result on the application scheduler. The result is emitted on the Netty event
+     * loop if the connect succeeds.
+     *
+     * @param mqttConnect the CONNECT message.
+     * @return the Single emitting the CONNACK message.
+     */
+    @NotNull
+    Single<Mqtt5ConnAck> connectUnscheduled(@NotNull final MqttConnect mqttConnect) {
         return Single.<Mqtt5ConnAck>create(connAckEmitter -> {
             if (!clientData.setConnecting(true)) {
                 connAckEmitter.onError(new AlreadyConnectedException(true));
@@ -88,19 +140,54 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
                 return;
             }
 
-            final Bootstrap bootstrap =
-                    MqttBeeComponent.INSTANCE.nettyBootstrap().bootstrap(clientData.getExecutorConfig());
+            final MqttAdvancedClientData advancedClientData = clientData.getRawAdvancedClientData();
+            if ((advancedClientData != null) && advancedClientData.usesPipelinedConnect() &&
+                    (mqttConnect.getRawEnhancedAuthProvider() == null)) {
+                clientData.setConnectPipeline(new MqttConnectPipeline());
+            }
 
-            bootstrap.handler(new MqttChannelInitializer(mqttConnect, connAckEmitter, clientData));
+            final NettyBootstrap nettyBootstrap = MqttBeeComponent.INSTANCE.nettyBootstrap();
+            final String domainSocketPath = clientData.getRawServerDomainSocketPath();
+            final Bootstrap bootstrap = (domainSocketPath == null) ?
+                    nettyBootstrap.bootstrap(clientData.getExecutorConfig(), clientData.getTransportConfig()) :
+                    nettyBootstrap.bootstrapDomainSocket(
+                            clientData.getExecutorConfig(), clientData.getTransportConfig());
 
-            bootstrap.connect(clientData.getServerHost(), clientData.getServerPort()).addListener(future -> {
+            final MqttChannelInitializer channelInitializer =
+                    new MqttChannelInitializer(mqttConnect, connAckEmitter, clientData);
+            final MqttClientConnectStrategyImpl connectStrategy = clientData.getRawConnectStrategy();
+            if ((domainSocketPath == null) && (connectStrategy != null)) {
+                // resolving the candidates blocks, so neither the caller nor an event loop must wait for it
+                Schedulers.io().scheduleDirect(() -> {
+                    final List<InetSocketAddress> addresses;
+                    try {
+                        addresses = serverAddressLatencies.sort(NettyConnectRace.candidates(
+                                clientData.getServerHost(), clientData.getServerPort(), connectStrategy));
+                    } catch (final UnknownHostException e) {
+                        connAckEmitter.onError(e);
+                        return;
+                    }
+                    new NettyConnectRace(bootstrap, addresses, connectStrategy.getRawAttemptDelayNanos(),
+                            clientData.getRawSslConfig(), serverAddressLatencies,
+                            channelInitializer::initConnectedChannel, connAckEmitter::onError).start();
+                });
+                return;
+            }
+            bootstrap.handler(channelInitializer);
+
+            final ChannelFuture connectFuture = (domainSocketPath == null) ?
+                    bootstrap.connect(clientData.getServerHost(), clientData.getServerPort()) :
+                    bootstrap.connect(new DomainSocketAddress(domainSocketPath));
+            connectFuture.addListener(future -> {
                 if (!future.isSuccess()) {
                     connAckEmitter.onError(future.cause());
                 }
             });
         }).doOnSuccess(connAck -> {
+            clientData.setConnectPipeline(null);
             clientData.setConnected(true);
             clientData.setConnecting(false);
+            clientData.getMetrics().onConnected();
 
             final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
             assert clientConnectionData != null;
@@ -109,15 +196,23 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
                 clientData.setClientConnectionData(null);
                 clientData.setServerConnectionData(null);
                 clientData.setConnected(false);
+                if (reconnector != null) {
+                    reconnector.onConnectionLost();
+                }
             });
         }).doOnError(throwable -> {
             if (!(throwable instanceof AlreadyConnectedException)) {
+                final MqttConnectPipeline connectPipeline = clientData.getRawConnectPipeline();
+                clientData.setConnectPipeline(null);
                 MqttBeeComponent.INSTANCE.nettyBootstrap().free(clientData.getExecutorConfig());
                 clientData.setClientConnectionData(null);
                 clientData.setServerConnectionData(null);
                 clientData.setConnecting(false);
+                if (connectPipeline != null) {
+                    connectPipeline.open(); // deferred subscriptions and publishes fail as not connected
+                }
             }
-        }).observeOn(clientData.getExecutorConfig().getApplicationScheduler());
+        });
     }
 
     @NotNull
@@ -126,8 +221,7 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
         final MqttSubscribe mqttSubscribe =
                 MustNotBeImplementedUtil.checkNotImplemented(subscribe, MqttSubscribe.class);
 
-        return new MqttSubAckSingle(mqttSubscribe, clientData).observeOn(
-                clientData.getExecutorConfig().getApplicationScheduler());
+        return new MqttSubAckSingle(mqttSubscribe, clientData).observeOn(applicationScheduler);
     }
 
     @NotNull
@@ -137,18 +231,45 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
                 MustNotBeImplementedUtil.checkNotImplemented(subscribe, MqttSubscribe.class);
 
         final Flowable<Mqtt5SubscribeResult> subscriptionFlowable =
-                new MqttSubscriptionFlowable(mqttSubscribe, clientData).observeOn(
-                        clientData.getExecutorConfig().getApplicationScheduler());
+                observeIncomingPublishes(subscriptionFlowableUnscheduled(mqttSubscribe));
         return new FlowableWithSingleSplit<>(subscriptionFlowable, Mqtt5SubAck.class, Mqtt5Publish.class);
     }
 
+    /**
+     * @param mqttSubscribe the SUBSCRIBE message.
+     * @return the flow of the SubAck and the matching Publish messages, which survives reconnects if automatic
+     *         reconnect is enabled. It is not observed on the application scheduler.
+     */
+    @NotNull
+    Flowable<Mqtt5SubscribeResult> subscriptionFlowableUnscheduled(@NotNull final MqttSubscribe mqttSubscribe) {
+        if (reconnector == null) {
+            return new MqttSubscriptionFlowable(mqttSubscribe, clientData);
+        }
+        return new MqttSessionSubscriptionFlowable(mqttSubscribe, clientData, reconnector.getSessionSubscriptions());
+    }
+
     @NotNull
     @Override
     public Flowable<Mqtt5Publish> publishes(@NotNull final MqttGlobalPublishFlowType type) {
         Preconditions.checkNotNull(type, "Global publish flow type must not be null.");
 
-        return new MqttGlobalIncomingPublishFlowable(type, clientData).observeOn(
-                clientData.getExecutorConfig().getApplicationScheduler());
+        return observeIncomingPublishes(new MqttGlobalIncomingPublishFlowable(type, clientData));
+    }
+
+    /**
+     * Observes a flow of incoming publishes on the application scheduler, or not at all if the callbacks are called
+     * inline on the Netty event loop.
+     *
+     * @param flowable the flow of incoming publishes.
+     * @param <T>      the type of the elements of the flow.
+     * @return the observed flow.
+     */
+    @NotNull
+    <T> Flowable<T> observeIncomingPublishes(@NotNull final Flowable<T> flowable) {
+        if (clientData.getExecutorConfig().runsApplicationInline()) {
+            return flowable;
+        }
+        return flowable.observeOn(applicationScheduler);
     }
 
     @NotNull
@@ -157,15 +278,31 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
         final MqttUnsubscribe mqttUnsubscribe =
                 MustNotBeImplementedUtil.checkNotImplemented(unsubscribe, MqttUnsubscribe.class);
 
-        return new MqttUnsubAckSingle(mqttUnsubscribe, clientData).observeOn(
-                clientData.getExecutorConfig().getApplicationScheduler());
+        final Single<Mqtt5UnsubAck> unsubAckSingle = new MqttUnsubAckSingle(mqttUnsubscribe, clientData);
+        if (reconnector == null) {
+            return unsubAckSingle.observeOn(applicationScheduler);
+        }
+        return unsubAckSingle.doOnSuccess(
+                unsubAck -> reconnector.getSessionSubscriptions().onUnsubscribe(mqttUnsubscribe))
+                .observeOn(applicationScheduler);
     }
 
     @NotNull
     @Override
     public Flowable<Mqtt5PublishResult> publish(@NotNull final Flowable<Mqtt5Publish> publishFlowable) {
-        return new MqttIncomingAckFlowable(publishFlowable.map(PUBLISH_MAPPER), clientData).observeOn(
-                clientData.getExecutorConfig().getApplicationScheduler());
+        return publishChecked(publishFlowable.map(PUBLISH_MAPPER));
+    }
+
+    /**
+     * Publishes messages which are already checked to be {@link MqttPublish}, e.g. the delegates of MQTT 3 views, so
+     * the flow is not mapped a second time.
+     *
+     * @param publishFlowable the flow of publishes.
+     * @return the flow of the results of the publishes, observed on the application scheduler.
+     */
+    @NotNull
+    public Flowable<Mqtt5PublishResult> publishChecked(@NotNull final Flowable<MqttPublish> publishFlowable) {
+        return new MqttIncomingAckFlowable(publishFlowable, clientData).observeOn(applicationScheduler);
     }
 
     @NotNull
@@ -178,7 +315,7 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
             } else {
                 emitter.onError(new NotConnectedException());
             }
-        }).observeOn(clientData.getExecutorConfig().getApplicationScheduler());
+        }).observeOn(applicationScheduler);
     }
 
     @NotNull
@@ -188,6 +325,9 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
                 MustNotBeImplementedUtil.checkNotImplemented(disconnect, MqttDisconnect.class);
 
         return Completable.create(emitter -> {
+            if (reconnector != null) {
+                reconnector.stop();
+            }
             final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
             if (clientConnectionData != null) {
                 MqttDisconnectUtil.disconnect(clientConnectionData.getChannel(), mqttDisconnect).addListener(future -> {
@@ -200,7 +340,13 @@ public class Mqtt5ClientImpl implements Mqtt5Client {
             } else {
                 emitter.onError(new NotConnectedException());
             }
-        }).observeOn(clientData.getExecutorConfig().getApplicationScheduler());
+        }).observeOn(applicationScheduler);
+    }
+
+    @NotNull
+    @Override
+    public Optional<MqttClientReconnectStatistics> getReconnectStatistics() {
+        return Optional.ofNullable(reconnector);
     }
 
     @NotNull
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import com.google.common.collect.ImmutableList;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Notification;
+import io.reactivex.Single;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientReconnectStatistics;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5ShardedClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5ShardedPublishRouting;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5ShardedSubscriptionRouting;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5Connect;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.api.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAckReasonCode;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.message.connect.MqttConnect;
+import org.mqttbee.mqtt.message.disconnect.MqttDisconnect;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.mqttbee.mqtt.message.subscribe.suback.MqttSubAck;
+import org.mqttbee.mqtt.message.unsubscribe.MqttUnsubscribe;
+import org.mqttbee.mqtt.message.unsubscribe.unsuback.MqttUnsubAck;
+import org.mqttbee.rx.FlowableWithSingle;
+import org.mqttbee.rx.FlowableWithSingleSplit;
+import org.mqttbee.util.MustNotBeImplementedUtil;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class Mqtt5ShardedClientImpl implements Mqtt5ShardedClient {
+
+    private final Mqtt5ClientImpl[] shards;
+    private final Mqtt5ShardedPublishRouting publishRouting;
+    private final Mqtt5ShardedSubscriptionRouting subscriptionRouting;
+    private final AtomicInteger nextPublishShard = new AtomicInteger();
+    /**
+     * The shard each Topic Filter was subscribed on successfully with {@link Mqtt5ShardedSubscriptionRouting#SPREAD},
+     * so that a Subscribe or Unsubscribe is routed to the same shard even if the Topic Filter was not the first one of
+     * its Subscribe.
+     */
+    private final ConcurrentHashMap<MqttTopicFilterImpl, Integer> subscriptionShards = new ConcurrentHashMap<>();
+
+    public Mqtt5ShardedClientImpl(
+            @NotNull final Mqtt5ClientImpl[] shards, @NotNull final Mqtt5ShardedPublishRouting publishRouting,
+            @NotNull final Mqtt5ShardedSubscriptionRouting subscriptionRouting) {
+
+        this.shards = shards;
+        this.publishRouting = publishRouting;
+        this.subscriptionRouting = subscriptionRouting;
+    }
+
+    @Override
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @NotNull
+    @Override
+    public Mqtt5Client getShard(final int index) {
+        return shards[index];
+    }
+
+    @NotNull
+    @Override
+    public Single<Mqtt5ConnAck> connect(@NotNull final Mqtt5Connect connect) {
+        final MqttConnect mqttConnect = MustNotBeImplementedUtil.checkNotImplemented(connect, MqttConnect.class);
+
+        // every shard reports its result, so that the shards which connected can be disconnected if one failed
+        final List<Single<Notification<Mqtt5ConnAck>>> connAcks = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            connAcks.add(shard.connect(mqttConnect)
+                    .map(Notification::createOnNext)
+                    .onErrorReturn(Notification::createOnError));
+        }
+        return Single.zip(connAcks, results -> results).flatMap(this::onShardsConnected);
+    }
+
+    /**
+     * Emits the ConnAck of the first shard if all shards connected. Otherwise the shards which connected are
+     * disconnected before the error of the first failed shard is emitted, so that the client can connect again.
+     */
+    @NotNull
+    private Single<Mqtt5ConnAck> onShardsConnected(@NotNull final Object[] results) {
+        Throwable error = null;
+        final List<Completable> disconnects = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            @SuppressWarnings("unchecked") final Notification<Mqtt5ConnAck> result =
+                    (Notification<Mqtt5ConnAck>) results[i];
+            if (result.isOnError()) {
+                if (error == null) {
+                    error = result.getError();
+                }
+            } else {
+                disconnects.add(shards[i].disconnect(Mqtt5Disconnect.builder().build()).onErrorComplete());
+            }
+        }
+        if (error == null) {
+            @SuppressWarnings("unchecked") final Notification<Mqtt5ConnAck> first =
+                    (Notification<Mqtt5ConnAck>) results[0];
+            return Single.just(first.getValue());
+        }
+        return Completable.merge(disconnects).andThen(Single.error(error));
+    }
+
+    @NotNull
+    @Override
+    public Single<Mqtt5SubAck> subscribe(@NotNull final Mqtt5Subscribe subscribe) {
+        final MqttSubscribe mqttSubscribe =
+                MustNotBeImplementedUtil.checkNotImplemented(subscribe, MqttSubscribe.class);
+
+        if (subscriptionRouting == Mqtt5ShardedSubscriptionRouting.SPREAD) {
+            return subscribeSpread(mqttSubscribe);
+        }
+        final List<Single<Mqtt5SubAck>> subAcks = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            subAcks.add(shard.subscribe(mqttSubscribe));
+        }
+        return Single.zip(subAcks, subAckArray -> (Mqtt5SubAck) subAckArray[0]);
+    }
+
+    @NotNull
+    @Override
+    public FlowableWithSingle<Mqtt5SubAck, Mqtt5Publish> subscribeWithStream(@NotNull final Mqtt5Subscribe subscribe) {
+        final MqttSubscribe mqttSubscribe =
+                MustNotBeImplementedUtil.checkNotImplemented(subscribe, MqttSubscribe.class);
+
+        if (subscriptionRouting == Mqtt5ShardedSubscriptionRouting.SPREAD) {
+            return subscribeWithStreamSpread(mqttSubscribe);
+        }
+        final List<Flowable<Mqtt5SubscribeResult>> subscriptionFlowables = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            subscriptionFlowables.add(shard.subscriptionFlowableUnscheduled(mqttSubscribe));
+        }
+        // only the first SubAck is emitted by the split, the SubAcks of the other shards are ignored
+        final Flowable<Mqtt5SubscribeResult> subscriptionFlowable =
+                shards[0].observeIncomingPublishes(Flowable.merge(subscriptionFlowables));
+        return new FlowableWithSingleSplit<>(subscriptionFlowable, Mqtt5SubAck.class, Mqtt5Publish.class);
+    }
+
+    @NotNull
+    @Override
+    public Flowable<Mqtt5Publish> publishes(@NotNull final MqttGlobalPublishFlowType type) {
+        final List<Flowable<Mqtt5Publish>> publishFlowables = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            publishFlowables.add(shard.publishes(type));
+        }
+        return Flowable.merge(publishFlowables);
+    }
+
+    @NotNull
+    @Override
+    public Single<Mqtt5UnsubAck> unsubscribe(@NotNull final Mqtt5Unsubscribe unsubscribe) {
+        final MqttUnsubscribe mqttUnsubscribe =
+                MustNotBeImplementedUtil.checkNotImplemented(unsubscribe, MqttUnsubscribe.class);
+
+        if (subscriptionRouting == Mqtt5ShardedSubscriptionRouting.SPREAD) {
+            return unsubscribeSpread(mqttUnsubscribe);
+        }
+        final List<Single<Mqtt5UnsubAck>> unsubAcks = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            unsubAcks.add(shard.unsubscribe(mqttUnsubscribe));
+        }
+        return Single.zip(unsubAcks, unsubAckArray -> (Mqtt5UnsubAck) unsubAckArray[0]);
+    }
+
+    @NotNull
+    @Override
+    public Flowable<Mqtt5PublishResult> publish(@NotNull final Flowable<Mqtt5Publish> publishFlowable) {
+        // every group is subscribed immediately as there are at most as many groups as shards
+        return publishFlowable.groupBy(this::publishShardIndex)
+                .flatMap(shardPublishFlowable -> shards[shardPublishFlowable.getKey()].publish(shardPublishFlowable),
+                        shards.length);
+    }
+
+    @NotNull
+    @Override
+    public Completable reauth() {
+        final List<Completable> reauths = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            reauths.add(shard.reauth());
+        }
+        return Completable.merge(reauths);
+    }
+
+    @NotNull
+    @Override
+    public Completable disconnect(@NotNull final Mqtt5Disconnect disconnect) {
+        final MqttDisconnect mqttDisconnect =
+                MustNotBeImplementedUtil.checkNotImplemented(disconnect, MqttDisconnect.class);
+
+        final List<Completable> disconnects = new ArrayList<>(shards.length);
+        for (final Mqtt5ClientImpl shard : shards) {
+            disconnects.add(shard.disconnect(mqttDisconnect));
+        }
+        return Completable.merge(disconnects);
+    }
+
+    /**
+     * @return empty, the reconnect statistics are kept per shard, see {@link #getShard(int)}.
+     */
+    @NotNull
+    @Override
+    public Optional<MqttClientReconnectStatistics> getReconnectStatistics() {
+        return Optional.empty();
+    }
+
+    @NotNull
+    @Override
+    public MqttClientData getClientData() {
+        return shards[0].getClientData();
+    }
+
+    /**
+     * Subscribes every Topic Filter on the shard it is already subscribed on, the new Topic Filters are subscribed on
+     * the shard of the first Topic Filter. If the Topic Filters are subscribed on different shards, the Subscribe is
+     * split and the Reason Codes of the SubAcks are combined in the order of the subscriptions.
+     */
+    @NotNull
+    private Single<Mqtt5SubAck> subscribeSpread(@NotNull final MqttSubscribe subscribe) {
+        final ShardSplit<MqttSubscription> split = splitSubscribe(subscribe);
+        if (split.shardOrder.length == 1) {
+            return subscribeOnShard(split.shardOrder[0], subscribe);
+        }
+        final List<Single<Mqtt5SubAck>> subAcks = new ArrayList<>(split.shardOrder.length);
+        for (int i = 0; i < split.shardOrder.length; i++) {
+            subAcks.add(subscribeOnShard(split.shardOrder[i],
+                    new MqttSubscribe(split.shardEntries.get(i), subscribe.getUserProperties())));
+        }
+        return Single.zip(subAcks, subAckArray -> combineSubAcks(subAckArray, split));
+    }
+
+    @NotNull
+    private Single<Mqtt5SubAck> subscribeOnShard(final int shard, @NotNull final MqttSubscribe subscribe) {
+        return shards[shard].subscribe(subscribe)
+                .doOnSuccess(subAck -> addSubscriptionShards(shard, subscribe, subAck));
+    }
+
+    /**
+     * Like {@link #subscribeSpread(MqttSubscribe)}, a split Subscribe emits one combined SubAck after the SubAcks of
+     * all shards were received.
+     */
+    @NotNull
+    private FlowableWithSingle<Mqtt5SubAck, Mqtt5Publish> subscribeWithStreamSpread(
+            @NotNull final MqttSubscribe subscribe) {
+
+        final ShardSplit<MqttSubscription> split = splitSubscribe(subscribe);
+        if (split.shardOrder.length == 1) {
+            final int shard = split.shardOrder[0];
+            return shards[shard].subscribeWithStream(subscribe).mapBoth(subAck -> {
+                addSubscriptionShards(shard, subscribe, subAck);
+                return subAck;
+            }, publish -> publish);
+        }
+        final Flowable<Mqtt5SubscribeResult> subscriptionFlowable = Flowable.defer(() -> {
+            final Object[] subAcks = new Object[split.shardOrder.length];
+            final AtomicInteger missingSubAcks = new AtomicInteger(subAcks.length);
+            final List<Flowable<Mqtt5SubscribeResult>> subscriptionFlowables = new ArrayList<>(subAcks.length);
+            for (int i = 0; i < subAcks.length; i++) {
+                final int index = i;
+                final int shard = split.shardOrder[i];
+                final MqttSubscribe shardSubscribe =
+                        new MqttSubscribe(split.shardEntries.get(i), subscribe.getUserProperties());
+                subscriptionFlowables.add(shards[shard].subscriptionFlowableUnscheduled(shardSubscribe)
+                        .filter(result -> {
+                            if (!(result instanceof Mqtt5SubAck)) {
+                                return true;
+                            }
+                            addSubscriptionShards(shard, shardSubscribe, (Mqtt5SubAck) result);
+                            subAcks[index] = result;
+                            // only the last SubAck is emitted, combined with the others
+                            return missingSubAcks.decrementAndGet() == 0;
+                        })
+                        .map(result -> (result instanceof Mqtt5SubAck) ? combineSubAcks(subAcks, split) : result));
+            }
+            return Flowable.merge(subscriptionFlowables);
+        });
+        return new FlowableWithSingleSplit<>(shards[0].observeIncomingPublishes(subscriptionFlowable),
+                Mqtt5SubAck.class, Mqtt5Publish.class);
+    }
+
+    /**
+     * Unsubscribes every Topic Filter on the shard it was subscribed on. If the Topic Filters were subscribed on
+     * different shards, the Unsubscribe is split and the Reason Codes of the UnsubAcks are combined in the order of the
+     * Topic Filters.
+     */
+    @NotNull
+    private Single<Mqtt5UnsubAck> unsubscribeSpread(@NotNull final MqttUnsubscribe unsubscribe) {
+        final ImmutableList<MqttTopicFilterImpl> topicFilters = unsubscribe.getTopicFilters();
+        final int[] topicFilterShards = new int[topicFilters.size()];
+        for (int i = 0; i < topicFilters.size(); i++) {
+            final MqttTopicFilterImpl topicFilter = topicFilters.get(i);
+            final Integer subscriptionShard = subscriptionShards.get(topicFilter);
+            topicFilterShards[i] = (subscriptionShard == null) ? shardIndex(topicFilter.hashCode()) : subscriptionShard;
+        }
+        final ShardSplit<MqttTopicFilterImpl> split = new ShardSplit<>(topicFilters, topicFilterShards);
+
+        if (split.shardOrder.length == 1) {
+            return shards[split.shardOrder[0]].unsubscribe(unsubscribe)
+                    .doOnSuccess(unsubAck -> removeSubscriptionShards(topicFilters, topicFilterShards));
+        }
+        final List<Single<Mqtt5UnsubAck>> unsubAcks = new ArrayList<>(split.shardOrder.length);
+        for (int i = 0; i < split.shardOrder.length; i++) {
+            unsubAcks.add(shards[split.shardOrder[i]].unsubscribe(
+                    new MqttUnsubscribe(split.shardEntries.get(i), unsubscribe.getUserProperties())));
+        }
+        return Single.zip(unsubAcks, unsubAckArray -> {
+            removeSubscriptionShards(topicFilters, topicFilterShards);
+            return combineUnsubAcks(unsubAckArray, split);
+        });
+    }
+
+    /**
+     * Chooses the shard of every subscription of a Subscribe: the shard a Topic Filter is already subscribed on, so
+     * that it is not subscribed twice, otherwise the shard of the first Topic Filter (by its hash if it is new).
+     */
+    @NotNull
+    private ShardSplit<MqttSubscription> splitSubscribe(@NotNull final MqttSubscribe subscribe) {
+        final ImmutableList<MqttSubscription> subscriptions = subscribe.getSubscriptions();
+        final MqttTopicFilterImpl firstTopicFilter = subscriptions.get(0).getTopicFilter();
+        final Integer firstShard = subscriptionShards.get(firstTopicFilter);
+        final int newShard = (firstShard == null) ? shardIndex(firstTopicFilter.hashCode()) : firstShard;
+        final int[] subscriptionShardIndices = new int[subscriptions.size()];
+        for (int i = 0; i < subscriptions.size(); i++) {
+            final Integer subscriptionShard = subscriptionShards.get(subscriptions.get(i).getTopicFilter());
+            subscriptionShardIndices[i] = (subscriptionShard == null) ? newShard : subscriptionShard;
+        }
+        return new ShardSplit<>(subscriptions, subscriptionShardIndices);
+    }
+
+    /**
+     * Records the shard of the Topic Filters which were subscribed successfully.
+     */
+    private void addSubscriptionShards(
+            final int shard, @NotNull final MqttSubscribe subscribe, @NotNull final Mqtt5SubAck subAck) {
+
+        final ImmutableList<MqttSubscription> subscriptions = subscribe.getSubscriptions();
+        final ImmutableList<Mqtt5SubAckReasonCode> reasonCodes = subAck.getReasonCodes();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            if ((i < reasonCodes.size()) && !reasonCodes.get(i).isError()) {
+                subscriptionShards.put(subscriptions.get(i).getTopicFilter(), shard);
+            }
+        }
+    }
+
+    private void removeSubscriptionShards(
+            @NotNull final ImmutableList<MqttTopicFilterImpl> topicFilters, @NotNull final int[] topicFilterShards) {
+
+        for (int i = 0; i < topicFilters.size(); i++) {
+            subscriptionShards.remove(topicFilters.get(i), topicFilterShards[i]);
+        }
+    }
+
+    @NotNull
+    private static MqttSubAck combineSubAcks(
+            @NotNull final Object[] subAcks, @NotNull final ShardSplit<MqttSubscription> split) {
+
+        final List<ImmutableList<Mqtt5SubAckReasonCode>> reasonCodes = new ArrayList<>(subAcks.length);
+        for (final Object subAck : subAcks) {
+            reasonCodes.add(((MqttSubAck) subAck).getReasonCodes());
+        }
+        final MqttSubAck first = (MqttSubAck) subAcks[0];
+        return new MqttSubAck(first.getPacketIdentifier(), split.combine(reasonCodes), first.getRawReasonString(),
+                first.getUserProperties());
+    }
+
+    @NotNull
+    private static MqttUnsubAck combineUnsubAcks(
+            @NotNull final Object[] unsubAcks, @NotNull final ShardSplit<MqttTopicFilterImpl> split) {
+
+        final List<ImmutableList<Mqtt5UnsubAckReasonCode>> reasonCodes = new ArrayList<>(unsubAcks.length);
+        for (final Object unsubAck : unsubAcks) {
+            reasonCodes.add(((MqttUnsubAck) unsubAck).getReasonCodes());
+        }
+        final MqttUnsubAck first = (MqttUnsubAck) unsubAcks[0];
+        return new MqttUnsubAck(first.getPacketIdentifier(), split.combine(reasonCodes), first.getRawReasonString(),
+                first.getUserProperties());
+    }
+
+    private int publishShardIndex(@NotNull final Mqtt5Publish publish) {
+        if (publishRouting == Mqtt5ShardedPublishRouting.ROUND_ROBIN) {
+            return shardIndex(nextPublishShard.getAndIncrement());
+        }
+        return shardIndex(publish.getTopic().hashCode());
+    }
+
+    private int shardIndex(final int hash) {
+        return (hash & Integer.MAX_VALUE) % shards.length;
+    }
+
+    /**
+     * The entries of a Subscribe or Unsubscribe grouped by the shard they are sent to.
+     *
+     * @param <T> the type of the entries.
+     */
+    private static class ShardSplit<T> {
+
+        private final int[] entryShards;
+        private final int[] shardOrder;
+        private final List<ImmutableList<T>> shardEntries;
+
+        ShardSplit(@NotNull final List<T> entries, @NotNull final int[] entryShards) {
+            final Map<Integer, ImmutableList.Builder<T>> builders = new LinkedHashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                builders.computeIfAbsent(entryShards[i], shard -> ImmutableList.builder()).add(entries.get(i));
+            }
+            this.entryShards = entryShards;
+            shardOrder = new int[builders.size()];
+            shardEntries = new ArrayList<>(builders.size());
+            int index = 0;
+            for (final Map.Entry<Integer, ImmutableList.Builder<T>> entry : builders.entrySet()) {
+                shardOrder[index++] = entry.getKey();
+                shardEntries.add(entry.getValue().build());
+            }
+        }
+
+        /**
+         * Combines the Reason Codes of the acknowledgements of all shards in the order of the original entries.
+         *
+         * @param shardReasonCodes the Reason Codes of the shards in the order of {@link #shardOrder}.
+         * @param <R>              the type of the Reason Codes.
+         * @return the combined Reason Codes.
+         */
+        @NotNull
+        <R> ImmutableList<R> combine(@NotNull final List<ImmutableList<R>> shardReasonCodes) {
+            final int[] nextReasonCodes = new int[shardOrder.length];
+            final ImmutableList.Builder<R> reasonCodes = ImmutableList.builderWithExpectedSize(entryShards.length);
+            for (final int entryShard : entryShards) {
+                int shardIndex = 0;
+                while (shardOrder[shardIndex] != entryShard) {
+                    shardIndex++;
+                }
+                reasonCodes.add(shardReasonCodes.get(shardIndex).get(nextReasonCodes[shardIndex]++));
+            }
+            return reasonCodes.build();
+        }
+
+    }
+
+}
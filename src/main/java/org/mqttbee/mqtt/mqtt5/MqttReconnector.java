@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import io.reactivex.Completable;
+import io.reactivex.disposables.Disposable;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.MqttClientReconnectStatistics;
+import org.mqttbee.api.mqtt.exceptions.AlreadyConnectedException;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.mqtt.MqttClientReconnectConfigImpl;
+import org.mqttbee.mqtt.handler.publish.MqttSessionSubscriptions;
+import org.mqttbee.mqtt.message.connect.MqttConnect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Automatic reconnect of a {@link Mqtt5ClientImpl}.
+ * <p>
+ * After the application connected the client, every loss of the connection is recovered by connecting again with the
+ * same CONNECT message until the application disconnects. The attempts of one recovery run strictly one after another,
+ * the delay between them grows as configured by the {@link MqttClientReconnectConfigImpl}.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+class MqttReconnector implements MqttClientReconnectStatistics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MqttReconnector.class);
+
+    private final Mqtt5ClientImpl client;
+    private final MqttClientReconnectConfigImpl reconnectConfig;
+    private final MqttSessionSubscriptions sessionSubscriptions = new MqttSessionSubscriptions();
+
+    private volatile MqttConnect connect; // null if not connected by the application or disconnected by it
+    private volatile Disposable scheduledAttempt;
+    private volatile boolean reconnecting;
+    private long lostTime;
+    private int attempt;
+
+    private volatile long recoveredCount;
+    private volatile long failedAttemptCount;
+    private volatile long lastRecoveryTimeNanos;
+    private volatile long maxRecoveryTimeNanos;
+    private volatile long totalRecoveryTimeNanos;
+
+    MqttReconnector(
+            @NotNull final Mqtt5ClientImpl client, @NotNull final MqttClientReconnectConfigImpl reconnectConfig) {
+
+        this.client = client;
+        this.reconnectConfig = reconnectConfig;
+    }
+
+    /**
+     * Called when the application connected the client.
+     *
+     * @param connect the CONNECT message used by the application.
+     * @param connAck the received CONNACK message.
+     */
+    void onConnected(@NotNull final MqttConnect connect, @NotNull final Mqtt5ConnAck connAck) {
+        this.connect = connect;
+        if (reconnecting) { // the application connected while a recovery was in progress
+            cancelScheduledAttempt();
+            onRecovered(connAck);
+        }
+    }
+
+    /**
+     * Called when the connection is closed. Starts the recovery if the application did not disconnect.
+     */
+    void onConnectionLost() {
+        final MqttConnect connect = this.connect;
+        if (connect == null) {
+            return;
+        }
+        synchronized (this) {
+            reconnecting = true;
+            lostTime = System.nanoTime();
+            attempt = 0;
+        }
+        sessionSubscriptions.onConnectionLost();
+        scheduleAttempt(connect);
+    }
+
+    /**
+     * Called when the application disconnects the client. Stops the recovery and completes the session subscriptions.
+     */
+    void stop() {
+        connect = null;
+        reconnecting = false;
+        cancelScheduledAttempt();
+        sessionSubscriptions.close();
+    }
+
+    private synchronized void scheduleAttempt(@NotNull final MqttConnect connect) {
+        final long delay = reconnectConfig.getDelayNanos(attempt, ThreadLocalRandom.current().nextDouble());
+        LOGGER.debug("Reconnect attempt {} in {} ms.", attempt + 1, TimeUnit.NANOSECONDS.toMillis(delay));
+        scheduledAttempt = Completable.timer(delay, TimeUnit.NANOSECONDS).subscribe(() -> runAttempt(connect));
+    }
+
+    private void cancelScheduledAttempt() {
+        final Disposable scheduledAttempt = this.scheduledAttempt;
+        if (scheduledAttempt != null) {
+            scheduledAttempt.dispose();
+        }
+    }
+
+    private void runAttempt(@NotNull final MqttConnect connect) {
+        if (this.connect != connect) {
+            return;
+        }
+        // an attempt in progress is not disposed on stop, so that the client data is always reset by the connect
+        //noinspection ResultOfMethodCallIgnored
+        client.connectUnscheduled(connect).subscribe(this::onAttemptSucceeded, this::onAttemptFailed);
+    }
+
+    private void onAttemptSucceeded(@NotNull final Mqtt5ConnAck connAck) {
+        if (connect == null) { // the application disconnected during the attempt
+            //noinspection ResultOfMethodCallIgnored
+            client.disconnect().done().onErrorComplete().subscribe();
+            return;
+        }
+        onRecovered(connAck);
+    }
+
+    private void onAttemptFailed(@NotNull final Throwable throwable) {
+        if (throwable instanceof AlreadyConnectedException) {
+            return; // the application connected itself
+        }
+        final int failedAttempt;
+        synchronized (this) {
+            failedAttemptCount++;
+            failedAttempt = ++attempt;
+        }
+        final MqttConnect connect = this.connect;
+        if (connect == null) {
+            return;
+        }
+        LOGGER.debug("Reconnect attempt {} failed: {}", failedAttempt, throwable.getMessage());
+        scheduleAttempt(connect);
+    }
+
+    private void onRecovered(@NotNull final Mqtt5ConnAck connAck) {
+        final long recoveryTimeNanos;
+        synchronized (this) {
+            reconnecting = false;
+            recoveryTimeNanos = System.nanoTime() - lostTime;
+            recoveredCount++;
+            lastRecoveryTimeNanos = recoveryTimeNanos;
+            maxRecoveryTimeNanos = Math.max(maxRecoveryTimeNanos, recoveryTimeNanos);
+            totalRecoveryTimeNanos += recoveryTimeNanos;
+        }
+        LOGGER.debug("Connection recovered in {} ms.", TimeUnit.NANOSECONDS.toMillis(recoveryTimeNanos));
+        sessionSubscriptions.onConnectionRecovered(client.getClientData(), connAck.isSessionPresent());
+    }
+
+    @NotNull
+    MqttSessionSubscriptions getSessionSubscriptions() {
+        return sessionSubscriptions;
+    }
+
+    @Override
+    public boolean isReconnecting() {
+        return reconnecting;
+    }
+
+    @Override
+    public long getRecoveredCount() {
+        return recoveredCount;
+    }
+
+    @Override
+    public long getFailedAttemptCount() {
+        return failedAttemptCount;
+    }
+
+    @Override
+    public long getLastRecoveryTimeNanos() {
+        return lastRecoveryTimeNanos;
+    }
+
+    @Override
+    public long getMaxRecoveryTimeNanos() {
+        return maxRecoveryTimeNanos;
+    }
+
+    @Override
+    public long getTotalRecoveryTimeNanos() {
+        return totalRecoveryTimeNanos;
+    }
+
+}
@@ -19,17 +19,18 @@ package org.mqttbee.mqtt.netty;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
-import io.netty.channel.Channel;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.*;
+import io.netty.util.concurrent.EventExecutor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
+import org.mqttbee.mqtt.MqttClientTransportConfigImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -51,12 +52,111 @@ public abstract class NettyBootstrap {
     }
 
     @NotNull
-    public Bootstrap bootstrap(@NotNull final MqttClientExecutorConfigImpl executorConfig) {
-        return new Bootstrap().group(getEventLoopGroup(executorConfig))
+    public Bootstrap bootstrap(
+            @NotNull final MqttClientExecutorConfigImpl executorConfig,
+            @NotNull final MqttClientTransportConfigImpl transportConfig) {
+
+        final Bootstrap bootstrap = new Bootstrap().group(getEventLoop(executorConfig))
                 .channel(getChannelClass())
                 .option(ChannelOption.SO_KEEPALIVE, true)
                 .option(ChannelOption.TCP_NODELAY, true)
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        applyTransportConfig(bootstrap, transportConfig);
+        applyNativeTcpOptions(bootstrap, transportConfig);
+        return bootstrap;
+    }
+
+    /**
+     * Creates a bootstrap for a Unix domain socket connection. The TCP specific options are not applied.
+     * <p>
+     * The event loop group is acquired even if domain sockets are not supported, so {@link
+     * #free(MqttClientExecutorConfigImpl)} must be called in any case.
+     *
+     * @param executorConfig  the executor config of the client.
+     * @param transportConfig the transport config of the client.
+     * @return the bootstrap.
+     * @throws UnsupportedOperationException if Unix domain sockets are not supported by the transport.
+     */
+    @NotNull
+    public Bootstrap bootstrapDomainSocket(
+            @NotNull final MqttClientExecutorConfigImpl executorConfig,
+            @NotNull final MqttClientTransportConfigImpl transportConfig) {
+
+        final EventLoopGroup eventLoop = getEventLoop(executorConfig);
+        final Class<? extends Channel> domainSocketChannelClass = getDomainSocketChannelClass();
+        if (domainSocketChannelClass == null) {
+            throw new UnsupportedOperationException(
+                    "Unix domain sockets are only supported with the native epoll transport.");
+        }
+        final Bootstrap bootstrap = new Bootstrap().group(eventLoop)
+                .channel(domainSocketChannelClass)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        applyTransportConfig(bootstrap, transportConfig);
+        return bootstrap;
+    }
+
+    private static void applyTransportConfig(
+            @NotNull final Bootstrap bootstrap, @NotNull final MqttClientTransportConfigImpl transportConfig) {
+
+        if (transportConfig.getRawSendBufferSize() != MqttClientTransportConfigImpl.DEFAULT_VALUE) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, transportConfig.getRawSendBufferSize());
+        }
+        if (transportConfig.getRawReceiveBufferSize() != MqttClientTransportConfigImpl.DEFAULT_VALUE) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, transportConfig.getRawReceiveBufferSize());
+        }
+        if (transportConfig.getRawWriteBufferHighWaterMark() != MqttClientTransportConfigImpl.DEFAULT_VALUE) {
+            bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                    new WriteBufferWaterMark(transportConfig.getRawWriteBufferLowWaterMark(),
+                            transportConfig.getRawWriteBufferHighWaterMark()));
+        }
+        final int fixedReceiveBufferSize = transportConfig.getRawFixedReceiveBufferSize();
+        final int maxMessagesPerRead = transportConfig.getRawMaxMessagesPerRead();
+        if ((fixedReceiveBufferSize != MqttClientTransportConfigImpl.DEFAULT_VALUE) ||
+                (maxMessagesPerRead != MqttClientTransportConfigImpl.DEFAULT_VALUE)) {
+            final DefaultMaxMessagesRecvByteBufAllocator recvByteBufAllocator =
+                    (fixedReceiveBufferSize == MqttClientTransportConfigImpl.DEFAULT_VALUE) ?
+                            new AdaptiveRecvByteBufAllocator() :
+                            new FixedRecvByteBufAllocator(fixedReceiveBufferSize);
+            if (maxMessagesPerRead != MqttClientTransportConfigImpl.DEFAULT_VALUE) {
+                recvByteBufAllocator.maxMessagesPerRead(maxMessagesPerRead);
+            }
+            bootstrap.option(ChannelOption.RCVBUF_ALLOCATOR, recvByteBufAllocator);
+        }
+    }
+
+    /**
+     * Applies the options of the transport config which are only supported by the native transport.
+     *
+     * @param bootstrap       the bootstrap of a TCP connection.
+     * @param transportConfig the transport config of the client.
+     */
+    void applyNativeTcpOptions(
+            @NotNull final Bootstrap bootstrap, @NotNull final MqttClientTransportConfigImpl transportConfig) {
+
+        if (transportConfig.usesTcpQuickAck() ||
+                (transportConfig.getRawTcpNotSentLowAt() != MqttClientTransportConfigImpl.DEFAULT_VALUE) ||
+                (transportConfig.getRawBusyPollMicros() != MqttClientTransportConfigImpl.DEFAULT_VALUE)) {
+            LOGGER.warn("TCP_QUICKACK, TCP_NOTSENT_LOWAT and SO_BUSY_POLL are ignored as they are only supported " +
+                    "with the native epoll transport");
+        }
+    }
+
+    /**
+     * @param executorConfig the executor config of the client.
+     * @return the event loop the client is pinned to or the whole event loop group if it is not pinned.
+     */
+    @NotNull
+    private EventLoopGroup getEventLoop(@NotNull final MqttClientExecutorConfigImpl executorConfig) {
+        final MultithreadEventLoopGroup eventLoopGroup = getEventLoopGroup(executorConfig);
+        final int eventLoopIndex = executorConfig.getRawNettyEventLoop();
+        if (eventLoopIndex == MqttClientExecutorConfigImpl.DEFAULT_NETTY_EVENT_LOOP) {
+            return eventLoopGroup;
+        }
+        final Iterator<EventExecutor> eventLoops = eventLoopGroup.iterator();
+        for (int i = eventLoopIndex % eventLoopGroup.executorCount(); i > 0; i--) {
+            eventLoops.next();
+        }
+        return (EventLoop) eventLoops.next();
     }
 
     @NotNull
@@ -123,6 +223,14 @@ public abstract class NettyBootstrap {
     @NotNull
     abstract Class<? extends Channel> getChannelClass();
 
+    /**
+     * @return the channel class for Unix domain sockets or null if they are not supported.
+     */
+    @Nullable
+    Class<? extends Channel> getDomainSocketChannelClass() {
+        return null;
+    }
+
     public synchronized void free(@NotNull final MqttClientExecutorConfigImpl executorConfig) {
         if (executorConfig.getRawNettyExecutor() == null) {
             freeDefaultEventLoopGroup();
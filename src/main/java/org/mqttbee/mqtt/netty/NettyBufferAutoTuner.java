@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannelConfig;
+import io.netty.channel.epoll.EpollTcpInfo;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically sizes the socket buffers and the write buffer water marks of a connection from its bandwidth-delay
+ * product, which is estimated from the bytes transferred in the last interval and the smoothed round trip time of the
+ * kernel's TCP_INFO. The buffers are sized to twice the bandwidth-delay product so the throughput can still grow.
+ * <p>
+ * The send buffer (SO_SNDBUF) and the write buffer water marks are sized from the written bytes, the receive buffer
+ * (SO_RCVBUF) from the read bytes, so a connection that mainly publishes or mainly receives only grows the buffer of
+ * its busy direction. The buffers never shrink below the sizes in effect when this handler was added, so a quiet
+ * interval does not clamp them below the kernel defaults or explicitly configured sizes.
+ * <p>
+ * Setting SO_RCVBUF switches off the receive buffer autotuning of the Linux kernel for the socket. The receive buffer
+ * is only set once the read bandwidth requires a bigger buffer than the initial one, from then on it is only sized by
+ * this handler.
+ * <p>
+ * The round trip time is only available with the native epoll transport, see {@link #isSupported(Channel)}.
+ *
+ * @author Silvio Giebl
+ */
+public class NettyBufferAutoTuner extends ChannelDuplexHandler {
+
+    public static final String NAME = "buffer.auto.tuner";
+    static final long INTERVAL_MILLIS = 1000;
+    static final int MINIMUM_BUFFER_SIZE = 16 * 1024;
+    static final int MAXIMUM_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    public static boolean isSupported(@NotNull final Channel channel) {
+        return channel instanceof EpollSocketChannel;
+    }
+
+    /**
+     * Calculates the buffer size for the given bandwidth and round trip time.
+     *
+     * @param bytesPerSecond the observed bandwidth.
+     * @param rttMicros      the round trip time in microseconds.
+     * @return twice the bandwidth-delay product bounded by {@link #MINIMUM_BUFFER_SIZE} and {@link
+     * #MAXIMUM_BUFFER_SIZE}.
+     */
+    static int bufferSize(final long bytesPerSecond, final long rttMicros) {
+        final long bandwidthDelayProduct = bytesPerSecond * rttMicros / TimeUnit.SECONDS.toMicros(1);
+        return (int) Math.max(MINIMUM_BUFFER_SIZE, Math.min(MAXIMUM_BUFFER_SIZE, 2 * bandwidthDelayProduct));
+    }
+
+    /**
+     * Calculates the new size of a buffer for the given bandwidth and round trip time.
+     *
+     * @param currentSize    the current size of the buffer.
+     * @param initialSize    the size of the buffer when this handler was added.
+     * @param bytesPerSecond the observed bandwidth of the direction of the buffer.
+     * @param rttMicros      the round trip time in microseconds.
+     * @return the new size which is at least the initial size, or the current size if the difference is too small to
+     * resize the buffer.
+     */
+    static int tunedBufferSize(
+            final int currentSize, final int initialSize, final long bytesPerSecond, final long rttMicros) {
+
+        final int newSize = Math.max(initialSize, bufferSize(bytesPerSecond, rttMicros));
+        if (Math.abs(newSize - currentSize) <= currentSize / 4) {
+            return currentSize; // avoid resizing the buffers on small fluctuations
+        }
+        return newSize;
+    }
+
+    private final EpollTcpInfo tcpInfo = new EpollTcpInfo();
+    private long readBytes;
+    private long writtenBytes;
+    private int initialSendBufferSize;
+    private int initialReceiveBufferSize;
+    private WriteBufferWaterMark initialWriteBufferWaterMark;
+    private int sendBufferSize;
+    private int receiveBufferSize;
+    private ScheduledFuture<?> tuneFuture;
+
+    @Override
+    public void handlerAdded(final ChannelHandlerContext ctx) {
+        final EpollSocketChannelConfig config = ((EpollSocketChannel) ctx.channel()).config();
+        initialSendBufferSize = sendBufferSize = config.getSendBufferSize();
+        initialReceiveBufferSize = receiveBufferSize = config.getReceiveBufferSize();
+        initialWriteBufferWaterMark = config.getWriteBufferWaterMark();
+        if (ctx.channel().isActive()) {
+            schedule(ctx);
+        }
+    }
+
+    @Override
+    public void channelActive(final ChannelHandlerContext ctx) {
+        schedule(ctx);
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) {
+        cancel();
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(final ChannelHandlerContext ctx) {
+        cancel();
+    }
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+        if (msg instanceof ByteBuf) {
+            readBytes += ((ByteBuf) msg).readableBytes();
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+        if (msg instanceof ByteBuf) {
+            writtenBytes += ((ByteBuf) msg).readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    private void schedule(@NotNull final ChannelHandlerContext ctx) {
+        if (tuneFuture == null) {
+            tuneFuture = ctx.executor()
+                    .scheduleAtFixedRate(() -> tune(ctx), INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancel() {
+        if (tuneFuture != null) {
+            tuneFuture.cancel(false);
+            tuneFuture = null;
+        }
+    }
+
+    private void tune(@NotNull final ChannelHandlerContext ctx) {
+        final EpollSocketChannel channel = (EpollSocketChannel) ctx.channel();
+        final long readBytesPerSecond = readBytes * TimeUnit.SECONDS.toMillis(1) / INTERVAL_MILLIS;
+        final long writtenBytesPerSecond = writtenBytes * TimeUnit.SECONDS.toMillis(1) / INTERVAL_MILLIS;
+        readBytes = 0;
+        writtenBytes = 0;
+        if ((readBytesPerSecond == 0) && (writtenBytesPerSecond == 0)) {
+            return;
+        }
+        channel.tcpInfo(tcpInfo);
+        final long rttMicros = tcpInfo.rtt();
+        if (rttMicros == 0) {
+            return;
+        }
+        final EpollSocketChannelConfig config = channel.config();
+        if (writtenBytesPerSecond > 0) {
+            final int newSendBufferSize =
+                    tunedBufferSize(sendBufferSize, initialSendBufferSize, writtenBytesPerSecond, rttMicros);
+            if (newSendBufferSize != sendBufferSize) {
+                sendBufferSize = newSendBufferSize;
+                config.setSendBufferSize(newSendBufferSize);
+                config.setWriteBufferWaterMark(new WriteBufferWaterMark(
+                        Math.max(initialWriteBufferWaterMark.low(), newSendBufferSize / 2),
+                        Math.max(initialWriteBufferWaterMark.high(), newSendBufferSize)));
+            }
+        }
+        if (readBytesPerSecond > 0) {
+            final int newReceiveBufferSize =
+                    tunedBufferSize(receiveBufferSize, initialReceiveBufferSize, readBytesPerSecond, rttMicros);
+            if (newReceiveBufferSize != receiveBufferSize) {
+                receiveBufferSize = newReceiveBufferSize;
+                config.setReceiveBufferSize(newReceiveBufferSize);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.MqttClientSslConfig;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
+import org.mqttbee.mqtt.handler.ssl.SslUtil;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Races staggered connection attempts to multiple server addresses (similar to Happy Eyeballs, RFC 8305).
+ * <p>
+ * The attempts are started in the order of the addresses. The next attempt is started after the attempt delay or as
+ * soon as the previous attempt failed. An attempt succeeds when the TCP connection (and the TLS handshake if SSL is
+ * used) is established. The channel of the first successful attempt is handed over, the channels of all other attempts
+ * are closed. The race fails if all attempts failed.
+ * <p>
+ * All attempts are run on the same event loop, so the race does not need any synchronization.
+ *
+ * @author Silvio Giebl
+ */
+@NotThreadSafe
+public class NettyConnectRace {
+
+    /**
+     * Creates the candidate addresses for a connect: the server host and port followed by the additional server
+     * addresses of the connect strategy. If the strategy resolves all addresses, every host name is expanded to all its
+     * IP addresses and IPv6 and IPv4 addresses are interleaved.
+     * <p>
+     * This method blocks while host names are resolved, so it must not be called on a Netty event loop.
+     *
+     * @param serverHost      the server host of the client.
+     * @param serverPort      the server port of the client.
+     * @param connectStrategy the connect strategy of the client.
+     * @return the candidate addresses without duplicates.
+     * @throws UnknownHostException if none of the host names could be resolved.
+     */
+    @NotNull
+    public static List<InetSocketAddress> candidates(
+            @NotNull final String serverHost, final int serverPort,
+            @NotNull final MqttClientConnectStrategyImpl connectStrategy) throws UnknownHostException {
+
+        final List<InetSocketAddress> addresses = new ArrayList<>(connectStrategy.getServerAddresses().size() + 1);
+        addresses.add(InetSocketAddress.createUnresolved(serverHost, serverPort));
+        addresses.addAll(connectStrategy.getServerAddresses());
+        if (!connectStrategy.resolvesAllAddresses()) {
+            return new ArrayList<>(new LinkedHashSet<>(addresses));
+        }
+
+        final LinkedHashSet<InetSocketAddress> ipv6Addresses = new LinkedHashSet<>();
+        final LinkedHashSet<InetSocketAddress> ipv4Addresses = new LinkedHashSet<>();
+        boolean ipv6First = false;
+        UnknownHostException unknownHostException = null;
+        for (final InetSocketAddress address : addresses) {
+            final InetAddress[] inetAddresses;
+            try {
+                inetAddresses = address.isUnresolved() ? InetAddress.getAllByName(address.getHostString()) :
+                        new InetAddress[]{address.getAddress()};
+            } catch (final UnknownHostException e) {
+                unknownHostException = e;
+                continue;
+            }
+            for (final InetAddress inetAddress : inetAddresses) {
+                final InetSocketAddress resolved = new InetSocketAddress(inetAddress, address.getPort());
+                if (inetAddress instanceof Inet6Address) {
+                    ipv6First |= ipv4Addresses.isEmpty() && ipv6Addresses.isEmpty();
+                    ipv6Addresses.add(resolved);
+                } else {
+                    ipv4Addresses.add(resolved);
+                }
+            }
+        }
+        if (ipv6Addresses.isEmpty() && ipv4Addresses.isEmpty()) {
+            assert unknownHostException != null;
+            throw unknownHostException;
+        }
+
+        final List<InetSocketAddress> candidates = new ArrayList<>(ipv6Addresses.size() + ipv4Addresses.size());
+        final Iterator<InetSocketAddress> first = (ipv6First ? ipv6Addresses : ipv4Addresses).iterator();
+        final Iterator<InetSocketAddress> second = (ipv6First ? ipv4Addresses : ipv6Addresses).iterator();
+        while (first.hasNext() || second.hasNext()) {
+            if (first.hasNext()) {
+                candidates.add(first.next());
+            }
+            if (second.hasNext()) {
+                candidates.add(second.next());
+            }
+        }
+        return candidates;
+    }
+
+    private final Bootstrap bootstrap;
+    private final EventLoop eventLoop;
+    private final List<InetSocketAddress> addresses;
+    private final long attemptDelayNanos;
+    private final MqttClientSslConfig sslConfig;
+    private final NettyServerAddressLatencies latencies;
+    private final Consumer<Channel> onConnected;
+    private final Consumer<Throwable> onFailed;
+
+    private final List<Channel> channels;
+    private int nextAttempt;
+    private int pendingAttempts;
+    private ScheduledFuture<?> nextAttemptFuture;
+    private Throwable failure;
+    private boolean done;
+
+    /**
+     * Creates a connect race. The handler of the bootstrap is set by the race.
+     *
+     * @param bootstrap         the bootstrap of the connection.
+     * @param addresses         the addresses in the order in which they are tried.
+     * @param attemptDelayNanos the delay after which the next attempt is started while the previous is still pending.
+     * @param sslConfig         the SSL config or null if SSL is not used.
+     * @param latencies         the connect latencies which are updated by the race.
+     * @param onConnected       called with the channel of the successful attempt on its event loop.
+     * @param onFailed          called with the failure of the first attempt if all attempts failed.
+     */
+    public NettyConnectRace(
+            @NotNull final Bootstrap bootstrap, @NotNull final List<InetSocketAddress> addresses,
+            final long attemptDelayNanos, @Nullable final MqttClientSslConfig sslConfig,
+            @NotNull final NettyServerAddressLatencies latencies, @NotNull final Consumer<Channel> onConnected,
+            @NotNull final Consumer<Throwable> onFailed) {
+
+        eventLoop = bootstrap.config().group().next();
+        this.bootstrap = bootstrap.clone(eventLoop).handler(new AttemptInitializer());
+        this.addresses = addresses;
+        this.attemptDelayNanos = attemptDelayNanos;
+        this.sslConfig = sslConfig;
+        this.latencies = latencies;
+        this.onConnected = onConnected;
+        this.onFailed = onFailed;
+        channels = new ArrayList<>(addresses.size());
+    }
+
+    public void start() {
+        if (addresses.isEmpty()) {
+            onFailed.accept(new IllegalStateException("No server address to connect to."));
+            return;
+        }
+        eventLoop.execute(this::startNextAttempt);
+    }
+
+    private void startNextAttempt() {
+        if (nextAttemptFuture != null) {
+            nextAttemptFuture.cancel(false);
+            nextAttemptFuture = null;
+        }
+        if (done || (nextAttempt >= addresses.size())) {
+            return;
+        }
+        final InetSocketAddress address = addresses.get(nextAttempt++);
+        pendingAttempts++;
+        final long startNanos = System.nanoTime();
+
+        final ChannelFuture connectFuture = bootstrap.connect(address);
+        final Channel channel = connectFuture.channel();
+        channels.add(channel);
+        connectFuture.addListener(future -> {
+            if (!future.isSuccess()) {
+                onAttemptFailed(address, future.cause());
+                return;
+            }
+            final SslHandler sslHandler = channel.pipeline().get(SslHandler.class);
+            if (sslHandler == null) {
+                onAttemptSucceeded(channel, address, startNanos);
+                return;
+            }
+            sslHandler.handshakeFuture().addListener(handshakeFuture -> {
+                if (handshakeFuture.isSuccess()) {
+                    onAttemptSucceeded(channel, address, startNanos);
+                } else {
+                    onAttemptFailed(address, handshakeFuture.cause());
+                }
+            });
+        });
+
+        if (!done && (nextAttempt < addresses.size())) {
+            nextAttemptFuture = eventLoop.schedule(this::startNextAttempt, attemptDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void onAttemptSucceeded(
+            @NotNull final Channel channel, @NotNull final InetSocketAddress address, final long startNanos) {
+
+        latencies.onConnected(address, System.nanoTime() - startNanos);
+        if (done) {
+            channel.close();
+            return;
+        }
+        done = true;
+        if (nextAttemptFuture != null) {
+            nextAttemptFuture.cancel(false);
+            nextAttemptFuture = null;
+        }
+        for (final Channel other : channels) {
+            if (other != channel) {
+                other.close();
+            }
+        }
+        channels.clear();
+        onConnected.accept(channel);
+    }
+
+    private void onAttemptFailed(@NotNull final InetSocketAddress address, @NotNull final Throwable cause) {
+        if (done) {
+            return;
+        }
+        latencies.onFailed(address);
+        pendingAttempts--;
+        if (failure == null) {
+            failure = cause;
+        } else if (failure != cause) {
+            failure.addSuppressed(cause);
+        }
+        if (nextAttempt < addresses.size()) {
+            startNextAttempt();
+        } else if (pendingAttempts == 0) {
+            done = true;
+            channels.clear();
+            onFailed.accept(failure);
+        }
+    }
+
+    /**
+     * Adds the SSL handler to the channel of an attempt, so that the TLS handshake is part of the attempt.
+     */
+    private class AttemptInitializer extends ChannelInitializer<Channel> {
+
+        @Override
+        protected void initChannel(final Channel channel) throws Exception {
+            if (sslConfig != null) {
+                channel.pipeline().addFirst(SslUtil.createSslHandler(channel, sslConfig));
+            }
+        }
+
+    }
+
+}
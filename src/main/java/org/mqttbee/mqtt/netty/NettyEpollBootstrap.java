@@ -17,11 +17,15 @@
 
 package org.mqttbee.mqtt.netty;
 
+import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollSocketChannel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.mqttbee.mqtt.MqttClientTransportConfigImpl;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -56,4 +60,25 @@ class NettyEpollBootstrap extends NettyBootstrap {
         return EpollSocketChannel.class;
     }
 
+    @NotNull
+    @Override
+    Class<EpollDomainSocketChannel> getDomainSocketChannelClass() {
+        return EpollDomainSocketChannel.class;
+    }
+
+    @Override
+    void applyNativeTcpOptions(
+            @NotNull final Bootstrap bootstrap, @NotNull final MqttClientTransportConfigImpl transportConfig) {
+
+        if (transportConfig.usesTcpQuickAck()) {
+            bootstrap.option(EpollChannelOption.TCP_QUICKACK, true);
+        }
+        if (transportConfig.getRawTcpNotSentLowAt() != MqttClientTransportConfigImpl.DEFAULT_VALUE) {
+            bootstrap.option(EpollChannelOption.TCP_NOTSENT_LOWAT, (long) transportConfig.getRawTcpNotSentLowAt());
+        }
+        if (transportConfig.getRawBusyPollMicros() != MqttClientTransportConfigImpl.DEFAULT_VALUE) {
+            bootstrap.option(EpollChannelOption.SO_BUSY_POLL, transportConfig.getRawBusyPollMicros());
+        }
+    }
+
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+
+/**
+ * Scheduler which executes on the Netty event loop of the client's current connection, so application callbacks run
+ * on the same thread that handles the messages.
+ * <p>
+ * The event loop is resolved when a worker is created, i.e. when a flow is subscribed. Workers created while the
+ * client is not connected fall back to the application scheduler of the client.
+ *
+ * @author Silvio Giebl
+ */
+public class NettyEventLoopScheduler extends Scheduler {
+
+    private final MqttClientData clientData;
+
+    public NettyEventLoopScheduler(@NotNull final MqttClientData clientData) {
+        this.clientData = clientData;
+    }
+
+    @NotNull
+    @Override
+    public Worker createWorker() {
+        final MqttClientConnectionData clientConnectionData = clientData.getRawClientConnectionData();
+        if (clientConnectionData == null) {
+            return clientData.getExecutorConfig().getApplicationScheduler().createWorker();
+        }
+        return Schedulers.from(clientConnectionData.getChannel().eventLoop()).createWorker();
+    }
+
+}
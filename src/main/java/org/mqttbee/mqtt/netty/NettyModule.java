@@ -21,6 +21,8 @@ import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 import io.netty.channel.epoll.Epoll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Singleton;
 
@@ -30,16 +32,40 @@ import javax.inject.Singleton;
 @Module
 public class NettyModule {
 
+    /**
+     * System property for choosing the Netty transport: <code>epoll</code> or <code>nio</code>. If it is not set, the
+     * native transport is used if it is available, otherwise it falls back to NIO.
+     */
+    public static final String TRANSPORT_PROPERTY = "org.mqttbee.netty.transport";
+    static final String TRANSPORT_EPOLL = "epoll";
+    static final String TRANSPORT_NIO = "nio";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NettyModule.class);
+
     @Provides
     @Singleton
     static NettyBootstrap provideNettyBootstrap(
             final Lazy<NettyNioBootstrap> nioBootstrapLazy, final Lazy<NettyEpollBootstrap> epollBootstrapLazy) {
 
+        final String transport = System.getProperty(TRANSPORT_PROPERTY);
+        if ((transport != null) && !TRANSPORT_EPOLL.equals(transport) && !TRANSPORT_NIO.equals(transport)) {
+            LOGGER.warn("Ignoring unknown transport {} configured by {}", transport, TRANSPORT_PROPERTY);
+        }
+        if (TRANSPORT_NIO.equals(transport)) {
+            LOGGER.debug("Using the NIO transport as configured by {}", TRANSPORT_PROPERTY);
+            return nioBootstrapLazy.get();
+        }
         if (Epoll.isAvailable()) {
+            LOGGER.debug("Using the native epoll transport");
             return epollBootstrapLazy.get();
+        }
+        if (TRANSPORT_EPOLL.equals(transport)) {
+            LOGGER.warn("The native epoll transport configured by {} is not available, falling back to NIO",
+                    TRANSPORT_PROPERTY, Epoll.unavailabilityCause());
         } else {
-            return nioBootstrapLazy.get();
+            LOGGER.debug("The native epoll transport is not available, using the NIO transport");
         }
+        return nioBootstrapLazy.get();
     }
 
 }
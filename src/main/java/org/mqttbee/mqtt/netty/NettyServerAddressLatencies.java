@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the connect latencies of server addresses across the connects of a client, so that the fastest addresses
+ * are tried first.
+ * <p>
+ * The latency of an address is the exponentially weighted moving average of its connect times. A failed attempt marks
+ * the address as failed until it is connected successfully again.
+ *
+ * @author Silvio Giebl
+ */
+@ThreadSafe
+public class NettyServerAddressLatencies {
+
+    private static final long FAILED = Long.MAX_VALUE;
+    private static final long UNKNOWN = FAILED - 1;
+
+    private final ConcurrentHashMap<InetSocketAddress, Long> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * Sorts the addresses by the order in which they should be tried: addresses with a known latency by ascending
+     * latency, then addresses without a known latency, then addresses which failed the last time. The order of
+     * addresses of the same rank is kept.
+     *
+     * @param addresses the addresses to sort.
+     * @return the sorted addresses.
+     */
+    @NotNull
+    public List<InetSocketAddress> sort(@NotNull final List<InetSocketAddress> addresses) {
+        final List<InetSocketAddress> sorted = new ArrayList<>(addresses);
+        sorted.sort(Comparator.comparingLong(this::getRank));
+        return sorted;
+    }
+
+    private long getRank(@NotNull final InetSocketAddress address) {
+        final Long latency = latencies.get(address);
+        return (latency == null) ? UNKNOWN : latency;
+    }
+
+    /**
+     * @param address the address.
+     * @return the latency of the address in nanoseconds or -1 if it is not known or the address failed the last time.
+     */
+    public long getLatencyNanos(@NotNull final InetSocketAddress address) {
+        final long rank = getRank(address);
+        return (rank >= UNKNOWN) ? -1 : rank;
+    }
+
+    public void onConnected(@NotNull final InetSocketAddress address, final long latencyNanos) {
+        latencies.merge(address, latencyNanos,
+                (old, latency) -> (old == FAILED) ? latency : ((old * 3) + latency) / 4);
+    }
+
+    public void onFailed(@NotNull final InetSocketAddress address) {
+        latencies.put(address, FAILED);
+    }
+
+}
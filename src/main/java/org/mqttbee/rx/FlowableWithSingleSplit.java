@@ -23,6 +23,7 @@ import io.reactivex.Scheduler;
 import io.reactivex.annotations.BackpressureKind;
 import io.reactivex.annotations.BackpressureSupport;
 import io.reactivex.annotations.SchedulerSupport;
+import io.reactivex.exceptions.CompositeException;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiConsumer;
 import io.reactivex.functions.Function;
@@ -59,6 +60,7 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
     private final Function<T, S> singleCaster;
     private final Function<T, F> flowableCaster;
     private final BiConsumer<S, Subscription> singleConsumer;
+    private final Function<Throwable, Throwable> errorMapper;
 
     /**
      * Creates a new {@link FlowableWithSingleSplit} transforming the given upstream source.
@@ -71,7 +73,7 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
             @NotNull final Flowable<T> source, @NotNull final Class<S> singleClass,
             @NotNull final Class<F> flowableClass) {
 
-        this(source, caster(singleClass), caster(flowableClass), null);
+        this(source, caster(singleClass), caster(flowableClass), null, null);
     }
 
     /**
@@ -81,15 +83,18 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
      * @param singleCaster   the caster for the single item.
      * @param flowableCaster the caster for the flow items.
      * @param singleConsumer the consumer of the single item.
+     * @param errorMapper    the mapper for the error.
      */
     private FlowableWithSingleSplit(
             @NotNull final Flowable<T> source, @NotNull final Function<T, S> singleCaster,
-            @NotNull final Function<T, F> flowableCaster, @Nullable final BiConsumer<S, Subscription> singleConsumer) {
+            @NotNull final Function<T, F> flowableCaster, @Nullable final BiConsumer<S, Subscription> singleConsumer,
+            @Nullable final Function<Throwable, Throwable> errorMapper) {
 
         this.source = source;
         this.singleCaster = singleCaster;
         this.flowableCaster = flowableCaster;
         this.singleConsumer = singleConsumer;
+        this.errorMapper = errorMapper;
     }
 
     @Override
@@ -97,17 +102,19 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
         if (s instanceof ConditionalSubscriber) {
             @SuppressWarnings("unchecked") final ConditionalSubscriber<? super F> cs =
                     (ConditionalSubscriber<? super F>) s;
-            source.subscribe(
-                    new FlowableWithSingleConditionalSubscriber<>(singleCaster, flowableCaster, cs, singleConsumer));
+            source.subscribe(new FlowableWithSingleConditionalSubscriber<>(
+                    singleCaster, flowableCaster, cs, singleConsumer, errorMapper));
         } else {
-            source.subscribe(new FlowableWithSingleSubscriber<>(singleCaster, flowableCaster, s, singleConsumer));
+            source.subscribe(
+                    new FlowableWithSingleSubscriber<>(singleCaster, flowableCaster, s, singleConsumer, errorMapper));
         }
     }
 
     @NotNull
     @Override
     public FlowableWithSingleSplit<T, S, F> observeOnBoth(@NotNull final Scheduler scheduler) {
-        return new FlowableWithSingleSplit<>(source.observeOn(scheduler), singleCaster, flowableCaster, singleConsumer);
+        return new FlowableWithSingleSplit<>(
+                source.observeOn(scheduler), singleCaster, flowableCaster, singleConsumer, errorMapper);
     }
 
     @NotNull
@@ -116,7 +123,7 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
             @NotNull final Scheduler scheduler, final boolean delayError) {
 
         return new FlowableWithSingleSplit<>(
-                source.observeOn(scheduler, delayError), singleCaster, flowableCaster, singleConsumer);
+                source.observeOn(scheduler, delayError), singleCaster, flowableCaster, singleConsumer, errorMapper);
     }
 
     @NotNull
@@ -124,8 +131,8 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
     public FlowableWithSingleSplit<T, S, F> observeOnBoth(
             @NotNull final Scheduler scheduler, final boolean delayError, final int bufferSize) {
 
-        return new FlowableWithSingleSplit<>(
-                source.observeOn(scheduler, delayError, bufferSize), singleCaster, flowableCaster, singleConsumer);
+        return new FlowableWithSingleSplit<>(source.observeOn(scheduler, delayError, bufferSize), singleCaster,
+                flowableCaster, singleConsumer, errorMapper);
     }
 
     @NotNull
@@ -136,23 +143,24 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
         Preconditions.checkNotNull(singleMapper, "Single mapper must not be null.");
         Preconditions.checkNotNull(flowableMapper, "Flowable mapper must not be null.");
         return new FlowableWithSingleSplit<>(
-                source, mapCaster(singleCaster, singleMapper), mapCaster(flowableCaster, flowableMapper), null);
+                source, mapCaster(singleCaster, singleMapper), mapCaster(flowableCaster, flowableMapper), null,
+                errorMapper);
     }
 
     @NotNull
     @Override
     public FlowableWithSingleSplit<T, S, F> mapError(@NotNull final Function<Throwable, Throwable> mapper) {
         Preconditions.checkNotNull(mapper, "Mapper must not be null.");
-        final Function<Throwable, Flowable<T>> resumeMapper = throwable -> Flowable.error(mapper.apply(throwable));
-        return new FlowableWithSingleSplit<>(
-                source.onErrorResumeNext(resumeMapper), singleCaster, flowableCaster, singleConsumer);
+        final Function<Throwable, Throwable> errorMapper =
+                (this.errorMapper == null) ? mapper : throwable -> mapper.apply(this.errorMapper.apply(throwable));
+        return new FlowableWithSingleSplit<>(source, singleCaster, flowableCaster, singleConsumer, errorMapper);
     }
 
     @NotNull
     @Override
     public Flowable<F> doOnSingle(@NotNull final BiConsumer<S, Subscription> singleConsumer) {
         Preconditions.checkNotNull(singleConsumer, "Single consumer must not be null.");
-        return new FlowableWithSingleSplit<>(source, singleCaster, flowableCaster, singleConsumer);
+        return new FlowableWithSingleSplit<>(source, singleCaster, flowableCaster, singleConsumer, errorMapper);
     }
 
 
@@ -162,15 +170,34 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
         private final Function<T, S> singleCaster;
         private final Function<T, F> flowableCaster;
         private BiConsumer<S, Subscription> singleConsumer;
+        private final Function<Throwable, Throwable> errorMapper;
 
         private FlowableWithSingleAbstractSubscriber(
                 @NotNull final Function<T, S> singleCaster, @NotNull final Function<T, F> flowableCaster,
-                @NotNull final U subscriber, @Nullable final BiConsumer<S, Subscription> singleConsumer) {
+                @NotNull final U subscriber, @Nullable final BiConsumer<S, Subscription> singleConsumer,
+                @Nullable final Function<Throwable, Throwable> errorMapper) {
 
             super(subscriber);
             this.singleCaster = singleCaster;
             this.flowableCaster = flowableCaster;
             this.singleConsumer = singleConsumer;
+            this.errorMapper = errorMapper;
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            if ((errorMapper == null) || done) {
+                super.onError(t);
+                return;
+            }
+            Throwable mapped;
+            try {
+                mapped = errorMapper.apply(t);
+            } catch (final Throwable e) {
+                Exceptions.throwIfFatal(e);
+                mapped = new CompositeException(t, e);
+            }
+            super.onError(mapped);
         }
 
         @Override
@@ -248,9 +275,10 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
         private FlowableWithSingleSubscriber(
                 @NotNull final Function<T, S> singleCaster, @NotNull final Function<T, F> flowableCaster,
                 @NotNull final Subscriber<? super F> subscriber,
-                @Nullable final BiConsumer<S, Subscription> singleConsumer) {
+                @Nullable final BiConsumer<S, Subscription> singleConsumer,
+                @Nullable final Function<Throwable, Throwable> errorMapper) {
 
-            super(singleCaster, flowableCaster, subscriber, singleConsumer);
+            super(singleCaster, flowableCaster, subscriber, singleConsumer, errorMapper);
         }
 
         @Override
@@ -268,9 +296,10 @@ public class FlowableWithSingleSplit<T, S, F> extends FlowableWithSingle<S, F> {
         private FlowableWithSingleConditionalSubscriber(
                 @NotNull final Function<T, S> singleCaster, @NotNull final Function<T, F> flowableCaster,
                 @NotNull final ConditionalSubscriber<? super F> subscriber,
-                @Nullable final BiConsumer<S, Subscription> singleConsumer) {
+                @Nullable final BiConsumer<S, Subscription> singleConsumer,
+                @Nullable final Function<Throwable, Throwable> errorMapper) {
 
-            super(singleCaster, flowableCaster, subscriber, singleConsumer);
+            super(singleCaster, flowableCaster, subscriber, singleConsumer, errorMapper);
         }
 
         @Override
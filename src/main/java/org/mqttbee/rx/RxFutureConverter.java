@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.rx;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Converts reactive types to {@link CompletableFuture}s by subscribing to them. Cancelling the future disposes the
+ * subscription.
+ *
+ * @author Silvio Giebl
+ */
+public class RxFutureConverter {
+
+    private RxFutureConverter() {
+    }
+
+    @NotNull
+    public static <T> CompletableFuture<T> toFuture(@NotNull final Single<T> single) {
+        final FutureObserver<T> observer = new FutureObserver<>();
+        single.subscribe(observer);
+        return observer;
+    }
+
+    @NotNull
+    public static CompletableFuture<Void> toFuture(@NotNull final Completable completable) {
+        final FutureObserver<Void> observer = new FutureObserver<>();
+        completable.subscribe(observer);
+        return observer;
+    }
+
+    private static class FutureObserver<T> extends CompletableFuture<T>
+            implements SingleObserver<T>, CompletableObserver {
+
+        private volatile Disposable disposable;
+
+        @Override
+        public void onSubscribe(final Disposable d) {
+            disposable = d;
+            if (isCancelled()) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public void onSuccess(final T t) {
+            complete(t);
+        }
+
+        @Override
+        public void onComplete() {
+            complete(null);
+        }
+
+        @Override
+        public void onError(final Throwable e) {
+            completeExceptionally(e);
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            final Disposable disposable = this.disposable;
+            if (cancelled && (disposable != null)) {
+                disposable.dispose();
+            }
+            return cancelled;
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.util;
+
+/**
+ * Util for thread features which depend on the Java version.
+ * <p>
+ * This is the Java 8 version. The multi-release JAR contains a Java 21 version (source in {@code src/main/java21})
+ * which replaces this class on Java 21 and later. Both versions must have the same public methods.
+ *
+ * @author Silvio Giebl
+ */
+public class ThreadUtil {
+
+    private ThreadUtil() {
+    }
+
+    /**
+     * @return whether the current thread is a virtual thread. Always false before Java 21.
+     */
+    public static boolean isCurrentThreadVirtual() {
+        return false;
+    }
+
+    /**
+     * Indicates that the current thread is busy waiting. Does nothing before Java 9.
+     */
+    public static void onSpinWait() {
+    }
+
+}
@@ -35,9 +35,14 @@ public class ChunkedArrayQueue<E> implements Iterable<E> {
     private int size;
     private final ChunkedArrayQueueIterator iterator = new ChunkedArrayQueueIterator();
 
+    /**
+     * Creates a queue that links chunks of the given size. The first chunk is only allocated on the first offer, so an
+     * unused queue only costs a small constant amount of memory.
+     *
+     * @param chunkSize the size of the chunks.
+     */
     public ChunkedArrayQueue(final int chunkSize) {
         this.chunkSize = chunkSize;
-        producerChunk = consumerChunk = new Chunk<>(chunkSize);
     }
 
     public int size() {
@@ -50,6 +55,9 @@ public class ChunkedArrayQueue<E> implements Iterable<E> {
 
     public void offer(@NotNull final E e) {
         Chunk<E> producerChunk = this.producerChunk;
+        if (producerChunk == null) {
+            producerChunk = this.producerChunk = consumerChunk = new Chunk<>(chunkSize);
+        }
         int producerIndex = this.producerIndex;
         if ((producerIndex == chunkSize) ||
                 ((producerChunk == consumerChunk) && (producerChunk.values[producerIndex] != null))) {
@@ -70,6 +78,9 @@ public class ChunkedArrayQueue<E> implements Iterable<E> {
     @Nullable
     public E poll() {
         final Chunk<E> consumerChunk = this.consumerChunk;
+        if (consumerChunk == null) {
+            return null;
+        }
         int consumerIndex = this.consumerIndex;
         final E e = consumerChunk.values[consumerIndex];
         if (e == null) {
@@ -92,7 +103,7 @@ public class ChunkedArrayQueue<E> implements Iterable<E> {
 
     @Nullable
     public E peek() {
-        return consumerChunk.values[consumerIndex];
+        return (consumerChunk == null) ? null : consumerChunk.values[consumerIndex];
     }
 
     public void clear() {
@@ -28,21 +28,31 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 public interface IntMap<E> {
 
+    /**
+     * Creates an int map for the given key range. The backing storage is allocated lazily on the first put, so an unused
+     * map only costs a small constant amount of memory.
+     *
+     * @param minKey the minimum key (inclusive).
+     * @param maxKey the maximum key (inclusive).
+     * @param <E>    the type of the values.
+     * @return the created int map.
+     */
     @NotNull
     static <E> IntMap<E> range(final int minKey, final int maxKey) {
-        final int capacity = maxKey - minKey + 1;
+        return new IntMapCheck<>(minKey, maxKey);
+    }
+
+    @NotNull
+    static <E> IntMap<E> allocate(final int capacity) {
         final int capacityBits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
-        final IntMap<E> intMap;
         if (capacityBits < 7) {
-            intMap = new IntMapArray<>(capacity);
+            return new IntMapArray<>(capacity);
         } else if (capacityBits < 15) {
-            intMap = new IntMapAllocator<E>(capacityBits, 2).alloc();
+            return new IntMapAllocator<E>(capacityBits, 2).alloc();
         } else if (capacityBits < 22) {
-            intMap = new IntMapAllocator<E>(capacityBits, 3).alloc();
-        } else {
-            intMap = new IntMapAllocator<E>(capacityBits, 4).alloc();
+            return new IntMapAllocator<E>(capacityBits, 3).alloc();
         }
-        return new IntMapCheck<>(intMap, minKey, maxKey);
+        return new IntMapAllocator<E>(capacityBits, 4).alloc();
     }
 
     @Nullable
@@ -58,12 +68,11 @@ public interface IntMap<E> {
 
     class IntMapCheck<E> implements IntMap<E> {
 
-        private final IntMap<E> delegate;
+        private IntMap<E> delegate;
         private final int minKey;
         private final int maxKey;
 
-        IntMapCheck(@NotNull final IntMap<E> delegate, final int minKey, final int maxKey) {
-            this.delegate = delegate;
+        IntMapCheck(final int minKey, final int maxKey) {
             this.minKey = minKey;
             this.maxKey = maxKey;
         }
@@ -71,24 +80,30 @@ public interface IntMap<E> {
         @Nullable
         @Override
         public E put(final int key, @NotNull final E value) {
-            return delegate.put(checkKey(key), value);
+            final int index = checkKey(key);
+            if (delegate == null) {
+                delegate = IntMap.allocate(maxKey - minKey + 1);
+            }
+            return delegate.put(index, value);
         }
 
         @Nullable
         @Override
         public E get(final int key) {
-            return delegate.get(checkKey(key));
+            final int index = checkKey(key);
+            return (delegate == null) ? null : delegate.get(index);
         }
 
         @Nullable
         @Override
         public E remove(final int key) {
-            return delegate.remove(checkKey(key));
+            final int index = checkKey(key);
+            return (delegate == null) ? null : delegate.remove(index);
         }
 
         @Override
         public int size() {
-            return delegate.size();
+            return (delegate == null) ? 0 : delegate.size();
         }
 
         private int checkKey(final int key) {
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.util;
+
+/**
+ * Util for thread features which depend on the Java version.
+ * <p>
+ * This is the Java 21 version, which replaces the Java 8 version in the multi-release JAR on Java 21 and later. Both
+ * versions must have the same public methods.
+ *
+ * @author Silvio Giebl
+ */
+public class ThreadUtil {
+
+    private ThreadUtil() {
+    }
+
+    /**
+     * @return whether the current thread is a virtual thread.
+     */
+    public static boolean isCurrentThreadVirtual() {
+        return Thread.currentThread().isVirtual();
+    }
+
+    /**
+     * Indicates that the current thread is busy waiting.
+     */
+    public static void onSpinWait() {
+        Thread.onSpinWait();
+    }
+
+}
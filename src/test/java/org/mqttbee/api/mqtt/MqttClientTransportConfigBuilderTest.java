@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttClientTransportConfigBuilderTest {
+
+    @Test
+    void build_defaults() {
+        final MqttClientTransportConfig transportConfig = MqttClientTransportConfig.builder().build();
+
+        assertEquals(Optional.empty(), transportConfig.getSendBufferSize());
+        assertEquals(Optional.empty(), transportConfig.getReceiveBufferSize());
+        assertEquals(Optional.empty(), transportConfig.getWriteBufferLowWaterMark());
+        assertEquals(Optional.empty(), transportConfig.getWriteBufferHighWaterMark());
+        assertEquals(Optional.empty(), transportConfig.getFixedReceiveBufferSize());
+        assertEquals(Optional.empty(), transportConfig.getMaxMessagesPerRead());
+        assertFalse(transportConfig.usesTcpQuickAck());
+        assertEquals(Optional.empty(), transportConfig.getTcpNotSentLowAt());
+        assertEquals(Optional.empty(), transportConfig.getBusyPollMicros());
+        assertFalse(transportConfig.autoTunesBuffers());
+    }
+
+    @Test
+    void build_all() {
+        final MqttClientTransportConfig transportConfig = MqttClientTransportConfig.builder()
+                .sendBufferSize(1 << 20)
+                .receiveBufferSize(1 << 19)
+                .writeBufferWaterMarks(1 << 15, 1 << 16)
+                .fixedReceiveBufferSize(4096)
+                .maxMessagesPerRead(4)
+                .tcpQuickAck(true)
+                .tcpNotSentLowAt(1 << 14)
+                .busyPollMicros(50)
+                .autoTuneBuffers(true)
+                .build();
+
+        assertEquals(Optional.of(1 << 20), transportConfig.getSendBufferSize());
+        assertEquals(Optional.of(1 << 19), transportConfig.getReceiveBufferSize());
+        assertEquals(Optional.of(1 << 15), transportConfig.getWriteBufferLowWaterMark());
+        assertEquals(Optional.of(1 << 16), transportConfig.getWriteBufferHighWaterMark());
+        assertEquals(Optional.of(4096), transportConfig.getFixedReceiveBufferSize());
+        assertEquals(Optional.of(4), transportConfig.getMaxMessagesPerRead());
+        assertTrue(transportConfig.usesTcpQuickAck());
+        assertEquals(Optional.of(1 << 14), transportConfig.getTcpNotSentLowAt());
+        assertEquals(Optional.of(50), transportConfig.getBusyPollMicros());
+        assertTrue(transportConfig.autoTunesBuffers());
+    }
+
+    @Test
+    void writeBufferWaterMarks_highSmallerThanLow_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttClientTransportConfig.builder().writeBufferWaterMarks(1 << 16, 1 << 15));
+    }
+
+    @Test
+    void sendBufferSize_zero_throws() {
+        assertThrows(IllegalArgumentException.class, () -> MqttClientTransportConfig.builder().sendBufferSize(0));
+    }
+
+    @Test
+    void transportConfig_fluent_passedToClientData() {
+        final MqttClientTransportConfig transportConfig = MqttClient.builder()
+                .transportConfig()
+                .sendBufferSize(1 << 20)
+                .done()
+                .useMqttVersion5()
+                .buildReactive()
+                .getClientData()
+                .getTransportConfig();
+
+        assertEquals(Optional.of(1 << 20), transportConfig.getSendBufferSize());
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.api.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttWebSocketConfigBuilderTest {
+
+    @Test
+    void build_defaults() {
+        final MqttWebSocketConfig webSocketConfig = MqttWebSocketConfig.builder().build();
+
+        assertEquals("", webSocketConfig.getServerPath());
+        assertEquals("mqtt", webSocketConfig.getSubprotocol());
+        assertEquals(Optional.empty(), webSocketConfig.getCompressionConfig());
+        assertFalse(webSocketConfig.batchesFrames());
+    }
+
+    @Test
+    void build_compressionDefaults() {
+        final MqttWebSocketConfig webSocketConfig = MqttWebSocketConfig.builder().compression().done().build();
+
+        assertTrue(webSocketConfig.getCompressionConfig().isPresent());
+        final MqttWebSocketCompressionConfig compressionConfig = webSocketConfig.getCompressionConfig().get();
+        assertEquals(MqttWebSocketCompressionConfig.DEFAULT_COMPRESSION_LEVEL, compressionConfig.getCompressionLevel());
+        assertEquals(MqttWebSocketCompressionConfig.MAX_WINDOW_BITS, compressionConfig.getServerMaxWindowBits());
+        assertFalse(compressionConfig.requestsServerNoContextTakeover());
+        assertFalse(compressionConfig.offersClientNoContextTakeover());
+    }
+
+    @Test
+    void build_all() {
+        final MqttWebSocketConfig webSocketConfig = MqttWebSocketConfig.builder()
+                .serverPath("/mqtt")
+                .subprotocol("mqttv3.1")
+                .compression()
+                .compressionLevel(1)
+                .serverMaxWindowBits(10)
+                .serverNoContextTakeover(true)
+                .clientNoContextTakeover(true)
+                .done()
+                .batchFrames(true)
+                .build();
+
+        assertEquals("mqtt", webSocketConfig.getServerPath());
+        assertEquals("mqttv3.1", webSocketConfig.getSubprotocol());
+        assertTrue(webSocketConfig.batchesFrames());
+        final MqttWebSocketCompressionConfig compressionConfig = webSocketConfig.getCompressionConfig().get();
+        assertEquals(1, compressionConfig.getCompressionLevel());
+        assertEquals(10, compressionConfig.getServerMaxWindowBits());
+        assertTrue(compressionConfig.requestsServerNoContextTakeover());
+        assertTrue(compressionConfig.offersClientNoContextTakeover());
+    }
+
+    @Test
+    void compressionLevel_outOfRange_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttWebSocketCompressionConfig.builder().compressionLevel(10));
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttWebSocketCompressionConfig.builder().compressionLevel(-1));
+    }
+
+    @Test
+    void serverMaxWindowBits_outOfRange_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttWebSocketCompressionConfig.builder().serverMaxWindowBits(7));
+        assertThrows(IllegalArgumentException.class,
+                () -> MqttWebSocketCompressionConfig.builder().serverMaxWindowBits(16));
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttAckLatencyPhase;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttLatencySnapshot;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttAckLatenciesImplTest {
+
+    @Test
+    void getIntervalSnapshot_nothingRecorded_empty() {
+        final MqttAckLatenciesImpl ackLatencies = new MqttAckLatenciesImpl();
+
+        final MqttLatencySnapshot snapshot = ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBACK);
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMinNanos());
+        assertEquals(0, snapshot.getMaxNanos());
+        assertEquals(0, snapshot.getValueAtPercentileNanos(99));
+    }
+
+    @Test
+    void record_separatedByPhase() {
+        final MqttAckLatenciesImpl ackLatencies = new MqttAckLatenciesImpl();
+
+        ackLatencies.record(MqttAckLatencyPhase.PUBLISH_TO_PUBACK, TimeUnit.MILLISECONDS.toNanos(1));
+        ackLatencies.record(MqttAckLatencyPhase.PUBLISH_TO_PUBACK, TimeUnit.MILLISECONDS.toNanos(2));
+        ackLatencies.record(MqttAckLatencyPhase.PUBREL_TO_PUBCOMP, TimeUnit.MILLISECONDS.toNanos(5));
+
+        final MqttLatencySnapshot pubAck = ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBACK);
+        assertEquals(2, pubAck.getCount());
+        assertEquals(1.0, pubAck.getMinNanos() / 1e6, 0.01);
+        assertEquals(2.0, pubAck.getMaxNanos() / 1e6, 0.02);
+        assertEquals(1.5, pubAck.getMeanNanos() / 1e6, 0.02);
+        assertEquals(0, ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBREC).getCount());
+        assertEquals(1, ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBREL_TO_PUBCOMP).getCount());
+    }
+
+    @Test
+    void getIntervalSnapshot_startsNewInterval() {
+        final MqttAckLatenciesImpl ackLatencies = new MqttAckLatenciesImpl();
+
+        ackLatencies.record(MqttAckLatencyPhase.PUBLISH_TO_PUBREC, 10_000);
+        assertEquals(1, ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBREC).getCount());
+        assertEquals(0, ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBREC).getCount());
+
+        ackLatencies.record(MqttAckLatencyPhase.PUBLISH_TO_PUBREC, 20_000);
+        final MqttLatencySnapshot snapshot = ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBREC);
+        assertEquals(1, snapshot.getCount());
+        assertTrue(snapshot.getStartTimeStamp() <= snapshot.getEndTimeStamp());
+    }
+
+    @Test
+    void record_outOfRange_clamped() {
+        final MqttAckLatenciesImpl ackLatencies = new MqttAckLatenciesImpl();
+
+        ackLatencies.record(MqttAckLatencyPhase.PUBLISH_TO_PUBACK, Long.MAX_VALUE);
+        ackLatencies.record(MqttAckLatencyPhase.PUBLISH_TO_PUBACK, -1);
+
+        final MqttLatencySnapshot snapshot = ackLatencies.getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBACK);
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getMinNanos());
+        assertTrue(snapshot.getMaxNanos() >= MqttAckLatenciesImpl.HIGHEST_TRACKABLE_NANOS);
+    }
+
+    @Test
+    void publishQos1_recordsPublishToPubAck() {
+        try (final MqttEmbeddedBroker broker = MqttEmbeddedBroker.builder().build()) {
+            final Mqtt5Client client = MqttClient.builder()
+                    .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                    .serverPort(broker.bindTcp(0))
+                    .useMqttVersion5()
+                    .buildReactive();
+            client.connect().blockingGet();
+
+            client.publish(Flowable.range(0, 10)
+                    .map(i -> Mqtt5Publish.builder().topic("test").qos(MqttQos.AT_LEAST_ONCE).build()))
+                    .blockingSubscribe();
+
+            final MqttLatencySnapshot snapshot = client.getClientData()
+                    .getAckLatencies()
+                    .getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBACK);
+            assertEquals(10, snapshot.getCount());
+            assertTrue(snapshot.getValueAtPercentileNanos(50) > 0);
+            assertEquals(0, client.getClientData()
+                    .getAckLatencies()
+                    .getIntervalSnapshot(MqttAckLatencyPhase.PUBLISH_TO_PUBREC)
+                    .getCount());
+
+            client.disconnect().blockingAwait();
+        }
+    }
+
+}
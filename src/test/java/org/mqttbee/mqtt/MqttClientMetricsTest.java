@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import io.reactivex.Flowable;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientGauges;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttClientMetricsTest {
+
+    private MqttEmbeddedBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void noMetrics_noopInstance() {
+        final Mqtt5Client client = MqttClient.builder().useMqttVersion5().buildReactive();
+
+        assertSame(MqttNoopClientMetrics.INSTANCE, ((MqttClientData) client.getClientData()).getMetrics());
+    }
+
+    @Test
+    void metrics_countMessagesFlushesAndDisconnect() {
+        final CountingMetrics metrics = new CountingMetrics();
+        final Mqtt5Client client = MqttClient.builder()
+                .identifier("metrics")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(broker.bindTcp(0))
+                .metrics(metrics)
+                .useMqttVersion5()
+                .buildReactive();
+
+        final MqttClientGauges gauges = metrics.gauges.get();
+        assertNotNull(gauges);
+        assertEquals(0, gauges.getOutgoingPublishQueueSize());
+        assertEquals(-1, gauges.getSmoothedRttNanos());
+
+        client.connect().blockingGet();
+        assertEquals(1, metrics.connected.get());
+        assertEquals(1, metrics.encoded.get(Mqtt5MessageType.CONNECT.getCode()));
+        assertEquals(1, metrics.decoded.get(Mqtt5MessageType.CONNACK.getCode()));
+        assertTrue(metrics.encodedBytes.get() > 0);
+        assertTrue(metrics.decodedBytes.get() > 0);
+        assertTrue(metrics.flushes.get() > 0);
+
+        client.publish(Flowable.just(Mqtt5Publish.builder().topic("test").qos(MqttQos.AT_LEAST_ONCE).build()))
+                .blockingSubscribe();
+        assertEquals(1, metrics.encoded.get(Mqtt5MessageType.PUBLISH.getCode()));
+        assertEquals(1, metrics.decoded.get(Mqtt5MessageType.PUBACK.getCode()));
+        assertEquals(0, gauges.getOutgoingQos1Or2PublishCount());
+        assertTrue(gauges.getSmoothedRttNanos() > 0);
+
+        client.disconnect().blockingAwait();
+        assertEquals(1, metrics.disconnected.get());
+        assertEquals(Boolean.FALSE, metrics.disconnectedFromServer.get());
+    }
+
+    private static class CountingMetrics implements MqttClientMetrics {
+
+        final AtomicReference<MqttClientGauges> gauges = new AtomicReference<>();
+        final AtomicInteger connected = new AtomicInteger();
+        final AtomicInteger disconnected = new AtomicInteger();
+        final AtomicReference<Boolean> disconnectedFromServer = new AtomicReference<>();
+        final AtomicIntegerArray encoded = new AtomicIntegerArray(16);
+        final AtomicIntegerArray decoded = new AtomicIntegerArray(16);
+        final AtomicInteger encodedBytes = new AtomicInteger();
+        final AtomicInteger decodedBytes = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void bindGauges(@NotNull final MqttClientGauges gauges) {
+            this.gauges.set(gauges);
+        }
+
+        @Override
+        public void onConnected() {
+            connected.incrementAndGet();
+        }
+
+        @Override
+        public void onDisconnected(@NotNull final Throwable cause, final boolean fromServer) {
+            disconnected.incrementAndGet();
+            disconnectedFromServer.set(fromServer);
+        }
+
+        @Override
+        public void onMessageEncoded(@NotNull final Mqtt5MessageType type, final int bytes) {
+            encoded.incrementAndGet(type.getCode());
+            encodedBytes.addAndGet(bytes);
+        }
+
+        @Override
+        public void onMessageDecoded(@NotNull final Mqtt5MessageType type, final int bytes) {
+            decoded.incrementAndGet(type.getCode());
+            decodedBytes.addAndGet(bytes);
+        }
+
+        @Override
+        public void onFlush() {
+            flushes.incrementAndGet();
+        }
+
+    }
+
+}
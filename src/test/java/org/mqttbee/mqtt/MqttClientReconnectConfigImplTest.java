@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt;
+
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClientReconnectConfig;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttClientReconnectConfigImplTest {
+
+    @Test
+    void getDelayNanos_growsExponentiallyUntilMaxDelay() {
+        final MqttClientReconnectConfigImpl config = new MqttClientReconnectConfigImpl(100, 1000, 2, 0);
+
+        assertEquals(100, config.getDelayNanos(0, 0.5));
+        assertEquals(200, config.getDelayNanos(1, 0.5));
+        assertEquals(800, config.getDelayNanos(3, 0.5));
+        assertEquals(1000, config.getDelayNanos(4, 0.5));
+        assertEquals(1000, config.getDelayNanos(1000, 0.5));
+    }
+
+    @Test
+    void getDelayNanos_jitterReducesDelay() {
+        final MqttClientReconnectConfigImpl config = new MqttClientReconnectConfigImpl(1000, 1000, 2, 0.5);
+
+        assertEquals(1000, config.getDelayNanos(0, 0));
+        assertEquals(750, config.getDelayNanos(0, 0.5));
+        assertEquals(500, config.getDelayNanos(0, 1));
+    }
+
+    @Test
+    void builder() {
+        final MqttClientReconnectConfig config = MqttClientReconnectConfig.builder()
+                .initialDelay(1, TimeUnit.MILLISECONDS)
+                .maxDelay(2, TimeUnit.SECONDS)
+                .multiplier(1.5)
+                .jitter(0.25)
+                .build();
+
+        assertEquals(1, config.getInitialDelay(TimeUnit.MILLISECONDS));
+        assertEquals(2, config.getMaxDelay(TimeUnit.SECONDS));
+        assertEquals(1.5, config.getMultiplier());
+        assertEquals(0.25, config.getJitter());
+    }
+
+    @Test
+    void builder_maxDelaySmallerThanInitialDelay_throws() {
+        assertThrows(IllegalArgumentException.class, () -> MqttClientReconnectConfig.builder()
+                .initialDelay(2, TimeUnit.SECONDS)
+                .maxDelay(1, TimeUnit.SECONDS)
+                .build());
+    }
+
+}
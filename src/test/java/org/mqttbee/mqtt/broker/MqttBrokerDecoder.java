@@ -0,0 +1,299 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.broker;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5RetainHandling;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.codec.decoder.MqttDecoderException;
+import org.mqttbee.mqtt.codec.decoder.MqttMessageDecoder;
+import org.mqttbee.mqtt.codec.decoder.MqttMessageDecoders;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttUTF8StringImpl;
+import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
+import org.mqttbee.mqtt.datatypes.MqttUserPropertyImpl;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.message.MqttMessage;
+import org.mqttbee.mqtt.message.connect.MqttConnect;
+import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
+import org.mqttbee.mqtt.message.connect.MqttStatefulConnect;
+import org.mqttbee.mqtt.message.ping.MqttPingReq;
+import org.mqttbee.mqtt.message.subscribe.MqttStatefulSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.mqttbee.mqtt.message.unsubscribe.MqttStatefulUnsubscribe;
+import org.mqttbee.mqtt.message.unsubscribe.MqttUnsubscribe;
+
+import java.util.List;
+
+import static org.mqttbee.mqtt.message.MqttProperty.*;
+
+/**
+ * Server side decoder of the embedded broker.
+ * <p>
+ * PUBLISH, the acknowledgements, DISCONNECT and AUTH have the same format in both directions, so they are delegated
+ * to the client's {@link MqttMessageDecoders}. Only the packets a client never receives (CONNECT, SUBSCRIBE,
+ * UNSUBSCRIBE and PINGREQ) are decoded here, and only as far as the broker needs them.
+ *
+ * @author Silvio Giebl
+ */
+class MqttBrokerDecoder extends ByteToMessageDecoder {
+
+    private static final int MIN_FIXED_HEADER_LENGTH = 2;
+    private static final int PROTOCOL_VERSION = 5;
+
+    private final MqttMessageDecoders decoders;
+    private final MqttClientConnectionData connectionData;
+
+    MqttBrokerDecoder(
+            @NotNull final MqttMessageDecoders decoders, @NotNull final MqttClientConnectionData connectionData) {
+
+        this.decoders = decoders;
+        this.connectionData = connectionData;
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+        if (in.readableBytes() < MIN_FIXED_HEADER_LENGTH) {
+            return;
+        }
+        final int readerIndexBeforeFixedHeader = in.readerIndex();
+
+        final short fixedHeader = in.readUnsignedByte();
+        final int messageType = fixedHeader >> 4;
+        final int flags = fixedHeader & 0xF;
+        final int remainingLength = MqttVariableByteInteger.decode(in);
+
+        if ((remainingLength == MqttVariableByteInteger.NOT_ENOUGH_BYTES) || (in.readableBytes() < remainingLength)) {
+            in.readerIndex(readerIndexBeforeFixedHeader);
+            return;
+        }
+
+        try {
+            if (remainingLength < 0) {
+                throw new MqttDecoderException("malformed remaining length");
+            }
+            final MqttMessage message = decode(messageType, flags, in.readSlice(remainingLength));
+            if (message != null) {
+                out.add(message);
+            }
+        } catch (final MqttDecoderException e) {
+            in.clear();
+            ctx.close();
+        }
+    }
+
+    private MqttMessage decode(final int messageType, final int flags, @NotNull final ByteBuf in)
+            throws MqttDecoderException {
+
+        final Mqtt5MessageType type = Mqtt5MessageType.fromCode(messageType);
+        if (type == null) {
+            throw new MqttDecoderException("wrong packet type");
+        }
+        switch (type) {
+            case CONNECT:
+                return decodeConnect(in);
+            case SUBSCRIBE:
+                return decodeSubscribe(in);
+            case UNSUBSCRIBE:
+                return decodeUnsubscribe(in);
+            case PINGREQ:
+                return MqttPingReq.INSTANCE;
+            default:
+                final MqttMessageDecoder decoder = decoders.get(messageType);
+                if (decoder == null) {
+                    throw new MqttDecoderException("must not receive this packet type");
+                }
+                return decoder.decode(flags, in, connectionData);
+        }
+    }
+
+    @NotNull
+    private MqttStatefulConnect decodeConnect(@NotNull final ByteBuf in) throws MqttDecoderException {
+        final MqttUTF8StringImpl protocolName = MqttUTF8StringImpl.from(in);
+        if (!MqttUTF8StringImpl.PROTOCOL_NAME.equals(protocolName) || (in.readableBytes() < 4)) {
+            throw new MqttDecoderException("malformed connect");
+        }
+        if (in.readUnsignedByte() != PROTOCOL_VERSION) {
+            throw new MqttDecoderException("the embedded broker only supports MQTT 5");
+        }
+        final int connectFlags = in.readUnsignedByte();
+        final int keepAlive = in.readUnsignedShort();
+
+        long sessionExpiryInterval = MqttConnect.DEFAULT_SESSION_EXPIRY_INTERVAL;
+        int receiveMaximum = MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM;
+        int topicAliasMaximum = MqttConnectRestrictions.DEFAULT_TOPIC_ALIAS_MAXIMUM;
+        int maximumPacketSize = MqttConnectRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT;
+
+        final int propertiesEnd = propertiesEnd(in);
+        while (in.readerIndex() < propertiesEnd) {
+            final int propertyIdentifier = in.readUnsignedByte();
+            switch (propertyIdentifier) {
+                case SESSION_EXPIRY_INTERVAL:
+                    sessionExpiryInterval = in.readUnsignedInt();
+                    break;
+                case RECEIVE_MAXIMUM:
+                    receiveMaximum = in.readUnsignedShort();
+                    break;
+                case TOPIC_ALIAS_MAXIMUM:
+                    topicAliasMaximum = in.readUnsignedShort();
+                    break;
+                case MAXIMUM_PACKET_SIZE:
+                    maximumPacketSize = (int) Math.min(in.readUnsignedInt(), Integer.MAX_VALUE);
+                    break;
+                case REQUEST_PROBLEM_INFORMATION:
+                case REQUEST_RESPONSE_INFORMATION:
+                    in.skipBytes(1);
+                    break;
+                case AUTHENTICATION_METHOD:
+                case AUTHENTICATION_DATA:
+                    skipBinary(in);
+                    break;
+                case USER_PROPERTY:
+                    skipBinary(in);
+                    skipBinary(in);
+                    break;
+                default:
+                    throw new MqttDecoderException("wrong connect property: " + propertyIdentifier);
+            }
+        }
+
+        final MqttClientIdentifierImpl clientIdentifier = MqttClientIdentifierImpl.from(in);
+        if (clientIdentifier == null) {
+            throw new MqttDecoderException("malformed client identifier");
+        }
+        // will, username and password are not used by the embedded broker, so the rest of the packet is ignored
+
+        final MqttConnect connect = new MqttConnect(keepAlive, (connectFlags & 0b0000_0010) != 0,
+                sessionExpiryInterval, false, true,
+                new MqttConnectRestrictions(receiveMaximum, topicAliasMaximum, maximumPacketSize), null, null, null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES);
+        return connect.createStateful(clientIdentifier, null);
+    }
+
+    @NotNull
+    private MqttStatefulSubscribe decodeSubscribe(@NotNull final ByteBuf in) throws MqttDecoderException {
+        final int packetIdentifier = decodePacketIdentifier(in);
+
+        int subscriptionIdentifier = MqttStatefulSubscribe.DEFAULT_NO_SUBSCRIPTION_IDENTIFIER;
+        ImmutableList.Builder<MqttUserPropertyImpl> userPropertiesBuilder = null;
+        final int propertiesEnd = propertiesEnd(in);
+        while (in.readerIndex() < propertiesEnd) {
+            final int propertyIdentifier = in.readUnsignedByte();
+            switch (propertyIdentifier) {
+                case SUBSCRIPTION_IDENTIFIER:
+                    subscriptionIdentifier = MqttVariableByteInteger.decode(in);
+                    if (subscriptionIdentifier <= 0) {
+                        throw new MqttDecoderException("malformed subscription identifier");
+                    }
+                    break;
+                case USER_PROPERTY:
+                    final MqttUserPropertyImpl userProperty = MqttUserPropertyImpl.decode(in);
+                    if (userProperty == null) {
+                        throw new MqttDecoderException("malformed user property");
+                    }
+                    if (userPropertiesBuilder == null) {
+                        userPropertiesBuilder = ImmutableList.builder();
+                    }
+                    userPropertiesBuilder.add(userProperty);
+                    break;
+                default:
+                    throw new MqttDecoderException("wrong subscribe property: " + propertyIdentifier);
+            }
+        }
+
+        final ImmutableList.Builder<MqttSubscription> subscriptionsBuilder = ImmutableList.builder();
+        while (in.isReadable()) {
+            final MqttTopicFilterImpl topicFilter = MqttTopicFilterImpl.from(in);
+            if ((topicFilter == null) || !in.isReadable()) {
+                throw new MqttDecoderException("malformed topic filter");
+            }
+            final int subscriptionOptions = in.readUnsignedByte();
+            final MqttQos qos = MqttQos.fromCode(subscriptionOptions & 0b0000_0011);
+            final Mqtt5RetainHandling retainHandling = Mqtt5RetainHandling.fromCode((subscriptionOptions >> 4) & 0b11);
+            if ((qos == null) || (retainHandling == null)) {
+                throw new MqttDecoderException("malformed subscription options");
+            }
+            subscriptionsBuilder.add(new MqttSubscription(topicFilter, qos, (subscriptionOptions & 0b0000_0100) != 0,
+                    retainHandling, (subscriptionOptions & 0b0000_1000) != 0));
+        }
+        final ImmutableList<MqttSubscription> subscriptions = subscriptionsBuilder.build();
+        if (subscriptions.isEmpty()) {
+            throw new MqttDecoderException("subscribe without subscriptions");
+        }
+
+        return new MqttSubscribe(subscriptions, MqttUserPropertiesImpl.build(userPropertiesBuilder)).createStateful(
+                packetIdentifier, subscriptionIdentifier);
+    }
+
+    @NotNull
+    private MqttStatefulUnsubscribe decodeUnsubscribe(@NotNull final ByteBuf in) throws MqttDecoderException {
+        final int packetIdentifier = decodePacketIdentifier(in);
+        in.readerIndex(propertiesEnd(in)); // only user properties are allowed, which are not used
+
+        final ImmutableList.Builder<MqttTopicFilterImpl> topicFiltersBuilder = ImmutableList.builder();
+        while (in.isReadable()) {
+            final MqttTopicFilterImpl topicFilter = MqttTopicFilterImpl.from(in);
+            if (topicFilter == null) {
+                throw new MqttDecoderException("malformed topic filter");
+            }
+            topicFiltersBuilder.add(topicFilter);
+        }
+        final ImmutableList<MqttTopicFilterImpl> topicFilters = topicFiltersBuilder.build();
+        if (topicFilters.isEmpty()) {
+            throw new MqttDecoderException("unsubscribe without topic filters");
+        }
+
+        return new MqttUnsubscribe(topicFilters, MqttUserPropertiesImpl.NO_USER_PROPERTIES).createStateful(
+                packetIdentifier);
+    }
+
+    private static int decodePacketIdentifier(@NotNull final ByteBuf in) throws MqttDecoderException {
+        if (in.readableBytes() < 2) {
+            throw new MqttDecoderException("remaining length too short");
+        }
+        return in.readUnsignedShort();
+    }
+
+    private static int propertiesEnd(@NotNull final ByteBuf in) throws MqttDecoderException {
+        final int propertyLength = MqttVariableByteInteger.decode(in);
+        if ((propertyLength < 0) || (in.readableBytes() < propertyLength)) {
+            throw new MqttDecoderException("malformed properties length");
+        }
+        return in.readerIndex() + propertyLength;
+    }
+
+    private static void skipBinary(@NotNull final ByteBuf in) throws MqttDecoderException {
+        if (in.readableBytes() < 2) {
+            throw new MqttDecoderException("malformed binary data");
+        }
+        final int length = in.readUnsignedShort();
+        if (in.readableBytes() < length) {
+            throw new MqttDecoderException("malformed binary data");
+        }
+        in.skipBytes(length);
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.broker;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5ReasonCode;
+import org.mqttbee.mqtt.codec.encoder.MqttMessageEncoder;
+import org.mqttbee.mqtt.codec.encoder.MqttMessageEncoders;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.message.MqttMessage;
+import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
+import org.mqttbee.mqtt.message.connect.connack.MqttConnAck;
+import org.mqttbee.mqtt.message.connect.connack.MqttConnAckRestrictions;
+import org.mqttbee.mqtt.message.ping.MqttPingResp;
+import org.mqttbee.mqtt.message.subscribe.suback.MqttSubAck;
+import org.mqttbee.mqtt.message.unsubscribe.unsuback.MqttUnsubAck;
+
+import static org.mqttbee.mqtt.message.MqttProperty.*;
+
+/**
+ * Server side encoder of the embedded broker.
+ * <p>
+ * CONNACK, SUBACK, UNSUBACK and PINGRESP are encoded here without any optional properties except the ones the client
+ * needs to honor the broker's limits. All other messages are delegated to the client's {@link MqttMessageEncoders}.
+ *
+ * @author Silvio Giebl
+ */
+class MqttBrokerEncoder extends ChannelOutboundHandlerAdapter {
+
+    private final MqttMessageEncoders encoders;
+    private int maximumPacketSize = MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT;
+
+    MqttBrokerEncoder(@NotNull final MqttMessageEncoders encoders) {
+        this.encoders = encoders;
+    }
+
+    void setMaximumPacketSize(final int maximumPacketSize) {
+        this.maximumPacketSize = maximumPacketSize;
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+        if (msg instanceof MqttConnAck) {
+            ctx.write(encodeConnAck((MqttConnAck) msg, ctx), promise);
+        } else if (msg instanceof MqttSubAck) {
+            final MqttSubAck subAck = (MqttSubAck) msg;
+            ctx.write(encodeAck(Mqtt5MessageType.SUBACK, subAck.getPacketIdentifier(), subAck.getReasonCodes(), ctx),
+                    promise);
+        } else if (msg instanceof MqttUnsubAck) {
+            final MqttUnsubAck unsubAck = (MqttUnsubAck) msg;
+            ctx.write(encodeAck(Mqtt5MessageType.UNSUBACK, unsubAck.getPacketIdentifier(), unsubAck.getReasonCodes(),
+                    ctx), promise);
+        } else if (msg instanceof MqttPingResp) {
+            final ByteBuf out = ctx.alloc().ioBuffer(2, 2);
+            out.writeByte(Mqtt5MessageType.PINGRESP.getCode() << 4).writeByte(0);
+            ctx.write(out, promise);
+        } else if (msg instanceof MqttMessage) {
+            final MqttMessage message = (MqttMessage) msg;
+            final MqttMessageEncoder messageEncoder = encoders.get(message.getType().getCode());
+            if (messageEncoder == null) {
+                throw new UnsupportedOperationException();
+            }
+            ctx.write(messageEncoder.castAndEncode(message, ctx.alloc(), maximumPacketSize), promise);
+        } else {
+            ctx.write(msg, promise);
+        }
+    }
+
+    @NotNull
+    private static ByteBuf encodeConnAck(@NotNull final MqttConnAck connAck, @NotNull final ChannelHandlerContext ctx) {
+        final MqttConnAckRestrictions restrictions = connAck.getRestrictions();
+        final MqttClientIdentifierImpl assignedClientIdentifier = connAck.getRawAssignedClientIdentifier();
+
+        int propertyLength = 0;
+        if (restrictions.getReceiveMaximum() != MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM) {
+            propertyLength += 3;
+        }
+        if (restrictions.getTopicAliasMaximum() != MqttConnectRestrictions.DEFAULT_TOPIC_ALIAS_MAXIMUM) {
+            propertyLength += 3;
+        }
+        if (restrictions.getMaximumPacketSize() != MqttConnAckRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT) {
+            propertyLength += 5;
+        }
+        if (assignedClientIdentifier != null) {
+            propertyLength += 1 + assignedClientIdentifier.encodedLength();
+        }
+        final int remainingLength = 2 + MqttVariableByteInteger.encodedLength(propertyLength) + propertyLength;
+
+        final ByteBuf out = ctx.alloc().ioBuffer();
+        out.writeByte(Mqtt5MessageType.CONNACK.getCode() << 4);
+        MqttVariableByteInteger.encode(remainingLength, out);
+        out.writeByte(connAck.isSessionPresent() ? 1 : 0);
+        out.writeByte(connAck.getReasonCode().getCode());
+        MqttVariableByteInteger.encode(propertyLength, out);
+        if (restrictions.getReceiveMaximum() != MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM) {
+            out.writeByte(RECEIVE_MAXIMUM).writeShort(restrictions.getReceiveMaximum());
+        }
+        if (restrictions.getTopicAliasMaximum() != MqttConnectRestrictions.DEFAULT_TOPIC_ALIAS_MAXIMUM) {
+            out.writeByte(TOPIC_ALIAS_MAXIMUM).writeShort(restrictions.getTopicAliasMaximum());
+        }
+        if (restrictions.getMaximumPacketSize() != MqttConnAckRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT) {
+            out.writeByte(MAXIMUM_PACKET_SIZE).writeInt(restrictions.getMaximumPacketSize());
+        }
+        if (assignedClientIdentifier != null) {
+            out.writeByte(ASSIGNED_CLIENT_IDENTIFIER);
+            assignedClientIdentifier.to(out);
+        }
+        return out;
+    }
+
+    @NotNull
+    private static ByteBuf encodeAck(
+            @NotNull final Mqtt5MessageType type, final int packetIdentifier,
+            @NotNull final ImmutableList<? extends Mqtt5ReasonCode> reasonCodes,
+            @NotNull final ChannelHandlerContext ctx) {
+
+        final int remainingLength = 2 + 1 + reasonCodes.size();
+        final ByteBuf out = ctx.alloc().ioBuffer();
+        out.writeByte(type.getCode() << 4);
+        MqttVariableByteInteger.encode(remainingLength, out);
+        out.writeShort(packetIdentifier);
+        out.writeByte(0); // no properties
+        for (int i = 0; i < reasonCodes.size(); i++) {
+            out.writeByte(reasonCodes.get(i).getCode());
+        }
+        return out;
+    }
+
+}
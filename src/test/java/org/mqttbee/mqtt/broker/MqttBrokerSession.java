@@ -0,0 +1,299 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.broker;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.ImmutableIntArray;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAckReasonCode;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.TopicAliasUsage;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAckReasonCode;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
+import org.mqttbee.mqtt.message.MqttMessage;
+import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
+import org.mqttbee.mqtt.message.connect.MqttStatefulConnect;
+import org.mqttbee.mqtt.message.connect.connack.MqttConnAck;
+import org.mqttbee.mqtt.message.connect.connack.MqttConnAckRestrictions;
+import org.mqttbee.mqtt.message.disconnect.MqttDisconnect;
+import org.mqttbee.mqtt.message.ping.MqttPingReq;
+import org.mqttbee.mqtt.message.ping.MqttPingResp;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.MqttTopicAliasMapping;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+import org.mqttbee.mqtt.message.publish.pubcomp.MqttPubComp;
+import org.mqttbee.mqtt.message.publish.pubrec.MqttPubRec;
+import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRel;
+import org.mqttbee.mqtt.message.subscribe.MqttStatefulSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.mqttbee.mqtt.message.subscribe.suback.MqttSubAck;
+import org.mqttbee.mqtt.message.unsubscribe.MqttStatefulUnsubscribe;
+import org.mqttbee.mqtt.message.unsubscribe.unsuback.MqttUnsubAck;
+import org.mqttbee.util.Ranges;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side state of one client connection of the embedded broker.
+ * <p>
+ * All methods are called on the event loop of the connection's channel. Publishes routed from other connections are
+ * handed over to this event loop by {@link #deliver(MqttPublish, ImmutableIntArray)}.
+ *
+ * @author Silvio Giebl
+ */
+class MqttBrokerSession extends ChannelInboundHandlerAdapter {
+
+    private final MqttEmbeddedBroker broker;
+    private final MqttBrokerEncoder encoder;
+    private ChannelHandlerContext ctx;
+
+    private boolean connected;
+    private Ranges packetIdentifiers;
+    private MqttTopicAliasMapping topicAliasMapping;
+    private final ArrayDeque<Delivery> pendingDeliveries = new ArrayDeque<>();
+    private final HashMap<Integer, MqttPublish> incomingQos2Publishes = new HashMap<>();
+    private boolean flushScheduled;
+
+    MqttBrokerSession(@NotNull final MqttEmbeddedBroker broker, @NotNull final MqttBrokerEncoder encoder) {
+        this.broker = broker;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void handlerAdded(final ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+        if (msg instanceof MqttStatefulConnect) {
+            readConnect((MqttStatefulConnect) msg);
+        } else if (!connected) {
+            ctx.close();
+        } else if (msg instanceof MqttStatefulPublish) {
+            readPublish((MqttStatefulPublish) msg);
+        } else if (msg instanceof MqttPubAck) {
+            returnPacketIdentifier(((MqttPubAck) msg).getPacketIdentifier());
+        } else if (msg instanceof MqttPubRec) {
+            write(new MqttPubRel(((MqttPubRec) msg).getPacketIdentifier(), MqttPubRel.DEFAULT_REASON_CODE, null,
+                    MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+        } else if (msg instanceof MqttPubRel) {
+            readPubRel((MqttPubRel) msg);
+        } else if (msg instanceof MqttPubComp) {
+            returnPacketIdentifier(((MqttPubComp) msg).getPacketIdentifier());
+        } else if (msg instanceof MqttStatefulSubscribe) {
+            readSubscribe((MqttStatefulSubscribe) msg);
+        } else if (msg instanceof MqttStatefulUnsubscribe) {
+            readUnsubscribe((MqttStatefulUnsubscribe) msg);
+        } else if (msg instanceof MqttPingReq) {
+            write(MqttPingResp.INSTANCE);
+        } else if (msg instanceof MqttDisconnect) {
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) {
+        broker.unsubscribeAll(this);
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+        ctx.close();
+    }
+
+    private void readConnect(@NotNull final MqttStatefulConnect connect) {
+        if (connected) {
+            ctx.close();
+            return;
+        }
+        connected = true;
+
+        final MqttConnectRestrictions restrictions = connect.getStatelessMessage().getRestrictions();
+        encoder.setMaximumPacketSize(restrictions.getMaximumPacketSize());
+        packetIdentifiers = new Ranges(1, restrictions.getReceiveMaximum());
+        if (restrictions.getTopicAliasMaximum() > 0) {
+            topicAliasMapping = new MqttTopicAliasMapping(restrictions.getTopicAliasMaximum());
+        }
+
+        MqttClientIdentifierImpl assignedClientIdentifier = null;
+        if (MqttClientIdentifierImpl.REQUEST_CLIENT_IDENTIFIER_FROM_SERVER.equals(connect.getClientIdentifier())) {
+            assignedClientIdentifier = broker.assignClientIdentifier();
+        }
+
+        final MqttConnAckRestrictions connAckRestrictions =
+                new MqttConnAckRestrictions(broker.getReceiveMaximum(), broker.getTopicAliasMaximum(),
+                        broker.getMaximumPacketSize(), MqttConnAckRestrictions.DEFAULT_MAXIMUM_QOS,
+                        MqttConnAckRestrictions.DEFAULT_RETAIN_AVAILABLE,
+                        MqttConnAckRestrictions.DEFAULT_WILDCARD_SUBSCRIPTION_AVAILABLE,
+                        MqttConnAckRestrictions.DEFAULT_SUBSCRIPTION_IDENTIFIER_AVAILABLE,
+                        MqttConnAckRestrictions.DEFAULT_SHARED_SUBSCRIPTION_AVAILABLE);
+        write(new MqttConnAck(Mqtt5ConnAckReasonCode.SUCCESS, false, MqttConnAck.SESSION_EXPIRY_INTERVAL_FROM_CONNECT,
+                MqttConnAck.KEEP_ALIVE_FROM_CONNECT, assignedClientIdentifier, null, connAckRestrictions, null, null,
+                null, MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+    }
+
+    private void readPublish(@NotNull final MqttStatefulPublish statefulPublish) {
+        final MqttPublish publish = statefulPublish.getStatelessMessage();
+        final int packetIdentifier = statefulPublish.getPacketIdentifier();
+        switch (publish.getQos()) {
+            case AT_MOST_ONCE:
+                broker.route(publish, this);
+                break;
+            case AT_LEAST_ONCE:
+                broker.route(publish, this);
+                writeAck(new MqttPubAck(packetIdentifier, MqttPubAck.DEFAULT_REASON_CODE, null,
+                        MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+                break;
+            case EXACTLY_ONCE:
+                incomingQos2Publishes.putIfAbsent(packetIdentifier, publish);
+                writeAck(new MqttPubRec(packetIdentifier, MqttPubRec.DEFAULT_REASON_CODE, null,
+                        MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+                break;
+        }
+    }
+
+    private void readPubRel(@NotNull final MqttPubRel pubRel) {
+        final MqttPublish publish = incomingQos2Publishes.remove(pubRel.getPacketIdentifier());
+        if (publish != null) {
+            broker.route(publish, this);
+        }
+        writeAck(new MqttPubComp(pubRel.getPacketIdentifier(), MqttPubComp.DEFAULT_REASON_CODE, null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+    }
+
+    private void readSubscribe(@NotNull final MqttStatefulSubscribe subscribe) {
+        broker.onSubscribe(subscribe.getStatelessMessage());
+        final ImmutableList<MqttSubscription> subscriptions = subscribe.getStatelessMessage().getSubscriptions();
+        final ImmutableList.Builder<Mqtt5SubAckReasonCode> reasonCodes = ImmutableList.builder();
+        for (final MqttSubscription subscription : subscriptions) {
+            broker.subscribe(this, subscription, subscribe.getSubscriptionIdentifier());
+            reasonCodes.add(Mqtt5SubAckReasonCode.fromCode(subscription.getQos().getCode()));
+        }
+        write(new MqttSubAck(subscribe.getPacketIdentifier(), reasonCodes.build(), null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+    }
+
+    private void readUnsubscribe(@NotNull final MqttStatefulUnsubscribe unsubscribe) {
+        final ImmutableList<MqttTopicFilterImpl> topicFilters = unsubscribe.getStatelessMessage().getTopicFilters();
+        final ImmutableList.Builder<Mqtt5UnsubAckReasonCode> reasonCodes = ImmutableList.builder();
+        for (final MqttTopicFilterImpl topicFilter : topicFilters) {
+            reasonCodes.add(broker.unsubscribe(this, topicFilter) ? Mqtt5UnsubAckReasonCode.SUCCESS :
+                    Mqtt5UnsubAckReasonCode.NO_SUBSCRIPTIONS_EXISTED);
+        }
+        write(new MqttUnsubAck(unsubscribe.getPacketIdentifier(), reasonCodes.build(), null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+    }
+
+    /**
+     * Delivers a publish which was routed to a subscription of this session. May be called from any thread.
+     *
+     * @param publish                 the publish with the QoS already downgraded to the QoS of the subscription.
+     * @param subscriptionIdentifiers the subscription identifiers of the matching subscription.
+     */
+    void deliver(@NotNull final MqttPublish publish, @NotNull final ImmutableIntArray subscriptionIdentifiers) {
+        if (ctx.executor().inEventLoop()) {
+            deliverNow(publish, subscriptionIdentifiers);
+        } else {
+            ctx.executor().execute(() -> deliverNow(publish, subscriptionIdentifiers));
+        }
+    }
+
+    private void deliverNow(
+            @NotNull final MqttPublish publish, @NotNull final ImmutableIntArray subscriptionIdentifiers) {
+
+        if (!ctx.channel().isActive()) {
+            return;
+        }
+        int packetIdentifier = MqttStatefulPublish.NO_PACKET_IDENTIFIER_QOS_0;
+        if (publish.getQos() != MqttQos.AT_MOST_ONCE) {
+            packetIdentifier = packetIdentifiers.getId();
+            if (packetIdentifier == -1) {
+                pendingDeliveries.add(new Delivery(publish, subscriptionIdentifiers));
+                return;
+            }
+        }
+        int topicAlias = MqttStatefulPublish.DEFAULT_NO_TOPIC_ALIAS;
+        boolean isNewTopicAlias = false;
+        if (topicAliasMapping != null) {
+            topicAlias = topicAliasMapping.get(publish.getTopic());
+            if (topicAlias == MqttStatefulPublish.DEFAULT_NO_TOPIC_ALIAS) {
+                topicAlias = topicAliasMapping.set(publish.getTopic(), TopicAliasUsage.IF_AVAILABLE);
+                isNewTopicAlias = topicAlias != MqttStatefulPublish.DEFAULT_NO_TOPIC_ALIAS;
+            }
+        }
+        write(publish.createStateful(packetIdentifier, false, topicAlias, isNewTopicAlias, subscriptionIdentifiers));
+    }
+
+    private void returnPacketIdentifier(final int packetIdentifier) {
+        packetIdentifiers.returnId(packetIdentifier);
+        final Delivery delivery = pendingDeliveries.poll();
+        if (delivery != null) {
+            deliverNow(delivery.publish, delivery.subscriptionIdentifiers);
+        }
+    }
+
+    private void writeAck(@NotNull final MqttMessage ack) {
+        final long ackDelayNanos = broker.getAckDelayNanos();
+        if (ackDelayNanos > 0) {
+            ctx.executor().schedule(() -> write(ack), ackDelayNanos, TimeUnit.NANOSECONDS);
+        } else {
+            write(ack);
+        }
+    }
+
+    /**
+     * Writes the message and flushes once after all currently queued tasks of the event loop have run, so that
+     * messages written in the same event loop iteration are batched.
+     */
+    private void write(@NotNull final MqttMessage message) {
+        ctx.write(message, ctx.voidPromise());
+        if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.executor().execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        ctx.flush();
+    }
+
+    private static class Delivery {
+
+        final MqttPublish publish;
+        final ImmutableIntArray subscriptionIdentifiers;
+
+        Delivery(@NotNull final MqttPublish publish, @NotNull final ImmutableIntArray subscriptionIdentifiers) {
+            this.publish = publish;
+            this.subscriptionIdentifiers = subscriptionIdentifiers;
+        }
+
+    }
+
+}
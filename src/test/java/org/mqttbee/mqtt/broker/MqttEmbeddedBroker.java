@@ -0,0 +1,377 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.broker;
+
+import com.google.common.primitives.ImmutableIntArray;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
+import org.mqttbee.mqtt.message.connect.connack.MqttConnAckRestrictions;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.subscribe.MqttStatefulSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process MQTT 5 broker for running end-to-end tests and benchmarks of the client without network access.
+ * <p>
+ * The broker accepts connections over Netty's {@link LocalServerChannel}, over TCP on the loopback interface and
+ * over Unix domain sockets (only with the native epoll transport). It supports CONNECT, SUBSCRIBE, UNSUBSCRIBE,
+ * PUBLISH with QoS 0, 1 and 2, topic aliases in both directions and PINGREQ. Sessions are not persisted, retained
+ * messages and wills are not supported. Acknowledgements of incoming publishes can be delayed artificially to
+ * simulate a slow broker in a repeatable way.
+ *
+ * @author Silvio Giebl
+ */
+public class MqttEmbeddedBroker implements AutoCloseable {
+
+    @NotNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final int receiveMaximum;
+    private final int topicAliasMaximum;
+    private final int maximumPacketSize;
+    private final long ackDelayNanos;
+
+    private final int threads;
+    private final EventLoopGroup eventLoopGroup;
+    private EventLoopGroup domainSocketEventLoopGroup;
+    private final ChannelGroup serverChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<MqttSubscribe> receivedSubscribes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextClientIdentifier = new AtomicInteger();
+
+    private MqttEmbeddedBroker(
+            final int receiveMaximum, final int topicAliasMaximum, final int maximumPacketSize,
+            final long ackDelayNanos, final int threads) {
+
+        this.receiveMaximum = receiveMaximum;
+        this.topicAliasMaximum = topicAliasMaximum;
+        this.maximumPacketSize = maximumPacketSize;
+        this.ackDelayNanos = ackDelayNanos;
+        this.threads = threads;
+        eventLoopGroup = new NioEventLoopGroup(threads);
+    }
+
+    /**
+     * Binds the broker to the given local address, clients connect to it with a {@link
+     * io.netty.channel.local.LocalChannel LocalChannel}.
+     *
+     * @param localAddress the local address to bind to.
+     * @return the bound local address.
+     */
+    @NotNull
+    public LocalAddress bindLocal(@NotNull final LocalAddress localAddress) {
+        return (LocalAddress) bind(eventLoopGroup, LocalServerChannel.class, localAddress);
+    }
+
+    /**
+     * Binds the broker to the given port on the loopback interface.
+     *
+     * @param port the port to bind to, 0 to choose an ephemeral port.
+     * @return the bound port.
+     */
+    public int bindTcp(final int port) {
+        return ((InetSocketAddress) bind(eventLoopGroup, NioServerSocketChannel.class,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port))).getPort();
+    }
+
+    /**
+     * Binds the broker to a Unix domain socket at the given path. Requires the native epoll transport.
+     *
+     * @param path the path of the Unix domain socket, the file must not exist yet.
+     */
+    public void bindDomainSocket(@NotNull final String path) {
+        synchronized (this) {
+            if (domainSocketEventLoopGroup == null) {
+                domainSocketEventLoopGroup = new EpollEventLoopGroup(threads);
+            }
+        }
+        bind(domainSocketEventLoopGroup, EpollServerDomainSocketChannel.class, new DomainSocketAddress(path));
+    }
+
+    @NotNull
+    private SocketAddress bind(
+            @NotNull final EventLoopGroup eventLoopGroup, @NotNull final Class<? extends ServerChannel> channelClass,
+            @NotNull final SocketAddress address) {
+
+        final Channel serverChannel = new ServerBootstrap().group(eventLoopGroup)
+                .channel(channelClass)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(final Channel channel) {
+                        MqttEmbeddedBroker.this.initChannel(channel);
+                    }
+                })
+                .bind(address)
+                .syncUninterruptibly()
+                .channel();
+        serverChannels.add(serverChannel);
+        return serverChannel.localAddress();
+    }
+
+    private void initChannel(@NotNull final Channel channel) {
+        // the broker side reuses the client codec for the packets which have the same format in both directions
+        final MqttClientData clientData = new MqttClientData(MqttVersion.MQTT_5_0, null, "localhost", 0, null, null,
+                false, false, MqttClientExecutorConfigImpl.DEFAULT, null);
+        final ChannelComponent channelComponent = ChannelComponent.create(channel, clientData);
+        final MqttClientConnectionData connectionData =
+                new MqttClientConnectionData(0, 0, receiveMaximum, topicAliasMaximum,
+                        MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT, null, false, false, false, channel);
+        clientData.setClientConnectionData(connectionData);
+
+        final MqttBrokerEncoder encoder = new MqttBrokerEncoder(channelComponent.messageEncoders());
+        channel.pipeline()
+                .addLast(new MqttBrokerDecoder(channelComponent.messageDecoders(), connectionData))
+                .addLast(encoder)
+                .addLast(new MqttBrokerSession(this, encoder));
+        channels.add(channel);
+    }
+
+    int getReceiveMaximum() {
+        return receiveMaximum;
+    }
+
+    int getTopicAliasMaximum() {
+        return topicAliasMaximum;
+    }
+
+    int getMaximumPacketSize() {
+        return maximumPacketSize;
+    }
+
+    long getAckDelayNanos() {
+        return ackDelayNanos;
+    }
+
+    @NotNull
+    MqttClientIdentifierImpl assignClientIdentifier() {
+        return Objects.requireNonNull(
+                MqttClientIdentifierImpl.from("embedded-" + nextClientIdentifier.getAndIncrement()));
+    }
+
+    /**
+     * @return all SUBSCRIBE messages received from any client, in the order they were received.
+     */
+    @NotNull
+    public List<MqttSubscribe> getReceivedSubscribes() {
+        return new ArrayList<>(receivedSubscribes);
+    }
+
+    void onSubscribe(@NotNull final MqttSubscribe subscribe) {
+        receivedSubscribes.add(subscribe);
+    }
+
+    void subscribe(
+            @NotNull final MqttBrokerSession session, @NotNull final MqttSubscription subscription,
+            final int subscriptionIdentifier) {
+
+        unsubscribe(session, subscription.getTopicFilter());
+        subscriptions.add(new Subscription(session, subscription, subscriptionIdentifier));
+    }
+
+    boolean unsubscribe(@NotNull final MqttBrokerSession session, @NotNull final MqttTopicFilterImpl topicFilter) {
+        return subscriptions.removeIf(subscription -> (subscription.session == session) &&
+                subscription.subscription.getTopicFilter().equals(topicFilter));
+    }
+
+    void unsubscribeAll(@NotNull final MqttBrokerSession session) {
+        subscriptions.removeIf(subscription -> subscription.session == session);
+    }
+
+    /**
+     * Routes a publish to all matching subscriptions. A session with overlapping subscriptions receives one copy per
+     * matching subscription, each with the QoS of its subscription.
+     *
+     * @param publish the publish to route.
+     * @param sender  the session which sent the publish.
+     */
+    void route(@NotNull final MqttPublish publish, @NotNull final MqttBrokerSession sender) {
+        final MqttTopicImpl topic = publish.getTopic();
+        for (final Subscription subscription : subscriptions) {
+            final MqttSubscription mqttSubscription = subscription.subscription;
+            if ((mqttSubscription.isNoLocal() && (subscription.session == sender)) ||
+                    !mqttSubscription.getTopicFilter().matches(topic)) {
+                continue;
+            }
+            subscription.session.deliver(downgrade(publish, mqttSubscription), subscription.subscriptionIdentifiers);
+        }
+    }
+
+    @NotNull
+    private static MqttPublish downgrade(
+            @NotNull final MqttPublish publish, @NotNull final MqttSubscription subscription) {
+
+        final MqttQos qos = (subscription.getQos().getCode() < publish.getQos().getCode()) ? subscription.getQos() :
+                publish.getQos();
+        final boolean isRetain = subscription.isRetainAsPublished() && publish.isRetain();
+        if ((qos == publish.getQos()) && (isRetain == publish.isRetain())) {
+            return publish;
+        }
+        return new MqttPublish(publish.getTopic(), publish.getRawPayload(), qos, isRetain,
+                publish.getRawMessageExpiryInterval(), publish.getRawPayloadFormatIndicator(),
+                publish.getRawContentType(), publish.getRawResponseTopic(), publish.getRawCorrelationData(),
+                publish.usesTopicAlias(), publish.getUserProperties());
+    }
+
+    /**
+     * Closes the connections of all clients without sending a DISCONNECT, the broker keeps accepting new connections.
+     */
+    public void closeConnections() {
+        channels.close().syncUninterruptibly();
+    }
+
+    @Override
+    public void close() {
+        serverChannels.close().syncUninterruptibly();
+        channels.close().syncUninterruptibly();
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        if (domainSocketEventLoopGroup != null) {
+            domainSocketEventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    private static class Subscription {
+
+        final MqttBrokerSession session;
+        final MqttSubscription subscription;
+        final ImmutableIntArray subscriptionIdentifiers;
+
+        Subscription(
+                @NotNull final MqttBrokerSession session, @NotNull final MqttSubscription subscription,
+                final int subscriptionIdentifier) {
+
+            this.session = session;
+            this.subscription = subscription;
+            subscriptionIdentifiers =
+                    (subscriptionIdentifier == MqttStatefulSubscribe.DEFAULT_NO_SUBSCRIPTION_IDENTIFIER) ?
+                            MqttStatefulPublish.DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS :
+                            ImmutableIntArray.of(subscriptionIdentifier);
+        }
+
+    }
+
+    public static class Builder {
+
+        private int receiveMaximum = MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM;
+        private int topicAliasMaximum = 16;
+        private int maximumPacketSize = MqttConnAckRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT;
+        private long ackDelayNanos = 0;
+        private int threads = 1;
+
+        Builder() {
+        }
+
+        /**
+         * @param receiveMaximum the Receive Maximum the broker announces to its clients.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder receiveMaximum(final int receiveMaximum) {
+            this.receiveMaximum = receiveMaximum;
+            return this;
+        }
+
+        /**
+         * @param topicAliasMaximum the Topic Alias Maximum the broker announces to its clients, 0 disables topic
+         *                          aliases for publishes sent by the clients.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder topicAliasMaximum(final int topicAliasMaximum) {
+            this.topicAliasMaximum = topicAliasMaximum;
+            return this;
+        }
+
+        /**
+         * @param maximumPacketSize the Maximum Packet Size the broker announces to its clients.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder maximumPacketSize(final int maximumPacketSize) {
+            this.maximumPacketSize = maximumPacketSize;
+            return this;
+        }
+
+        /**
+         * @param ackDelay the artificial delay before PUBACK, PUBREC and PUBCOMP are sent, 0 for no delay.
+         * @param timeUnit the time unit of the delay.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder ackDelay(final long ackDelay, @NotNull final TimeUnit timeUnit) {
+            this.ackDelayNanos = timeUnit.toNanos(ackDelay);
+            return this;
+        }
+
+        /**
+         * @param threads the number of event loop threads of the broker.
+         * @return this builder.
+         */
+        @NotNull
+        public Builder threads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        @NotNull
+        public MqttEmbeddedBroker build() {
+            return new MqttEmbeddedBroker(receiveMaximum, topicAliasMaximum, maximumPacketSize, ackDelayNanos, threads);
+        }
+
+    }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.broker;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAckReasonCode;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.TopicAliasUsage;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5RetainHandling;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttClientExecutorConfigImpl;
+import org.mqttbee.mqtt.MqttServerConnectionData;
+import org.mqttbee.mqtt.MqttVersion;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicFilterImpl;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+import org.mqttbee.mqtt.message.MqttMessage;
+import org.mqttbee.mqtt.message.connect.MqttConnect;
+import org.mqttbee.mqtt.message.connect.MqttConnectRestrictions;
+import org.mqttbee.mqtt.message.connect.connack.MqttConnAck;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+import org.mqttbee.mqtt.message.publish.pubcomp.MqttPubComp;
+import org.mqttbee.mqtt.message.publish.pubrec.MqttPubRec;
+import org.mqttbee.mqtt.message.publish.pubrel.MqttPubRel;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+import org.mqttbee.mqtt.message.subscribe.suback.MqttSubAck;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttEmbeddedBrokerTest {
+
+    private static final MqttTopicImpl TOPIC = Objects.requireNonNull(MqttTopicImpl.from("test/topic"));
+
+    private MqttEmbeddedBroker broker;
+    private EventLoopGroup clientEventLoopGroup;
+    private final BlockingQueue<MqttMessage> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        clientEventLoopGroup = new DefaultEventLoopGroup(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (broker != null) {
+            broker.close();
+        }
+        clientEventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Test
+    void localChannel_publishQos0To2_routedToSubscriberWithTopicAliases() throws InterruptedException {
+        broker = MqttEmbeddedBroker.builder().topicAliasMaximum(4).build();
+        final LocalAddress address = broker.bindLocal(new LocalAddress("broker-test"));
+        final Channel channel = connectLocal(address);
+
+        channel.writeAndFlush(new MqttConnect(60, true, 0, false, true,
+                new MqttConnectRestrictions(MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM, 4,
+                        MqttConnectRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT), null, null, null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES).createStateful(
+                Objects.requireNonNull(MqttClientIdentifierImpl.from("local")), null));
+        final MqttConnAck connAck = poll(MqttConnAck.class);
+        assertEquals(Mqtt5ConnAckReasonCode.SUCCESS, connAck.getReasonCode());
+        assertEquals(4, connAck.getRestrictions().getTopicAliasMaximum());
+
+        channel.writeAndFlush(new MqttSubscribe(ImmutableList.of(
+                new MqttSubscription(Objects.requireNonNull(MqttTopicFilterImpl.from("test/#")), MqttQos.EXACTLY_ONCE,
+                        false, Mqtt5RetainHandling.SEND, false)), MqttUserPropertiesImpl.NO_USER_PROPERTIES)
+                .createStateful(1, 3));
+        final MqttSubAck subAck = poll(MqttSubAck.class);
+        assertEquals(1, subAck.getPacketIdentifier());
+        assertEquals(ImmutableList.of(Mqtt5SubAckReasonCode.GRANTED_QOS_2), subAck.getReasonCodes());
+
+        channel.writeAndFlush(createPublish(MqttQos.AT_MOST_ONCE, -1, true));
+        final MqttStatefulPublish publish0 = poll(MqttStatefulPublish.class);
+        assertEquals(TOPIC, publish0.getStatelessMessage().getTopic());
+        assertEquals(MqttQos.AT_MOST_ONCE, publish0.getQos());
+        assertEquals(1, publish0.getTopicAlias());
+        assertTrue(publish0.isNewTopicAlias());
+        assertEquals(3, publish0.getSubscriptionIdentifiers().get(0));
+
+        channel.writeAndFlush(createPublish(MqttQos.AT_LEAST_ONCE, 1, false));
+        final MqttStatefulPublish publish1 = poll(MqttStatefulPublish.class);
+        assertEquals(TOPIC, publish1.getStatelessMessage().getTopic());
+        assertEquals(MqttQos.AT_LEAST_ONCE, publish1.getQos());
+        assertFalse(publish1.isNewTopicAlias());
+        assertEquals(1, poll(MqttPubAck.class).getPacketIdentifier());
+        channel.writeAndFlush(new MqttPubAck(publish1.getPacketIdentifier(), MqttPubAck.DEFAULT_REASON_CODE, null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+
+        channel.writeAndFlush(createPublish(MqttQos.EXACTLY_ONCE, 2, false));
+        assertEquals(2, poll(MqttPubRec.class).getPacketIdentifier());
+        assertTrue(received.isEmpty());
+        channel.writeAndFlush(new MqttPubRel(2, MqttPubRel.DEFAULT_REASON_CODE, null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+        final MqttStatefulPublish publish2 = poll(MqttStatefulPublish.class);
+        assertEquals(TOPIC, publish2.getStatelessMessage().getTopic());
+        assertEquals(MqttQos.EXACTLY_ONCE, publish2.getQos());
+        assertEquals(2, poll(MqttPubComp.class).getPacketIdentifier());
+
+        channel.writeAndFlush(new MqttPubRec(publish2.getPacketIdentifier(), MqttPubRec.DEFAULT_REASON_CODE, null,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES));
+        assertEquals(publish2.getPacketIdentifier(), poll(MqttPubRel.class).getPacketIdentifier());
+
+        channel.close().syncUninterruptibly();
+    }
+
+    @Test
+    void tcp_client_publishAndReceive_withAckDelay() {
+        broker = MqttEmbeddedBroker.builder().ackDelay(100, TimeUnit.MILLISECONDS).build();
+        final int port = broker.bindTcp(0);
+
+        final Mqtt5Client client = MqttClient.builder()
+                .identifier("tcp")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .buildReactive();
+        client.connect().done().blockingGet();
+
+        final TestSubscriber<Mqtt5Publish> publishes =
+                client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS).take(1).test();
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").qos(MqttQos.AT_LEAST_ONCE).build())
+                .build()).blockingGet();
+
+        final long start = System.nanoTime();
+        client.publish(Flowable.just(Mqtt5Publish.builder()
+                .topic("test/topic")
+                .qos(MqttQos.AT_LEAST_ONCE)
+                .payload(new byte[]{1, 2, 3})
+                .build())).blockingFirst();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        publishes.awaitDone(5, TimeUnit.SECONDS);
+        publishes.assertValueCount(1);
+        assertArrayEquals(new byte[]{1, 2, 3}, publishes.values().get(0).getPayloadAsBytes());
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void domainSocket_client_publish() throws IOException {
+        assumeTrue(Epoll.isAvailable());
+        final File socketFile = File.createTempFile("mqtt-bee", ".sock");
+        assertTrue(socketFile.delete());
+        try {
+            broker = MqttEmbeddedBroker.builder().build();
+            broker.bindDomainSocket(socketFile.getAbsolutePath());
+
+            final Mqtt5Client client = MqttClient.builder()
+                    .identifier("domainSocket")
+                    .serverDomainSocket(socketFile.getAbsolutePath())
+                    .useMqttVersion5()
+                    .buildReactive();
+            assertEquals(Mqtt5ConnAckReasonCode.SUCCESS, client.connect().done().blockingGet().getReasonCode());
+
+            client.publish(Flowable.just(Mqtt5Publish.builder()
+                    .topic("test/topic")
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .payload(new byte[]{1, 2, 3})
+                    .build())).blockingFirst();
+
+            client.disconnect().blockingAwait();
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            socketFile.delete();
+        }
+    }
+
+    @NotNull
+    private Channel connectLocal(@NotNull final LocalAddress address) {
+        final MqttClientData clientData = new MqttClientData(MqttVersion.MQTT_5_0,
+                Objects.requireNonNull(MqttClientIdentifierImpl.from("local")), "localhost", 0, null, null, false,
+                false, MqttClientExecutorConfigImpl.DEFAULT, null);
+        return new Bootstrap().group(clientEventLoopGroup).channel(LocalChannel.class).handler(
+                new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(final Channel channel) {
+                        final ChannelComponent channelComponent = ChannelComponent.create(channel, clientData);
+                        clientData.setClientConnectionData(new MqttClientConnectionData(60, 0,
+                                MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM, 4,
+                                MqttConnectRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT, null, false, true,
+                                false, channel));
+                        clientData.setServerConnectionData(
+                                new MqttServerConnectionData(MqttConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM, 4,
+                                        MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT, MqttQos.EXACTLY_ONCE, true,
+                                        true, true, true));
+                        channel.pipeline()
+                                .addLast(channelComponent.decoder())
+                                .addLast(channelComponent.encoder())
+                                .addLast(new SimpleChannelInboundHandler<MqttMessage>() {
+                                    @Override
+                                    protected void channelRead0(
+                                            final ChannelHandlerContext ctx, final MqttMessage msg) {
+                                        received.add(msg);
+                                    }
+                                });
+                    }
+                }).connect(address).syncUninterruptibly().channel();
+    }
+
+    @NotNull
+    private static MqttStatefulPublish createPublish(
+            @NotNull final MqttQos qos, final int packetIdentifier, final boolean isNewTopicAlias) {
+
+        return new MqttPublish(TOPIC, ByteBuffer.wrap(new byte[]{1, 2, 3}), qos, false,
+                MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null, null, TopicAliasUsage.YES,
+                MqttUserPropertiesImpl.NO_USER_PROPERTIES).createStateful(packetIdentifier, false, 1, isNewTopicAlias,
+                MqttStatefulPublish.DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS);
+    }
+
+    @NotNull
+    private <M extends MqttMessage> M poll(@NotNull final Class<M> type) throws InterruptedException {
+        final MqttMessage message = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertTrue(type.isInstance(message), "expected " + type.getSimpleName() + " but was " + message);
+        return type.cast(message);
+    }
+
+}
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.ImmutableIntArray;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.mqttbee.api.mqtt.datatypes.MqttQos;
 import org.mqttbee.api.mqtt.exceptions.MqttMaximumPacketSizeExceededException;
@@ -29,11 +30,13 @@ import org.mqttbee.api.mqtt.mqtt5.message.publish.TopicAliasUsage;
 import org.mqttbee.mqtt.datatypes.*;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
 import org.mqttbee.mqtt.message.publish.MqttPublishProperty;
+import org.mqttbee.mqtt.message.publish.MqttPublishTemplate;
 import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
 
 import java.nio.ByteBuffer;
 
 import static java.util.Objects.requireNonNull;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE;
@@ -674,6 +677,112 @@ class Mqtt5PublishEncoderTest extends AbstractMqtt5EncoderWithUserPropertiesTest
         encode(expected, publish, -1, false, DEFAULT_NO_TOPIC_ALIAS, true, ImmutableIntArray.of());
     }
 
+    @Test
+    void encode_template() {
+        final byte[] expected = {
+                // fixed header
+                //   type, flags
+                0b0011_0010,
+                //   remaining length
+                45,
+                // variable header
+                //   topic name
+                0, 5, 't', 'o', 'p', 'i', 'c',
+                //   Packet Identifier
+                0, 7,
+                //   properties
+                32,
+                //     message expiry interval
+                0x02, 0, 0, 0, 10,
+                //     content type
+                0x03, 0, 4, 'j', 's', 'o', 'n',
+                //     user properties
+                0x26, 0, 4, 'u', 's', 'e', 'r', 0, 8, 'p', 'r', 'o', 'p', 'e', 'r', 't', 'y',
+                //     topic alias
+                0x23, 0, 3,
+                // payload
+                1, 2, 3
+        };
+
+        final MqttPublishTemplate template = createTemplate(getUserProperties(1));
+
+        // encode twice as the topic and properties are cached by the template after the first encoding
+        encode(expected, template.publish(new byte[]{1, 2, 3}), 7, false, 3, true, ImmutableIntArray.of());
+        assertNotNull(template.getRawEncodedPrefix());
+        encode(expected, template.publish(new byte[]{1, 2, 3}), 7, false, 3, true, ImmutableIntArray.of());
+    }
+
+    @Test
+    void encode_template_existingTopicAlias_topicNotEncoded() {
+        final byte[] expected = {
+                // fixed header
+                //   type, flags
+                0b0011_0010,
+                //   remaining length
+                40,
+                // variable header
+                //   topic name
+                0, 0,
+                //   Packet Identifier
+                0, 7,
+                //   properties
+                32,
+                //     message expiry interval
+                0x02, 0, 0, 0, 10,
+                //     content type
+                0x03, 0, 4, 'j', 's', 'o', 'n',
+                //     user properties
+                0x26, 0, 4, 'u', 's', 'e', 'r', 0, 8, 'p', 'r', 'o', 'p', 'e', 'r', 't', 'y',
+                //     topic alias
+                0x23, 0, 3,
+                // payload
+                1, 2, 3
+        };
+
+        final MqttPublishTemplate template = createTemplate(getUserProperties(1));
+
+        encode(expected, template.publish(new byte[]{1, 2, 3}), 7, false, 3, false, ImmutableIntArray.of());
+        encode(expected, template.publish(new byte[]{1, 2, 3}), 7, false, 3, false, ImmutableIntArray.of());
+    }
+
+    @Test
+    void encode_template_maximumPacketSizeExceeded_omitUserProperties() {
+        final byte[] expected = {
+                // fixed header
+                //   type, flags
+                0b0011_0010,
+                //   remaining length
+                27,
+                // variable header
+                //   topic name
+                0, 5, 't', 'o', 'p', 'i', 'c',
+                //   Packet Identifier
+                0, 7,
+                //   properties
+                12,
+                //     message expiry interval
+                0x02, 0, 0, 0, 10,
+                //     content type
+                0x03, 0, 4, 'j', 's', 'o', 'n',
+                // payload
+                1, 2, 3, 4, 5
+        };
+
+        createServerConnectionData(expected.length + userPropertyBytes - 1);
+        final MqttPublishTemplate template = createTemplate(getUserProperties(1));
+
+        encode(expected, template.publish(new byte[]{1, 2, 3, 4, 5}), 7, false, DEFAULT_NO_TOPIC_ALIAS, false,
+                ImmutableIntArray.of());
+    }
+
+    @NotNull
+    private static MqttPublishTemplate createTemplate(@NotNull final MqttUserPropertiesImpl userProperties) {
+        return new MqttPublishTemplate(
+                new MqttPublish(requireNonNull(MqttTopicImpl.from("topic")), null, MqttQos.AT_LEAST_ONCE, false, 10,
+                        null, requireNonNull(MqttUTF8StringImpl.from("json")), null, null,
+                        TopicAliasUsage.IF_AVAILABLE, userProperties));
+    }
+
     @Test
     void encode_propertyLengthExceeded_omitUserProperties() {
         final ByteBuf expected = Unpooled.buffer(5 + VARIABLE_BYTE_INTEGER_FOUR_BYTES_MAX_VALUE,
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.connect;
+
+import io.reactivex.Flowable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.advanced.Mqtt5AdvancedClientDataBuilder;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttConnectPipelineTest {
+
+    private MqttEmbeddedBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void defer_beforeOpen_runOnOpen() {
+        final MqttConnectPipeline connectPipeline = new MqttConnectPipeline();
+        final StringBuilder ran = new StringBuilder();
+
+        assertTrue(connectPipeline.defer(() -> ran.append('1')));
+        assertTrue(connectPipeline.defer(() -> ran.append('2')));
+        assertEquals("", ran.toString());
+
+        connectPipeline.open();
+        assertEquals("12", ran.toString());
+
+        assertFalse(connectPipeline.defer(() -> ran.append('3')));
+        connectPipeline.open();
+        assertEquals("12", ran.toString());
+    }
+
+    @Test
+    void pipelinedConnect_subscribeAndPublishIssuedDuringConnect() {
+        final Mqtt5Client client = pipelinedClient(broker.bindTcp(0));
+
+        final TestObserver<Mqtt5ConnAck> connAck = client.connect().test();
+        final TestSubscriber<Mqtt5Publish> received =
+                client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS).take(1).test();
+        final TestObserver<Mqtt5SubAck> subAck = client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").qos(MqttQos.AT_LEAST_ONCE).build())
+                .build()).test();
+        final TestSubscriber<Mqtt5PublishResult> publishResult = client.publish(Flowable.just(
+                Mqtt5Publish.builder().topic("test/pipelined").qos(MqttQos.AT_LEAST_ONCE).build())).test();
+
+        connAck.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        subAck.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        publishResult.awaitDone(5, TimeUnit.SECONDS).assertComplete().assertValueCount(1);
+        assertTrue(publishResult.values().get(0).isSuccess());
+        received.awaitDone(5, TimeUnit.SECONDS).assertValueCount(1);
+        assertNull(((MqttClientData) client.getClientData()).getRawConnectPipeline());
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void pipelinedConnect_connectFails_deferredFailNotConnected() {
+        final int closedPort;
+        try (final MqttEmbeddedBroker closedBroker = MqttEmbeddedBroker.builder().build()) {
+            closedPort = closedBroker.bindTcp(0);
+        }
+        final Mqtt5Client client = pipelinedClient(closedPort);
+
+        final TestObserver<Mqtt5ConnAck> connAck = client.connect().test();
+        final TestObserver<Mqtt5SubAck> subAck = client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").build())
+                .build()).test();
+
+        connAck.awaitDone(5, TimeUnit.SECONDS).assertError(Throwable.class);
+        subAck.awaitDone(5, TimeUnit.SECONDS).assertError(NotConnectedException.class);
+        assertNull(((MqttClientData) client.getClientData()).getRawConnectPipeline());
+    }
+
+    private static Mqtt5Client pipelinedClient(final int port) {
+        return MqttClient.builder()
+                .identifier("pipelined")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .advancedClientData(new Mqtt5AdvancedClientDataBuilder().pipelinedConnect(true).builder())
+                .buildReactive();
+    }
+
+}
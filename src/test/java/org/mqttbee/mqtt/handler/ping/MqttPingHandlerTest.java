@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.ping;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.mqtt.message.ping.MqttPingReq;
+import org.mqttbee.mqtt.message.ping.MqttPingResp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttPingHandlerTest {
+
+    private MqttRttEstimator rttEstimator;
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        rttEstimator = new MqttRttEstimator();
+        channel = new EmbeddedChannel();
+        channel.pipeline().addLast(MqttPingHandler.NAME, new MqttPingHandler(60, 0, rttEstimator));
+    }
+
+    @Test
+    void writerIdle_sendsPingReq() {
+        channel.pipeline().fireUserEventTriggered(IdleStateEvent.WRITER_IDLE_STATE_EVENT);
+
+        assertSame(MqttPingReq.INSTANCE, channel.readOutbound());
+    }
+
+    @Test
+    void writerIdle_pingRespPending_noSecondPingReq() {
+        channel.pipeline().fireUserEventTriggered(IdleStateEvent.WRITER_IDLE_STATE_EVENT);
+        assertSame(MqttPingReq.INSTANCE, channel.readOutbound());
+
+        channel.pipeline().fireUserEventTriggered(IdleStateEvent.WRITER_IDLE_STATE_EVENT);
+        assertNull(channel.readOutbound());
+
+        channel.writeInbound(MqttPingResp.INSTANCE);
+        channel.pipeline().fireUserEventTriggered(IdleStateEvent.WRITER_IDLE_STATE_EVENT);
+        assertSame(MqttPingReq.INSTANCE, channel.readOutbound());
+    }
+
+    @Test
+    void pingResp_addsRttSample() {
+        channel.pipeline().fireUserEventTriggered(IdleStateEvent.WRITER_IDLE_STATE_EVENT);
+        channel.readOutbound();
+
+        channel.writeInbound(MqttPingResp.INSTANCE);
+
+        assertEquals(1, rttEstimator.getSampleCount());
+        assertTrue(rttEstimator.getSmoothedRttNanos() >= 0);
+        assertNull(channel.readInbound());
+    }
+
+    @Test
+    void pingResp_unsolicited_ignored() {
+        channel.writeInbound(MqttPingResp.INSTANCE);
+
+        assertEquals(0, rttEstimator.getSampleCount());
+        assertNull(channel.readInbound());
+    }
+
+    @Test
+    void otherMessages_forwarded() {
+        final Object message = new Object();
+
+        channel.writeInbound(message);
+
+        assertSame(message, channel.readInbound());
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.ping;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttRttEstimatorTest {
+
+    @Test
+    void addSample_first_initializesEstimates() {
+        final MqttRttEstimator rttEstimator = new MqttRttEstimator();
+        assertEquals(MqttRttEstimator.NO_ESTIMATE, rttEstimator.getSmoothedRttNanos());
+        assertEquals(MqttRttEstimator.NO_ESTIMATE, rttEstimator.getRttVariationNanos());
+
+        rttEstimator.addSample(800);
+
+        assertEquals(800, rttEstimator.getSmoothedRttNanos());
+        assertEquals(400, rttEstimator.getRttVariationNanos());
+        assertEquals(1, rttEstimator.getSampleCount());
+    }
+
+    @Test
+    void addSample_subsequent_smoothed() {
+        final MqttRttEstimator rttEstimator = new MqttRttEstimator();
+        rttEstimator.addSample(800);
+
+        rttEstimator.addSample(1600);
+
+        assertEquals((3 * 400 + 800) / 4, rttEstimator.getRttVariationNanos());
+        assertEquals((7 * 800 + 1600) / 8, rttEstimator.getSmoothedRttNanos());
+    }
+
+    @Test
+    void addSample_negative_ignored() {
+        final MqttRttEstimator rttEstimator = new MqttRttEstimator();
+
+        rttEstimator.addSample(-1);
+
+        assertEquals(MqttRttEstimator.NO_ESTIMATE, rttEstimator.getSmoothedRttNanos());
+        assertEquals(0, rttEstimator.getSampleCount());
+    }
+
+    @Test
+    void getTimeoutNanos_noEstimate_max() {
+        final MqttRttEstimator rttEstimator = new MqttRttEstimator();
+
+        assertEquals(60_000, rttEstimator.getTimeoutNanos(4, 5_000, 60_000));
+    }
+
+    @Test
+    void getTimeoutNanos_bounded() {
+        final MqttRttEstimator rttEstimator = new MqttRttEstimator();
+        rttEstimator.addSample(1_000); // rtt + 4 * variation = 3_000
+
+        assertEquals(12_000, rttEstimator.getTimeoutNanos(4, 5_000, 60_000));
+        assertEquals(20_000, rttEstimator.getTimeoutNanos(4, 20_000, 60_000));
+        assertEquals(10_000, rttEstimator.getTimeoutNanos(4, 5_000, 10_000));
+    }
+
+}
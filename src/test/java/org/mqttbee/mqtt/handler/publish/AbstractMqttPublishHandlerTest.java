@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5ConnectRestrictions;
+import org.mqttbee.mqtt.*;
+import org.mqttbee.mqtt.datatypes.MqttClientIdentifierImpl;
+import org.mqttbee.mqtt.datatypes.MqttVariableByteInteger;
+import org.mqttbee.mqtt.ioc.ChannelComponent;
+
+import java.util.Objects;
+
+/**
+ * Creates an embedded channel with the channel component of a connected MQTT 5 client, so that tests can add the
+ * publish handlers to its pipeline and run them on the test thread.
+ *
+ * @author Silvio Giebl
+ */
+abstract class AbstractMqttPublishHandlerTest {
+
+    private final int serverReceiveMaximum;
+    private final MqttClientMetrics metrics;
+
+    EmbeddedChannel channel;
+    ChannelComponent channelComponent;
+
+    AbstractMqttPublishHandlerTest() {
+        this(Mqtt5ConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM, null);
+    }
+
+    AbstractMqttPublishHandlerTest(final int serverReceiveMaximum, @Nullable final MqttClientMetrics metrics) {
+        this.serverReceiveMaximum = serverReceiveMaximum;
+        this.metrics = metrics;
+    }
+
+    @BeforeEach
+    void createChannel() {
+        final MqttClientData clientData = new MqttClientData(MqttVersion.MQTT_5_0,
+                Objects.requireNonNull(MqttClientIdentifierImpl.from("test")), "localhost", 1883, null, null, null,
+                null, false, false, MqttClientExecutorConfigImpl.DEFAULT, MqttClientTransportConfigImpl.DEFAULT,
+                metrics, null);
+        channel = new EmbeddedChannel();
+        channelComponent = ChannelComponent.create(channel, clientData);
+        clientData.setClientConnectionData(new MqttClientConnectionData(60, 0,
+                Mqtt5ConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM, 0,
+                Mqtt5ConnectRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT, null, false, true, false, channel));
+        clientData.setServerConnectionData(new MqttServerConnectionData(serverReceiveMaximum, 0,
+                MqttVariableByteInteger.MAXIMUM_PACKET_SIZE_LIMIT, MqttQos.EXACTLY_ONCE, true, true, true, true));
+    }
+
+    @AfterEach
+    void closeChannel() {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.reactivex.Flowable;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult.Mqtt5Qos1Result;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttAsyncPublishFlowableTest extends AbstractMqttPublishHandlerTest {
+
+    private static final int RECEIVE_MAXIMUM = 2;
+
+    private MqttAsyncPublishFlowable asyncPublishFlowable;
+
+    MqttAsyncPublishFlowableTest() {
+        super(RECEIVE_MAXIMUM, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        channel.pipeline().addLast(MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler());
+        asyncPublishFlowable = channelComponent.asyncPublishFlowable();
+    }
+
+    @NotNull
+    private static MqttPublish createPublish(@NotNull final MqttQos qos) {
+        return new MqttPublish(Objects.requireNonNull(MqttTopicImpl.from("async/test")), ByteBuffer.allocate(8), qos,
+                false, MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null, null,
+                Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE, NO_USER_PROPERTIES);
+    }
+
+    private void writePubAck(final int packetIdentifier) {
+        channel.writeInbound(
+                new MqttPubAck(packetIdentifier, MqttPubAck.DEFAULT_REASON_CODE, null, NO_USER_PROPERTIES));
+    }
+
+    @Test
+    void publish_qos0_completesWhenWritten() {
+        final MqttPublish publish = createPublish(MqttQos.AT_MOST_ONCE);
+        final CompletableFuture<Mqtt5PublishResult> future = asyncPublishFlowable.publish(publish);
+        channel.runPendingTasks();
+
+        assertNotNull(channel.readOutbound());
+        assertTrue(future.isDone());
+        assertSame(publish, future.join().getPublish());
+        assertNull(future.join().getError());
+    }
+
+    @Test
+    void publish_qos1_completesOnPubAck() {
+        final CompletableFuture<Mqtt5PublishResult> future =
+                asyncPublishFlowable.publish(createPublish(MqttQos.AT_LEAST_ONCE));
+        channel.runPendingTasks();
+
+        final MqttStatefulPublish statefulPublish = channel.readOutbound();
+        assertFalse(future.isDone());
+
+        writePubAck(statefulPublish.getPacketIdentifier());
+        assertTrue(future.isDone());
+        assertTrue(future.join() instanceof Mqtt5Qos1Result);
+    }
+
+    @Test
+    void publish_receiveMaximum_sharedAndReturnedOnResult() {
+        final CompletableFuture<Mqtt5PublishResult> future1 =
+                asyncPublishFlowable.publish(createPublish(MqttQos.AT_LEAST_ONCE));
+        asyncPublishFlowable.publish(createPublish(MqttQos.AT_LEAST_ONCE));
+        final CompletableFuture<Mqtt5PublishResult> future3 =
+                asyncPublishFlowable.publish(createPublish(MqttQos.AT_LEAST_ONCE));
+        channel.runPendingTasks();
+
+        final MqttStatefulPublish statefulPublish1 = channel.readOutbound();
+        assertNotNull(statefulPublish1);
+        assertNotNull(channel.readOutbound());
+        assertNull(channel.readOutbound());
+
+        writePubAck(statefulPublish1.getPacketIdentifier());
+        channel.runPendingTasks();
+
+        assertTrue(future1.isDone());
+        assertNotNull(channel.readOutbound());
+        assertFalse(future3.isDone());
+    }
+
+    @Test
+    void publish_allReactiveSlotsTaken_doesNotBlock() throws InterruptedException {
+        final MqttPublishFlowables publishFlowables = channelComponent.publishFlowables();
+        channelComponent.outgoingPublishService();
+        final Thread reactivePublisher = new Thread(() -> {
+            for (int i = 0; i < MqttOutgoingPublishService.MAX_CONCURRENT_PUBLISH_FLOWABLES; i++) {
+                publishFlowables.add(Flowable.never()); // the last one waits for a free slot
+            }
+        });
+        reactivePublisher.start();
+        while (reactivePublisher.getState() != Thread.State.WAITING) {
+            assertNotEquals(Thread.State.TERMINATED, reactivePublisher.getState());
+            Thread.sleep(10);
+        }
+
+        final CompletableFuture<Mqtt5PublishResult> future = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> asyncPublishFlowable.publish(createPublish(MqttQos.AT_MOST_ONCE)));
+        channel.runPendingTasks();
+
+        assertNotNull(channel.readOutbound());
+        assertTrue(future.isDone());
+        reactivePublisher.interrupt();
+        reactivePublisher.join();
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.exceptions.ChannelClosedException;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.handler.disconnect.MqttDisconnectUtil;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttOutgoingQosHandlerTest extends AbstractMqttPublishHandlerTest {
+
+    private MqttIncomingAckFlow incomingAckFlow;
+    private final RecordingSubscriber<Mqtt5PublishResult> subscriber = new RecordingSubscriber<>();
+
+    @BeforeEach
+    void setUp() {
+        // added after CONNACK like on a connection without pipelined connect
+        channel.pipeline().addLast(MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler());
+
+        incomingAckFlow = new MqttIncomingAckFlow(subscriber, channelComponent.outgoingPublishService());
+        incomingAckFlow.request(Long.MAX_VALUE);
+    }
+
+    @Test
+    void close_notPipelined_inFlightQos1PublishesFailWithCloseCause() {
+        final MqttOutgoingQosHandler outgoingQosHandler = channelComponent.outgoingQosHandler();
+        final MqttPublish publish1 = publish(MqttQos.AT_LEAST_ONCE);
+        final MqttPublish publish2 = publish(MqttQos.AT_LEAST_ONCE);
+        outgoingQosHandler.publish(new MqttPublishWithFlow(publish1, incomingAckFlow));
+        outgoingQosHandler.publish(new MqttPublishWithFlow(publish2, incomingAckFlow));
+        channel.runPendingTasks();
+        assertTrue(channel.readOutbound() instanceof MqttStatefulPublish);
+        assertTrue(channel.readOutbound() instanceof MqttStatefulPublish);
+        assertEquals(2, outgoingQosHandler.getQos1Or2PublishCount());
+        assertTrue(subscriber.received.isEmpty());
+
+        final ChannelClosedException cause = new ChannelClosedException("test");
+        MqttDisconnectUtil.close(channel, cause);
+
+        assertEquals(0, outgoingQosHandler.getQos1Or2PublishCount());
+        assertEquals(2, subscriber.received.size());
+        assertSame(publish1, subscriber.received.get(0).getPublish());
+        assertSame(cause, subscriber.received.get(0).getError());
+        assertSame(publish2, subscriber.received.get(1).getPublish());
+        assertSame(cause, subscriber.received.get(1).getError());
+    }
+
+    @Test
+    void close_notPipelined_queuedPublishFailsWithCloseCause() {
+        final ChannelClosedException cause = new ChannelClosedException("test");
+        MqttDisconnectUtil.close(channel, cause);
+
+        final MqttPublish publish = publish(MqttQos.AT_LEAST_ONCE);
+        channelComponent.outgoingQosHandler().publish(new MqttPublishWithFlow(publish, incomingAckFlow));
+        channel.runPendingTasks();
+
+        assertNull(channel.readOutbound());
+        assertEquals(1, subscriber.received.size());
+        assertSame(cause, subscriber.received.get(0).getError());
+    }
+
+    @NotNull
+    private static MqttPublish publish(@NotNull final MqttQos qos) {
+        return new MqttPublish(Objects.requireNonNull(MqttTopicImpl.from("qos/test")), null, qos, false,
+                MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null, null, Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE,
+                NO_USER_PROPERTIES);
+    }
+
+}
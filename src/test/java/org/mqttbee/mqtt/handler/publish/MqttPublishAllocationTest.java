@@ -0,0 +1,321 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.message.Mqtt5MessageType;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.codec.decoder.MqttDecoder;
+import org.mqttbee.mqtt.codec.encoder.MqttEncoder;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.jfr.MqttIncomingPublishDrainEvent;
+import org.mqttbee.mqtt.jfr.MqttJfr;
+import org.mqttbee.mqtt.jfr.MqttPublishBatchEvent;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY;
+
+/**
+ * Guards the allocation rate of the publish flows. Publishes are sent and received through the real encoder, decoder
+ * and QoS handlers on an embedded channel, so everything runs on the test thread and the bytes allocated per message
+ * can be measured with {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * <p>
+ * The budgets include the messages and results which are inherently allocated per publish and leave headroom for
+ * differences between JIT compilers. A failure means that a change added allocations to the encoders, decoders, QoS
+ * handlers or flows. Lower a budget when an optimization removes allocations, so they do not come back unnoticed.
+ * <p>
+ * Calls which run per message and must not allocate at all, like the lookup of the decoded message type and the check
+ * of disabled JFR events, are measured on their own, as a few bytes per message are within the headroom of the
+ * budgets.
+ *
+ * @author Silvio Giebl
+ */
+class MqttPublishAllocationTest extends AbstractMqttPublishHandlerTest {
+
+    private static final int WARMUP_MESSAGES = 50_000;
+    private static final int MEASURED_MESSAGES = 20_000;
+    private static final int PAYLOAD_SIZE = 64;
+    private static final String TOPIC = "allocation/test";
+    private static final int MEASURED_CALLS = 100_000;
+
+    private static long sendBudget(@NotNull final MqttQos qos) {
+        switch (qos) {
+            case AT_MOST_ONCE:
+                return 384;
+            case AT_LEAST_ONCE:
+                return 576;
+            default:
+                return 960;
+        }
+    }
+
+    private static long receiveBudget(@NotNull final MqttQos qos) {
+        switch (qos) {
+            case AT_MOST_ONCE:
+                return 768;
+            case AT_LEAST_ONCE:
+                return 960;
+            default:
+                return 1152;
+        }
+    }
+
+    private static int messageTypeCode;
+
+    private ByteBuf inbound;
+
+    @BeforeEach
+    void setUp() {
+        channel.pipeline()
+                .addLast(MqttEncoder.NAME, channelComponent.encoder())
+                .addLast(MqttDecoder.NAME, channelComponent.decoder())
+                .addLast(MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler())
+                .addLast(MqttIncomingQosHandler.NAME, channelComponent.incomingQosHandler());
+
+        inbound = PooledByteBufAllocator.DEFAULT.heapBuffer(256);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inbound.release();
+    }
+
+    @ParameterizedTest
+    @EnumSource(MqttQos.class)
+    void send(@NotNull final MqttQos qos) {
+        final MqttOutgoingQosHandler outgoingQosHandler = channelComponent.outgoingQosHandler();
+        final CountingSubscriber<Mqtt5PublishResult> subscriber = new CountingSubscriber<>();
+        final MqttIncomingAckFlow incomingAckFlow =
+                new MqttIncomingAckFlow(subscriber, channelComponent.outgoingPublishService());
+        incomingAckFlow.request(Long.MAX_VALUE);
+        final MqttPublish publish = new MqttPublish(Objects.requireNonNull(MqttTopicImpl.from(TOPIC)),
+                ByteBuffer.allocate(PAYLOAD_SIZE), qos, false, MESSAGE_EXPIRY_INTERVAL_INFINITY, null, null, null,
+                null, Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE, NO_USER_PROPERTIES);
+
+        final long bytesPerMessage = measureBytesPerMessage(() -> {
+            outgoingQosHandler.publish(new MqttPublishWithFlow(publish, incomingAckFlow));
+            channel.runPendingTasks();
+            final int packetIdentifier = readPublishPacketIdentifier();
+            switch (qos) {
+                case AT_LEAST_ONCE:
+                    writeInboundAck(0x40, packetIdentifier); // PUBACK
+                    break;
+                case EXACTLY_ONCE:
+                    writeInboundAck(0x50, packetIdentifier); // PUBREC
+                    releaseOutbound(); // PUBREL
+                    writeInboundAck(0x70, packetIdentifier); // PUBCOMP
+                    break;
+            }
+        });
+
+        assertEquals(WARMUP_MESSAGES + MEASURED_MESSAGES, subscriber.count);
+        assertBudget("send " + qos, bytesPerMessage, sendBudget(qos));
+    }
+
+    @ParameterizedTest
+    @EnumSource(MqttQos.class)
+    void receive(@NotNull final MqttQos qos) {
+        final MqttIncomingPublishService incomingPublishService = channelComponent.incomingPublishService();
+        final CountingSubscriber<Mqtt5Publish> subscriber = new CountingSubscriber<>();
+        final MqttGlobalIncomingPublishFlow flow = new MqttGlobalIncomingPublishFlow(
+                subscriber, incomingPublishService, MqttGlobalPublishFlowType.ALL_PUBLISHES);
+        incomingPublishService.getIncomingPublishFlows().subscribeGlobal(flow);
+        flow.request(Long.MAX_VALUE);
+
+        final byte[] publishPacket = encodePublish(qos);
+        final long bytesPerMessage = measureBytesPerMessage(() -> {
+            writeInbound(publishPacket);
+            switch (qos) {
+                case AT_LEAST_ONCE:
+                    releaseOutbound(); // PUBACK
+                    break;
+                case EXACTLY_ONCE:
+                    releaseOutbound(); // PUBREC
+                    writeInboundAck(0x62, 1); // PUBREL
+                    releaseOutbound(); // PUBCOMP
+                    break;
+            }
+        });
+
+        assertEquals(WARMUP_MESSAGES + MEASURED_MESSAGES, subscriber.count);
+        assertBudget("receive " + qos, bytesPerMessage, receiveBudget(qos));
+    }
+
+    @Test
+    void decodedMessageType_noAllocation() {
+        final long bytesPerCall = measureBytesPerCall(() -> {
+            final Mqtt5MessageType type = Mqtt5MessageType.fromCode(messageTypeCode);
+            messageTypeCode = (type == null) ? 0 : (type.getCode() + 1) & 0xF;
+        });
+
+        assertEquals(0, bytesPerCall, "looking up a decoded message type allocated");
+    }
+
+    @Test
+    void disabledJfrEvents_noAllocation() {
+        assumeTrue(MqttJfr.AVAILABLE);
+
+        final long bytesPerCall = measureBytesPerCall(() -> {
+            assertNull(MqttPublishBatchEvent.beginIfEnabled());
+            assertNull(MqttIncomingPublishDrainEvent.beginIfEnabled());
+        });
+
+        assertEquals(0, bytesPerCall, "checking disabled JFR events allocated");
+    }
+
+    private static long measureBytesPerMessage(@NotNull final Runnable message) {
+        final com.sun.management.ThreadMXBean allocationMXBean = allocationMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_MESSAGES; i++) {
+            message.run();
+        }
+        final long before = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_MESSAGES; i++) {
+            message.run();
+        }
+        final long after = allocationMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURED_MESSAGES;
+    }
+
+    /**
+     * Measures without warmup, so that also allocations which the JIT compiler would eliminate are found. The first
+     * call is not measured as it initializes the classes.
+     */
+    private static long measureBytesPerCall(@NotNull final Runnable call) {
+        final com.sun.management.ThreadMXBean allocationMXBean = allocationMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        call.run();
+        final long before = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        final long after = allocationMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURED_CALLS;
+    }
+
+    @NotNull
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported());
+        allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+        return allocationMXBean;
+    }
+
+    private static void assertBudget(@NotNull final String flow, final long bytesPerMessage, final long budget) {
+        assertTrue(bytesPerMessage <= budget,
+                () -> flow + " allocated " + bytesPerMessage + " bytes per message, budget is " + budget + " bytes");
+    }
+
+    private int readPublishPacketIdentifier() {
+        final ByteBuf publish = channel.readOutbound();
+        int index = 1;
+        while ((publish.getByte(index++) & 0x80) != 0) { // skip remaining length
+        }
+        final int topicLength = publish.getUnsignedShort(index);
+        final int packetIdentifier = publish.getUnsignedShort(index + 2 + topicLength);
+        publish.release();
+        return packetIdentifier;
+    }
+
+    private void releaseOutbound() {
+        final ByteBuf outbound = channel.readOutbound();
+        outbound.release();
+    }
+
+    /**
+     * Writes an acknowledgement packet without properties, reusing the inbound buffer.
+     */
+    private void writeInboundAck(final int fixedHeader, final int packetIdentifier) {
+        inbound.clear().writeByte(fixedHeader).writeByte(2).writeShort(packetIdentifier);
+        channel.writeInbound(inbound.retain()); // released by the decoder after it was read completely
+    }
+
+    private void writeInbound(@NotNull final byte[] packet) {
+        inbound.clear().writeBytes(packet);
+        channel.writeInbound(inbound.retain());
+    }
+
+    @NotNull
+    private static byte[] encodePublish(@NotNull final MqttQos qos) {
+        final byte[] topic = TOPIC.getBytes(StandardCharsets.UTF_8);
+        final boolean hasPacketIdentifier = qos != MqttQos.AT_MOST_ONCE;
+        final int remainingLength = 2 + topic.length + (hasPacketIdentifier ? 2 : 0) + 1 + PAYLOAD_SIZE;
+        final ByteBuf packet = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        packet.writeByte(0x30 | (qos.getCode() << 1));
+        packet.writeByte(remainingLength); // fits in one byte
+        packet.writeShort(topic.length).writeBytes(topic);
+        if (hasPacketIdentifier) {
+            packet.writeShort(1);
+        }
+        packet.writeByte(0); // property length
+        packet.writeZero(PAYLOAD_SIZE);
+        final byte[] bytes = new byte[packet.readableBytes()];
+        packet.readBytes(bytes).release();
+        return bytes;
+    }
+
+    private static class CountingSubscriber<T> implements Subscriber<T> {
+
+        long count;
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+        }
+
+        @Override
+        public void onNext(final T t) {
+            count++;
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+    }
+
+}
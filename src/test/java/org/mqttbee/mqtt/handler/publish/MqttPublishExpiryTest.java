@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.exceptions.MessageExpiredException;
+import org.mqttbee.api.mqtt.mqtt5.message.connect.Mqtt5ConnectRestrictions;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
+import org.mqttbee.mqtt.message.publish.MqttPublish;
+import org.mqttbee.mqtt.message.publish.MqttStatefulPublish;
+import org.mqttbee.mqtt.message.publish.puback.MqttPubAck;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS;
+import static org.mqttbee.mqtt.message.publish.MqttStatefulPublish.DEFAULT_NO_TOPIC_ALIAS;
+
+/**
+ * Tests that publishes whose Message Expiry Interval elapses while they are queued are dropped and reported. The
+ * handlers run on an embedded channel without encoder and decoder, so the messages are written and read as objects.
+ *
+ * @author Silvio Giebl
+ */
+class MqttPublishExpiryTest extends AbstractMqttPublishHandlerTest {
+
+    private final ExpiryMetrics metrics;
+
+    MqttPublishExpiryTest() {
+        this(new ExpiryMetrics());
+    }
+
+    private MqttPublishExpiryTest(@NotNull final ExpiryMetrics metrics) {
+        super(Mqtt5ConnectRestrictions.DEFAULT_RECEIVE_MAXIMUM, metrics);
+        this.metrics = metrics;
+    }
+
+    @BeforeEach
+    void setUp() {
+        channel.pipeline()
+                .addLast(MqttOutgoingQosHandler.NAME, channelComponent.outgoingQosHandler())
+                .addLast(MqttIncomingQosHandler.NAME, channelComponent.incomingQosHandler());
+    }
+
+    @Test
+    void outgoing_expiredWhileQueued_completesWithMessageExpiredException() {
+        final RecordingSubscriber<Mqtt5PublishResult> subscriber = new RecordingSubscriber<>();
+        final MqttPublish publish = publish(MqttQos.AT_LEAST_ONCE, 5);
+
+        publishQueuedFor(publish, subscriber, 6);
+
+        assertNull(channel.readOutbound());
+        assertEquals(1, subscriber.received.size());
+        assertSame(publish, subscriber.received.get(0).getPublish());
+        assertTrue(subscriber.received.get(0).getError() instanceof MessageExpiredException);
+        assertEquals(1, metrics.outgoingExpired.get());
+    }
+
+    @Test
+    void outgoing_notExpired_sentWithRemainingInterval() {
+        final RecordingSubscriber<Mqtt5PublishResult> subscriber = new RecordingSubscriber<>();
+
+        publishQueuedFor(publish(MqttQos.AT_LEAST_ONCE, 10), subscriber, 3);
+
+        final MqttStatefulPublish sent = channel.readOutbound();
+        assertNotNull(sent);
+        assertEquals(7, sent.getStatelessMessage().getRawMessageExpiryInterval());
+        assertTrue(subscriber.received.isEmpty());
+        assertEquals(0, metrics.outgoingExpired.get());
+    }
+
+    @Test
+    void outgoing_offeredAgain_sentWithIntervalRemainingSinceFirstEnqueue() {
+        final RecordingSubscriber<Mqtt5PublishResult> subscriber = new RecordingSubscriber<>();
+        final MqttPublishWithFlow publishWithFlow = publishQueuedFor(publish(MqttQos.AT_MOST_ONCE, 10), subscriber, 3);
+        final MqttStatefulPublish sent = channel.readOutbound();
+        assertEquals(7, sent.getStatelessMessage().getRawMessageExpiryInterval());
+
+        channelComponent.outgoingQosHandler().publish(publishWithFlow);
+        channel.runPendingTasks();
+
+        final MqttStatefulPublish sentAgain = channel.readOutbound();
+        assertNotNull(sentAgain);
+        assertEquals(7, sentAgain.getStatelessMessage().getRawMessageExpiryInterval());
+    }
+
+    @Test
+    void outgoing_expiredBeforeOfferedAgain_notSentAgain() {
+        final RecordingSubscriber<Mqtt5PublishResult> subscriber = new RecordingSubscriber<>();
+        final MqttPublish publish = publish(MqttQos.AT_MOST_ONCE, 10);
+        final MqttPublishWithFlow publishWithFlow = publishQueuedFor(publish, subscriber, 3);
+        assertNotNull(channel.readOutbound());
+        subscriber.received.clear();
+
+        // the interval elapsed since the publish was first enqueued
+        publishWithFlow.setEnqueueTime(System.nanoTime() - TimeUnit.SECONDS.toNanos(11));
+        channelComponent.outgoingQosHandler().publish(publishWithFlow);
+        channel.runPendingTasks();
+
+        assertNull(channel.readOutbound());
+        assertEquals(1, subscriber.received.size());
+        assertSame(publish, subscriber.received.get(0).getPublish());
+        assertTrue(subscriber.received.get(0).getError() instanceof MessageExpiredException);
+        assertEquals(1, metrics.outgoingExpired.get());
+    }
+
+    @Test
+    void incoming_expiredWhileQueued_skippedAndAcknowledgedOnDrain() {
+        final MqttIncomingPublishService incomingPublishService = channelComponent.incomingPublishService();
+        final RecordingSubscriber<Mqtt5Publish> subscriber = new RecordingSubscriber<>();
+        final MqttGlobalIncomingPublishFlow flow = new MqttGlobalIncomingPublishFlow(
+                subscriber, incomingPublishService, MqttGlobalPublishFlowType.ALL_PUBLISHES);
+        incomingPublishService.getIncomingPublishFlows().subscribeGlobal(flow);
+
+        // a Message Expiry Interval of 0 elapses immediately, the flow has not requested yet, so the publish is queued
+        channel.writeInbound(publish(MqttQos.AT_LEAST_ONCE, 0).createStateful(
+                1, false, DEFAULT_NO_TOPIC_ALIAS, false, DEFAULT_NO_SUBSCRIPTION_IDENTIFIERS));
+        assertNull(channel.readOutbound());
+        assertEquals(1, incomingPublishService.getQueueSize());
+
+        flow.request(1);
+        channel.runPendingTasks();
+
+        assertTrue(subscriber.received.isEmpty());
+        assertEquals(0, incomingPublishService.getQueueSize());
+        final MqttPubAck pubAck = channel.readOutbound();
+        assertNotNull(pubAck);
+        assertEquals(1, pubAck.getPacketIdentifier());
+        assertEquals(1, metrics.incomingExpired.get());
+    }
+
+    @NotNull
+    private MqttPublishWithFlow publishQueuedFor(
+            @NotNull final MqttPublish publish, @NotNull final RecordingSubscriber<Mqtt5PublishResult> subscriber,
+            final long queuedSeconds) {
+
+        final MqttIncomingAckFlow incomingAckFlow =
+                new MqttIncomingAckFlow(subscriber, channelComponent.outgoingPublishService());
+        incomingAckFlow.request(Long.MAX_VALUE);
+        final MqttPublishWithFlow publishWithFlow = new MqttPublishWithFlow(publish, incomingAckFlow);
+        channelComponent.outgoingQosHandler().publish(publishWithFlow);
+        // the publish is handled on the next run of the event loop, pretend it was enqueued earlier
+        publishWithFlow.setEnqueueTime(System.nanoTime() - TimeUnit.SECONDS.toNanos(queuedSeconds));
+        channel.runPendingTasks();
+        return publishWithFlow;
+    }
+
+    @NotNull
+    private static MqttPublish publish(@NotNull final MqttQos qos, final long messageExpiryInterval) {
+        return new MqttPublish(Objects.requireNonNull(MqttTopicImpl.from("expiry/test")), null, qos, false,
+                messageExpiryInterval, null, null, null, null, Mqtt5Publish.DEFAULT_TOPIC_ALIAS_USAGE,
+                NO_USER_PROPERTIES);
+    }
+
+    private static class ExpiryMetrics implements MqttClientMetrics {
+
+        final AtomicInteger outgoingExpired = new AtomicInteger();
+        final AtomicInteger incomingExpired = new AtomicInteger();
+
+        @Override
+        public void onOutgoingPublishExpired() {
+            outgoingExpired.incrementAndGet();
+        }
+
+        @Override
+        public void onIncomingPublishExpired() {
+            incomingExpired.incrementAndGet();
+        }
+
+    }
+
+}
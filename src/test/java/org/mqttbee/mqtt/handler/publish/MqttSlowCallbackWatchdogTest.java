@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.publish;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttSlowCallbackWatchdogTest {
+
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private MqttIncomingPublishService incomingPublishService;
+    private Mqtt5Publish publish;
+
+    @BeforeEach
+    void setUp() {
+        incomingPublishService = mock(MqttIncomingPublishService.class);
+        when(incomingPublishService.getSlowCallbackThresholdNanos()).thenReturn(THRESHOLD_NANOS);
+        publish = mock(Mqtt5Publish.class);
+    }
+
+    @Test
+    void callbackStillRunning_reportedOnceWhileBlocking() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread eventLoop = new Thread(() -> {
+            final MqttSlowCallbackWatchdog.Sample sample = MqttSlowCallbackWatchdog.INSTANCE.sample(THRESHOLD_NANOS);
+            sample.start(incomingPublishService, publish, System.nanoTime());
+            try {
+                release.await(); // a callback which blocks until the test releases it
+            } catch (final InterruptedException ignored) {
+            } finally {
+                sample.stop();
+            }
+        });
+        eventLoop.start();
+
+        verify(incomingPublishService, timeout(5000)).onBlockingCallback(
+                same(publish), longThat(runningNanos -> runningNanos >= THRESHOLD_NANOS), same(eventLoop));
+        assertTrue(eventLoop.isAlive());
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(THRESHOLD_NANOS) * 4);
+        verify(incomingPublishService, times(1)).onBlockingCallback(any(), anyLong(), any());
+
+        release.countDown();
+        eventLoop.join();
+    }
+
+    @Test
+    void callbackReturned_notReported() throws InterruptedException {
+        final Thread eventLoop = new Thread(() -> {
+            final MqttSlowCallbackWatchdog.Sample sample = MqttSlowCallbackWatchdog.INSTANCE.sample(THRESHOLD_NANOS);
+            for (int i = 0; i < 1000; i++) {
+                sample.start(incomingPublishService, publish, System.nanoTime());
+                sample.stop();
+            }
+        });
+        eventLoop.start();
+        eventLoop.join();
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(THRESHOLD_NANOS) * 4);
+        verify(incomingPublishService, never()).onBlockingCallback(any(), anyLong(), any());
+    }
+
+    @Test
+    void eventLoopShutDown_intervalDerivedFromRemainingSamples() throws InterruptedException {
+        final MqttSlowCallbackWatchdog watchdog = new MqttSlowCallbackWatchdog();
+        final long longThresholdNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        final CountDownLatch sampled = new CountDownLatch(2);
+        final CountDownLatch releaseLong = new CountDownLatch(1);
+        final CountDownLatch releaseShort = new CountDownLatch(1);
+        final Thread longThresholdEventLoop = eventLoop(watchdog, longThresholdNanos, sampled, releaseLong);
+        final Thread shortThresholdEventLoop = eventLoop(watchdog, THRESHOLD_NANOS, sampled, releaseShort);
+        assertTrue(sampled.await(5, TimeUnit.SECONDS));
+        assertEquals(THRESHOLD_NANOS / 2, watchdog.getIntervalNanos());
+
+        // the watchdog removes the sample of the shut down event loop
+        releaseShort.countDown();
+        shortThresholdEventLoop.join();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((watchdog.getIntervalNanos() != longThresholdNanos / 2) && (System.nanoTime() < deadline)) {
+            Thread.sleep(1);
+        }
+        assertEquals(longThresholdNanos / 2, watchdog.getIntervalNanos());
+
+        releaseLong.countDown();
+        longThresholdEventLoop.join();
+    }
+
+    private static Thread eventLoop(
+            final MqttSlowCallbackWatchdog watchdog, final long slowCallbackThresholdNanos,
+            final CountDownLatch sampled, final CountDownLatch release) {
+
+        final Thread eventLoop = new Thread(() -> {
+            watchdog.sample(slowCallbackThresholdNanos);
+            sampled.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException ignored) {
+            }
+        });
+        eventLoop.start();
+        return eventLoop;
+    }
+
+}
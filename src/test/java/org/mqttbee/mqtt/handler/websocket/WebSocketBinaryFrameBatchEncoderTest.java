@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class WebSocketBinaryFrameBatchEncoderTest {
+
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel(new WebSocketBinaryFrameBatchEncoder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void write_untilFlush_singleFrame() {
+        final ChannelFuture future1 = channel.write(Unpooled.wrappedBuffer(new byte[]{1, 2}));
+        final ChannelFuture future2 = channel.write(Unpooled.wrappedBuffer(new byte[]{3}));
+        assertNull(channel.readOutbound());
+        assertFalse(future1.isDone());
+
+        channel.flush();
+
+        final BinaryWebSocketFrame frame = channel.readOutbound();
+        assertNotNull(frame);
+        final ByteBuf content = frame.content();
+        assertEquals(3, content.readableBytes());
+        assertEquals(1, content.getByte(0));
+        assertEquals(3, content.getByte(2));
+        frame.release();
+        assertNull(channel.readOutbound());
+        assertTrue(future1.isSuccess());
+        assertTrue(future2.isSuccess());
+    }
+
+    @Test
+    void write_exceedsMaxBatchSize_writesEarly() {
+        channel.write(Unpooled.wrappedBuffer(new byte[WebSocketBinaryFrameBatchEncoder.MAX_BATCH_SIZE]));
+        channel.write(Unpooled.wrappedBuffer(new byte[10]));
+        channel.flush();
+
+        final BinaryWebSocketFrame frame1 = channel.readOutbound();
+        final BinaryWebSocketFrame frame2 = channel.readOutbound();
+        assertEquals(WebSocketBinaryFrameBatchEncoder.MAX_BATCH_SIZE, frame1.content().readableBytes());
+        assertEquals(10, frame2.content().readableBytes());
+        frame1.release();
+        frame2.release();
+    }
+
+    @Test
+    void write_otherMessage_writesBatchBefore() {
+        channel.write(Unpooled.wrappedBuffer(new byte[]{1}));
+        final Object other = new Object();
+        channel.writeAndFlush(other);
+
+        final BinaryWebSocketFrame frame = channel.readOutbound();
+        assertEquals(1, frame.content().readableBytes());
+        frame.release();
+        assertSame(other, channel.readOutbound());
+    }
+
+    @Test
+    void close_pendingBatch_releasedAndFailed() {
+        final ByteBuf buf = Unpooled.buffer().writeByte(1);
+        final ChannelFuture future = channel.write(buf);
+
+        channel.close();
+
+        assertEquals(0, buf.refCnt());
+        assertFalse(future.isSuccess());
+        assertNull(channel.readOutbound());
+    }
+
+}
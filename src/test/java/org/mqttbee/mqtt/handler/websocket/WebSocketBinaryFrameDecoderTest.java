@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.handler.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class WebSocketBinaryFrameDecoderTest {
+
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel(new WebSocketBinaryFrameDecoder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void decode_binaryFrame_forwardsContent() {
+        final ByteBuf content = Unpooled.wrappedBuffer(new byte[]{0x30, 0x00});
+        channel.writeInbound(new BinaryWebSocketFrame(content));
+
+        final ByteBuf read = channel.readInbound();
+        assertSame(content, read);
+        assertEquals(1, read.refCnt());
+        read.release();
+    }
+
+    @Test
+    void decode_fragmentedBinaryFrame_forwardsAllFragments() {
+        channel.writeInbound(new BinaryWebSocketFrame(false, 0, Unpooled.wrappedBuffer(new byte[]{0x30})));
+        channel.writeInbound(new ContinuationWebSocketFrame(false, 0, Unpooled.wrappedBuffer(new byte[]{0x02})));
+        channel.writeInbound(new ContinuationWebSocketFrame(true, 0, Unpooled.wrappedBuffer(new byte[]{0x00, 0x00})));
+
+        final ByteBuf fragment1 = channel.readInbound();
+        final ByteBuf fragment2 = channel.readInbound();
+        final ByteBuf fragment3 = channel.readInbound();
+        assertEquals(1, fragment1.readableBytes());
+        assertEquals(1, fragment2.readableBytes());
+        assertEquals(2, fragment3.readableBytes());
+        fragment1.release();
+        fragment2.release();
+        fragment3.release();
+        assertNull(channel.readInbound());
+    }
+
+    @Test
+    void decode_textFrame_closesChannel() {
+        final TextWebSocketFrame frame = new TextWebSocketFrame("test");
+        channel.writeInbound(frame);
+
+        assertNull(channel.readInbound());
+        assertEquals(0, frame.refCnt());
+        assertFalse(channel.isOpen());
+    }
+
+}
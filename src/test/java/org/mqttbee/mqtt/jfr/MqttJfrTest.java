@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.jfr;
+
+import io.reactivex.Flowable;
+import io.reactivex.observers.TestObserver;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttJfrTest {
+
+    @Test
+    void events_disabledByDefault() {
+        assumeTrue(MqttJfr.AVAILABLE);
+
+        assertNull(MqttPublishBatchEvent.beginIfEnabled());
+        assertNull(MqttIncomingPublishDrainEvent.beginIfEnabled());
+        assertNull(MqttPublishBlockedEvent.beginIfEnabled());
+        assertFalse(MqttSslHandshakeEvent.isEventEnabled());
+    }
+
+    @Test
+    void events_enabled_recorded() throws IOException {
+        assumeTrue(MqttJfr.AVAILABLE);
+
+        final Path file = Files.createTempFile("mqtt-bee", ".jfr");
+        try (final MqttEmbeddedBroker broker = MqttEmbeddedBroker.builder().build();
+             final Recording recording = new Recording()) {
+
+            recording.enable("org.mqttbee.Connect");
+            recording.enable("org.mqttbee.PublishBatch");
+            recording.enable("org.mqttbee.IncomingPublishDrain");
+            recording.start();
+
+            final Mqtt5Client client = MqttClient.builder()
+                    .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                    .serverPort(broker.bindTcp(0))
+                    .useMqttVersion5()
+                    .buildReactive();
+            client.connect().blockingGet();
+            client.subscribe(Mqtt5Subscribe.builder()
+                    .addSubscription(Mqtt5Subscription.builder().topicFilter("test").build())
+                    .build()).blockingGet();
+            final TestObserver<List<Mqtt5Publish>> received =
+                    client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS).take(3).toList().test();
+            client.publish(Flowable.range(0, 3)
+                    .map(i -> Mqtt5Publish.builder().topic("test").qos(MqttQos.AT_LEAST_ONCE).payload(new byte[10])
+                            .build())).blockingSubscribe();
+            received.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            client.disconnect().blockingAwait();
+
+            recording.stop();
+            recording.dump(file);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            final List<String> names =
+                    events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toList());
+            assertTrue(names.contains("org.mqttbee.Connect"));
+            assertTrue(names.contains("org.mqttbee.IncomingPublishDrain"));
+
+            final long publishedCount = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("org.mqttbee.PublishBatch"))
+                    .mapToLong(event -> event.getInt("messageCount"))
+                    .sum();
+            assertEquals(3, publishedCount);
+            final RecordedEvent connect = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("org.mqttbee.Connect"))
+                    .findFirst()
+                    .orElseThrow(AssertionError::new);
+            assertEquals("SUCCESS", connect.getString("reasonCode"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
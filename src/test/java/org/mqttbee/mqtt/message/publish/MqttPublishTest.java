@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import static java.util.Objects.requireNonNull;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mqttbee.api.mqtt.mqtt5.message.publish.TopicAliasUsage.NO;
 import static org.mqttbee.mqtt.datatypes.MqttUserPropertiesImpl.NO_USER_PROPERTIES;
 
@@ -54,4 +55,21 @@ public class MqttPublishTest {
         assertEquals(0, publish.getPayloadAsBytes().length);
     }
 
+    @Test
+    public void withMessageExpiryInterval() {
+        final MqttPublish publish = createPublishFromPayload(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        final MqttPublish rewritten = publish.withMessageExpiryInterval(10);
+        assertEquals(10, rewritten.getRawMessageExpiryInterval());
+        assertSame(publish.getTopic(), rewritten.getTopic());
+        assertSame(publish.getRawPayload(), rewritten.getRawPayload());
+        assertEquals(publish.getQos(), rewritten.getQos());
+        assertSame(publish.getUserProperties(), rewritten.getUserProperties());
+    }
+
+    @Test
+    public void withMessageExpiryInterval_sameInterval_returnsSameInstance() {
+        final MqttPublish publish = createPublishFromPayload(null);
+        assertSame(publish, publish.withMessageExpiryInterval(MqttPublish.MESSAGE_EXPIRY_INTERVAL_INFINITY));
+    }
+
 }
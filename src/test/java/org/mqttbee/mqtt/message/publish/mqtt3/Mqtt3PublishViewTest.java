@@ -18,12 +18,16 @@
 package org.mqttbee.mqtt.message.publish.mqtt3;
 
 import org.junit.Test;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.mqtt.datatypes.MqttTopicImpl;
 import org.mqttbee.mqtt.message.publish.MqttPublish;
 import org.mqttbee.mqtt.message.publish.MqttPublishTest;
 
 import java.nio.ByteBuffer;
+import java.util.Objects;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -39,4 +43,19 @@ public class Mqtt3PublishViewTest {
         assertArrayEquals(expectedPayload, spyPublish.getPayloadAsBytes());
         verify(spyPublish).getPayloadAsBytes();
     }
+
+    @Test
+    public void of_sameMqttPublish_sameView() {
+        final MqttPublish publish = MqttPublishTest.createPublishFromPayload(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        final Mqtt3PublishView view = Mqtt3PublishView.of(publish);
+        assertSame(view, Mqtt3PublishView.of(publish));
+        assertSame(publish, view.getDelegate());
+    }
+
+    @Test
+    public void of_delegateOfCreatedView_sameView() {
+        final Mqtt3PublishView view = Mqtt3PublishView.of(
+                Objects.requireNonNull(MqttTopicImpl.from("topic")), null, MqttQos.AT_LEAST_ONCE, false);
+        assertSame(view, Mqtt3PublishView.of(view.getDelegate()));
+    }
 }
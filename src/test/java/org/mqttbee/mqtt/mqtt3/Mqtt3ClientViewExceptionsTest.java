@@ -121,7 +121,7 @@ class Mqtt3ClientViewExceptionsTest {
     void publish() {
         final Mqtt5MessageException mqtt5MessageException =
                 new Mqtt5MessageException(Mqtt5Connect.builder().build(), "reason from original exception");
-        given(mqtt5Client.publish(any())).willReturn(Flowable.error(mqtt5MessageException));
+        given(mqtt5Client.publishChecked(any())).willReturn(Flowable.error(mqtt5MessageException));
 
         final Flowable<Mqtt3Publish> publish =
                 Flowable.just(Mqtt3Publish.builder().topic("topic").qos(MqttQos.AT_LEAST_ONCE).build());
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5AsyncClient;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class Mqtt5AsyncClientImplTest {
+
+    private static final int PUBLISHES = 100;
+
+    private MqttEmbeddedBroker broker;
+    private Mqtt5AsyncClient client;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        final int port = broker.bindTcp(0);
+        client = MqttClient.builder()
+                .identifier("async")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .buildAsync();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void publish_notConnected_completesExceptionally() {
+        final CompletableFuture<Mqtt5PublishResult> future =
+                client.publish(Mqtt5Publish.builder().topic("test").build());
+
+        final ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertTrue(exception.getCause() instanceof NotConnectedException);
+    }
+
+    @Test
+    void publishAndSubscribe_inOrder() throws Exception {
+        client.connect().done().get(5, TimeUnit.SECONDS);
+
+        final List<Integer> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(PUBLISHES);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").qos(MqttQos.AT_LEAST_ONCE).build())
+                .build(), publish -> {
+            received.add((int) publish.getPayloadAsBytes()[0]);
+            latch.countDown();
+        }, executor).get(5, TimeUnit.SECONDS);
+
+        final List<CompletableFuture<Mqtt5PublishResult>> futures = new ArrayList<>();
+        for (int i = 0; i < PUBLISHES; i++) {
+            futures.add(client.publish(Mqtt5Publish.builder()
+                    .topic("test/async")
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .payload(new byte[]{(byte) i})
+                    .build()));
+        }
+        for (final CompletableFuture<Mqtt5PublishResult> future : futures) {
+            assertNull(future.get(5, TimeUnit.SECONDS).getError());
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        for (int i = 0; i < PUBLISHES; i++) {
+            assertEquals(i, (int) received.get(i));
+        }
+
+        client.disconnect().done().get(5, TimeUnit.SECONDS);
+    }
+
+}
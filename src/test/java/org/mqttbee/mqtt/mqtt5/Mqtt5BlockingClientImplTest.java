@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.exceptions.NotConnectedException;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5BlockingClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5BlockingClient.Mqtt5Publishes;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class Mqtt5BlockingClientImplTest {
+
+    private static final int PUBLISHES = 1000;
+
+    private MqttEmbeddedBroker broker;
+    private Mqtt5BlockingClient client;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        final int port = broker.bindTcp(0);
+        client = MqttClient.builder()
+                .identifier("blocking")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .buildBlocking();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void publish_notConnected_throws() {
+        assertThrows(NotConnectedException.class,
+                () -> client.publish(Mqtt5Publish.builder().topic("test").build()));
+    }
+
+    @Test
+    void publishAndReceive_moreThanWindow_inOrder() throws Exception {
+        client.connect().done();
+
+        try (final Mqtt5Publishes publishes = client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS)) {
+            client.subscribe()
+                    .addSubscription(
+                            Mqtt5Subscription.builder().topicFilter("test/#").qos(MqttQos.AT_LEAST_ONCE).build())
+                    .done();
+
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            final Future<?> publisher = executor.submit(() -> {
+                for (int i = 0; i < PUBLISHES; i++) {
+                    assertNull(client.publish(Mqtt5Publish.builder()
+                            .topic("test/blocking")
+                            .qos(MqttQos.AT_LEAST_ONCE)
+                            .payload(payload(i))
+                            .build()).getError());
+                }
+            });
+
+            for (int i = 0; i < PUBLISHES; i++) {
+                final Mqtt5Publish publish = publishes.receive(5, TimeUnit.SECONDS).orElseThrow(AssertionError::new);
+                assertEquals(i, index(publish));
+            }
+            publisher.get(5, TimeUnit.SECONDS);
+            executor.shutdown();
+            assertFalse(publishes.receiveNow().isPresent());
+        }
+
+        client.disconnect().done();
+    }
+
+    @Test
+    void receive_timeout_empty() throws Exception {
+        client.connect().done();
+
+        try (final Mqtt5Publishes publishes = client.publishes(MqttGlobalPublishFlowType.ALL_PUBLISHES)) {
+            assertFalse(publishes.receive(10, TimeUnit.MILLISECONDS).isPresent());
+        }
+
+        client.disconnect().done();
+    }
+
+    @Test
+    void close_wakesUpWaitingThreads() throws Exception {
+        client.connect().done();
+
+        final Mqtt5Publishes publishes = client.publishes(MqttGlobalPublishFlowType.ALL_PUBLISHES);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final CountDownLatch started = new CountDownLatch(2);
+        final Callable<Mqtt5Publish> receiver = () -> {
+            started.countDown();
+            return publishes.receive();
+        };
+        final Future<Mqtt5Publish> first = executor.submit(receiver);
+        final Future<Mqtt5Publish> second = executor.submit(receiver);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        publishes.close();
+
+        for (final Future<Mqtt5Publish> future : Arrays.asList(first, second)) {
+            final ExecutionException exception =
+                    assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof CancellationException);
+        }
+        executor.shutdown();
+
+        client.disconnect().done();
+    }
+
+    private static byte[] payload(final int index) {
+        return new byte[]{(byte) (index >> 24), (byte) (index >> 16), (byte) (index >> 8), (byte) index};
+    }
+
+    private static int index(final Mqtt5Publish publish) {
+        final byte[] bytes = publish.getPayloadAsBytes();
+        return ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+
+}
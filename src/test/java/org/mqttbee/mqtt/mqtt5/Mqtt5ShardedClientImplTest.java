@@ -0,0 +1,291 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import com.google.common.collect.ImmutableList;
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttGlobalPublishFlowType;
+import org.mqttbee.api.mqtt.exceptions.AlreadyConnectedException;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5ShardedClient;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5ShardedPublishRouting;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5ShardedSubscriptionRouting;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode.GRANTED_QOS_0;
+import static org.mqttbee.api.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode.GRANTED_QOS_1;
+import static org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAckReasonCode.NO_SUBSCRIPTIONS_EXISTED;
+import static org.mqttbee.api.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAckReasonCode.SUCCESS;
+
+/**
+ * @author Silvio Giebl
+ */
+class Mqtt5ShardedClientImplTest {
+
+    private static final int SHARDS = 4;
+    private static final int PUBLISHES = 100;
+
+    private MqttEmbeddedBroker broker;
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        port = broker.bindTcp(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void buildSharded_deriveIdentifiers() {
+        final Mqtt5ShardedClient client = MqttClient.builder()
+                .identifier("sharded")
+                .useMqttVersion5()
+                .buildSharded(SHARDS, Mqtt5ShardedPublishRouting.TOPIC_HASH, Mqtt5ShardedSubscriptionRouting.SPREAD);
+
+        assertEquals(SHARDS, client.getShardCount());
+        for (int i = 0; i < SHARDS; i++) {
+            assertEquals("sharded-" + i, client.getShard(i).getClientData().getClientIdentifier().get().toString());
+        }
+    }
+
+    @Test
+    void publish_roundRobin_allReceived() {
+        final Mqtt5ShardedClient client = connect(Mqtt5ShardedPublishRouting.ROUND_ROBIN);
+
+        final TestSubscriber<Mqtt5Publish> received =
+                client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS).take(PUBLISHES).test();
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").qos(MqttQos.AT_LEAST_ONCE).build())
+                .build()).blockingGet();
+
+        final List<Mqtt5PublishResult> results = client.publish(publishes()).toList().blockingGet();
+        assertEquals(PUBLISHES, results.size());
+
+        received.awaitDone(5, TimeUnit.SECONDS);
+        received.assertValueCount(PUBLISHES);
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void publish_topicHash_orderPerTopicKept() {
+        final Mqtt5ShardedClient client = connect(Mqtt5ShardedPublishRouting.TOPIC_HASH);
+
+        final TestSubscriber<Mqtt5Publish> received =
+                client.publishes(MqttGlobalPublishFlowType.ALL_SUBSCRIPTIONS).take(PUBLISHES).test();
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").qos(MqttQos.AT_LEAST_ONCE).build())
+                .build()).blockingGet();
+
+        client.publish(publishes()).blockingSubscribe();
+
+        received.awaitDone(5, TimeUnit.SECONDS);
+        received.assertValueCount(PUBLISHES);
+        final int[] lastSequenceNumbers = new int[SHARDS];
+        final Set<String> topics = new HashSet<>();
+        for (final Mqtt5Publish publish : received.values()) {
+            final int topicIndex = Integer.parseInt(publish.getTopic().getLevels().get(1));
+            final int sequenceNumber = publish.getPayloadAsBytes()[0];
+            assertEquals(lastSequenceNumbers[topicIndex], sequenceNumber - topicIndex);
+            lastSequenceNumbers[topicIndex] += SHARDS;
+            topics.add(publish.getTopic().toString());
+        }
+        assertEquals(SHARDS, topics.size());
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void unsubscribe_spread_notFirstTopicFilter_routedToSubscribeShard() {
+        final Mqtt5ShardedClient client = connect(Mqtt5ShardedPublishRouting.TOPIC_HASH);
+        final String first = "test/first";
+        final String second = topicFilterOnOtherShard(first);
+
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(first).build())
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(second).build())
+                .build()).blockingGet();
+
+        final Mqtt5UnsubAck unsubAck =
+                client.unsubscribe(Mqtt5Unsubscribe.builder().addTopicFilter(second).build()).blockingGet();
+        assertEquals(ImmutableList.of(SUCCESS), unsubAck.getReasonCodes());
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void unsubscribe_spread_topicFiltersOfDifferentShards_splitAndReasonCodesInOrder() {
+        final Mqtt5ShardedClient client = connect(Mqtt5ShardedPublishRouting.TOPIC_HASH);
+        final String first = "test/first";
+        final String second = topicFilterOnOtherShard(first);
+
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(first).build())
+                .build()).blockingGet();
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(second).build())
+                .build()).blockingGet();
+
+        final Mqtt5UnsubAck unsubAck = client.unsubscribe(Mqtt5Unsubscribe.builder()
+                .addTopicFilter(first)
+                .addTopicFilter("test/never")
+                .addTopicFilter(second)
+                .build()).blockingGet();
+        assertEquals(ImmutableList.of(SUCCESS, NO_SUBSCRIPTIONS_EXISTED, SUCCESS), unsubAck.getReasonCodes());
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void connect_oneShardFails_connectedShardsDisconnected() {
+        final Mqtt5ShardedClient client = build(Mqtt5ShardedPublishRouting.TOPIC_HASH);
+        client.getShard(0).connect().done().blockingGet();
+
+        client.connect().done().test().awaitDone(5, TimeUnit.SECONDS).assertError(AlreadyConnectedException.class);
+        for (int i = 1; i < SHARDS; i++) {
+            assertFalse(client.getShard(i).getClientData().isConnected());
+        }
+
+        client.getShard(0).disconnect().blockingAwait();
+        client.connect().done().blockingGet();
+        for (int i = 0; i < SHARDS; i++) {
+            assertTrue(client.getShard(i).getClientData().isConnected());
+        }
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void subscribe_spread_existingTopicFilterNotFirst_routedToItsShard() {
+        final Mqtt5ShardedClient client = connect(Mqtt5ShardedPublishRouting.TOPIC_HASH);
+        final String first = "test/first";
+        final String second = topicFilterOnOtherShard(first);
+
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(second).build())
+                .build()).blockingGet();
+        final Mqtt5SubAck subAck = client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(first).build())
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(second).qos(MqttQos.AT_LEAST_ONCE).build())
+                .build()).blockingGet();
+        assertEquals(ImmutableList.of(GRANTED_QOS_0, GRANTED_QOS_1), subAck.getReasonCodes());
+
+        // second is only subscribed on the shard it was subscribed on first, so one Unsubscribe removes it
+        final Mqtt5UnsubAck unsubAck = client.unsubscribe(Mqtt5Unsubscribe.builder()
+                .addTopicFilter(second)
+                .addTopicFilter(first)
+                .build()).blockingGet();
+        assertEquals(ImmutableList.of(SUCCESS, SUCCESS), unsubAck.getReasonCodes());
+        final Mqtt5UnsubAck secondUnsubAck =
+                client.unsubscribe(Mqtt5Unsubscribe.builder().addTopicFilter(second).build()).blockingGet();
+        assertEquals(ImmutableList.of(NO_SUBSCRIPTIONS_EXISTED), secondUnsubAck.getReasonCodes());
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void subscribeWithStream_spread_topicFiltersOfDifferentShards_oneSubAckInOrder() {
+        final Mqtt5ShardedClient client = connect(Mqtt5ShardedPublishRouting.TOPIC_HASH);
+        final String first = "test/first";
+        final String second = topicFilterOnOtherShard(first);
+
+        client.subscribe(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(second).build())
+                .build()).blockingGet();
+        final TestSubscriber<Mqtt5SubAck> subAcks = TestSubscriber.create();
+        final TestSubscriber<Mqtt5Publish> received = client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(first).qos(MqttQos.AT_LEAST_ONCE).build())
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(second).build())
+                .build()).doOnSingle((subAck, subscription) -> subAcks.onNext(subAck)).take(2).test();
+
+        client.publish(Flowable.just(first, second)
+                .map(topic -> Mqtt5Publish.builder().topic(topic).qos(MqttQos.AT_LEAST_ONCE).build()))
+                .blockingSubscribe();
+
+        received.awaitDone(5, TimeUnit.SECONDS);
+        received.assertValueCount(2);
+        subAcks.assertValueCount(1);
+        assertEquals(ImmutableList.of(GRANTED_QOS_1, GRANTED_QOS_0), subAcks.values().get(0).getReasonCodes());
+
+        client.disconnect().blockingAwait();
+    }
+
+    private static int shardIndex(final String topicFilter) {
+        return (topicFilter.hashCode() & Integer.MAX_VALUE) % SHARDS;
+    }
+
+    private static String topicFilterOnOtherShard(final String topicFilter) {
+        for (int i = 0; ; i++) {
+            final String other = "test/other" + i;
+            if (shardIndex(other) != shardIndex(topicFilter)) {
+                return other;
+            }
+        }
+    }
+
+    private Mqtt5ShardedClient connect(final Mqtt5ShardedPublishRouting publishRouting) {
+        final Mqtt5ShardedClient client = build(publishRouting);
+        client.connect().done().blockingGet();
+        return client;
+    }
+
+    private Mqtt5ShardedClient build(final Mqtt5ShardedPublishRouting publishRouting) {
+        return MqttClient.builder()
+                .identifier("sharded")
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .buildSharded(SHARDS, publishRouting, Mqtt5ShardedSubscriptionRouting.SPREAD);
+    }
+
+    private static Flowable<Mqtt5Publish> publishes() {
+        // publish i is sent to topic test/(i % SHARDS) with the payload i
+        return Flowable.range(0, PUBLISHES)
+                .map(i -> Mqtt5Publish.builder()
+                        .topic("test/" + (i % SHARDS))
+                        .qos(MqttQos.AT_LEAST_ONCE)
+                        .payload(new byte[]{i.byteValue()})
+                        .build());
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.mqtt5;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientReconnectStatistics;
+import org.mqttbee.api.mqtt.exceptions.MqttMaximumPacketSizeExceededException;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscribe;
+import org.mqttbee.mqtt.message.subscribe.MqttSubscription;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class MqttReconnectorTest {
+
+    private MqttEmbeddedBroker broker;
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        port = broker.bindTcp(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void connectionLost_reconnectsAndRestoresSubscription() throws InterruptedException {
+        final Mqtt5Client client = reconnectingClient("reconnecting");
+        client.connect().done().blockingGet();
+        final Mqtt5Client publisher = client("publisher");
+        publisher.connect().done().blockingGet();
+
+        final TestSubscriber<Mqtt5Publish> publishes = client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").build())
+                .build()).test();
+        publishUntilReceived(publisher, publishes, 1);
+
+        broker.closeConnections();
+        final MqttClientReconnectStatistics statistics =
+                client.getReconnectStatistics().orElseThrow(AssertionError::new);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((statistics.getRecoveredCount() == 0) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, statistics.getRecoveredCount());
+        assertTrue(statistics.getLastRecoveryTimeNanos() > 0);
+        assertFalse(statistics.isReconnecting());
+
+        publisher.connect().done().blockingGet(); // the publisher does not reconnect automatically
+        publishUntilReceived(publisher, publishes, 2);
+        publishes.assertNotTerminated();
+
+        client.disconnect().done().blockingAwait();
+        publisher.disconnect().done().blockingAwait();
+    }
+
+    @Test
+    void connectionLost_resubscribesSplitByMaximumPacketSizeAndUserProperties() throws InterruptedException {
+        broker.close();
+        broker = MqttEmbeddedBroker.builder().maximumPacketSize(64).build();
+        port = broker.bindTcp(0);
+
+        final Mqtt5Client client = reconnectingClient("reconnecting");
+        client.connect().done().blockingGet();
+
+        // every SUBSCRIBE has 10 bytes without its subscriptions and 15 bytes per subscription, 3 fit into 64 bytes
+        final List<TestSubscriber<Mqtt5Publish>> streams = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            streams.add(client.subscribeWithStream(Mqtt5Subscribe.builder()
+                    .addSubscription(Mqtt5Subscription.builder().topicFilter("test/split/" + i).build())
+                    .build()).test());
+        }
+        streams.add(client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/split/5").build())
+                .userProperties()
+                .add("key", "value")
+                .done()
+                .build()).test());
+        awaitReceivedSubscribes(6);
+
+        broker.closeConnections();
+        awaitReceivedSubscribes(9);
+
+        final List<MqttSubscribe> resubscribes = broker.getReceivedSubscribes().subList(6, 9);
+        final Set<String> topicFilters = new HashSet<>();
+        int withUserProperties = 0;
+        for (final MqttSubscribe resubscribe : resubscribes) {
+            assertTrue(resubscribe.getSubscriptions().size() <= 3);
+            for (final MqttSubscription subscription : resubscribe.getSubscriptions()) {
+                topicFilters.add(subscription.getTopicFilter().toString());
+            }
+            if (!resubscribe.getUserProperties().asList().isEmpty()) {
+                withUserProperties++;
+                assertEquals(1, resubscribe.getSubscriptions().size());
+                assertEquals("test/split/5", resubscribe.getSubscriptions().get(0).getTopicFilter().toString());
+                assertEquals("key", resubscribe.getUserProperties().asList().get(0).getName().toString());
+                assertEquals("value", resubscribe.getUserProperties().asList().get(0).getValue().toString());
+            }
+        }
+        assertEquals(1, withUserProperties);
+        assertEquals(6, topicFilters.size());
+        for (final TestSubscriber<Mqtt5Publish> stream : streams) {
+            stream.assertNoErrors();
+            stream.assertNotTerminated();
+        }
+
+        client.disconnect().done().blockingAwait();
+    }
+
+    @Test
+    void connectionLost_resubscribeExceedingMaximumPacketSizeAlone_fails() throws InterruptedException {
+        final Mqtt5Client client = reconnectingClient("reconnecting");
+        client.connect().done().blockingGet();
+
+        // 2 subscriptions with 19 bytes each do not fit into 40 bytes even with the shortest Subscription Identifier
+        final TestSubscriber<Mqtt5Publish> oversized = client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/oversized/0").build())
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/oversized/1").build())
+                .build()).test();
+        final TestSubscriber<Mqtt5Publish> small = client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("small").build())
+                .build()).test();
+        awaitReceivedSubscribes(2);
+
+        broker.close();
+        broker = MqttEmbeddedBroker.builder().maximumPacketSize(40).build();
+        broker.bindTcp(port);
+        awaitReceivedSubscribes(1);
+
+        oversized.awaitDone(5, TimeUnit.SECONDS).assertError(MqttMaximumPacketSizeExceededException.class);
+        final List<MqttSubscription> resubscribed = broker.getReceivedSubscribes().get(0).getSubscriptions();
+        assertEquals(1, resubscribed.size());
+        assertEquals("small", resubscribed.get(0).getTopicFilter().toString());
+        small.assertNoErrors();
+        small.assertNotTerminated();
+
+        client.disconnect().done().blockingAwait();
+    }
+
+    @Test
+    void disconnect_completesSubscriptionsAndStopsReconnect() {
+        final Mqtt5Client client = reconnectingClient("reconnecting");
+        client.connect().done().blockingGet();
+
+        final TestSubscriber<Mqtt5Publish> publishes = client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").build())
+                .build()).test();
+        client.disconnect().done().blockingAwait();
+
+        publishes.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        final MqttClientReconnectStatistics statistics =
+                client.getReconnectStatistics().orElseThrow(AssertionError::new);
+        assertFalse(statistics.isReconnecting());
+        assertEquals(0, statistics.getRecoveredCount());
+        assertFalse(client.getClientData().isConnected());
+    }
+
+    @Test
+    void subscribeWithStream_notConnected_failsWithoutRecovery() {
+        final Mqtt5Client client = reconnectingClient("reconnecting");
+
+        client.subscribeWithStream(Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/#").build())
+                .build()).test().awaitDone(5, TimeUnit.SECONDS).assertError(Exception.class);
+    }
+
+    private void awaitReceivedSubscribes(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((broker.getReceivedSubscribes().size() < count) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, broker.getReceivedSubscribes().size());
+    }
+
+    private static void publishUntilReceived(
+            final Mqtt5Client publisher, final TestSubscriber<Mqtt5Publish> publishes, final int count)
+            throws InterruptedException {
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((publishes.valueCount() < count) && (System.nanoTime() < deadline)) {
+            publisher.publish(Flowable.just(Mqtt5Publish.builder().topic("test/reconnect").build()))
+                    .blockingSubscribe();
+            Thread.sleep(50);
+        }
+        publishes.assertValueCount(count);
+    }
+
+    private Mqtt5Client reconnectingClient(final String identifier) {
+        return MqttClient.builder()
+                .identifier(identifier)
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .automaticReconnect()
+                .initialDelay(10, TimeUnit.MILLISECONDS)
+                .maxDelay(100, TimeUnit.MILLISECONDS)
+                .done()
+                .buildReactive();
+    }
+
+    private Mqtt5Client client(final String identifier) {
+        return MqttClient.builder()
+                .identifier(identifier)
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .useMqttVersion5()
+                .buildReactive();
+    }
+
+}
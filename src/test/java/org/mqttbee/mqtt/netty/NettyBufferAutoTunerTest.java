@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Silvio Giebl
+ */
+class NettyBufferAutoTunerTest {
+
+    @Test
+    void bufferSize_twiceBandwidthDelayProduct() {
+        // 10 MB/s with 100 ms round trip time => 1 MB in flight
+        assertEquals(2_000_000, NettyBufferAutoTuner.bufferSize(10_000_000, 100_000));
+    }
+
+    @Test
+    void bufferSize_lan_minimum() {
+        assertEquals(NettyBufferAutoTuner.MINIMUM_BUFFER_SIZE, NettyBufferAutoTuner.bufferSize(1_000_000, 200));
+    }
+
+    @Test
+    void bufferSize_satellite_maximum() {
+        assertEquals(NettyBufferAutoTuner.MAXIMUM_BUFFER_SIZE, NettyBufferAutoTuner.bufferSize(100_000_000, 600_000));
+    }
+
+    @Test
+    void tunedBufferSize_grows() {
+        assertEquals(2_000_000, NettyBufferAutoTuner.tunedBufferSize(128 * 1024, 128 * 1024, 10_000_000, 100_000));
+    }
+
+    @Test
+    void tunedBufferSize_neverBelowInitial() {
+        assertEquals(128 * 1024, NettyBufferAutoTuner.tunedBufferSize(2_000_000, 128 * 1024, 1_000, 200));
+    }
+
+    @Test
+    void tunedBufferSize_smallFluctuation_unchanged() {
+        assertEquals(2_000_000, NettyBufferAutoTuner.tunedBufferSize(2_000_000, 128 * 1024, 11_000_000, 100_000));
+    }
+
+}
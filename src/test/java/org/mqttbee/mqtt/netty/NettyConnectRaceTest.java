@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import io.netty.channel.Channel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientConnectStrategy;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.mqtt.MqttClientConnectStrategyImpl;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class NettyConnectRaceTest {
+
+    private static final String LOOPBACK = InetAddress.getLoopbackAddress().getHostAddress();
+
+    private MqttEmbeddedBroker broker;
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        port = broker.bindTcp(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void connect_firstAddressRefused_connectsToNextAddressWithoutAttemptDelay() throws IOException {
+        final int closedPort = closedPort();
+        final Mqtt5Client client = MqttClient.builder()
+                .identifier("client")
+                .serverHost(LOOPBACK)
+                .serverPort(closedPort)
+                .connectStrategy()
+                .serverAddress(LOOPBACK, port)
+                .attemptDelay(1, TimeUnit.MINUTES)
+                .done()
+                .useMqttVersion5()
+                .buildReactive();
+
+        client.connect().done().timeout(10, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals(port, ((InetSocketAddress) channel(client).remoteAddress()).getPort());
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void connect_allAddressesRefused_fails() throws IOException {
+        final Mqtt5Client client = MqttClient.builder()
+                .identifier("client")
+                .serverHost(LOOPBACK)
+                .serverPort(closedPort())
+                .connectStrategy()
+                .serverAddress(LOOPBACK, closedPort())
+                .done()
+                .useMqttVersion5()
+                .buildReactive();
+
+        assertThrows(Exception.class, () -> client.connect().done().timeout(10, TimeUnit.SECONDS).blockingGet());
+        assertFalse(client.getClientData().isConnecting());
+        assertFalse(client.getClientData().isConnected());
+    }
+
+    @Test
+    void candidates_resolveAll_resolvesAndRemovesDuplicates() throws UnknownHostException {
+        final MqttClientConnectStrategyImpl connectStrategy = (MqttClientConnectStrategyImpl) MqttClientConnectStrategy
+                .builder()
+                .serverAddress(LOOPBACK, 1883)
+                .serverAddress(LOOPBACK, 1884)
+                .build();
+
+        final List<InetSocketAddress> candidates = NettyConnectRace.candidates(LOOPBACK, 1883, connectStrategy);
+
+        assertEquals(Arrays.asList(new InetSocketAddress(LOOPBACK, 1883), new InetSocketAddress(LOOPBACK, 1884)),
+                candidates);
+        assertFalse(candidates.get(0).isUnresolved());
+    }
+
+    @Test
+    void candidates_notResolveAll_keepsHostNames() throws UnknownHostException {
+        final MqttClientConnectStrategyImpl connectStrategy = (MqttClientConnectStrategyImpl) MqttClientConnectStrategy
+                .builder()
+                .serverAddress("broker-2.example", 1883)
+                .resolveAllAddresses(false)
+                .build();
+
+        final List<InetSocketAddress> candidates =
+                NettyConnectRace.candidates("broker-1.example", 1883, connectStrategy);
+
+        assertEquals(2, candidates.size());
+        assertTrue(candidates.get(0).isUnresolved());
+        assertEquals("broker-1.example", candidates.get(0).getHostString());
+        assertEquals("broker-2.example", candidates.get(1).getHostString());
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    private static Channel channel(final Mqtt5Client client) {
+        final MqttClientConnectionData clientConnectionData =
+                ((MqttClientData) client.getClientData()).getRawClientConnectionData();
+        return Objects.requireNonNull(clientConnectionData).getChannel();
+    }
+
+}
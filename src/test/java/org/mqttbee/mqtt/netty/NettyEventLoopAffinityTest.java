@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import io.netty.channel.Channel;
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mqttbee.api.mqtt.MqttClient;
+import org.mqttbee.api.mqtt.MqttClientExecutorConfig;
+import org.mqttbee.api.mqtt.MqttClientMetrics;
+import org.mqttbee.api.mqtt.datatypes.MqttQos;
+import org.mqttbee.api.mqtt.mqtt5.Mqtt5Client;
+import org.mqttbee.api.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import org.mqttbee.api.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.mqttbee.mqtt.MqttClientConnectionData;
+import org.mqttbee.mqtt.MqttClientData;
+import org.mqttbee.mqtt.MqttNoopClientMetrics;
+import org.mqttbee.mqtt.broker.MqttEmbeddedBroker;
+
+import java.net.InetAddress;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class NettyEventLoopAffinityTest {
+
+    private MqttEmbeddedBroker broker;
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        broker = MqttEmbeddedBroker.builder().build();
+        port = broker.bindTcp(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void nettyEventLoop_sameIndex_sameEventLoop() {
+        final Executor nettyExecutor = Executors.newCachedThreadPool();
+        final Mqtt5Client client1 = connect("client1", MqttClientExecutorConfig.builder()
+                .nettyExecutor(nettyExecutor)
+                .nettyThreads(4)
+                .nettyEventLoop(5)
+                .build());
+        final Mqtt5Client client2 = connect("client2", MqttClientExecutorConfig.builder()
+                .nettyExecutor(nettyExecutor)
+                .nettyThreads(4)
+                .nettyEventLoop(1)
+                .build());
+
+        assertSame(channel(client1).eventLoop(), channel(client2).eventLoop());
+
+        client1.disconnect().blockingAwait();
+        client2.disconnect().blockingAwait();
+    }
+
+    @Test
+    void applicationOnEventLoop_callbacksOnEventLoop() {
+        final Mqtt5Client client = connect("client", MqttClientExecutorConfig.builder()
+                .nettyEventLoop(0)
+                .applicationOnEventLoop(true)
+                .build());
+        final Channel channel = channel(client);
+
+        final Boolean inEventLoop = client.publish(Flowable.just(Mqtt5Publish.builder()
+                .topic("test/topic")
+                .qos(MqttQos.AT_LEAST_ONCE)
+                .build())).map(result -> channel.eventLoop().inEventLoop()).blockingFirst();
+        assertTrue(inEventLoop);
+
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void applicationInline_incomingPublishesOnEventLoop() {
+        final Mqtt5Client client = connect("client", MqttClientExecutorConfig.builder()
+                .nettyEventLoop(0)
+                .applicationInline(true)
+                .build());
+        final Channel channel = channel(client);
+
+        final TestSubscriber<Boolean> inEventLoop = client.subscribeWithStream(subscribe())
+                .map(publish -> channel.eventLoop().inEventLoop())
+                .take(1)
+                .test();
+        client.publish(Flowable.just(publish())).blockingSubscribe();
+
+        inEventLoop.awaitDone(5, TimeUnit.SECONDS).assertResult(true);
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void applicationInline_slowCallback_reported() {
+        final AtomicLong slowCallbackNanos = new AtomicLong();
+        final MqttClientMetrics metrics = new MqttClientMetrics() {
+            @Override
+            public void onSlowCallback(final long durationNanos) {
+                slowCallbackNanos.set(durationNanos);
+            }
+        };
+        final Mqtt5Client client = connect("client", MqttClientExecutorConfig.builder()
+                .applicationInline(true)
+                .slowCallbackThreshold(1, TimeUnit.MILLISECONDS)
+                .build(), metrics);
+
+        final TestSubscriber<Mqtt5Publish> received = client.subscribeWithStream(subscribe())
+                .doOnNext(publish -> Thread.sleep(5))
+                .take(1)
+                .test();
+        client.publish(Flowable.just(publish())).blockingSubscribe();
+
+        received.awaitDone(5, TimeUnit.SECONDS).assertValueCount(1);
+        assertTrue(slowCallbackNanos.get() >= TimeUnit.MILLISECONDS.toNanos(5));
+        client.disconnect().blockingAwait();
+    }
+
+    @Test
+    void applicationScheduler_slowCallback_notChecked() {
+        final AtomicLong slowCallbackNanos = new AtomicLong();
+        final MqttClientMetrics metrics = new MqttClientMetrics() {
+            @Override
+            public void onSlowCallback(final long durationNanos) {
+                slowCallbackNanos.set(durationNanos);
+            }
+        };
+        final Mqtt5Client client = connect("client", MqttClientExecutorConfig.builder()
+                .slowCallbackThreshold(1, TimeUnit.MILLISECONDS)
+                .build(), metrics);
+
+        final TestSubscriber<Mqtt5Publish> received = client.subscribeWithStream(subscribe())
+                .doOnNext(publish -> Thread.sleep(5))
+                .take(1)
+                .test();
+        client.publish(Flowable.just(publish())).blockingSubscribe();
+
+        received.awaitDone(5, TimeUnit.SECONDS).assertValueCount(1);
+        assertEquals(0, slowCallbackNanos.get());
+        client.disconnect().blockingAwait();
+    }
+
+    private static Mqtt5Subscribe subscribe() {
+        return Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter("test/topic").build())
+                .build();
+    }
+
+    private static Mqtt5Publish publish() {
+        return Mqtt5Publish.builder().topic("test/topic").qos(MqttQos.AT_LEAST_ONCE).build();
+    }
+
+    private Mqtt5Client connect(final String identifier, final MqttClientExecutorConfig executorConfig) {
+        return connect(identifier, executorConfig, MqttNoopClientMetrics.INSTANCE);
+    }
+
+    private Mqtt5Client connect(
+            final String identifier, final MqttClientExecutorConfig executorConfig, final MqttClientMetrics metrics) {
+
+        final Mqtt5Client client = MqttClient.builder()
+                .identifier(identifier)
+                .serverHost(InetAddress.getLoopbackAddress().getHostAddress())
+                .serverPort(port)
+                .executorConfig(executorConfig)
+                .metrics(metrics)
+                .useMqttVersion5()
+                .buildReactive();
+        client.connect().done().blockingGet();
+        return client;
+    }
+
+    private static Channel channel(final Mqtt5Client client) {
+        final MqttClientConnectionData clientConnectionData =
+                ((MqttClientData) client.getClientData()).getRawClientConnectionData();
+        return Objects.requireNonNull(clientConnectionData).getChannel();
+    }
+
+}
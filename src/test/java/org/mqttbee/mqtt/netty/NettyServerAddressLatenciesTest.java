@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.mqtt.netty;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Silvio Giebl
+ */
+class NettyServerAddressLatenciesTest {
+
+    private static final InetSocketAddress ADDRESS_1 = InetSocketAddress.createUnresolved("broker-1", 1883);
+    private static final InetSocketAddress ADDRESS_2 = InetSocketAddress.createUnresolved("broker-2", 1883);
+    private static final InetSocketAddress ADDRESS_3 = InetSocketAddress.createUnresolved("broker-3", 1883);
+
+    @Test
+    void sort_knownByLatency_thenUnknown_thenFailed() {
+        final NettyServerAddressLatencies latencies = new NettyServerAddressLatencies();
+        latencies.onFailed(ADDRESS_1);
+        latencies.onConnected(ADDRESS_3, 1_000);
+
+        final List<InetSocketAddress> sorted = latencies.sort(Arrays.asList(ADDRESS_1, ADDRESS_2, ADDRESS_3));
+
+        assertEquals(Arrays.asList(ADDRESS_3, ADDRESS_2, ADDRESS_1), sorted);
+    }
+
+    @Test
+    void sort_unknown_keepsOrder() {
+        final NettyServerAddressLatencies latencies = new NettyServerAddressLatencies();
+
+        final List<InetSocketAddress> sorted = latencies.sort(Arrays.asList(ADDRESS_2, ADDRESS_1, ADDRESS_3));
+
+        assertEquals(Arrays.asList(ADDRESS_2, ADDRESS_1, ADDRESS_3), sorted);
+    }
+
+    @Test
+    void onConnected_movingAverage() {
+        final NettyServerAddressLatencies latencies = new NettyServerAddressLatencies();
+
+        latencies.onConnected(ADDRESS_1, 1_000);
+        assertEquals(1_000, latencies.getLatencyNanos(ADDRESS_1));
+        latencies.onConnected(ADDRESS_1, 5_000);
+        assertEquals(2_000, latencies.getLatencyNanos(ADDRESS_1));
+    }
+
+    @Test
+    void onConnected_afterFailure_resetsLatency() {
+        final NettyServerAddressLatencies latencies = new NettyServerAddressLatencies();
+
+        latencies.onFailed(ADDRESS_1);
+        assertEquals(-1, latencies.getLatencyNanos(ADDRESS_1));
+        latencies.onConnected(ADDRESS_1, 3_000);
+        assertEquals(3_000, latencies.getLatencyNanos(ADDRESS_1));
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 The MQTT Bee project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.mqttbee.rx;
+
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.CompositeException;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Silvio Giebl
+ */
+class FlowableMapWithErrorTest {
+
+    @Test
+    void map() {
+        new FlowableMapWithError<>(Flowable.range(0, 3), i -> "next" + i, IllegalStateException::new).test()
+                .assertResult("next0", "next1", "next2");
+    }
+
+    @Test
+    void mapError() {
+        final Flowable<Integer> flowable =
+                Flowable.concat(Flowable.just(0), Flowable.error(new IllegalArgumentException("test")));
+
+        final TestSubscriber<String> testSubscriber =
+                new FlowableMapWithError<>(flowable, i -> "next" + i, IllegalStateException::new).test();
+        testSubscriber.assertValue("next0").assertError(IllegalStateException.class);
+        assertEquals("test", testSubscriber.errors().get(0).getCause().getMessage());
+    }
+
+    @Test
+    void mapper_throws_errorMapped() {
+        final TestSubscriber<String> testSubscriber = new FlowableMapWithError<Integer, String>(Flowable.range(0, 3),
+                i -> {
+                    throw new IllegalArgumentException("test");
+                }, IllegalStateException::new).test();
+        testSubscriber.assertNoValues().assertError(IllegalStateException.class);
+    }
+
+    @Test
+    void errorMapper_throws_compositeException() {
+        final TestSubscriber<Integer> testSubscriber =
+                new FlowableMapWithError<Integer, Integer>(Flowable.error(new IllegalArgumentException("test")),
+                        i -> i, throwable -> {
+                    throw new IllegalStateException("mapper");
+                }).test();
+        testSubscriber.assertError(CompositeException.class);
+    }
+
+    @Test
+    void fusion_observeOn() {
+        new FlowableMapWithError<>(Flowable.range(0, 1000), i -> i * 2, IllegalStateException::new)
+                .observeOn(Schedulers.single())
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(1000)
+                .assertComplete();
+    }
+
+}
@@ -210,6 +210,22 @@ class FlowableWithSingleSplitTest {
         assertEquals("test", exception.getMessage());
     }
 
+    @Test
+    void mapError_twice_composed() {
+        final Flowable<? extends CharSequence> flowable = Flowable.error(new IllegalArgumentException("test"));
+        final FlowableWithSingleSplit<? extends CharSequence, StringBuilder, String> flowableWithSingleSplit =
+                new FlowableWithSingleSplit<>(flowable, StringBuilder.class, String.class);
+
+        final IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> flowableWithSingleSplit.mapError(throwable -> new UnsupportedOperationException(
+                        throwable.getMessage() + "1"))
+                        .observeOnBoth(Schedulers.single())
+                        .mapError(throwable -> new IllegalStateException(throwable.getMessage() + "2"))
+                        .blockingSubscribe());
+        assertEquals("test12", exception.getMessage());
+    }
+
     @Test
     void conditional_fusion() {
         final Flowable<? extends CharSequence> flowable =
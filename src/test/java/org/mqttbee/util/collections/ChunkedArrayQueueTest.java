@@ -28,6 +28,17 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class ChunkedArrayQueueTest {
 
+    @Test
+    void empty() {
+        final ChunkedArrayQueue<String> queue = new ChunkedArrayQueue<>(8);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertFalse(queue.iterator().hasNext());
+        queue.clear();
+        assertTrue(queue.isEmpty());
+    }
+
     @Test
     void poll_not_present() {
         final ChunkedArrayQueue<String> queue = new ChunkedArrayQueue<>(8);
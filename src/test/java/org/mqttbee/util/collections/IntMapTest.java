@@ -29,6 +29,16 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class IntMapTest {
 
+    @ParameterizedTest
+    @ValueSource(ints = {12, 1 << 10, 1 << 16, 1 << 28})
+    void empty(final int size) {
+        final IntMap<String> map = IntMap.range(0, size);
+        assertEquals(0, map.size());
+        assertNull(map.get(10));
+        assertNull(map.remove(10));
+        assertThrows(IllegalArgumentException.class, () -> map.get(size + 1));
+    }
+
     @ParameterizedTest
     @ValueSource(ints = {12, 1 << 10, 1 << 16, 1 << 28})
     void put_present(final int size) {